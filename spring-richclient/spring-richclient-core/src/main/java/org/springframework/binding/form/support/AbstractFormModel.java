@@ -126,6 +126,8 @@ public abstract class AbstractFormModel extends AbstractPropertyChangePublisher
 
 	private Class defaultInstanceClass;
 
+	private int batchUpdateDepth;
+
 	protected AbstractFormModel() {
 		this(new ValueHolder());
 	}
@@ -180,19 +182,76 @@ public abstract class AbstractFormModel extends AbstractPropertyChangePublisher
 		return getFormObjectHolder().getValue();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The new form object is set in a
+	 * {@link #beginBatchUpdate() batch update}, so the dirty, committable and
+	 * validation state is updated once after all properties have been changed.
+	 * </p>
+	 */
 	public void setFormObject(Object formObject) {
-		setDeliverValueChangeEvents(false, false);
-		if (formObject == null) {
-			handleSetNullFormObject();
+		beginBatchUpdate();
+		try {
+			setDeliverValueChangeEvents(false, false);
+			if (formObject == null) {
+				handleSetNullFormObject();
+			}
+			else {
+				getFormObjectHolder().setValue(formObject);
+				setEnabled(true);
+			}
+			// this will cause all buffered value models to revert
+			// to the new form objects property values
+			commitTrigger.revert();
+			setDeliverValueChangeEvents(true, true);
 		}
-		else {
-			getFormObjectHolder().setValue(formObject);
-			setEnabled(true);
+		finally {
+			endBatchUpdate();
 		}
-		// this will cause all buffered value models to revert
-		// to the new form objects property values
-		commitTrigger.revert();
-		setDeliverValueChangeEvents(true, true);
+	}
+
+	/**
+	 * Starts a batch update. Until the matching call to
+	 * {@link #endBatchUpdate()} the changes of properties don't fire dirty
+	 * and committable events, and subclasses may postpone other work that
+	 * depends on the properties, like validation. Use this when many
+	 * properties are changed at once. Batch updates can be nested.
+	 */
+	public void beginBatchUpdate() {
+		batchUpdateDepth++;
+	}
+
+	/**
+	 * Ends a batch update. When the outermost batch update ends, the events
+	 * and work that were postponed are done once.
+	 *
+	 * @see #beginBatchUpdate()
+	 */
+	public void endBatchUpdate() {
+		Assert.state(batchUpdateDepth > 0, "No batch update has been started");
+		batchUpdateDepth--;
+		if (batchUpdateDepth == 0) {
+			batchUpdateEnded();
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if a batch update is in progress.
+	 */
+	public boolean isBatchUpdating() {
+		return batchUpdateDepth > 0;
+	}
+
+	/**
+	 * Called when the outermost batch update ends. Fires the dirty and
+	 * committable events that were postponed. Subclasses that postpone work
+	 * during a batch update should do it here and call this method.
+	 */
+	protected void batchUpdateEnded() {
+		dirtyUpdated();
+		committableUpdated();
 	}
 
 	/**
@@ -655,9 +714,13 @@ public abstract class AbstractFormModel extends AbstractPropertyChangePublisher
 
 	/**
 	 * Fires the necessary property change event for changes to the dirty
-	 * property. Must be called whenever the value of dirty is changed.
+	 * property. Must be called whenever the value of dirty is changed. Does
+	 * nothing during a batch update.
 	 */
 	protected void dirtyUpdated() {
+		if (isBatchUpdating()) {
+			return;
+		}
 		boolean dirty = isDirty();
 		if (hasChanged(oldDirty, dirty)) {
 			oldDirty = dirty;
@@ -739,8 +802,12 @@ public abstract class AbstractFormModel extends AbstractPropertyChangePublisher
 	/**
 	 * Fires the necessary property change event for changes to the committable
 	 * property. Must be called whenever the value of committable is changed.
+	 * Does nothing during a batch update.
 	 */
 	protected void committableUpdated() {
+		if (isBatchUpdating()) {
+			return;
+		}
 		boolean committable = isCommittable();
 		if (hasChanged(oldCommittable, committable)) {
 			oldCommittable = committable;
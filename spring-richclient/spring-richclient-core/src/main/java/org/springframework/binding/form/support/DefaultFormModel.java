@@ -15,11 +15,26 @@
  */
 package org.springframework.binding.form.support;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
 import org.springframework.beans.PropertyAccessException;
 import org.springframework.binding.MutablePropertyAccessStrategy;
 import org.springframework.binding.convert.ConversionException;
@@ -27,7 +42,9 @@ import org.springframework.binding.form.BindingErrorMessageProvider;
 import org.springframework.binding.form.HierarchicalFormModel;
 import org.springframework.binding.form.ValidatingFormModel;
 import org.springframework.binding.validation.RichValidator;
+import org.springframework.binding.validation.ThreadSafeValidator;
 import org.springframework.binding.validation.ValidationMessage;
+import org.springframework.binding.validation.ValidationResults;
 import org.springframework.binding.validation.ValidationResultsModel;
 import org.springframework.binding.validation.Validator;
 import org.springframework.binding.validation.support.DefaultValidationResults;
@@ -52,6 +69,40 @@ import org.springframework.rules.support.DefaultRulesSource;
  * </code>
  * Along with this you will need to register your rules using the context id.
  * See {@link DefaultRulesSource#addRules(String, org.springframework.rules.Rules)}.
+ * </p>
+ * <p>
+ * Validation normally runs on the event dispatching thread as soon as a
+ * property changes. For expensive {@link ThreadSafeValidator}s it can be moved
+ * to a background thread by setting a {@link #setValidationExecutor(Executor)
+ * validation executor}: property changes are then collected during the
+ * {@link #setValidationDelay(int) validation delay} and validated together,
+ * the results are merged on the event dispatching thread. Results of a
+ * validation that has been superseded by later changes are discarded. While a
+ * validation is pending the form model isn't committable. Explicit calls to
+ * {@link #validate()} still validate immediately.
+ * </p>
+ * <p>
+ * The validator is called on a background thread with a copy of the form
+ * object, holding the values of the form properties at the time the
+ * validation started, so later edits don't mix with the values it validates.
+ * Only immutable values, like strings, numbers and enums, and dates, which are
+ * copied, are handed to the background thread; other properties of the form
+ * object are copied as they are. Other validators, like the default
+ * {@link RulesValidator} that reads the value models of this form model, form
+ * objects that can't be copied and form properties with other values are
+ * still validated on the event dispatching thread.
+ * </p>
+ * <p>
+ * Calls to the validator never overlap. The event dispatching thread doesn't
+ * wait for a validation that is running on the background thread: if the form
+ * has to be validated immediately, the results of the running validation are
+ * discarded and the form is validated once it returns.
+ * </p>
+ * <p>
+ * During a {@link #beginBatchUpdate() batch update}, e.g. while a new form
+ * object is set, property changes aren't validated one by one; the whole form
+ * object is validated once when the batch update ends.
+ * </p>
  *
  * @author Keith Donald
  * @author Oliver Hutchison
@@ -74,6 +125,34 @@ public class DefaultFormModel extends AbstractFormModel implements ValidatingFor
 
 	private BindingErrorMessageProvider bindingErrorMessageProvider = new DefaultBindingErrorMessageProvider();
 
+	/** Default delay in milliseconds before a background validation starts. */
+	public static final int DEFAULT_VALIDATION_DELAY = 200;
+
+	private Executor validationExecutor;
+
+	private int validationDelay = DEFAULT_VALIDATION_DELAY;
+
+	private Timer validationTimer;
+
+	/** Incremented on every change, results of older validations are discarded. */
+	private int validationGeneration;
+
+	private boolean validationPending;
+
+	private boolean validationRunning;
+
+	/** The form is validated on this thread as soon as the running validation returns. */
+	private boolean validationSuperseded;
+
+	/** The single property changed since the last validation started. */
+	private String pendingValidationProperty;
+
+	/** More than one property changed since the last validation started. */
+	private boolean pendingValidationAllProperties;
+
+	/** A validation was asked for during a batch update. */
+	private boolean batchValidationNeeded;
+
 	public DefaultFormModel() {
 		init();
 	}
@@ -151,6 +230,7 @@ public class DefaultFormModel extends AbstractFormModel implements ValidatingFor
 				validate();
 			}
 			else {
+				cancelPendingValidation();
 				validationResultsModel.clearAllValidationResults();
 			}
 			oldValidating = validating;
@@ -240,6 +320,9 @@ public class DefaultFormModel extends AbstractFormModel implements ValidatingFor
 	}
 
 	protected void hasErrorsUpdated() {
+		if (isBatchUpdating()) {
+			return;
+		}
 		boolean hasErrors = getHasErrors();
 		if (hasChanged(oldHasErrors, hasErrors)) {
 			oldHasErrors = hasErrors;
@@ -274,10 +357,51 @@ public class DefaultFormModel extends AbstractFormModel implements ValidatingFor
 		validate();
 	}
 
+	/**
+	 * Set the executor used to validate on a background thread after a
+	 * property change. <code>null</code>, the default, validates immediately
+	 * on the calling thread. Only {@link ThreadSafeValidator}s are called on
+	 * the executor.
+	 */
+	public void setValidationExecutor(Executor validationExecutor) {
+		this.validationExecutor = validationExecutor;
+		if (validationExecutor == null && validationPending) {
+			cancelPendingValidation();
+			validate();
+		}
+	}
+
+	public Executor getValidationExecutor() {
+		return validationExecutor;
+	}
+
+	/**
+	 * Set the time in milliseconds to wait for further property changes
+	 * before a background validation starts.
+	 */
+	public void setValidationDelay(int validationDelay) {
+		this.validationDelay = validationDelay;
+		if (validationTimer != null) {
+			validationTimer.setInitialDelay(validationDelay);
+		}
+	}
+
+	public int getValidationDelay() {
+		return validationDelay;
+	}
+
+	/**
+	 * @return <code>true</code> if changes are waiting for a background
+	 * validation.
+	 */
+	public boolean isValidationPending() {
+		return validationPending;
+	}
+
 	public boolean isCommittable() {
 		final boolean superIsCommittable = super.isCommittable();
 		final boolean hasNoErrors = !getValidationResults().getHasErrors();
-		return superIsCommittable && hasNoErrors;
+		return superIsCommittable && hasNoErrors && !validationPending;
 	}
 
 	protected ValueModel preProcessNewValueModel(String formProperty, ValueModel formValueModel) {
@@ -310,20 +434,217 @@ public class DefaultFormModel extends AbstractFormModel implements ValidatingFor
 	 * this is not known/available.
 	 */
 	protected void validateAfterPropertyChanged(String formProperty) {
+		if (isBatchUpdating()) {
+			batchValidationNeeded = true;
+			return;
+		}
 		if (isValidating()) {
 			Validator validator = getValidator();
 			if (validator != null) {
-				DefaultValidationResults validationResults = new DefaultValidationResults(bindingErrorMessages.values());
-				if (formProperty != null && validator instanceof RichValidator) {
-					validationResults.addAllMessages(((RichValidator) validator)
-							.validate(getFormObject(), formProperty));
+				if (validationExecutor != null && formProperty != null && validator instanceof ThreadSafeValidator) {
+					scheduleValidation(formProperty);
+					return;
+				}
+				cancelPendingValidation();
+				if (validationRunning) {
+					// the validator is busy on the background thread
+					validationSuperseded = true;
+					setValidationPending(true);
+					return;
+				}
+				updateValidationResults(invokeValidator(validator, getFormObject(), formProperty));
+			}
+		}
+	}
+
+	/**
+	 * Validates the whole form object once if any validation was asked for
+	 * during the batch update, then fires the postponed events.
+	 */
+	protected void batchUpdateEnded() {
+		if (batchValidationNeeded) {
+			batchValidationNeeded = false;
+			validate();
+		}
+		hasErrorsUpdated();
+		super.batchUpdateEnded();
+	}
+
+	private ValidationResults invokeValidator(Validator validator, Object formObject, String formProperty) {
+		if (formProperty != null && validator instanceof RichValidator) {
+			return ((RichValidator) validator).validate(formObject, formProperty);
+		}
+		return validator.validate(formObject);
+	}
+
+	private void updateValidationResults(ValidationResults validatorResults) {
+		DefaultValidationResults validationResults = new DefaultValidationResults(bindingErrorMessages.values());
+		validationResults.addAllMessages(validatorResults);
+		validationResults.addAllMessages(additionalValidationResults);
+		validationResultsModel.updateValidationResults(validationResults);
+	}
+
+	/**
+	 * Remember the changed property and (re)start the validation timer.
+	 */
+	private void scheduleValidation(String formProperty) {
+		if (pendingValidationProperty == null && !pendingValidationAllProperties) {
+			pendingValidationProperty = formProperty;
+		}
+		else if (!formProperty.equals(pendingValidationProperty)) {
+			pendingValidationAllProperties = true;
+		}
+		validationGeneration++;
+		setValidationPending(true);
+		if (validationTimer == null) {
+			validationTimer = new Timer(validationDelay, new ActionListener() {
+
+				public void actionPerformed(ActionEvent e) {
+					if (!validationRunning) {
+						startBackgroundValidation();
+					}
+				}
+			});
+			validationTimer.setRepeats(false);
+		}
+		validationTimer.restart();
+	}
+
+	private void startBackgroundValidation() {
+		final Object formObject = createValidationSnapshot();
+		final Validator validator = getValidator();
+		if (formObject == null || !(validator instanceof ThreadSafeValidator)) {
+			// validate on this thread after all
+			cancelPendingValidation();
+			validate();
+			return;
+		}
+		final int generation = validationGeneration;
+		final String formProperty = pendingValidationAllProperties ? null : pendingValidationProperty;
+		pendingValidationProperty = null;
+		pendingValidationAllProperties = false;
+		validationRunning = true;
+		validationExecutor.execute(new Runnable() {
+
+			public void run() {
+				ValidationResults results = null;
+				RuntimeException failure = null;
+				try {
+					// the validator may reuse its results object on the next call
+					results = new DefaultValidationResults(invokeValidator(validator, formObject, formProperty));
 				}
-				else {
-					validationResults.addAllMessages(validator.validate(getFormObject()));
+				catch (RuntimeException e) {
+					failure = e;
 				}
-				validationResults.addAllMessages(additionalValidationResults);
-				validationResultsModel.updateValidationResults(validationResults);
+				final ValidationResults validatorResults = results;
+				final RuntimeException validationFailure = failure;
+				SwingUtilities.invokeLater(new Runnable() {
+
+					public void run() {
+						backgroundValidationDone(generation, validatorResults);
+						if (validationFailure != null) {
+							throw validationFailure;
+						}
+					}
+				});
 			}
+		});
+	}
+
+	/**
+	 * Creates the copy of the form object that is validated on the background
+	 * thread: a new instance of its class with the properties of the form
+	 * object and the current values of the form properties. Returns
+	 * <code>null</code> if no such copy can be made, e.g. for nested form
+	 * properties, whose objects would be shared with the form object, or for
+	 * form property values that the event dispatching thread could change
+	 * while they are validated.
+	 *
+	 * @see #copyValidationValue(Object)
+	 */
+	protected Object createValidationSnapshot() {
+		Object formObject = getFormObject();
+		if (formObject == null) {
+			return null;
+		}
+		try {
+			Object snapshot = BeanUtils.instantiateClass(formObject.getClass());
+			BeanUtils.copyProperties(formObject, snapshot);
+			BeanWrapper snapshotWrapper = new BeanWrapperImpl(snapshot);
+			for (Iterator i = getFieldNames().iterator(); i.hasNext();) {
+				String formProperty = (String) i.next();
+				if (formProperty.indexOf('.') != -1 || formProperty.indexOf('[') != -1) {
+					return null;
+				}
+				if (snapshotWrapper.isWritableProperty(formProperty)) {
+					Object value = getValueModel(formProperty).getValue();
+					Object copy = copyValidationValue(value);
+					if (copy == null && value != null) {
+						return null;
+					}
+					snapshotWrapper.setPropertyValue(formProperty, copy);
+				}
+			}
+			return snapshot;
+		}
+		catch (BeansException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a value that the background thread can validate while the value
+	 * of the form property changes: immutable values themselves and a copy of
+	 * a date. Returns <code>null</code> for other values, so the form is
+	 * validated on the event dispatching thread.
+	 */
+	protected Object copyValidationValue(Object value) {
+		if (value instanceof String || value instanceof Boolean || value instanceof Character
+				|| value instanceof Integer || value instanceof Long || value instanceof Short
+				|| value instanceof Byte || value instanceof Double || value instanceof Float
+				|| value instanceof BigDecimal || value instanceof BigInteger || value instanceof Enum
+				|| value instanceof Class || value instanceof Locale) {
+			return value;
+		}
+		if (value instanceof Date) {
+			return ((Date) value).clone();
+		}
+		return null;
+	}
+
+	private void backgroundValidationDone(int generation, ValidationResults validatorResults) {
+		validationRunning = false;
+		if (validationSuperseded) {
+			validationSuperseded = false;
+			cancelPendingValidation();
+			validate();
+		}
+		else if (generation == validationGeneration) {
+			if (validatorResults != null && isValidating()) {
+				updateValidationResults(validatorResults);
+			}
+			setValidationPending(false);
+		}
+		else if (validationPending && !validationTimer.isRunning()) {
+			// changes arrived while validating and their delay already passed
+			startBackgroundValidation();
+		}
+	}
+
+	private void cancelPendingValidation() {
+		validationGeneration++;
+		pendingValidationProperty = null;
+		pendingValidationAllProperties = false;
+		if (validationTimer != null) {
+			validationTimer.stop();
+		}
+		setValidationPending(false);
+	}
+
+	private void setValidationPending(boolean validationPending) {
+		if (this.validationPending != validationPending) {
+			this.validationPending = validationPending;
+			committableUpdated();
 		}
 	}
 
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.binding.format.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.binding.format.Formatter;
+import org.springframework.binding.format.FormatterFactory;
+import org.springframework.binding.format.Style;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link FormatterFactory} decorator that remembers the formatters it
+ * returns, so the decorated factory doesn't create a new formatter and format
+ * for every value that is converted.
+ * <p>
+ * Formatters keep state while formatting or parsing, so they're remembered per
+ * thread: a formatter returned by this factory must only be used by the thread
+ * that asked for it. They're also remembered per locale, so a formatter for the
+ * current locale is returned after the locale has changed.
+ */
+public class CachingFormatterFactory implements FormatterFactory {
+
+	private final FormatterFactory formatterFactory;
+
+	private volatile ThreadLocal formatters = createFormattersHolder();
+
+	/**
+	 * @param formatterFactory the factory that creates the formatters.
+	 */
+	public CachingFormatterFactory(FormatterFactory formatterFactory) {
+		Assert.notNull(formatterFactory, "formatterFactory must not be null");
+		this.formatterFactory = formatterFactory;
+	}
+
+	/**
+	 * @return the factory that creates the formatters.
+	 */
+	public FormatterFactory getFormatterFactory() {
+		return formatterFactory;
+	}
+
+	public Formatter getDateFormatter() {
+		List key = createKey("date", null, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getDateFormatter());
+		}
+		return formatter;
+	}
+
+	public Formatter getDateFormatter(String encodedFormat) {
+		List key = createKey("date", encodedFormat, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getDateFormatter(encodedFormat));
+		}
+		return formatter;
+	}
+
+	public Formatter getDateFormatter(Style style) {
+		List key = createKey("date", style, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getDateFormatter(style));
+		}
+		return formatter;
+	}
+
+	public Formatter getDateTimeFormatter() {
+		List key = createKey("dateTime", null, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getDateTimeFormatter());
+		}
+		return formatter;
+	}
+
+	public Formatter getDateTimeFormatter(Style dateStyle, Style timeStyle) {
+		List key = createKey("dateTime", dateStyle, timeStyle);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getDateTimeFormatter(dateStyle, timeStyle));
+		}
+		return formatter;
+	}
+
+	public Formatter getTimeFormatter() {
+		List key = createKey("time", null, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getTimeFormatter());
+		}
+		return formatter;
+	}
+
+	public Formatter getTimeFormatter(Style style) {
+		List key = createKey("time", style, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getTimeFormatter(style));
+		}
+		return formatter;
+	}
+
+	public Formatter getNumberFormatter(Class numberClass) {
+		List key = createKey("number", numberClass, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getNumberFormatter(numberClass));
+		}
+		return formatter;
+	}
+
+	public Formatter getPercentFormatter() {
+		List key = createKey("percent", null, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getPercentFormatter());
+		}
+		return formatter;
+	}
+
+	public Formatter getCurrencyFormatter() {
+		List key = createKey("currency", null, null);
+		Formatter formatter = getCachedFormatter(key);
+		if (formatter == null) {
+			formatter = cacheFormatter(key, formatterFactory.getCurrencyFormatter());
+		}
+		return formatter;
+	}
+
+	/**
+	 * Forget the formatters of all threads.
+	 */
+	public void clear() {
+		formatters = createFormattersHolder();
+	}
+
+	private ThreadLocal createFormattersHolder() {
+		return new ThreadLocal() {
+			protected Object initialValue() {
+				return new HashMap();
+			}
+		};
+	}
+
+	private List createKey(String type, Object argument1, Object argument2) {
+		return Arrays.asList(new Object[] { type, argument1, argument2, getLocale() });
+	}
+
+	/**
+	 * Returns the locale the decorated factory creates formatters for.
+	 */
+	private Locale getLocale() {
+		if (formatterFactory instanceof AbstractFormatterFactory) {
+			return ((AbstractFormatterFactory) formatterFactory).getLocale();
+		}
+		return LocaleContextHolder.getLocale();
+	}
+
+	private Formatter getCachedFormatter(List key) {
+		return (Formatter) ((Map) formatters.get()).get(key);
+	}
+
+	private Formatter cacheFormatter(List key, Formatter formatter) {
+		((Map) formatters.get()).put(key, formatter);
+		return formatter;
+	}
+}
@@ -0,0 +1,58 @@
+package org.springframework.binding.format.support;
+
+import java.text.AttributedCharacterIterator;
+import java.text.FieldPosition;
+import java.text.Format;
+import java.text.ParsePosition;
+
+import org.springframework.util.Assert;
+
+/**
+ * A thread safe decorator for a {@link Format}. The formats of the JDK keep
+ * state while formatting or parsing, so a shared instance must not be used by
+ * more than one thread at a time. This decorator gives every thread its own
+ * clone of the decorated format, so it can be kept in a static field and used
+ * both on the event dispatch thread and by background threads.
+ */
+public class ThreadLocalFormat extends Format {
+
+	private final Format prototype;
+
+	private final ThreadLocal formats = new ThreadLocal() {
+		protected Object initialValue() {
+			return prototype.clone();
+		}
+	};
+
+	/**
+	 * @param prototype the format that is cloned for each thread. It should
+	 * not be changed after it has been passed in.
+	 */
+	public ThreadLocalFormat(Format prototype) {
+		Assert.notNull(prototype, "prototype must not be null");
+		this.prototype = prototype;
+	}
+
+	/**
+	 * Returns the format of the current thread.
+	 */
+	public Format getFormat() {
+		return (Format) formats.get();
+	}
+
+	public StringBuffer format(Object obj, StringBuffer toAppendTo, FieldPosition pos) {
+		return getFormat().format(obj, toAppendTo, pos);
+	}
+
+	public AttributedCharacterIterator formatToCharacterIterator(Object obj) {
+		return getFormat().formatToCharacterIterator(obj);
+	}
+
+	public Object parseObject(String source, ParsePosition pos) {
+		return getFormat().parseObject(source, pos);
+	}
+
+	public String toString() {
+		return "ThreadLocalFormat[" + prototype + "]";
+	}
+}
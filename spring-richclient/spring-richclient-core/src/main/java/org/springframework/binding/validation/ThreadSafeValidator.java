@@ -0,0 +1,30 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.binding.validation;
+
+/**
+ * Marks a {@link Validator} that can be called on a background thread: it only
+ * reads the object it is given, and doesn't read the form model, its value
+ * models or any Swing component.
+ * <p>
+ * Form models only validate on a background thread with such a validator, and
+ * hand it a copy of the form object that the event dispatching thread doesn't
+ * change.
+ *
+ * @see org.springframework.binding.form.support.DefaultFormModel#setValidationExecutor(java.util.concurrent.Executor)
+ */
+public interface ThreadSafeValidator extends Validator {
+}
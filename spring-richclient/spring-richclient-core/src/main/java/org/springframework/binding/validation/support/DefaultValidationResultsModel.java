@@ -32,7 +32,6 @@ import org.springframework.richclient.core.Severity;
 import org.springframework.richclient.util.Assert;
 import org.springframework.richclient.util.EventListenerListHelper;
 import org.springframework.util.CachingMapDecorator;
-import org.springframework.util.ObjectUtils;
 
 /**
  * Default implementation of {@link ValidationResultsModel}. Several events are
@@ -91,6 +90,20 @@ import org.springframework.util.ObjectUtils;
 public class DefaultValidationResultsModel implements ValidationResultsModel, ValidationListener,
 		PropertyChangeListener {
 
+	private static final EventListenerListHelper.EventDispatcher VALIDATION_RESULTS_CHANGED = new EventListenerListHelper.EventDispatcher() {
+
+		public void dispatch(Object listener, Object event) {
+			((ValidationListener) listener).validationResultsChanged((ValidationResults) event);
+		}
+	};
+
+	private static final EventListenerListHelper.EventDispatcher PROPERTY_CHANGE = new EventListenerListHelper.EventDispatcher() {
+
+		public void dispatch(Object listener, Object event) {
+			((PropertyChangeListener) listener).propertyChange((PropertyChangeEvent) event);
+		}
+	};
+
 	private final EventListenerListHelper validationListeners = new EventListenerListHelper(ValidationListener.class);
 
 	private final CachingMapDecorator propertyValidationListeners = new CachingMapDecorator() {
@@ -114,7 +127,7 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 	private List children = new ArrayList();
 
 	/** The actual results for this instance only. */
-	private ValidationResults validationResults = EmptyValidationResults.INSTANCE;
+	private final IndexedValidationResults validationResults = new IndexedValidationResults();
 
 	/** Error bookkeeping. */
 	private boolean hasErrors = false;
@@ -125,6 +138,15 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 	/** Info bookkeeping. */
 	private boolean hasInfo = false;
 
+	/** Nesting level of {@link #beginUpdate()} calls. */
+	private int updateDepth = 0;
+
+	/** Whether the results changed during the current update. */
+	private boolean resultsChanged = false;
+
+	/** Properties of which the messages changed during the current update. */
+	private final Set changedProperties = new HashSet();
+
 	/**
 	 * Constructor without delegate. (Delegating for 'this').
 	 */
@@ -141,63 +163,111 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 		this.delegateFor = delegateFor;
 	}
 
+	/**
+	 * Start a batch of changes. Until the matching {@link #endUpdate()} no
+	 * events are fired, afterwards each listener is notified at most once for
+	 * all changes made in between. Calls may be nested, events are fired when
+	 * the outermost batch ends.
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * End a batch of changes started with {@link #beginUpdate()} and fire the
+	 * collected events.
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0) {
+			throw new IllegalStateException("endUpdate() called without matching beginUpdate()");
+		}
+		if (--updateDepth == 0 && resultsChanged) {
+			resultsChanged = false;
+			String[] propertyNames = (String[]) changedProperties.toArray(new String[changedProperties.size()]);
+			changedProperties.clear();
+			fireChangedEvents();
+			for (int i = 0; i < propertyNames.length; i++) {
+				if (propertyValidationListeners.containsKey(propertyNames[i])) {
+					fireValidationResultsChanged(propertyNames[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if a batch of changes is in progress.
+	 * @see #beginUpdate()
+	 */
+	public boolean isUpdating() {
+		return updateDepth > 0;
+	}
+
 	public void updateValidationResults(ValidationResults newValidationResults) {
 		Assert.required(newValidationResults, "newValidationResults");
-		ValidationResults oldValidationResults = validationResults;
-		validationResults = newValidationResults;
-		if (oldValidationResults.getMessageCount() == 0 && validationResults.getMessageCount() == 0) {
+		if (validationResults.getMessageCount() == 0 && newValidationResults.getMessageCount() == 0) {
 			return;
 		}
-		fireChangedEvents();
-		for (Iterator i = propertyValidationListeners.keySet().iterator(); i.hasNext();) {
-			String propertyName = (String) i.next();
-			if (oldValidationResults.getMessageCount(propertyName) > 0
-					|| validationResults.getMessageCount(propertyName) > 0) {
-				fireValidationResultsChanged(propertyName);
-			}
+		beginUpdate();
+		try {
+			markChanged(validationResults.getPropertyNames());
+			validationResults.clearMessages();
+			validationResults.addAllMessages(newValidationResults.getMessages());
+			markChanged(validationResults.getPropertyNames());
+		}
+		finally {
+			endUpdate();
 		}
 	}
 
-	// TODO: test
 	public void addMessage(ValidationMessage validationMessage) {
-		if (!validationResults.getMessages().contains(validationMessage)) {
-			ValidationResults oldValidationResults = validationResults;
-			List newMessages = new ArrayList(oldValidationResults.getMessages());
-			newMessages.add(validationMessage);
-			validationResults = new DefaultValidationResults(newMessages);
-			fireChangedEvents();
-			fireValidationResultsChanged(validationMessage.getProperty());
+		beginUpdate();
+		try {
+			if (validationResults.addMessage(validationMessage)) {
+				markChanged(validationMessage.getProperty());
+			}
+		}
+		finally {
+			endUpdate();
 		}
 	}
 
-	// TODO: test
 	public void removeMessage(ValidationMessage validationMessage) {
-		if (validationResults.getMessages().contains(validationMessage)) {
-			ValidationResults oldValidationResults = validationResults;
-			List newMessages = new ArrayList(oldValidationResults.getMessages());
-			newMessages.remove(validationMessage);
-			validationResults = new DefaultValidationResults(newMessages);
-			fireChangedEvents();
-			fireValidationResultsChanged(validationMessage.getProperty());
+		beginUpdate();
+		try {
+			if (validationResults.removeMessage(validationMessage)) {
+				markChanged(validationMessage.getProperty());
+			}
+		}
+		finally {
+			endUpdate();
 		}
 	}
 
-	// TODO: test
 	public void replaceMessage(ValidationMessage messageToReplace, ValidationMessage replacementMessage) {
-		ValidationResults oldValidationResults = validationResults;
-		List newMessages = new ArrayList(oldValidationResults.getMessages());
-		final boolean containsMessageToReplace = validationResults.getMessages().contains(messageToReplace);
-		if (containsMessageToReplace) {
-			newMessages.remove(messageToReplace);
+		beginUpdate();
+		try {
+			if (messageToReplace != null && validationResults.removeMessage(messageToReplace)) {
+				markChanged(messageToReplace.getProperty());
+			}
+			if (validationResults.addMessage(replacementMessage)) {
+				markChanged(replacementMessage.getProperty());
+			}
 		}
-		newMessages.add(replacementMessage);
-		validationResults = new DefaultValidationResults(newMessages);
-		fireChangedEvents();
-		if (containsMessageToReplace
-				&& !ObjectUtils.nullSafeEquals(messageToReplace.getProperty(), replacementMessage.getProperty())) {
-			fireValidationResultsChanged(messageToReplace.getProperty());
+		finally {
+			endUpdate();
+		}
+	}
+
+	private void markChanged(String propertyName) {
+		resultsChanged = true;
+		changedProperties.add(propertyName);
+	}
+
+	private void markChanged(Set propertyNames) {
+		if (!propertyNames.isEmpty()) {
+			resultsChanged = true;
+			changedProperties.addAll(propertyNames);
 		}
-		fireValidationResultsChanged(replacementMessage.getProperty());
 	}
 
 	public void clearAllValidationResults() {
@@ -399,7 +469,7 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 	}
 
 	protected void fireValidationResultsChanged() {
-		validationListeners.fire("validationResultsChanged", delegateFor);
+		validationListeners.dispatch(VALIDATION_RESULTS_CHANGED, delegateFor);
 	}
 
 	protected void fireValidationResultsChanged(String propertyName) {
@@ -418,7 +488,7 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 			if (propertyChangeListeners.hasListeners()) {
 				PropertyChangeEvent event = new PropertyChangeEvent(delegateFor, propertyName, Boolean
 						.valueOf(oldValue), Boolean.valueOf(newValue));
-				propertyChangeListeners.fire("propertyChange", event);
+				propertyChangeListeners.dispatch(PROPERTY_CHANGE, event);
 			}
 		}
 	}
@@ -444,7 +514,7 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 			validationResultsModel.addPropertyChangeListener(HAS_WARNINGS_PROPERTY, this);
 			validationResultsModel.addPropertyChangeListener(HAS_INFO_PROPERTY, this);
 			if ((validationResultsModel.getMessageCount() > 0))
-				fireChangedEvents();
+				childChanged();
 		}
 	}
 
@@ -461,7 +531,7 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 			validationResultsModel.removePropertyChangeListener(HAS_WARNINGS_PROPERTY, this);
 			validationResultsModel.removePropertyChangeListener(HAS_INFO_PROPERTY, this);
 			if (validationResultsModel.getMessageCount() > 0)
-				fireChangedEvents();
+				childChanged();
 		}
 	}
 
@@ -470,7 +540,25 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 	 * validationListener on it's children to forward the event.
 	 */
 	public void validationResultsChanged(ValidationResults results) {
-		fireValidationResultsChanged();
+		if (isUpdating()) {
+			resultsChanged = true;
+		}
+		else {
+			fireValidationResultsChanged();
+		}
+	}
+
+	/**
+	 * Fire the events for a change in the children, postponed if a batch is in
+	 * progress.
+	 */
+	private void childChanged() {
+		if (isUpdating()) {
+			resultsChanged = true;
+		}
+		else {
+			fireChangedEvents();
+		}
 	}
 
 	/**
@@ -479,7 +567,9 @@ public class DefaultValidationResultsModel implements ValidationResultsModel, Va
 	 * events as needed.
 	 */
 	public void propertyChange(PropertyChangeEvent evt) {
-		if (evt.getPropertyName() == HAS_ERRORS_PROPERTY)
+		if (isUpdating())
+			resultsChanged = true;
+		else if (evt.getPropertyName() == HAS_ERRORS_PROPERTY)
 			updateErrors();
 		else if (evt.getPropertyName() == HAS_WARNINGS_PROPERTY)
 			updateWarnings();
@@ -3,17 +3,25 @@ package org.springframework.binding.validation.support;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.swing.SwingUtilities;
+
 import org.hibernate.validator.AssertFalse;
 import org.hibernate.validator.AssertTrue;
 import org.hibernate.validator.ClassValidator;
 import org.hibernate.validator.InvalidValue;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.binding.form.ValidatingFormModel;
 import org.springframework.binding.validation.RichValidator;
+import org.springframework.binding.validation.ThreadSafeValidator;
 import org.springframework.binding.validation.ValidationMessage;
 import org.springframework.binding.validation.ValidationResults;
 import org.springframework.binding.validation.Validator;
@@ -57,12 +65,21 @@ import org.springframework.rules.reporting.ObjectNameResolver;
  * {@link AssertTrue} or {@link AssertFalse} methods on <code>SomeClass</code>.
  * </p>
  *
+ * <p>
+ * The form model is only read on the event dispatching thread, so a
+ * {@link org.springframework.binding.form.support.DefaultFormModel} with a
+ * validation executor can validate on a background thread. When it validates
+ * another object than the form object, like the copy that is validated on the
+ * background thread, the values are read from that object instead of the value
+ * models.
+ * </p>
+ *
  * @author Andy DuPue
  * @author Lieven Doclo
  * @author Jan Hoskens
  */
 @SuppressWarnings("unchecked")
-public class HibernateRulesValidator implements RichValidator, ObjectNameResolver {
+public class HibernateRulesValidator implements RichValidator, ThreadSafeValidator, ObjectNameResolver {
 
 
 	private ValidatingFormModel formModel;
@@ -128,7 +145,13 @@ public class HibernateRulesValidator implements RichValidator, ObjectNameResolve
 			results.clearMessages(propertyName);
 		}
 
-		addInvalidValues(doHibernateValidate(object, propertyName));
+		final InvalidValue[] invalidValues = doHibernateValidate(object, propertyName);
+		// the messages are translated with the faces of the form model
+		runOnEventDispatchThread(new Runnable() {
+			public void run() {
+				addInvalidValues(invalidValues);
+			}
+		});
 		return results;
 	}
 
@@ -160,11 +183,46 @@ public class HibernateRulesValidator implements RichValidator, ObjectNameResolve
 	 * errors
 	 */
 	protected InvalidValue[] doHibernateValidate(final Object object, final String property) {
+		final Map<String, Object> values = new LinkedHashMap<String, Object>();
+		final boolean[] formObject = new boolean[1];
+		runOnEventDispatchThread(new Runnable() {
+			public void run() {
+				formObject[0] = object == formModel.getFormObject();
+				for (String propertyName : getValidatedProperties(object, property)) {
+					values.put(propertyName, formObject[0] ? formModel.getValueModel(propertyName).getValue() : null);
+				}
+			}
+		});
+		if (!formObject[0]) {
+			BeanWrapper beanWrapper = new BeanWrapperImpl(object);
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				entry.setValue(beanWrapper.getPropertyValue(entry.getKey()));
+			}
+		}
+
+		final List<InvalidValue> ret = new ArrayList<InvalidValue>();
+		for (Map.Entry<String, Object> entry : values.entrySet()) {
+			final InvalidValue[] result = hibernateValidator.getPotentialInvalidValues(entry.getKey(), entry.getValue());
+			if (result != null) {
+				for (final InvalidValue r : result) {
+					ret.add(r);
+				}
+			}
+		}
+		return ret.toArray(new InvalidValue[ret.size()]);
+	}
+
+	/**
+	 * Returns the properties of the form model that are validated, on the event
+	 * dispatching thread.
+	 */
+	private List<String> getValidatedProperties(Object object, String property) {
+		List<String> properties = new ArrayList<String>();
 		if (property == null) {
-			final List<InvalidValue> ret = new ArrayList<InvalidValue>();
 			PropertyDescriptor[] propertyDescriptors;
 			try {
-				propertyDescriptors = Introspector.getBeanInfo(object.getClass()).getPropertyDescriptors();
+				propertyDescriptors = Introspector.getBeanInfo(object != null ? object.getClass() : beanClass)
+						.getPropertyDescriptors();
 			}
 			catch (IntrospectionException e) {
 				throw new IllegalStateException("Could not retrieve property information");
@@ -172,22 +230,36 @@ public class HibernateRulesValidator implements RichValidator, ObjectNameResolve
 			for (final PropertyDescriptor prop : propertyDescriptors) {
 				String propertyName = prop.getName();
 				if (formModel.hasValueModel(propertyName) && !ignoredHibernateProperties.contains(propertyName)) {
-					final InvalidValue[] result = hibernateValidator.getPotentialInvalidValues(propertyName, formModel
-							.getValueModel(propertyName).getValue());
-					if (result != null) {
-						for (final InvalidValue r : result) {
-							ret.add(r);
-						}
-					}
+					properties.add(propertyName);
 				}
 			}
-			return ret.toArray(new InvalidValue[ret.size()]);
 		}
 		else if (!ignoredHibernateProperties.contains(property) && formModel.hasValueModel(property)) {
-			return hibernateValidator.getPotentialInvalidValues(property, formModel.getValueModel(property).getValue());
+			properties.add(property);
 		}
-		else {
-			return null;
+		return properties;
+	}
+
+	private void runOnEventDispatchThread(Runnable runnable) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			runnable.run();
+			return;
+		}
+		try {
+			SwingUtilities.invokeAndWait(runnable);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while reading the form model");
+		}
+		catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Unable to read the form model", e.getCause());
 		}
 	}
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.binding.validation.support;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.binding.validation.ValidationMessage;
+import org.springframework.binding.validation.ValidationResults;
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.richclient.core.Severity;
+
+/**
+ * Mutable {@link ValidationResults} that keeps its messages indexed by property
+ * and by severity. Adding or removing a message only touches the two index
+ * entries of that message, so counts and subsets are available without
+ * scanning or copying the complete set of messages.
+ *
+ * <p>
+ * The sets returned by the <code>getMessages</code> methods are unmodifiable
+ * views on the live indexes and will reflect later changes.
+ * </p>
+ *
+ * @see DefaultValidationResultsModel
+ */
+public class IndexedValidationResults implements ValidationResults {
+
+    private final Set messages = new HashSet();
+
+    /** Property name (may be <code>null</code>) to Set of messages. */
+    private final Map messagesByProperty = new HashMap();
+
+    /** Severity to Set of messages. */
+    private final Map messagesBySeverity = new HashMap();
+
+    /**
+     * Add a message.
+     *
+     * @return <code>true</code> if the message wasn't present yet.
+     */
+    public boolean addMessage(ValidationMessage message) {
+        if (!messages.add(message)) {
+            return false;
+        }
+        getIndex(messagesByProperty, message.getProperty(), true).add(message);
+        getIndex(messagesBySeverity, message.getSeverity(), true).add(message);
+        return true;
+    }
+
+    /**
+     * Remove a message.
+     *
+     * @return <code>true</code> if the message was present.
+     */
+    public boolean removeMessage(ValidationMessage message) {
+        if (!messages.remove(message)) {
+            return false;
+        }
+        removeFromIndex(messagesByProperty, message.getProperty(), message);
+        removeFromIndex(messagesBySeverity, message.getSeverity(), message);
+        return true;
+    }
+
+    public boolean containsMessage(ValidationMessage message) {
+        return messages.contains(message);
+    }
+
+    /**
+     * Remove all messages.
+     */
+    public void clearMessages() {
+        messages.clear();
+        messagesByProperty.clear();
+        messagesBySeverity.clear();
+    }
+
+    /**
+     * @return the names of all properties that currently have at least one
+     * message, may contain <code>null</code> for global messages.
+     */
+    public Set getPropertyNames() {
+        return Collections.unmodifiableSet(messagesByProperty.keySet());
+    }
+
+    public boolean getHasErrors() {
+        return getMessageCount(Severity.ERROR) > 0;
+    }
+
+    public boolean getHasWarnings() {
+        return getMessageCount(Severity.WARNING) > 0;
+    }
+
+    public boolean getHasInfo() {
+        return getMessageCount(Severity.INFO) > 0;
+    }
+
+    public int getMessageCount() {
+        return messages.size();
+    }
+
+    public int getMessageCount(Severity severity) {
+        Set index = getIndex(messagesBySeverity, severity, false);
+        return index == null ? 0 : index.size();
+    }
+
+    public int getMessageCount(String propertyName) {
+        Set index = getIndex(messagesByProperty, propertyName, false);
+        return index == null ? 0 : index.size();
+    }
+
+    public Set getMessages() {
+        return Collections.unmodifiableSet(messages);
+    }
+
+    public Set getMessages(Severity severity) {
+        Set index = getIndex(messagesBySeverity, severity, false);
+        return index == null ? Collections.EMPTY_SET : Collections.unmodifiableSet(index);
+    }
+
+    public Set getMessages(String propertyName) {
+        Set index = getIndex(messagesByProperty, propertyName, false);
+        return index == null ? Collections.EMPTY_SET : Collections.unmodifiableSet(index);
+    }
+
+    /**
+     * Add all given messages.
+     */
+    public void addAllMessages(Collection validationMessages) {
+        for (Iterator i = validationMessages.iterator(); i.hasNext();) {
+            addMessage((ValidationMessage) i.next());
+        }
+    }
+
+    private Set getIndex(Map indexes, Object key, boolean create) {
+        Set index = (Set) indexes.get(key);
+        if (index == null && create) {
+            index = new HashSet();
+            indexes.put(key, index);
+        }
+        return index;
+    }
+
+    private void removeFromIndex(Map indexes, Object key, ValidationMessage message) {
+        Set index = (Set) indexes.get(key);
+        if (index != null && index.remove(message) && index.isEmpty()) {
+            indexes.remove(key);
+        }
+    }
+
+    public String toString() {
+        return new ToStringCreator(this).append("messages", getMessages()).toString();
+    }
+}
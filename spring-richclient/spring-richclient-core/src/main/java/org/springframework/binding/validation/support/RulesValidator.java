@@ -17,6 +17,7 @@ package org.springframework.binding.validation.support;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.logging.Log;
@@ -37,6 +38,7 @@ import org.springframework.rules.reporting.MessageTranslator;
 import org.springframework.rules.reporting.MessageTranslatorFactory;
 import org.springframework.rules.reporting.ObjectNameResolver;
 import org.springframework.rules.reporting.PropertyResults;
+import org.springframework.rules.support.DefaultRulesSource;
 
 /**
  * <p>
@@ -137,6 +139,14 @@ public class RulesValidator implements RichValidator, ObjectNameResolver {
 		}
 		else {
 			if (getRulesSource() != null) {
+				if (propertyName != null && getRulesSource() instanceof DefaultRulesSource) {
+					List dependentRules = ((DefaultRulesSource) getRulesSource()).getPropertyConstraintsDependentOn(
+							objectClass, propertyName, getRulesContextId());
+					for (Iterator i = dependentRules.iterator(); i.hasNext();) {
+						checkRule((PropertyConstraint) i.next());
+					}
+					return results;
+				}
 				rules = getRulesSource().getRules(objectClass, getRulesContextId());
 				if (rules != null) {
 					for (Iterator i = rules.iterator(); i.hasNext();) {
@@ -44,7 +44,9 @@ import org.springframework.util.Assert;
  * <p>
  * On commit the following steps occur:
  * <ol>
- * <li>a new instance of the backing collection type is created</li>
+ * <li>if the list model holds the same element instances as the underlying collection,
+ * in the same order, nothing is copied and the underlying collection is kept</li>
+ * <li>otherwise a new instance of the backing collection type is created</li>
  * <li>the contents of the list model is inserted into this new collection</li>
  * <li>the new collection is saved into the underlying collection's value model</li>
  * <li>the structure of the list model is compared to the structure of the new underlying
@@ -55,6 +57,10 @@ import org.springframework.util.Assert;
  * <code>java.util.List</code> NOT the contract of the underlying collection's type.
  * This can result in the list model representing a state that is not possible for the
  * underlying collection.
+ * <p>
+ * When the underlying collection changes, only the elements that differ are inserted,
+ * removed or replaced in the list model, see {@link ListDiff}. Elements are compared
+ * with the value change detector of this value model.
  * 
  * 
  * @author oliverh
@@ -69,6 +75,8 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
 
     private ObservableList bufferedListModel;
 
+    private boolean updatingBufferedListModel;
+
     /**
      * Constructs a new BufferedCollectionValueModel.
      * 
@@ -91,7 +99,7 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
 
     public void setValue(Object value) {
         if (value != bufferedListModel) {
-            if (!hasSameStructure()) {
+            if (!hasSameStructure(false)) {
                 updateBufferedListModel(value);
                 fireValueChange(bufferedListModel, bufferedListModel);
             }
@@ -105,6 +113,10 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
         if (wrappedValue == null && bufferedListModel.size() == 0)
             return null;
 
+        // nothing to copy if the elements haven't been replaced, not even by equal ones
+        if (wrappedValue != null && hasSameStructure(true))
+            return wrappedValue;
+
         return createCollection(wrappedValue);
     }
 
@@ -156,8 +168,11 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
      * Checks if the structure of the buffered list model is the same as the wrapped
      * collection. "same structure" is defined as having the same elements in the
      * same order with the one exception that NULL == empty list.
+     * 
+     * @param compareIdentity compare the elements by identity instead of with the
+     * value change detector
      */
-    private boolean hasSameStructure() {
+    private boolean hasSameStructure(boolean compareIdentity) {
         Object wrappedCollection = getWrappedValue();
         if (wrappedCollection == null) {
             return bufferedListModel.size() == 0;
@@ -168,7 +183,7 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
                 return false;
             }
             for (int i = 0; i < bufferedListModel.size(); i++) {
-                if(super.hasValueChanged(wrappedArray[i], bufferedListModel.get(i))) {
+                if (hasElementChanged(wrappedArray[i], bufferedListModel.get(i), compareIdentity)) {
                     return false;
                 }
             }
@@ -178,7 +193,7 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
                 return false;
             }
             for (Iterator i = ((Collection)wrappedCollection).iterator(), j = bufferedListModel.iterator(); i.hasNext();) {
-                if (super.hasValueChanged(i.next(), j.next())) {
+                if (hasElementChanged(i.next(), j.next(), compareIdentity)) {
                     return false;
                 }
             }
@@ -186,6 +201,10 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
         return true;
     }
 
+    private boolean hasElementChanged(Object oldElement, Object newElement, boolean compareIdentity) {
+        return compareIdentity ? oldElement != newElement : super.hasValueChanged(oldElement, newElement);
+    }
+
     private Object createCollection(Object wrappedCollection) {
         return populateFromListModel(createNewCollection(wrappedCollection));
     }
@@ -263,8 +282,7 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
                 else {
                     buffer = (Collection)wrappedCollection;
                 }
-                bufferedListModel.clear();
-                bufferedListModel.addAll(prepareBackingCollection(buffer));
+                replaceBufferedListModelContents(prepareBackingCollection(buffer));
             }
             else {
                 throw new IllegalArgumentException("wrappedCollection must be assignable from " + wrappedType.getName());
@@ -274,6 +292,30 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
         return bufferedListModel;
     }
 
+    /**
+     * Changes the buffered list model into the given elements, firing a single value
+     * change for all the inserted, removed and replaced elements.
+     */
+    private void replaceBufferedListModelContents(Collection elements) {
+        boolean changed;
+        updatingBufferedListModel = true;
+        try {
+            if (bufferedListModel instanceof ListListModel) {
+                changed = ((ListListModel)bufferedListModel).replaceWith(elements, getValueChangeDetector());
+            }
+            else {
+                List newElements = elements instanceof List ? (List)elements : new ArrayList(elements);
+                changed = ListDiff.apply(bufferedListModel, newElements, getValueChangeDetector());
+            }
+        }
+        finally {
+            updatingBufferedListModel = false;
+        }
+        if (changed) {
+            fireListModelChanged();
+        }
+    }
+
     /**
      * Prepare the backing collection for installation into the buffered list model.  The default
      * implementation of this method simply returns it.  Subclasses can do whatever is needed
@@ -291,6 +333,9 @@ public class BufferedCollectionValueModel extends BufferedValueModel {
     }
 
     protected void fireListModelChanged() {
+        if (updatingBufferedListModel) {
+            return;
+        }
         if (isBuffering()) {
             super.fireValueChange(bufferedListModel, bufferedListModel);
         }
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.binding.value.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.binding.value.ValueChangeDetector;
+import org.springframework.util.Assert;
+
+/**
+ * Computes the edits that turn one list into another, so list models can be
+ * updated with a few fine-grained events instead of being replaced.
+ * <p>
+ * Two elements are taken to be the same element if the
+ * {@link ValueChangeDetector} doesn't see a change between them; with
+ * {@link EqualsValueChangeDetector} elements are compared by equality, with
+ * {@link DefaultValueChangeDetector} mutable elements are compared by
+ * identity. The shortest sequence of removes and inserts is found with the
+ * O(ND) difference algorithm of E. Myers, after the common start and end of
+ * the lists have been skipped. Elements that are the same but not identical
+ * get a change edit, so the list ends up holding the new instances.
+ * <p>
+ * The edits are ordered from the end of the list to its start, so the index
+ * of every edit is valid in the list as it is when the edit is applied.
+ *
+ * @see ListListModel#replaceWith(java.util.Collection, ValueChangeDetector)
+ */
+public final class ListDiff {
+
+    /**
+     * The default for the largest number of inserts and removes to look for.
+     * When more are needed, the differing part of the list is replaced as a
+     * whole.
+     */
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 1000;
+
+    private static final ValueChangeDetector EQUALS = new EqualsValueChangeDetector();
+
+    private ListDiff() {
+    }
+
+    /**
+     * Computes the edits that turn <code>oldList</code> into
+     * <code>newList</code>.
+     *
+     * @param oldList the list to change
+     * @param newList the list to change it into
+     * @param detector decides whether two elements are the same element,
+     * <code>null</code> to compare them by equality
+     * @return a List of {@link Edit}s, ordered from the end of the list to its
+     * start
+     */
+    public static List diff(List oldList, List newList, ValueChangeDetector detector) {
+        return diff(oldList, newList, detector, DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    /**
+     * Computes the edits that turn <code>oldList</code> into
+     * <code>newList</code>, looking for at most
+     * <code>maxEditDistance</code> inserts and removes.
+     *
+     * @see #diff(List, List, ValueChangeDetector)
+     */
+    public static List diff(List oldList, List newList, ValueChangeDetector detector, int maxEditDistance) {
+        Assert.notNull(oldList, "oldList must not be null");
+        Assert.notNull(newList, "newList must not be null");
+        if (detector == null) {
+            detector = EQUALS;
+        }
+        Object[] oldItems = oldList.toArray();
+        Object[] newItems = newList.toArray();
+
+        int start = 0;
+        while (start < oldItems.length && start < newItems.length
+                && !detector.hasValueChanged(oldItems[start], newItems[start])) {
+            start++;
+        }
+        int oldEnd = oldItems.length;
+        int newEnd = newItems.length;
+        while (oldEnd > start && newEnd > start
+                && !detector.hasValueChanged(oldItems[oldEnd - 1], newItems[newEnd - 1])) {
+            oldEnd--;
+            newEnd--;
+        }
+
+        EditList edits = new EditList(oldItems, newItems);
+        edits.matched(oldEnd, newEnd, oldItems.length - oldEnd);
+        if (oldEnd > start || newEnd > start) {
+            List trace = findPath(oldItems, newItems, start, oldEnd, newEnd, detector, maxEditDistance);
+            if (trace != null) {
+                backtrack(trace, oldItems, newItems, start, oldEnd, newEnd, edits);
+            }
+            else {
+                edits.removed(start, oldEnd - start);
+                edits.inserted(start, start, newEnd - start);
+            }
+        }
+        edits.matched(0, 0, start);
+        return edits.getEdits();
+    }
+
+    /**
+     * Changes <code>target</code> into <code>newList</code> with the fewest
+     * removes and inserts, through the <code>List</code> methods of the
+     * target. Use this to update an {@link ObservableList} that fires an event
+     * for every change.
+     *
+     * @return <code>true</code> if the target was changed
+     */
+    public static boolean apply(List target, List newList, ValueChangeDetector detector) {
+        List edits = diff(target, newList, detector);
+        for (int i = 0; i < edits.size(); i++) {
+            Edit edit = (Edit) edits.get(i);
+            if (edit.getType() == Edit.REMOVE) {
+                for (int j = edit.getIndex() + edit.getCount() - 1; j >= edit.getIndex(); j--) {
+                    target.remove(j);
+                }
+            }
+            else if (edit.getType() == Edit.INSERT) {
+                target.addAll(edit.getIndex(), edit.getItems());
+            }
+            else {
+                for (int j = 0; j < edit.getCount(); j++) {
+                    target.set(edit.getIndex() + j, edit.getItems().get(j));
+                }
+            }
+        }
+        return !edits.isEmpty();
+    }
+
+    /**
+     * Follows the furthest reaching paths through the edit graph until the
+     * end is reached. Returns, for every number of edits d, the furthest x on
+     * each diagonal k = x - y, or <code>null</code> if more edits than
+     * maxEditDistance are needed.
+     */
+    private static List findPath(Object[] oldItems, Object[] newItems, int start, int oldEnd, int newEnd,
+            ValueChangeDetector detector, int maxEditDistance) {
+        int n = oldEnd - start;
+        int m = newEnd - start;
+        int max = Math.min(n + m, maxEditDistance);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List trace = new ArrayList();
+        for (int d = 0; d <= max; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                }
+                else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && !detector.hasValueChanged(oldItems[start + x], newItems[start + y])) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    trace.add(copyDiagonals(v, offset, d));
+                    return trace;
+                }
+            }
+            trace.add(copyDiagonals(v, offset, d));
+        }
+        return null;
+    }
+
+    private static int[] copyDiagonals(int[] v, int offset, int d) {
+        int[] diagonals = new int[2 * d + 1];
+        System.arraycopy(v, offset - d, diagonals, 0, diagonals.length);
+        return diagonals;
+    }
+
+    private static void backtrack(List trace, Object[] oldItems, Object[] newItems, int start, int oldEnd,
+            int newEnd, EditList edits) {
+        int x = oldEnd - start;
+        int y = newEnd - start;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] previous = (int[]) trace.get(d - 1);
+            int k = x - y;
+            boolean insert = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+            int previousK = insert ? k + 1 : k - 1;
+            int previousX = previous[previousK + d - 1];
+            int previousY = previousX - previousK;
+            int snakeX = insert ? previousX : previousX + 1;
+            int snakeY = insert ? previousY + 1 : previousY;
+            edits.matched(start + snakeX, start + snakeY, x - snakeX);
+            if (insert) {
+                edits.inserted(start + previousX, start + previousY, 1);
+            }
+            else {
+                edits.removed(start + previousX, 1);
+            }
+            x = previousX;
+            y = previousY;
+        }
+        edits.matched(start, start, x);
+    }
+
+    /**
+     * Collects the edits from the end of the list to its start, joining
+     * adjacent edits of the same type.
+     */
+    private static final class EditList {
+        private final Object[] oldItems;
+
+        private final Object[] newItems;
+
+        private final List edits = new ArrayList();
+
+        private EditList(Object[] oldItems, Object[] newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        void matched(int oldIndex, int newIndex, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (oldItems[oldIndex + i] != newItems[newIndex + i]) {
+                    Edit last = getLast();
+                    if (last != null && last.type == Edit.CHANGE && last.index == oldIndex + i + 1) {
+                        last.index--;
+                        last.items.add(0, newItems[newIndex + i]);
+                    }
+                    else {
+                        List items = new ArrayList();
+                        items.add(newItems[newIndex + i]);
+                        edits.add(new Edit(Edit.CHANGE, oldIndex + i, items));
+                    }
+                }
+            }
+        }
+
+        void removed(int oldIndex, int count) {
+            if (count == 0) {
+                return;
+            }
+            Edit last = getLast();
+            List items = new ArrayList();
+            for (int i = oldIndex; i < oldIndex + count; i++) {
+                items.add(oldItems[i]);
+            }
+            if (last != null && last.type == Edit.REMOVE && last.index == oldIndex + count) {
+                last.index = oldIndex;
+                last.items.addAll(0, items);
+            }
+            else {
+                edits.add(new Edit(Edit.REMOVE, oldIndex, items));
+            }
+        }
+
+        void inserted(int oldIndex, int newIndex, int count) {
+            if (count == 0) {
+                return;
+            }
+            Edit last = getLast();
+            List items = new ArrayList();
+            for (int i = newIndex; i < newIndex + count; i++) {
+                items.add(newItems[i]);
+            }
+            if (last != null && last.type == Edit.INSERT && last.index == oldIndex) {
+                last.items.addAll(0, items);
+            }
+            else {
+                edits.add(new Edit(Edit.INSERT, oldIndex, items));
+            }
+        }
+
+        private Edit getLast() {
+            return edits.isEmpty() ? null : (Edit) edits.get(edits.size() - 1);
+        }
+
+        List getEdits() {
+            return edits;
+        }
+    }
+
+    /**
+     * A run of inserted, removed or changed elements.
+     */
+    public static final class Edit {
+
+        /** Elements are inserted at the index. */
+        public static final int INSERT = 0;
+
+        /** Elements are removed, starting at the index. */
+        public static final int REMOVE = 1;
+
+        /** Elements are replaced by the same elements, starting at the index. */
+        public static final int CHANGE = 2;
+
+        private final int type;
+
+        private int index;
+
+        private final List items;
+
+        private Edit(int type, int index, List items) {
+            this.type = type;
+            this.index = index;
+            this.items = items;
+        }
+
+        /**
+         * Returns {@link #INSERT}, {@link #REMOVE} or {@link #CHANGE}.
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Returns the index of the first element this edit applies to.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the number of elements this edit applies to.
+         */
+        public int getCount() {
+            return items.size();
+        }
+
+        /**
+         * Returns the inserted, removed or new elements.
+         */
+        public List getItems() {
+            return Collections.unmodifiableList(items);
+        }
+
+        public String toString() {
+            String[] types = { "insert", "remove", "change" };
+            return types[type] + " " + items + " at " + index;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.ListIterator;
 import javax.swing.AbstractListModel;
 
 import org.springframework.binding.value.IndexAdapter;
+import org.springframework.binding.value.ValueChangeDetector;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -61,10 +62,25 @@ public class ListListModel extends AbstractListModel implements ObservableList {
         this.sorter = sorter;
     }
 
+    /**
+     * Sorts the items with the comparator. Only the range of items that moved
+     * is reported as changed.
+     */
     public void sort() {
         if (sorter != null) {
+            Object[] unsorted = items.toArray();
             Collections.sort(items, sorter);
-            fireContentsChanged(items, -1, -1);
+            int first = 0;
+            while (first < unsorted.length && unsorted[first] == items.get(first)) {
+                first++;
+            }
+            if (first < unsorted.length) {
+                int last = unsorted.length - 1;
+                while (unsorted[last] == items.get(last)) {
+                    last--;
+                }
+                fireContentsChanged(first, last);
+            }
         }
     }
 
@@ -286,23 +302,55 @@ public class ListListModel extends AbstractListModel implements ObservableList {
 
     /**
      * Replace this list model's items with the contents of the provided
-     * collection.
+     * collection. Only the items that differ are replaced, and an event is
+     * fired for every range of inserted, removed or changed items. Items are
+     * compared with {@link #hasChanged(Object, Object)}.
      * 
      * @param collection
      *            The collection to replace with
+     * @return <code>true</code> if the items have changed
      */
     public boolean replaceWith(Collection collection) {
-        boolean changed = false;
-        if (items.size() > 0) {
-            items.clear();
-            changed = true;
-        }
-        if (items.addAll(0, collection) && !changed) {
-            changed = true;
-        }
-        if (changed) {
-            fireContentsChanged(-1, -1);
+        return replaceWith(collection, new ValueChangeDetector() {
+            public boolean hasValueChanged(Object oldValue, Object newValue) {
+                return hasChanged(oldValue, newValue);
+            }
+        });
+    }
+
+    /**
+     * Replace this list model's items with the contents of the provided
+     * collection, comparing items with the given detector.
+     * 
+     * @see #replaceWith(Collection)
+     * @see ListDiff
+     */
+    public boolean replaceWith(Collection collection, ValueChangeDetector detector) {
+        List newItems = collection instanceof List ? (List) collection : new ArrayList(collection);
+        List edits = ListDiff.diff(items, newItems, detector);
+        for (int i = 0; i < edits.size(); i++) {
+            ListDiff.Edit edit = (ListDiff.Edit) edits.get(i);
+            int first = edit.getIndex();
+            int last = first + edit.getCount() - 1;
+            if (edit.getType() == ListDiff.Edit.REMOVE) {
+                items.subList(first, last + 1).clear();
+                fireIntervalRemoved(this, first, last);
+            }
+            else if (edit.getType() == ListDiff.Edit.INSERT) {
+                items.addAll(first, edit.getItems());
+                fireIntervalAdded(this, first, last);
+            }
+            else {
+                boolean changed = false;
+                for (int j = 0; j < edit.getCount(); j++) {
+                    Object oldItem = items.set(first + j, edit.getItems().get(j));
+                    changed = changed || hasChanged(oldItem, edit.getItems().get(j));
+                }
+                if (changed) {
+                    fireContentsChanged(first, last);
+                }
+            }
         }
-        return changed;
+        return !edits.isEmpty();
     }
 }
\ No newline at end of file
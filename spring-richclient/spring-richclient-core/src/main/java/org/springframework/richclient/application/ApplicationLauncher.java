@@ -31,6 +31,16 @@ import org.springframework.util.StringUtils;
 
 import javax.swing.*;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The main driver for a Spring Rich Client application.
@@ -56,6 +66,13 @@ import java.lang.reflect.InvocationTargetException;
  * for displaying a splash screen.
  * </p>
  * 
+ * <p>
+ * Once the main application context is loaded, all {@link StartupTask} beans
+ * in it are run in parallel, before the application is launched. The time
+ * taken by each stage of the startup is logged and available from
+ * {@link #getStageDurations()}.
+ * </p>
+ * 
  * @author Keith Donald
  * @see Application
  */
@@ -74,6 +91,32 @@ public class ApplicationLauncher {
 	 */
 	public static final String APPLICATION_BEAN_ID = "application";
 
+	/**
+	 * The name of the stage that loads the main application context.
+	 * {@value}
+	 */
+	public static final String STAGE_ROOT_CONTEXT = "rootContext";
+
+	/**
+	 * The name of the stage that runs the {@link StartupTask}s. Each task is
+	 * also reported as a stage of its own, named after this stage and the name
+	 * of the task's bean. {@value}
+	 */
+	public static final String STAGE_STARTUP_TASKS = "startupTasks";
+
+	/**
+	 * The name of the stage that starts the {@link Application}.
+	 * {@value}
+	 */
+	public static final String STAGE_APPLICATION_START = "applicationStart";
+
+	/**
+	 * The name of the stage that lasts from the creation of the launcher until
+	 * the first application window has been shown and painted.
+	 * {@value}
+	 */
+	public static final String STAGE_FIRST_WINDOW_VISIBLE = "firstWindowVisible";
+
 	private final Log logger = LogFactory.getLog(getClass());
 
 	private ApplicationContext startupContext;
@@ -82,6 +125,11 @@ public class ApplicationLauncher {
 
 	private ApplicationContext rootApplicationContext;
 
+	/** Duration in milliseconds by stage name, in the order of the stages. */
+	private final Map stageDurations = Collections.synchronizedMap(new LinkedHashMap());
+
+	private final long launchStart = System.currentTimeMillis();
+
 	/**
 	 * Launches the application defined by the Spring application context file
 	 * at the provided classpath-relative location.
@@ -156,7 +204,9 @@ public class ApplicationLauncher {
 			displaySplashScreen(startupContext);
 		}
 		try {
+			long start = System.currentTimeMillis();
 			setRootApplicationContext(loadRootApplicationContext(rootContextConfigLocations, startupContext));
+			stageFinished(STAGE_ROOT_CONTEXT, start);
 			launchMyRichClient();
 		}
 		finally {
@@ -276,6 +326,8 @@ public class ApplicationLauncher {
             displaySplashScreen(rootApplicationContext);
         }
 
+        runStartupTasks();
+
         final Application application;
         
         try {
@@ -292,6 +344,7 @@ public class ApplicationLauncher {
         }
         
         try {
+            long start = System.currentTimeMillis();
             // To avoid deadlocks when events fire during initialization of some swing components
             // Possible to do: in theory not a single Swing component should be created (=modified) in the launcher thread...
             SwingUtilities.invokeAndWait(new Runnable() {
@@ -299,6 +352,13 @@ public class ApplicationLauncher {
                     application.start();
                 }
             });
+            stageFinished(STAGE_APPLICATION_START, start);
+            // runs after the events queued while starting, including the first paint
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    stageFinished(STAGE_FIRST_WINDOW_VISIBLE, launchStart);
+                }
+            });
         }
         catch (InterruptedException e) {
             logger.warn("Application start interrupted", e);
@@ -312,6 +372,111 @@ public class ApplicationLauncher {
         
     }
 
+    /**
+     * Runs the {@link StartupTask}s of the main application context in parallel
+     * and waits until they're all done. Tasks that fail are logged. If the
+     * launcher thread is interrupted, the tasks that are still running are
+     * cancelled and the launch goes on without them.
+     */
+    private void runStartupTasks() {
+        Map tasks = rootApplicationContext.getBeansOfType(StartupTask.class);
+        if (tasks.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        if (splashScreen instanceof MonitoringSplashScreen) {
+            ((MonitoringSplashScreen) splashScreen).getProgressMonitor().subTaskStarted("Running startup tasks ...");
+        }
+        // the tasks mostly wait for i/o, so even a single processor runs two at a time
+        int threads = Math.min(tasks.size(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List results = new ArrayList();
+            for (Iterator i = tasks.entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry) i.next();
+                results.add(executor.submit(new TimedStartupTask((String) entry.getKey(), (StartupTask) entry
+                        .getValue())));
+            }
+            for (Iterator i = results.iterator(); i.hasNext();) {
+                if (!waitForStartupTask((Future) i.next())) {
+                    cancelStartupTasks(results);
+                    break;
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        stageFinished(STAGE_STARTUP_TASKS, start);
+    }
+
+    /**
+     * @return <code>false</code> if the launcher thread was interrupted while
+     * waiting, its interrupt status is restored.
+     */
+    private boolean waitForStartupTask(Future result) {
+        try {
+            result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for the startup tasks, the remaining tasks are cancelled", e);
+            return false;
+        }
+        catch (ExecutionException e) {
+            logger.warn("Startup task failed", e.getCause());
+        }
+        return true;
+    }
+
+    private void cancelStartupTasks(List results) {
+        for (Iterator i = results.iterator(); i.hasNext();) {
+            ((Future) i.next()).cancel(true);
+        }
+    }
+
+    private void stageFinished(String stage, long start) {
+        long duration = System.currentTimeMillis() - start;
+        stageDurations.put(stage, new Long(duration));
+        logger.info("Startup stage '" + stage + "' took " + duration + " ms");
+    }
+
+    /**
+     * Returns the time taken by each stage of the startup so far, as
+     * <code>Long</code> milliseconds by stage name, in the order in which the
+     * stages finished.
+     *
+     * @see #STAGE_ROOT_CONTEXT
+     * @see #STAGE_STARTUP_TASKS
+     * @see #STAGE_APPLICATION_START
+     * @see #STAGE_FIRST_WINDOW_VISIBLE
+     */
+    public Map getStageDurations() {
+        synchronized (stageDurations) {
+            return new LinkedHashMap(stageDurations);
+        }
+    }
+
+    /**
+     * Runs a startup task and records how long it took.
+     */
+    private class TimedStartupTask implements Runnable {
+        private final String name;
+
+        private final StartupTask task;
+
+        private TimedStartupTask(String name, StartupTask task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        public void run() {
+            long start = System.currentTimeMillis();
+            task.run();
+            stageFinished(STAGE_STARTUP_TASKS + "." + name, start);
+        }
+    }
+
     /**
      * Searches the given bean factory for a {@link SplashScreen} defined with
      * the bean name {@link #SPLASH_SCREEN_BEAN_ID} and displays it, if found.
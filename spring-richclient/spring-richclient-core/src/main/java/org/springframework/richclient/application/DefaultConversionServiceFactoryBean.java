@@ -26,6 +26,7 @@ import org.springframework.binding.convert.support.AbstractConverter;
 import org.springframework.binding.convert.support.AbstractFormattingConverter;
 import org.springframework.binding.convert.support.DefaultConversionService;
 import org.springframework.binding.format.FormatterFactory;
+import org.springframework.binding.format.support.CachingFormatterFactory;
 import org.springframework.binding.format.support.StrictNumberFormatterFactory;
 import org.springframework.richclient.convert.support.CollectionConverter;
 import org.springframework.richclient.convert.support.ListModelConverter;
@@ -81,10 +82,12 @@ public class DefaultConversionServiceFactoryBean implements FactoryBean {
 	 */
 	protected ConversionService createConversionService() {
 		DefaultConversionService service = new DefaultConversionService();
-		service.addConverter(new TextToDate(getFormatterFactory(), true));
-		service.addConverter(new DateToText(getFormatterFactory(), true));
-		service.addConverter(new TextToNumber(getFormatterFactory(), true));
-		service.addConverter(new NumberToText(getFormatterFactory(), true));
+		// the converters ask for a formatter on every conversion
+		FormatterFactory formatterFactory = new CachingFormatterFactory(getFormatterFactory());
+		service.addConverter(new TextToDate(formatterFactory, true));
+		service.addConverter(new DateToText(formatterFactory, true));
+		service.addConverter(new TextToNumber(formatterFactory, true));
+		service.addConverter(new NumberToText(formatterFactory, true));
 		service.addConverter(new BooleanToText());
 		service.addConverter(new TextToBoolean());
 		service.addConverter(new CollectionConverter());
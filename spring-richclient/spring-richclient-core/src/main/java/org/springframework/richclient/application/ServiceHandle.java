@@ -0,0 +1,89 @@
+package org.springframework.richclient.application;
+
+import org.springframework.richclient.application.support.DefaultApplicationServices;
+import org.springframework.util.Assert;
+
+/**
+ * <p>
+ * Remembers the application service of one type, for code that needs a service
+ * often and would otherwise ask the {@link ApplicationServicesLocator} every
+ * time:
+ * </p>
+ *
+ * <pre>
+ * private static final ServiceHandle iconSource = new ServiceHandle(IconSource.class);
+ * ...
+ * ((IconSource) iconSource.get()).getIcon(key);
+ * </pre>
+ *
+ * <p>
+ * Unlike a service kept in a field, the handle notices when other
+ * {@link ApplicationServices} are loaded into the locator, and when services
+ * are registered with a {@link DefaultApplicationServices}, and then looks the
+ * service up again.
+ * </p>
+ */
+public final class ServiceHandle {
+
+	private final Class serviceType;
+
+	private volatile Lookup lookup;
+
+	/**
+	 * @param serviceType Type of the service
+	 */
+	public ServiceHandle(Class serviceType) {
+		Assert.notNull(serviceType, "serviceType must not be null");
+		this.serviceType = serviceType;
+	}
+
+	public Class getServiceType() {
+		return serviceType;
+	}
+
+	/**
+	 * Returns the service of the currently loaded application services.
+	 *
+	 * @throws ServiceNotFoundException if there is no service known for the
+	 * service type.
+	 * @see ApplicationServices#getService(Class)
+	 */
+	public Object get() {
+		ApplicationServices services = ApplicationServicesLocator.services();
+		int registrationCount = getRegistrationCount(services);
+		Lookup current = lookup;
+		if (current == null || current.services != services || current.registrationCount != registrationCount) {
+			current = new Lookup(services, registrationCount, services.getService(serviceType));
+			lookup = current;
+		}
+		return current.service;
+	}
+
+	private int getRegistrationCount(ApplicationServices services) {
+		if (services instanceof DefaultApplicationServices) {
+			return ((DefaultApplicationServices) services).getRegistrationCount();
+		}
+		return 0;
+	}
+
+	public String toString() {
+		return "ServiceHandle[" + serviceType.getName() + "]";
+	}
+
+	/**
+	 * A service together with where it was found.
+	 */
+	private static final class Lookup {
+		private final ApplicationServices services;
+
+		private final int registrationCount;
+
+		private final Object service;
+
+		private Lookup(ApplicationServices services, int registrationCount, Object service) {
+			this.services = services;
+			this.registrationCount = registrationCount;
+			this.service = service;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package org.springframework.richclient.application;
+
+/**
+ * Work that can be done while the application is starting, before the
+ * {@link Application} is started, e.g. loading icons or message bundles that
+ * the first window will need.
+ * <p>
+ * The {@link ApplicationLauncher} runs all beans of this type in the root
+ * application context after the context is loaded, in parallel on a bounded
+ * number of threads and not on the event dispatch thread. Tasks must not
+ * depend on each other. A task that fails is logged and doesn't stop the
+ * application from starting.
+ *
+ * @see org.springframework.richclient.application.support.MessageSourceWarmUpTask
+ * @see org.springframework.richclient.application.support.IconPreloadingTask
+ */
+public interface StartupTask {
+
+	/**
+	 * Do the work of this task.
+	 */
+	void run();
+}
@@ -17,7 +17,10 @@ package org.springframework.richclient.application.config;
 
 import java.awt.Color;
 import java.awt.Image;
+import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.Icon;
 
@@ -26,7 +29,6 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.MessageSource;
-import org.springframework.context.NoSuchMessageException;
 import org.springframework.richclient.application.ApplicationServicesLocator;
 import org.springframework.richclient.application.ServiceNotFoundException;
 import org.springframework.richclient.command.config.CommandButtonIconInfo;
@@ -65,6 +67,14 @@ import org.springframework.util.StringUtils;
  * {@link LabelConfigurable} or {@link TitleConfigurable}. See the javadoc of
  * the {@link #configure(Object, String)} method for more details.
  * 
+ * <p>
+ * Most objects only have a few of the messages, images and icons that are
+ * looked up for them. With {@link #setCacheMissingKeys(boolean)} the keys that
+ * could not be found are remembered, so configuring another object with the
+ * same name doesn't ask the sources for them again. The remembered keys are
+ * forgotten when the locale changes, or when {@link #clearMissingKeys()} is
+ * called, which has to be done after the sources have been reloaded.
+ * </p>
  * 
  * @author Keith Donald
  * @author Kevin Stembridge
@@ -118,6 +128,10 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 
 	private boolean loadOptionalIcons = true;
 
+	private boolean cacheMissingKeys = false;
+
+	private volatile MissingKeys missingKeys;
+
 	private MessageSource messageSource;
 
 	private ImageSource imageSource;
@@ -189,6 +203,28 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 		this.loadOptionalIcons = loadOptionalIcons;
 	}
 
+	/**
+	 * Sets the flag that determines if the message codes, images and icons
+	 * that could not be found are remembered, so they aren't looked up again.
+	 * The default is false. Only turn this on if the sources don't change while
+	 * the application runs, or call {@link #clearMissingKeys()} when they do.
+	 * 
+	 * @param cacheMissingKeys The flag to remember the missing keys.
+	 */
+	public void setCacheMissingKeys(boolean cacheMissingKeys) {
+		this.cacheMissingKeys = cacheMissingKeys;
+		clearMissingKeys();
+	}
+
+	/**
+	 * Forgets the message codes, images and icons that could not be found, so
+	 * they will be looked up again. Call this after messages, images or icons
+	 * have been added to the sources.
+	 */
+	public void clearMissingKeys() {
+		missingKeys = null;
+	}
+
 	/**
 	 * Returns this instance's message source. If a source was not provided at
 	 * construction, it will be retrieved by the application services locator.
@@ -349,6 +385,27 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 
 	}
 
+	/**
+	 * Configures a number of objects at once, as if
+	 * {@link #configure(Object, String)} was called for each of them.
+	 * 
+	 * @param objectsByName The objects to be configured, keyed by their
+	 * names. Must not be null.
+	 * 
+	 * @throws IllegalArgumentException if {@code objectsByName} is null or
+	 * contains a null name.
+	 */
+	public void configureAll(Map objectsByName) {
+
+		Assert.required(objectsByName, "objectsByName");
+
+		for (Iterator it = objectsByName.entrySet().iterator(); it.hasNext();) {
+			Map.Entry entry = (Map.Entry) it.next();
+			configure(entry.getValue(), (String) entry.getKey());
+		}
+
+	}
+
 	/**
 	 * Sets the title of the given object. The title is loaded from this
 	 * instance's {@link MessageSource} using a message code in the format
@@ -741,19 +798,28 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 			logger.debug("Resolving label with code '" + messageCode + "'");
 		}
 
-		try {
-			return getMessageSource().getMessage(messageCode, null, getLocale());
+		Locale locale = getLocale();
+		Map missingMessages = getMissingKeys(locale).messages;
+
+		if (missingMessages.containsKey(messageCode)) {
+			return null;
 		}
-		catch (NoSuchMessageException e) {
 
-			if (logger.isInfoEnabled()) {
-				logger.info("The message source is unable to find message code [" + messageCode
+		// a null default message avoids the exception for the common case of a missing code
+		String message = getMessageSource().getMessage(messageCode, null, null, locale);
+
+		if (message == null) {
+
+			if (logger.isDebugEnabled()) {
+				logger.debug("The message source is unable to find message code [" + messageCode
 						+ "]. Ignoring and returning null.");
 			}
 
-			return null;
+			rememberMissingKey(missingMessages, messageCode);
 		}
 
+		return message;
+
 	}
 
 	/**
@@ -771,11 +837,29 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 
 	private Icon loadIcon(String objectName, String iconType, boolean large) {
 		String key = objectName + (large ? ".large." : ".") + iconType;
-		return getIconSource().getIcon(key);
+		Map missingIcons = getMissingKeys(getLocale()).icons;
+
+		if (missingIcons.containsKey(key)) {
+			return null;
+		}
+
+		Icon icon = getIconSource().getIcon(key);
+
+		if (icon == null) {
+			rememberMissingKey(missingIcons, key);
+		}
+
+		return icon;
 	}
 
 	private Image loadImage(String objectName, String imageType) {
 		String key = objectName + "." + imageType;
+		Map missingImages = getMissingKeys(getLocale()).images;
+
+		if (missingImages.containsKey(key)) {
+			return null;
+		}
+
 		try {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Resolving optional image with code '" + key + "'");
@@ -783,13 +867,33 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 			return getImageSource().getImage(key);
 		}
 		catch (NoSuchImageResourceException e) {
-			if (logger.isInfoEnabled()) {
-				logger.info("Labelable object's image '" + key + "' does not exist in image bundle; continuing...");
+			if (logger.isDebugEnabled()) {
+				logger.debug("Labelable object's image '" + key + "' does not exist in image bundle; continuing...");
 			}
+			rememberMissingKey(missingImages, key);
 			return null;
 		}
 	}
 
+	/**
+	 * Returns the keys that could not be found for the given locale. The keys
+	 * found missing for another locale are forgotten.
+	 */
+	private MissingKeys getMissingKeys(Locale locale) {
+		MissingKeys current = missingKeys;
+		if (current == null || !current.locale.equals(locale)) {
+			current = new MissingKeys(locale);
+			missingKeys = current;
+		}
+		return current;
+	}
+
+	private void rememberMissingKey(Map missing, String key) {
+		if (cacheMissingKeys) {
+			missing.put(key, Boolean.TRUE);
+		}
+	}
+
 	/**
 	 * A default implemenation, performing no operation.
 	 */
@@ -797,4 +901,24 @@ public class DefaultApplicationObjectConfigurer implements ApplicationObjectConf
 		return bean;
 	}
 
+	/**
+	 * The message codes, images and icons that could not be found for a
+	 * locale.
+	 */
+	private static final class MissingKeys {
+
+		private final Locale locale;
+
+		private final Map messages = new ConcurrentHashMap();
+
+		private final Map images = new ConcurrentHashMap();
+
+		private final Map icons = new ConcurrentHashMap();
+
+		private MissingKeys(Locale locale) {
+			this.locale = locale;
+		}
+
+	}
+
 }
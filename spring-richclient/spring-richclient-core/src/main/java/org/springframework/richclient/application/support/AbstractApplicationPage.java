@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.swing.JComponent;
+
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.support.AbstractApplicationContext;
@@ -39,6 +41,9 @@ import org.springframework.richclient.application.View;
 import org.springframework.richclient.application.ViewDescriptor;
 import org.springframework.richclient.application.ViewDescriptorRegistry;
 import org.springframework.richclient.factory.AbstractControlFactory;
+import org.springframework.richclient.factory.ControlFactory;
+import org.springframework.richclient.factory.IdleControlCreator;
+import org.springframework.richclient.factory.LazyControl;
 import org.springframework.richclient.util.EventListenerListHelper;
 import org.springframework.util.Assert;
 
@@ -70,6 +75,12 @@ public abstract class AbstractApplicationPage extends AbstractControlFactory imp
 
     private ApplicationEventMulticaster applicationEventMulticaster;
 
+    private boolean lazyControlCreation;
+
+    private boolean idleControlCreation;
+
+    private IdleControlCreator idleControlCreator;
+
     private PropertyChangeListener pageComponentUpdater = new PropertyChangeListener() {
         public void propertyChange(PropertyChangeEvent evt) {
             if (evt.getSource() instanceof PageComponent) {
@@ -225,6 +236,83 @@ public abstract class AbstractApplicationPage extends AbstractControlFactory imp
         return getPageComponentPaneFactory().createPageComponentPane(pageComponent);
     }
 
+    /**
+     * Returns the control to put on this page for the given control factory, typically a
+     * <code>PageComponent</code> or its <code>PageComponentPane</code>.
+     * <p>
+     * With {@link #setLazyControlCreation(boolean) lazy control creation} this is a {@link LazyControl}: the control
+     * of the factory is only created when it is shown for the first time, or, with
+     * {@link #setIdleControlCreation(boolean) idle control creation}, when the application is idle.
+     * 
+     * @param pageComponent
+     *            the <code>PageComponent</code> the control is for
+     * @param controlFactory
+     *            the factory of the control
+     * @return the control
+     */
+    protected JComponent createPageComponentControl(PageComponent pageComponent, ControlFactory controlFactory) {
+        if (!lazyControlCreation) {
+            return controlFactory.getControl();
+        }
+        LazyControl control = new LazyControl(controlFactory);
+        if (idleControlCreation) {
+            if (idleControlCreator == null) {
+                idleControlCreator = new IdleControlCreator();
+            }
+            idleControlCreator.add(control, getIdleControlCreationPriority(pageComponent));
+        }
+        return control;
+    }
+
+    /**
+     * Returns the priority of creating the control of the given <code>PageComponent</code> when the application is
+     * idle. Controls with a lower number are created first. This implementation returns the position of the
+     * <code>PageComponent</code> on this page.
+     * 
+     * @param pageComponent
+     *            the <code>PageComponent</code>
+     * @return the priority
+     */
+    protected int getIdleControlCreationPriority(PageComponent pageComponent) {
+        return pageComponents.indexOf(pageComponent);
+    }
+
+    /**
+     * Sets whether the controls of the <code>PageComponent</code>s are only created when they are shown for the first
+     * time, e.g. when their tab is selected. The default is <code>false</code>.
+     * <p>
+     * Note that <code>PageComponent</code>s with a lazily created control receive their "opened" event before their
+     * control is created.
+     * 
+     * @param lazyControlCreation
+     *            <code>true</code> to create controls when they are shown
+     * @see #createPageComponentControl(PageComponent, ControlFactory)
+     */
+    public void setLazyControlCreation(boolean lazyControlCreation) {
+        this.lazyControlCreation = lazyControlCreation;
+    }
+
+    public boolean isLazyControlCreation() {
+        return lazyControlCreation;
+    }
+
+    /**
+     * Sets whether the lazily created controls are created anyway when the application is idle, so they're ready when
+     * they're shown. Only applies with {@link #setLazyControlCreation(boolean) lazy control creation}. The default is
+     * <code>false</code>.
+     * 
+     * @param idleControlCreation
+     *            <code>true</code> to create lazy controls when the application is idle
+     * @see IdleControlCreator
+     */
+    public void setIdleControlCreation(boolean idleControlCreation) {
+        this.idleControlCreation = idleControlCreation;
+    }
+
+    public boolean isIdleControlCreation() {
+        return idleControlCreation;
+    }
+
     protected void fireClosed(PageComponent component) {
         component.componentClosed();
         pageComponentListeners.fire("componentClosed", component);
@@ -291,6 +379,9 @@ public abstract class AbstractApplicationPage extends AbstractControlFactory imp
             if (!close(component))
                 return false;
         }
+        if (idleControlCreator != null) {
+            idleControlCreator.clear();
+        }
         return true;
     }
 
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.application.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+import org.springframework.util.Assert;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * A message bundle in a compact binary format, so messages can be looked up
+ * without parsing a <code>.properties</code> file first. A bundle file can be
+ * mapped into memory. Opening a bundle only reads its header, so a truncated
+ * file is rejected right away. The offsets and lengths of an entry are checked
+ * when a lookup reads the entry, so a corrupt entry never makes a lookup read
+ * outside the bundle.
+ * <p>
+ * The format is a hash table of offsets followed by the entries:
+ *
+ * <pre>
+ * int magic, int version, int entryCount, int tableSize, int length
+ * int[tableSize] entry offsets, 0 for an empty slot
+ * entries: int keyHash, int keyLength, byte[] key, int valueLength, byte[] value
+ * </pre>
+ *
+ * Keys and values are UTF-8 encoded, <code>keyHash</code> is
+ * {@link String#hashCode()} of the key and collisions are resolved by linear
+ * probing. <code>length</code> is the length of the whole bundle in bytes;
+ * bundles of version 1 don't have it.
+ *
+ * @see CompiledMessageSource
+ */
+public final class CompiledMessageBundle {
+
+	/** The file suffix of compiled bundles. */
+	public static final String SUFFIX = ".rcmb";
+
+	private static final int MAGIC = 0x52434d42;
+
+	private static final int VERSION = 2;
+
+	private static final int HEADER_SIZE = 20;
+
+	/** Bundles of version 1 have no length in their header. */
+	private static final int VERSION_1_HEADER_SIZE = 16;
+
+	private static final String ENCODING = "UTF-8";
+
+	private final ByteBuffer buffer;
+
+	private final int entryCount;
+
+	private final int tableSize;
+
+	private final int headerSize;
+
+	private CompiledMessageBundle(ByteBuffer buffer) throws IOException {
+		if (buffer.limit() < VERSION_1_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a compiled message bundle");
+		}
+		int version = buffer.getInt(4);
+		if (version == 1) {
+			headerSize = VERSION_1_HEADER_SIZE;
+		}
+		else if (version == VERSION) {
+			headerSize = HEADER_SIZE;
+			if (buffer.limit() < HEADER_SIZE || buffer.getInt(16) != buffer.limit()) {
+				throw new IOException("Corrupt compiled message bundle: " + buffer.limit() + " bytes");
+			}
+		}
+		else {
+			throw new IOException("Unsupported compiled message bundle version " + version);
+		}
+		this.buffer = buffer;
+		this.entryCount = buffer.getInt(8);
+		this.tableSize = buffer.getInt(12);
+		if (tableSize <= 0 || Integer.bitCount(tableSize) != 1 || headerSize + 4L * tableSize > buffer.limit()) {
+			throw new IOException("Corrupt compiled message bundle");
+		}
+	}
+
+	/**
+	 * Maps a compiled bundle file into memory.
+	 */
+	public static CompiledMessageBundle map(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			return new CompiledMessageBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a compiled bundle, e.g. from a jar file. The stream is closed.
+	 */
+	public static CompiledMessageBundle read(InputStream in) throws IOException {
+		return new CompiledMessageBundle(ByteBuffer.wrap(FileCopyUtils.copyToByteArray(in)));
+	}
+
+	/**
+	 * Compiles the messages in the given properties.
+	 */
+	public static CompiledMessageBundle compile(Properties messages) {
+		try {
+			return new CompiledMessageBundle(ByteBuffer.wrap(toByteArray(messages)));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Unable to compile messages", e);
+		}
+	}
+
+	/**
+	 * Compiles the messages in the given properties and writes the result to
+	 * the stream. The stream is not closed.
+	 */
+	public static void compile(Properties messages, OutputStream out) throws IOException {
+		out.write(toByteArray(messages));
+		out.flush();
+	}
+
+	private static byte[] toByteArray(Properties messages) throws IOException {
+		Assert.notNull(messages, "messages must not be null");
+		int entryCount = messages.size();
+		int tableSize = Integer.highestOneBit(Math.max(1, entryCount * 2 - 1)) << 1;
+		int[] table = new int[tableSize];
+
+		ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+		DataOutputStream entries = new DataOutputStream(entryBytes);
+		int entriesOffset = HEADER_SIZE + 4 * tableSize;
+		for (Iterator it = messages.entrySet().iterator(); it.hasNext();) {
+			Map.Entry entry = (Map.Entry) it.next();
+			String key = (String) entry.getKey();
+			byte[] keyBytes = encode(key);
+			byte[] valueBytes = encode((String) entry.getValue());
+
+			int slot = key.hashCode() & (tableSize - 1);
+			while (table[slot] != 0) {
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			table[slot] = entriesOffset + entries.size();
+
+			entries.writeInt(key.hashCode());
+			entries.writeInt(keyBytes.length);
+			entries.write(keyBytes);
+			entries.writeInt(valueBytes.length);
+			entries.write(valueBytes);
+		}
+		entries.flush();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(entriesOffset + entryBytes.size());
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(entryCount);
+		out.writeInt(tableSize);
+		out.writeInt(entriesOffset + entryBytes.size());
+		for (int i = 0; i < tableSize; i++) {
+			out.writeInt(table[i]);
+		}
+		entryBytes.writeTo(out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Returns the message for the given key, or <code>null</code> if the
+	 * bundle doesn't contain the key.
+	 *
+	 * @throws IllegalStateException if an entry read for the key is corrupt
+	 */
+	public String getMessage(String key) {
+		int hash = key.hashCode();
+		int slot = hash & (tableSize - 1);
+		int entriesOffset = headerSize + 4 * tableSize;
+		int limit = buffer.limit();
+		byte[] keyBytes = null;
+		for (int probes = 0; probes < tableSize; probes++) {
+			int offset = buffer.getInt(headerSize + 4 * slot);
+			if (offset == 0) {
+				return null;
+			}
+			if (offset < entriesOffset || offset > limit - 8) {
+				throw corrupt("entry offset " + offset);
+			}
+			if (buffer.getInt(offset) == hash) {
+				if (keyBytes == null) {
+					keyBytes = encode(key);
+				}
+				int keyLength = buffer.getInt(offset + 4);
+				long valueOffset = offset + 8L + keyLength;
+				if (keyLength < 0 || valueOffset > limit - 4) {
+					throw corrupt("key length " + keyLength);
+				}
+				if (keyLength == keyBytes.length && matches(offset + 8, keyBytes)) {
+					int valueLength = buffer.getInt((int) valueOffset);
+					if (valueLength < 0 || valueOffset + 4 + valueLength > limit) {
+						throw corrupt("value length " + valueLength);
+					}
+					return decode((int) valueOffset + 4, valueLength);
+				}
+			}
+			slot = (slot + 1) & (tableSize - 1);
+		}
+		return null;
+	}
+
+	private static IllegalStateException corrupt(String detail) {
+		return new IllegalStateException("Corrupt compiled message bundle: " + detail);
+	}
+
+	/**
+	 * Returns the number of messages in this bundle.
+	 */
+	public int size() {
+		return entryCount;
+	}
+
+	private boolean matches(int offset, byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (buffer.get(offset + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String decode(int offset, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		try {
+			return new String(bytes, ENCODING);
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(ENCODING + " is not supported");
+		}
+	}
+
+	private static byte[] encode(String s) {
+		try {
+			return s.getBytes(ENCODING);
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(ENCODING + " is not supported");
+		}
+	}
+
+	public String toString() {
+		return "CompiledMessageBundle[" + entryCount + " messages]";
+	}
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.application.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A message source that looks up its messages in
+ * {@link CompiledMessageBundle compiled message bundles}, instead of parsing
+ * <code>.properties</code> files.
+ * <p>
+ * The bundles are found like the resource bundles of a
+ * <code>ResourceBundleMessageSource</code>: for the basename
+ * <code>messages</code> and the locale <code>nl_BE</code> the bundles
+ * <code>messages_nl_BE</code>, <code>messages_nl</code>, the bundles of the
+ * system locale and <code>messages</code> are searched in that order. A
+ * basename without a slash or a colon is taken as a class path name in dot
+ * notation, like <code>org.acme.messages</code>; other basenames are resource
+ * locations, like <code>file:config/messages</code>.
+ * <p>
+ * A bundle is read from a <code>.rcmb</code> file compiled at build time, see
+ * {@link CompiledMessageBundle#compile(Properties, OutputStream)}. If there
+ * is none, the <code>.properties</code> file is compiled when it is first
+ * needed. With a {@link #setCacheDirectory(File) cache directory} the compiled
+ * bundle is kept there, so following runs only have to map it into memory. A
+ * cached bundle is used as long as the modification time and the size of the
+ * file it was compiled from are unchanged.
+ *
+ * @see CompiledMessageBundle
+ */
+public class CompiledMessageSource extends AbstractMessageSource implements ResourceLoaderAware {
+
+	private static final String PROPERTIES_SUFFIX = ".properties";
+
+	private static final Object NO_BUNDLE = new Object();
+
+	private String[] basenames = new String[0];
+
+	private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+	private File cacheDirectory;
+
+	private boolean fallbackToSystemLocale = true;
+
+	/** Bundle name to CompiledMessageBundle, or NO_BUNDLE */
+	private final Map bundles = new ConcurrentHashMap();
+
+	/** Locale to the List of bundles to search */
+	private final Map bundlesByLocale = new ConcurrentHashMap();
+
+	/** Locale to a Map of message code to MessageFormat */
+	private final Map messageFormats = new ConcurrentHashMap();
+
+	/**
+	 * Set a single basename.
+	 *
+	 * @see #setBasenames(String[])
+	 */
+	public void setBasename(String basename) {
+		setBasenames(new String[] { basename });
+	}
+
+	/**
+	 * Set the basenames of the bundles. The bundles of the first basename are
+	 * searched first.
+	 */
+	public void setBasenames(String[] basenames) {
+		Assert.notNull(basenames, "basenames must not be null");
+		this.basenames = new String[basenames.length];
+		for (int i = 0; i < basenames.length; i++) {
+			Assert.hasText(basenames[i], "basename must not be empty");
+			this.basenames[i] = toLocation(basenames[i].trim());
+		}
+		clearCache();
+	}
+
+	public void setResourceLoader(ResourceLoader resourceLoader) {
+		this.resourceLoader = resourceLoader != null ? resourceLoader : new DefaultResourceLoader();
+		clearCache();
+	}
+
+	/**
+	 * Set the directory to keep the bundles compiled from
+	 * <code>.properties</code> files in. By default they are only kept in
+	 * memory.
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+		clearCache();
+	}
+
+	/**
+	 * Set whether the bundles of the system locale are searched when the
+	 * bundles of the requested locale don't contain a message. Default is
+	 * true.
+	 */
+	public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
+		this.fallbackToSystemLocale = fallbackToSystemLocale;
+		clearCache();
+	}
+
+	/**
+	 * Forget the loaded bundles, e.g. after they've been changed.
+	 */
+	public void clearCache() {
+		bundles.clear();
+		bundlesByLocale.clear();
+		messageFormats.clear();
+	}
+
+	protected String resolveCodeWithoutArguments(String code, Locale locale) {
+		List bundles = getBundles(locale);
+		for (int i = 0; i < bundles.size(); i++) {
+			try {
+				String message = ((CompiledMessageBundle) bundles.get(i)).getMessage(code);
+				if (message != null) {
+					return message;
+				}
+			}
+			catch (IllegalStateException e) {
+				logger.warn("Could not look up message '" + code + "' in " + bundles.get(i), e);
+			}
+		}
+		return null;
+	}
+
+	protected MessageFormat resolveCode(String code, Locale locale) {
+		Map formats = (Map) messageFormats.get(locale);
+		if (formats == null) {
+			formats = new ConcurrentHashMap();
+			messageFormats.put(locale, formats);
+		}
+		MessageFormat format = (MessageFormat) formats.get(code);
+		if (format == null) {
+			String message = resolveCodeWithoutArguments(code, locale);
+			if (message == null) {
+				return null;
+			}
+			format = createMessageFormat(message, locale);
+			formats.put(code, format);
+		}
+		return format;
+	}
+
+	private List getBundles(Locale locale) {
+		List localeBundles = (List) bundlesByLocale.get(locale);
+		if (localeBundles == null) {
+			localeBundles = new ArrayList();
+			for (int i = 0; i < basenames.length; i++) {
+				List names = calculateBundleNames(basenames[i], locale);
+				for (int j = 0; j < names.size(); j++) {
+					CompiledMessageBundle bundle = getBundle((String) names.get(j));
+					if (bundle != null) {
+						localeBundles.add(bundle);
+					}
+				}
+			}
+			localeBundles = Collections.unmodifiableList(localeBundles);
+			bundlesByLocale.put(locale, localeBundles);
+		}
+		return localeBundles;
+	}
+
+	private List calculateBundleNames(String basename, Locale locale) {
+		List names = new ArrayList();
+		addBundleNames(names, basename, locale);
+		Locale systemLocale = Locale.getDefault();
+		if (fallbackToSystemLocale && !systemLocale.equals(locale)) {
+			addBundleNames(names, basename, systemLocale);
+		}
+		names.add(basename);
+		return names;
+	}
+
+	private void addBundleNames(List names, String basename, Locale locale) {
+		String language = locale.getLanguage();
+		String country = locale.getCountry();
+		String variant = locale.getVariant();
+		if (variant.length() > 0) {
+			names.add(basename + "_" + language + "_" + country + "_" + variant);
+		}
+		if (country.length() > 0) {
+			names.add(basename + "_" + language + "_" + country);
+		}
+		if (language.length() > 0) {
+			names.add(basename + "_" + language);
+		}
+	}
+
+	private CompiledMessageBundle getBundle(String bundleName) {
+		Object bundle = bundles.get(bundleName);
+		if (bundle == null) {
+			try {
+				bundle = loadBundle(bundleName);
+			}
+			catch (IOException e) {
+				logger.warn("Could not load message bundle [" + bundleName + "]", e);
+			}
+			if (bundle == null) {
+				bundle = NO_BUNDLE;
+			}
+			bundles.put(bundleName, bundle);
+		}
+		return bundle != NO_BUNDLE ? (CompiledMessageBundle) bundle : null;
+	}
+
+	/**
+	 * Loads the compiled bundle with the given name, compiling its
+	 * <code>.properties</code> file if there is no compiled bundle.
+	 *
+	 * @return the bundle, or <code>null</code> if there is no bundle with this
+	 * name.
+	 */
+	protected CompiledMessageBundle loadBundle(String bundleName) throws IOException {
+		Resource compiled = resourceLoader.getResource(bundleName + CompiledMessageBundle.SUFFIX);
+		if (compiled.exists()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loading compiled message bundle [" + compiled + "]");
+			}
+			return readBundle(compiled);
+		}
+
+		Resource properties = resourceLoader.getResource(bundleName + PROPERTIES_SUFFIX);
+		if (!properties.exists()) {
+			return null;
+		}
+		String stamp = cacheDirectory != null ? getStamp(properties) : null;
+		if (stamp == null) {
+			return CompiledMessageBundle.compile(loadProperties(properties));
+		}
+
+		// the name of the cached bundle changes with the file it is compiled from
+		String prefix = toFileName(bundleName) + "-";
+		File cached = new File(cacheDirectory, prefix + stamp + CompiledMessageBundle.SUFFIX);
+		if (cached.exists()) {
+			try {
+				return CompiledMessageBundle.map(cached);
+			}
+			catch (IOException e) {
+				logger.warn("Could not read cached message bundle [" + cached + "], compiling it again", e);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Compiling message bundle [" + properties + "] to [" + cached + "]");
+		}
+		CompiledMessageBundle bundle = compileToCache(loadProperties(properties), cached);
+		deleteStaleBundles(prefix, cached);
+		return bundle;
+	}
+
+	/**
+	 * Deletes the bundles that were compiled from earlier versions of a file.
+	 */
+	private void deleteStaleBundles(String prefix, File cached) {
+		File[] files = cacheDirectory.listFiles();
+		for (int i = 0; files != null && i < files.length; i++) {
+			String name = files[i].getName();
+			if (name.startsWith(prefix) && name.endsWith(CompiledMessageBundle.SUFFIX) && !files[i].equals(cached)
+					&& !files[i].delete()) {
+				logger.debug("Could not delete stale message bundle [" + files[i] + "]");
+			}
+		}
+	}
+
+	/**
+	 * Compiles the messages to a temporary file that replaces the cached
+	 * bundle when it is complete, so other readers never see a partly written
+	 * bundle.
+	 */
+	private CompiledMessageBundle compileToCache(Properties messages, File cached) throws IOException {
+		cacheDirectory.mkdirs();
+		File temp = File.createTempFile(cached.getName(), ".tmp", cacheDirectory);
+		try {
+			OutputStream out = new FileOutputStream(temp);
+			try {
+				CompiledMessageBundle.compile(messages, out);
+			}
+			finally {
+				out.close();
+			}
+			// renaming onto an existing file fails on some platforms
+			if (!temp.renameTo(cached) && !(cached.delete() && temp.renameTo(cached))) {
+				logger.warn("Could not replace cached message bundle [" + cached + "]");
+				return CompiledMessageBundle.compile(messages);
+			}
+		}
+		finally {
+			temp.delete();
+		}
+		return CompiledMessageBundle.map(cached);
+	}
+
+	private CompiledMessageBundle readBundle(Resource resource) throws IOException {
+		File file;
+		try {
+			file = resource.getFile();
+		}
+		catch (IOException e) {
+			// not in the file system, e.g. in a jar file
+			return CompiledMessageBundle.read(resource.getInputStream());
+		}
+		return CompiledMessageBundle.map(file);
+	}
+
+	private Properties loadProperties(Resource resource) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = resource.getInputStream();
+		try {
+			properties.load(in);
+		}
+		finally {
+			in.close();
+		}
+		return properties;
+	}
+
+	/**
+	 * Returns the modification time and the size of the file that contains
+	 * the resource, or <code>null</code> if the resource isn't in the file
+	 * system.
+	 */
+	private String getStamp(Resource resource) {
+		File file;
+		try {
+			URL url = resource.getURL();
+			if (ResourceUtils.isJarURL(url)) {
+				file = ResourceUtils.getFile(ResourceUtils.extractJarFileURL(url));
+			}
+			else {
+				file = resource.getFile();
+			}
+		}
+		catch (IOException e) {
+			return null;
+		}
+		return Long.toHexString(file.lastModified()) + "-" + Long.toHexString(file.length());
+	}
+
+	private static String toLocation(String basename) {
+		if (basename.indexOf('/') < 0 && basename.indexOf(':') < 0) {
+			return ResourceLoader.CLASSPATH_URL_PREFIX + basename.replace('.', '/');
+		}
+		return basename;
+	}
+
+	/**
+	 * Returns a distinct file name for every bundle name, also on file systems
+	 * that ignore case: only lower case letters, digits and dots are kept,
+	 * other characters are replaced by an underscore and their hexadecimal
+	 * code.
+	 */
+	private static String toFileName(String bundleName) {
+		StringBuffer fileName = new StringBuffer(bundleName.length());
+		for (int i = 0; i < bundleName.length(); i++) {
+			char c = bundleName.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.') {
+				fileName.append(c);
+			}
+			else {
+				String code = Integer.toHexString(c);
+				fileName.append('_').append("0000".substring(code.length())).append(code);
+			}
+		}
+		return fileName.toString();
+	}
+
+	public String toString() {
+		return getClass().getName() + ": basenames=[" + StringUtils.arrayToCommaDelimitedString(basenames) + "]";
+	}
+}
@@ -16,10 +16,13 @@
 package org.springframework.richclient.application.support;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -127,7 +130,14 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
     private static final Log logger = LogFactory.getLog( DefaultApplicationServices.class );
 
     /** Map of services, keyed by service type (class). */
-    private final Map services = Collections.synchronizedMap( new HashMap() );
+    private final Map services = new ConcurrentHashMap();
+
+    /** Held while a service is being created. */
+    private final ReentrantLock creationLock = new ReentrantLock();
+
+    private final AtomicInteger registrationCount = new AtomicInteger();
+
+    private final AtomicLong contendedCreationCount = new AtomicLong();
 
     /** Map of service types to default implementation builders. */
     private static final Map serviceImplBuilders = new HashMap();
@@ -182,30 +192,86 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @throws ServiceNotFoundException if the service is not found and no suitable
      *         default implementation is available.
      */
-    public synchronized Object getService( Class serviceType ) {
+    public Object getService( Class serviceType ) {
         Assert.required( serviceType, "serviceType" );
         Object service = services.get( serviceType );
-        if( service == null ) {
-            service = getServiceForClassType(serviceType);
-            if (service == null) {
-                service = getDefaultImplementation(serviceType);
-            }
-            if (service != null) {
-                services.put(serviceType, service);
+        if( service == null || service instanceof String ) {
+            service = createService( serviceType );
+        }
+        return service;
+    }
+
+    /**
+     * Find or create the service of the given type. Only one service is created
+     * at a time, so every service is created once, but services that are
+     * already available are returned by {@link #getService(Class)} without
+     * waiting.
+     */
+    private Object createService( Class serviceType ) {
+        if( !creationLock.tryLock() ) {
+            contendedCreationCount.incrementAndGet();
+            creationLock.lock();
+        }
+        try {
+            Object service = services.get( serviceType );
+            if( service == null ) {
+                service = getServiceForClassType(serviceType);
+                if (service == null) {
+                    service = getDefaultImplementation(serviceType);
+                }
+                if (service != null) {
+                    services.put(serviceType, service);
+                }
+            } else {
+                // Runtime derefence of refid's
+                if( service instanceof String ) {
+                    service = getApplicationContext().getBean( (String) service, serviceType );
+                    services.put( serviceType, service );
+                }
             }
-        } else {
-            // Runtime derefence of refid's
-            if( service instanceof String ) {
-                service = getApplicationContext().getBean( (String) service, serviceType );
-                services.put( serviceType, service );
+
+            // If we still don't have an implementation, then it's a bust
+            if( service == null ) {
+                throw new ServiceNotFoundException(serviceType);
             }
+            return service;
+        } finally {
+            creationLock.unlock();
         }
+    }
 
-        // If we still don't have an implementation, then it's a bust
+    /**
+     * Register the implementation of a service, or the id of the bean that implements
+     * it. A <code>null</code> implementation removes the service.
+     *
+     * @param serviceType Type of the service
+     * @param service the implementation or the bean id of the implementation
+     */
+    protected void registerService( Class serviceType, Object service ) {
         if( service == null ) {
-            throw new ServiceNotFoundException(serviceType);
+            services.remove( serviceType );
+        } else {
+            services.put( serviceType, service );
         }
-        return service;
+        registrationCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of services that have been registered so far. Services
+     * that were resolved by {@link #getService(Class)} aren't counted.
+     *
+     * @see org.springframework.richclient.application.ServiceHandle
+     */
+    public int getRegistrationCount() {
+        return registrationCount.get();
+    }
+
+    /**
+     * Returns how many times a thread had to wait for another thread that was
+     * creating a service.
+     */
+    public long getContendedCreationCount() {
+        return contendedCreationCount.get();
     }
 
     public boolean containsService( Class serviceType ) {
@@ -245,7 +311,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
 
             // If we got something usable, then add the map entry
             if( serviceType != null ) {
-                services.put( serviceType, entry.getValue() );
+                registerService( serviceType, entry.getValue() );
             }
         }
     }
@@ -256,7 +322,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param applicationObjectConfigurer
      */
     public void setApplicationObjectConfigurer( ApplicationObjectConfigurer applicationObjectConfigurer ) {
-        services.put( ApplicationObjectConfigurer.class, applicationObjectConfigurer );
+        registerService( ApplicationObjectConfigurer.class, applicationObjectConfigurer );
     }
 
     /**
@@ -265,7 +331,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param applicationObjectConfigurerId bean id
      */
     public void setApplicationObjectConfigurerId( String applicationObjectConfigurerId ) {
-        services.put( ApplicationObjectConfigurer.class, applicationObjectConfigurerId );
+        registerService( ApplicationObjectConfigurer.class, applicationObjectConfigurerId );
     }
 
     /**
@@ -274,7 +340,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param applicationSecurityManager instance to use
      */
     public void setApplicationSecurityManager( ApplicationSecurityManager applicationSecurityManager ) {
-        services.put( ApplicationSecurityManager.class, applicationSecurityManager );
+        registerService( ApplicationSecurityManager.class, applicationSecurityManager );
     }
 
     /**
@@ -283,7 +349,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param applicationSecurityManagerId bean id
      */
     public void setApplicationSecurityManagerId( String applicationSecurityManagerId ) {
-        services.put( ApplicationSecurityManager.class, applicationSecurityManagerId );
+        registerService( ApplicationSecurityManager.class, applicationSecurityManagerId );
     }
 
     /**
@@ -292,7 +358,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factory
      */
     public void setApplicationWindowFactory( ApplicationWindowFactory factory ) {
-        services.put( ApplicationWindowFactory.class, factory );
+        registerService( ApplicationWindowFactory.class, factory );
     }
 
     /**
@@ -301,7 +367,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factoryId bean id
      */
     public void setApplicationWindowFactoryId( String factoryId ) {
-        services.put( ApplicationWindowFactory.class, factoryId );
+        registerService( ApplicationWindowFactory.class, factoryId );
     }
 
     /**
@@ -310,7 +376,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factory
      */
     public void setApplicationPageFactory( ApplicationPageFactory factory ) {
-        services.put( ApplicationPageFactory.class, factory );
+        registerService( ApplicationPageFactory.class, factory );
     }
 
     /**
@@ -319,7 +385,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factoryId bean id
      */
     public void setApplicationPageFactoryId( String factoryId ) {
-        services.put( ApplicationPageFactory.class, factoryId );
+        registerService( ApplicationPageFactory.class, factoryId );
     }
 
     /**
@@ -328,7 +394,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factory bean id
      */
     public void setPageComponentPaneFactory( PageComponentPaneFactory factory ) {
-        services.put( PageComponentPaneFactory.class, factory );
+        registerService( PageComponentPaneFactory.class, factory );
     }
 
     /**
@@ -337,7 +403,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param factoryId bean id
      */
     public void setPageComponentPaneFactoryId( String factoryId ) {
-        services.put( PageComponentPaneFactory.class, factoryId );
+        registerService( PageComponentPaneFactory.class, factoryId );
     }
 
     /**
@@ -346,7 +412,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param binderSelectionStrategy
      */
     public void setBinderSelectionStrategy( BinderSelectionStrategy binderSelectionStrategy ) {
-        services.put( BinderSelectionStrategy.class, binderSelectionStrategy );
+        registerService( BinderSelectionStrategy.class, binderSelectionStrategy );
     }
 
     /**
@@ -355,7 +421,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param binderSelectionStrategyId bean id
      */
     public void setBinderSelectionStrategyId( String binderSelectionStrategyId ) {
-        services.put( BinderSelectionStrategy.class, binderSelectionStrategyId );
+        registerService( BinderSelectionStrategy.class, binderSelectionStrategyId );
     }
 
     /**
@@ -364,7 +430,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param bindingFactoryProvider
      */
     public void setBindingFactoryProvider( BindingFactoryProvider bindingFactoryProvider ) {
-        services.put( BindingFactoryProvider.class, bindingFactoryProvider );
+        registerService( BindingFactoryProvider.class, bindingFactoryProvider );
     }
 
     /**
@@ -373,7 +439,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param bindingFactoryProviderId bean id
      */
     public void setBindingFactoryProviderId( String bindingFactoryProviderId ) {
-        services.put( BindingFactoryProvider.class, bindingFactoryProviderId );
+        registerService( BindingFactoryProvider.class, bindingFactoryProviderId );
     }
 
     /**
@@ -382,7 +448,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param commandServices
      */
     public void setCommandServices( CommandServices commandServices ) {
-        services.put( CommandServices.class, commandServices );
+        registerService( CommandServices.class, commandServices );
     }
 
     /**
@@ -391,7 +457,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param commandServicesId bean id
      */
     public void setCommandServicesId( String commandServicesId ) {
-        services.put( CommandServices.class, commandServicesId );
+        registerService( CommandServices.class, commandServicesId );
     }
 
     /**
@@ -400,7 +466,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param commandConfigurer
      */
     public void setCommandConfigurer( CommandConfigurer commandConfigurer ) {
-        services.put( CommandConfigurer.class, commandConfigurer );
+        registerService( CommandConfigurer.class, commandConfigurer );
     }
 
     /**
@@ -409,7 +475,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param commandConfigurerId bean id
      */
     public void setCommandConfigurerId( String commandConfigurerId ) {
-        services.put( CommandConfigurer.class, commandConfigurerId );
+        registerService( CommandConfigurer.class, commandConfigurerId );
     }
 
     /**
@@ -418,7 +484,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param buttonFactory
      */
     public void setButtonFactory( ButtonFactory buttonFactory ) {
-        services.put( ButtonFactory.class, buttonFactory );
+        registerService( ButtonFactory.class, buttonFactory );
     }
 
     /**
@@ -427,7 +493,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param buttonFactoryId bean id
      */
     public void setButtonFactoryId( String buttonFactoryId ) {
-        services.put( ButtonFactory.class, buttonFactoryId );
+        registerService( ButtonFactory.class, buttonFactoryId );
     }
 
     /**
@@ -436,7 +502,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param menuFactory
      */
     public void setMenuFactory( MenuFactory menuFactory ) {
-        services.put( MenuFactory.class, menuFactory );
+        registerService( MenuFactory.class, menuFactory );
     }
 
     /**
@@ -445,7 +511,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param menuFactoryId bean id
      */
     public void setMenuFactoryId( String menuFactoryId ) {
-        services.put( MenuFactory.class, menuFactoryId );
+        registerService( MenuFactory.class, menuFactoryId );
     }
 
     /**
@@ -454,7 +520,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param componentFactory
      */
     public void setComponentFactory( ComponentFactory componentFactory ) {
-        services.put( ComponentFactory.class, componentFactory );
+        registerService( ComponentFactory.class, componentFactory );
     }
 
     /**
@@ -463,7 +529,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param componentFactoryId bean id
      */
     public void setComponentFactoryId( String componentFactoryId ) {
-        services.put( ComponentFactory.class, componentFactoryId );
+        registerService( ComponentFactory.class, componentFactoryId );
     }
 
     /**
@@ -472,7 +538,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param conversionService
      */
     public void setConversionService( ConversionService conversionService ) {
-        services.put( ConversionService.class, conversionService );
+        registerService( ConversionService.class, conversionService );
     }
 
     /**
@@ -481,7 +547,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param conversionServiceId bean id
      */
     public void setConversionServiceId( String conversionServiceId ) {
-        services.put( ConversionService.class, conversionServiceId );
+        registerService( ConversionService.class, conversionServiceId );
     }
 
     /**
@@ -490,7 +556,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param formComponentInterceptorFactory
      */
     public void setFormComponentInterceptorFactory( FormComponentInterceptorFactory formComponentInterceptorFactory ) {
-        services.put( FormComponentInterceptorFactory.class, formComponentInterceptorFactory );
+        registerService( FormComponentInterceptorFactory.class, formComponentInterceptorFactory );
     }
 
     /**
@@ -499,7 +565,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param formComponentInterceptorFactoryId bean id
      */
     public void setFormComponentInterceptorFactoryId( String formComponentInterceptorFactoryId ) {
-        services.put( FormComponentInterceptorFactory.class, formComponentInterceptorFactoryId );
+        registerService( FormComponentInterceptorFactory.class, formComponentInterceptorFactoryId );
     }
 
     /**
@@ -508,7 +574,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param fieldFaceSource
      */
     public void setFieldFaceSource( FieldFaceSource fieldFaceSource ) {
-        services.put( FieldFaceSource.class, fieldFaceSource );
+        registerService( FieldFaceSource.class, fieldFaceSource );
     }
 
     /**
@@ -517,7 +583,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param fieldFaceSourceId bean id
      */
     public void setFieldFaceSourceId( String fieldFaceSourceId ) {
-        services.put( FieldFaceSource.class, fieldFaceSourceId );
+        registerService( FieldFaceSource.class, fieldFaceSourceId );
     }
 
     /**
@@ -526,7 +592,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param iconSource
      */
     public void setIconSource( IconSource iconSource ) {
-        services.put( IconSource.class, iconSource );
+        registerService( IconSource.class, iconSource );
     }
 
     /**
@@ -535,7 +601,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param iconSourceId bean id
      */
     public void setIconSourceId( String iconSourceId ) {
-        services.put( IconSource.class, iconSourceId );
+        registerService( IconSource.class, iconSourceId );
     }
 
     /**
@@ -544,7 +610,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param imageSource
      */
     public void setImageSource( ImageSource imageSource ) {
-        services.put( ImageSource.class, imageSource );
+        registerService( ImageSource.class, imageSource );
     }
 
     /**
@@ -553,7 +619,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param imageSourceId bean id
      */
     public void setImageSourceId( String imageSourceId ) {
-        services.put( ImageSource.class, imageSourceId );
+        registerService( ImageSource.class, imageSourceId );
     }
 
     /**
@@ -562,7 +628,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param labeledEnumResolver
      */
     public void setLabeledEnumResolver( LabeledEnumResolver labeledEnumResolver ) {
-        services.put( LabeledEnumResolver.class, labeledEnumResolver );
+        registerService( LabeledEnumResolver.class, labeledEnumResolver );
     }
 
     /**
@@ -571,7 +637,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param labeledEnumResolverId bean id
      */
     public void setLabeledEnumResolverId( String labeledEnumResolverId ) {
-        services.put( LabeledEnumResolver.class, labeledEnumResolverId );
+        registerService( LabeledEnumResolver.class, labeledEnumResolverId );
     }
 
     /**
@@ -580,7 +646,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageSource
      */
     public void setMessageSource( MessageSource messageSource ) {
-        services.put( MessageSource.class, messageSource );
+        registerService( MessageSource.class, messageSource );
     }
 
     /**
@@ -589,7 +655,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageSourceId bean id
      */
     public void setMessageSourceId( String messageSourceId ) {
-        services.put( MessageSource.class, messageSourceId );
+        registerService( MessageSource.class, messageSourceId );
     }
 
     /**
@@ -598,7 +664,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageSourceAccessor
      */
     public void setMessageSourceAccesor( MessageSourceAccessor messageSourceAccessor ) {
-        services.put( MessageSourceAccessor.class, messageSourceAccessor );
+        registerService( MessageSourceAccessor.class, messageSourceAccessor );
     }
 
     /**
@@ -607,7 +673,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageSourceAccessorId bean id
      */
     public void setMessageSourceAccesorId( String messageSourceAccessorId ) {
-        services.put( MessageSourceAccessor.class, messageSourceAccessorId );
+        registerService( MessageSourceAccessor.class, messageSourceAccessorId );
     }
 
     /**
@@ -616,7 +682,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param rulesSource
      */
     public void setRulesSource( RulesSource rulesSource ) {
-        services.put( RulesSource.class, rulesSource );
+        registerService( RulesSource.class, rulesSource );
     }
 
     /**
@@ -625,7 +691,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param rulesSourceId bean id
      */
     public void setRulesSourceId( String rulesSourceId ) {
-        services.put( RulesSource.class, rulesSourceId );
+        registerService( RulesSource.class, rulesSourceId );
     }
 
     /**
@@ -634,7 +700,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param securityControllerManager instance to use
      */
     public void setSecurityControllerManager( SecurityControllerManager securityControllerManager ) {
-        services.put( SecurityControllerManager.class, securityControllerManager );
+        registerService( SecurityControllerManager.class, securityControllerManager );
     }
 
     /**
@@ -643,7 +709,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param securityControllerManagerId bean id
      */
     public void setSecurityControllerManagerId( String securityControllerManagerId ) {
-        services.put( SecurityControllerManager.class, securityControllerManagerId );
+        registerService( SecurityControllerManager.class, securityControllerManagerId );
     }
 
     /**
@@ -652,7 +718,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param valueChangeDetector instance to use
      */
     public void setValueChangeDetector( ValueChangeDetector valueChangeDetector ) {
-        services.put( ValueChangeDetector.class, valueChangeDetector );
+        registerService( ValueChangeDetector.class, valueChangeDetector );
     }
 
     /**
@@ -661,7 +727,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param valueChangeDetectorId bean id
      */
     public void setValueChangeDetectorId( String valueChangeDetectorId ) {
-        services.put( ValueChangeDetector.class, valueChangeDetectorId );
+        registerService( ValueChangeDetector.class, valueChangeDetectorId );
     }
 
     /**
@@ -670,7 +736,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param viewDescriptorRegistry
      */
     public void setViewDescriptorRegistry( ViewDescriptorRegistry viewDescriptorRegistry ) {
-        services.put( ViewDescriptorRegistry.class, viewDescriptorRegistry );
+        registerService( ViewDescriptorRegistry.class, viewDescriptorRegistry );
     }
 
     /**
@@ -679,7 +745,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param pageDescriptorRegistry
      */
     public void setPageDescriptorRegistry( PageDescriptorRegistry pageDescriptorRegistry ) {
-        services.put( PageDescriptorRegistry.class, pageDescriptorRegistry );
+        registerService( PageDescriptorRegistry.class, pageDescriptorRegistry );
     }
 
     /**
@@ -688,7 +754,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageTranslatorFactory
      */
     public void setMessageTranslatorFactory( MessageTranslatorFactory messageTranslatorFactory ) {
-        services.put( MessageTranslatorFactory.class, messageTranslatorFactory );
+        registerService( MessageTranslatorFactory.class, messageTranslatorFactory );
     }
 
     /**
@@ -697,7 +763,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param messageTranslatorFactory
      */
     public void setMessageTranslatorFactoryId( String messageTranslatorFactoryId ) {
-        services.put( MessageTranslatorFactory.class, messageTranslatorFactoryId );
+        registerService( MessageTranslatorFactory.class, messageTranslatorFactoryId );
     }
 
     /**
@@ -706,7 +772,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param viewDescriptorRegistryId bean id
      */
     public void setViewDescriptorRegistryId( String viewDescriptorRegistryId ) {
-        services.put( ViewDescriptorRegistry.class, viewDescriptorRegistryId );
+        registerService( ViewDescriptorRegistry.class, viewDescriptorRegistryId );
     }
 
     /**
@@ -715,7 +781,7 @@ public class DefaultApplicationServices implements ApplicationServices, Applicat
      * @param pageDescriptorRegistryId bean id
      */
     public void setPageDescriptorRegistryId( String pageDescriptorRegistryId ) {
-        services.put( PageDescriptorRegistry.class, pageDescriptorRegistryId );
+        registerService( PageDescriptorRegistry.class, pageDescriptorRegistryId );
     }
 
     /**
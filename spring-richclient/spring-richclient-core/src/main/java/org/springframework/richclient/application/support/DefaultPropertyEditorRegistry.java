@@ -33,6 +33,7 @@ import org.springframework.beans.propertyeditors.ClassEditor;
 import org.springframework.beans.propertyeditors.CustomBooleanEditor;
 import org.springframework.beans.propertyeditors.CustomDateEditor;
 import org.springframework.beans.propertyeditors.CustomNumberEditor;
+import org.springframework.richclient.util.ClassHierarchyMap;
 import org.springframework.richclient.util.ClassUtils;
 import org.springframework.util.Assert;
 
@@ -47,7 +48,7 @@ public class DefaultPropertyEditorRegistry
     private static final Log logger = LogFactory.getLog(
         DefaultPropertyEditorRegistry.class);
     
-    private Map propertyEditorByClass = new HashMap();
+    private final ClassHierarchyMap propertyEditorByClass = new ClassHierarchyMap();
     
     private Map propertyEditorByClassAndProperty = new HashMap();
     
@@ -214,8 +215,7 @@ public class DefaultPropertyEditorRegistry
 
 
     public PropertyEditor getPropertyEditor(final Class typeClass) {
-        final Class editorClass = (Class)ClassUtils.getValueFromMapForClass(
-            typeClass, this.propertyEditorByClass);
+        final Class editorClass = (Class)this.propertyEditorByClass.get(typeClass);
 
         if (editorClass == null) {
             if (logger.isDebugEnabled()) {
@@ -0,0 +1,35 @@
+package org.springframework.richclient.application.support;
+
+import org.springframework.richclient.application.StartupTask;
+import org.springframework.richclient.image.IconSource;
+import org.springframework.util.Assert;
+
+/**
+ * Loads icons into an {@link IconSource} during startup, so the first window
+ * doesn't have to load them on the event dispatch thread. This only helps if
+ * the icon source caches its icons, like the {@link
+ * org.springframework.richclient.image.DefaultIconSource} does.
+ */
+public class IconPreloadingTask implements StartupTask {
+
+	private final IconSource iconSource;
+
+	private final String[] iconKeys;
+
+	/**
+	 * @param iconSource the icon source to load the icons into.
+	 * @param iconKeys the keys of the icons to load.
+	 */
+	public IconPreloadingTask(IconSource iconSource, String[] iconKeys) {
+		Assert.notNull(iconSource, "iconSource must not be null");
+		Assert.notNull(iconKeys, "iconKeys must not be null");
+		this.iconSource = iconSource;
+		this.iconKeys = iconKeys;
+	}
+
+	public void run() {
+		for (int i = 0; i < iconKeys.length; i++) {
+			iconSource.getIcon(iconKeys[i]);
+		}
+	}
+}
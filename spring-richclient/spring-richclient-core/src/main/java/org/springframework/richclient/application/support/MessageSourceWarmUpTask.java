@@ -0,0 +1,54 @@
+package org.springframework.richclient.application.support;
+
+import java.util.Locale;
+
+import org.springframework.context.MessageSource;
+import org.springframework.richclient.application.StartupTask;
+import org.springframework.util.Assert;
+
+/**
+ * Loads the message bundles of a {@link MessageSource} during startup, so the
+ * first lookups on the event dispatch thread don't have to.
+ * <p>
+ * Resolving a code that doesn't exist makes resource bundle based message
+ * sources load every bundle for the locale. The given codes, if any, are
+ * resolved too.
+ */
+public class MessageSourceWarmUpTask implements StartupTask {
+
+	private static final String UNKNOWN_CODE = MessageSourceWarmUpTask.class.getName() + ".unknown";
+
+	private final MessageSource messageSource;
+
+	private String[] codes = new String[0];
+
+	private Locale locale;
+
+	public MessageSourceWarmUpTask(MessageSource messageSource) {
+		Assert.notNull(messageSource, "messageSource must not be null");
+		this.messageSource = messageSource;
+	}
+
+	/**
+	 * Set the codes of the messages to resolve.
+	 */
+	public void setCodes(String[] codes) {
+		Assert.notNull(codes, "codes must not be null");
+		this.codes = codes;
+	}
+
+	/**
+	 * Set the locale to load the bundles for. Defaults to the default locale.
+	 */
+	public void setLocale(Locale locale) {
+		this.locale = locale;
+	}
+
+	public void run() {
+		Locale locale = this.locale != null ? this.locale : Locale.getDefault();
+		messageSource.getMessage(UNKNOWN_CODE, null, null, locale);
+		for (int i = 0; i < codes.length; i++) {
+			messageSource.getMessage(codes[i], null, null, locale);
+		}
+	}
+}
@@ -31,6 +31,9 @@ import org.springframework.richclient.util.PopupMenuMouseListener;
 
 /**
  * <code>ApplicationPage</code> implementation that puts the <code>PageComponent</code>s in a <code>JTabbedPane</code>.
+ * <p>
+ * With {@link #setLazyControlCreation(boolean) lazy control creation} the control of a <code>PageComponent</code> is
+ * created when its tab is selected for the first time.
  * 
  * @author Peter De Bruycker
  */
@@ -89,8 +92,8 @@ public class TabbedApplicationPage extends AbstractApplicationPage implements Pa
     protected void doAddPageComponent(PageComponent pageComponent) {
         try {
             addingComponent = true;
-            tabbedPane.addTab(pageComponent.getDisplayName(), pageComponent.getIcon(), pageComponent.getContext()
-                    .getPane().getPageComponent().getControl(), pageComponent.getCaption());
+            tabbedPane.addTab(pageComponent.getDisplayName(), pageComponent.getIcon(), createPageComponentControl(
+                    pageComponent, pageComponent.getContext().getPane().getPageComponent()), pageComponent.getCaption());
         } finally {
             addingComponent = false;
         }
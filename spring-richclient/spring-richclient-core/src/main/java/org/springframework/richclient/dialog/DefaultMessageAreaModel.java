@@ -36,6 +36,12 @@ import org.springframework.util.ObjectUtils;
  */
 public class DefaultMessageAreaModel implements Messagable {
 
+    private static final EventListenerListHelper.EventDispatcher PROPERTY_CHANGE = new EventListenerListHelper.EventDispatcher() {
+        public void dispatch(Object listener, Object event) {
+            ((PropertyChangeListener) listener).propertyChange((PropertyChangeEvent) event);
+        }
+    };
+
     private Messagable delegate;
 
     private Message message = DefaultMessage.EMPTY_MESSAGE;
@@ -90,7 +96,7 @@ public class DefaultMessageAreaModel implements Messagable {
     }
     
     protected void fireMessageUpdated(Message oldMsg, Message newMsg) {
-        listenerList.fire("propertyChange", new PropertyChangeEvent(delegate, MESSAGE_PROPERTY, oldMsg, newMsg));
+        listenerList.dispatch(PROPERTY_CHANGE, new PropertyChangeEvent(delegate, MESSAGE_PROPERTY, oldMsg, newMsg));
     }
 
     public void addPropertyChangeListener(PropertyChangeListener listener) {
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.factory;
+
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.PriorityQueue;
+
+import javax.swing.Timer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Creates the controls of {@link LazyControl}s while the event dispatch thread
+ * has nothing else to do, so they are ready before they're shown.
+ * <p>
+ * Swing controls must be created on the event dispatch thread, so this is done
+ * one control at a time, and only when there are no events waiting. Controls
+ * with a lower priority number are created first, once their window is
+ * displayable. A lazy control that has been removed from its parent, e.g.
+ * because its view has been closed, is skipped.
+ * <p>
+ * Like the rest of Swing, this class must only be used on the event dispatch
+ * thread.
+ */
+public class IdleControlCreator {
+
+	/** The default delay between two controls, in milliseconds. */
+	public static final int DEFAULT_DELAY = 100;
+
+	private static final Log logger = LogFactory.getLog(IdleControlCreator.class);
+
+	private final PriorityQueue<QueuedControl> queue = new PriorityQueue<QueuedControl>();
+
+	private final Timer timer;
+
+	private long sequence;
+
+	public IdleControlCreator() {
+		this(DEFAULT_DELAY);
+	}
+
+	/**
+	 * @param delay the time between two checks for idleness, in milliseconds.
+	 */
+	public IdleControlCreator(int delay) {
+		timer = new Timer(delay, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				createNextControl();
+			}
+		});
+	}
+
+	/**
+	 * Queues a lazy control to have its control created when the event
+	 * dispatch thread is idle.
+	 *
+	 * @param control the lazy control.
+	 * @param priority controls with a lower number are created first.
+	 */
+	public void add(LazyControl control, int priority) {
+		Assert.notNull(control, "control must not be null");
+		queue.add(new QueuedControl(control, priority, sequence++));
+		timer.start();
+	}
+
+	/**
+	 * Returns the number of queued controls.
+	 */
+	public int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Forgets the queued controls.
+	 */
+	public void clear() {
+		queue.clear();
+		timer.stop();
+	}
+
+	/**
+	 * Creates the control with the lowest priority number, unless there are
+	 * events waiting to be dispatched.
+	 */
+	protected void createNextControl() {
+		if (Toolkit.getDefaultToolkit().getSystemEventQueue().peekEvent() != null) {
+			return;
+		}
+		while (!queue.isEmpty()) {
+			LazyControl control = queue.peek().control;
+			if (control.isControlCreated() || control.getParent() == null) {
+				queue.poll();
+			}
+			else if (!control.isDisplayable()) {
+				// its window hasn't been shown yet
+				return;
+			}
+			else {
+				queue.poll();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Creating control of " + control.getControlFactory() + " while idle");
+				}
+				control.createControl();
+				break;
+			}
+		}
+		if (queue.isEmpty()) {
+			timer.stop();
+		}
+	}
+
+	private static final class QueuedControl implements Comparable<QueuedControl> {
+		private final LazyControl control;
+
+		private final int priority;
+
+		private final long sequence;
+
+		private QueuedControl(LazyControl control, int priority, long sequence) {
+			this.control = control;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		public int compareTo(QueuedControl other) {
+			if (priority != other.priority) {
+				return priority < other.priority ? -1 : 1;
+			}
+			return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+		}
+	}
+}
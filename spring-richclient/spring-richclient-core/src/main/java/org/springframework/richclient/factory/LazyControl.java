@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.factory;
+
+import java.awt.BorderLayout;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+
+import javax.swing.JPanel;
+
+import org.springframework.util.Assert;
+
+/**
+ * A panel that stands in for the control of a {@link ControlFactory} until the
+ * panel is shown for the first time. Then the control is created and added to
+ * the panel.
+ * <p>
+ * This keeps controls that are never looked at, like the ones in the hidden
+ * tabs of a tabbed pane, from being created.
+ *
+ * @see IdleControlCreator
+ */
+public class LazyControl extends JPanel {
+
+	private final ControlFactory controlFactory;
+
+	private boolean created;
+
+	/**
+	 * @param controlFactory the factory of the control this panel stands in
+	 * for.
+	 */
+	public LazyControl(ControlFactory controlFactory) {
+		super(new BorderLayout());
+		Assert.notNull(controlFactory, "controlFactory must not be null");
+		this.controlFactory = controlFactory;
+		addHierarchyListener(new HierarchyListener() {
+			public void hierarchyChanged(HierarchyEvent e) {
+				if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+					createControl();
+				}
+			}
+		});
+	}
+
+	public ControlFactory getControlFactory() {
+		return controlFactory;
+	}
+
+	/**
+	 * Returns whether the control has been created and added to this panel.
+	 */
+	public boolean isControlCreated() {
+		return created;
+	}
+
+	/**
+	 * Creates the control and adds it to this panel, if that hasn't been done
+	 * yet.
+	 */
+	public void createControl() {
+		if (created) {
+			return;
+		}
+		created = true;
+		add(controlFactory.getControl(), BorderLayout.CENTER);
+		revalidate();
+		repaint();
+	}
+}
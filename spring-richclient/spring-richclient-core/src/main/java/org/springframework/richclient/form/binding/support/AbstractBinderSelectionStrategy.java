@@ -16,11 +16,11 @@
 package org.springframework.richclient.form.binding.support;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.propertyeditors.ClassEditor;
@@ -30,8 +30,9 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.enums.LabeledEnum;
 import org.springframework.richclient.form.binding.Binder;
 import org.springframework.richclient.form.binding.BinderSelectionStrategy;
-import org.springframework.richclient.util.ClassUtils;
+import org.springframework.richclient.util.ClassHierarchyMap;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Default implementation of <code>BinderSelectionStrategy</code>. Provides for 
@@ -46,11 +47,15 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
 
     private final ClassEditor classEditor = new ClassEditor();
     
-    private final Map controlTypeBinders = new HashMap();
+    private final ClassHierarchyMap controlTypeBinders = new ClassHierarchyMap();
 
-    private final Map propertyTypeBinders = new HashMap();
+    private final ClassHierarchyMap propertyTypeBinders = new ClassHierarchyMap();
 
-    private final Map propertyNameBinders = new HashMap();
+    /** Per property name, the binders by parent object type. */
+    private final Map propertyNameBinders = new ConcurrentHashMap();
+
+    /** The selected binders by {@link SelectionKey}, cleared on every registration. */
+    private final Map selectedBinders = new ConcurrentHashMap();
     
     private List bindersForPropertyNames = new ArrayList();
     
@@ -62,11 +67,46 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
     }
 
     public Binder selectBinder(FormModel formModel, String propertyName) {
+        return getSelectedBinder(null, formModel, propertyName);
+    }
+
+    public Binder selectBinder(Class controlType, FormModel formModel, String propertyName) {
+        return getSelectedBinder(controlType, formModel, propertyName);
+    }
+
+    /**
+     * Returns the binder selected before for the same control type, form object
+     * type, property name and property type, or selects it now.
+     */
+    private Binder getSelectedBinder(Class controlType, FormModel formModel, String propertyName) {
+        // the form object is only needed when binders are registered for the property name
+        Class parentObjectType = propertyNameBinders.containsKey(propertyName) ? getParentObjectType(formModel)
+                : null;
+        Class propertyType = getPropertyType(formModel, propertyName);
+        SelectionKey key = new SelectionKey(controlType, parentObjectType, propertyName, propertyType);
+        Binder binder = (Binder)selectedBinders.get(key);
+        if (binder == null) {
+            if (controlType == null) {
+                binder = doSelectBinder(parentObjectType, propertyType, formModel, propertyName);
+            }
+            else {
+                binder = doSelectBinder(controlType, formModel, propertyName);
+            }
+            selectedBinders.put(key, binder);
+        }
+        return binder;
+    }
+
+    private Binder doSelectBinder(Class parentObjectType, Class propertyType, FormModel formModel,
+            String propertyName) {
         // first try and find a binder for the specific property name
-        Binder binder = findBinderByPropertyName(formModel.getFormObject().getClass(), propertyName);
+        Binder binder = null;
+        if (parentObjectType != null) {
+            binder = findBinderByPropertyName(parentObjectType, propertyName);
+        }
         if (binder == null) {
             // next try and find a binder for the specific property type
-            binder = findBinderByPropertyType(getPropertyType(formModel, propertyName));
+            binder = findBinderByPropertyType(propertyType);
         }
         if (binder == null) {
             // just find a binder for the default control type
@@ -79,7 +119,7 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
                 + "] property [" + propertyName + "]");
     }
 
-    public Binder selectBinder(Class controlType, FormModel formModel, String propertyName) {
+    private Binder doSelectBinder(Class controlType, FormModel formModel, String propertyName) {
         Binder binder = findBinderByControlType(controlType);
         if (binder == null) {
             binder = selectBinder(formModel, propertyName);
@@ -91,6 +131,23 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
                 + "] property [" + propertyName + "]");
     }
 
+    /**
+     * Returns the type of the form object, or <code>null</code> if the form
+     * model has no form object.
+     */
+    private Class getParentObjectType(FormModel formModel) {
+        Object formObject = formModel.getFormObject();
+        return formObject == null ? null : formObject.getClass();
+    }
+
+    /**
+     * Forget the binders that were selected so far, so they're selected again on
+     * next use. This is done on every registration of a binder.
+     */
+    protected void clearSelectedBinders() {
+        selectedBinders.clear();
+    }
+
     /**
      * Register the default set of binders. This method is called on construction.
      * 
@@ -106,25 +163,8 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
      * objectType which also has the same propertyName.
      */
     protected Binder findBinderByPropertyName(Class parentObjectType, String propertyName) {
-        PropertyNameKey key = new PropertyNameKey(parentObjectType, propertyName);
-        Binder binder = (Binder)propertyNameBinders.get(key);
-        if (binder == null) {
-            // if no direct match was found try to find a match in any super classes
-            final Map potentialMatchingBinders = new HashMap();
-            for (Iterator i = propertyNameBinders.entrySet().iterator(); i.hasNext();) {
-                Map.Entry entry = (Map.Entry)i.next();
-                if (((PropertyNameKey)entry.getKey()).getPropertyName().equals(propertyName)) {
-                    potentialMatchingBinders.put(((PropertyNameKey)entry.getKey()).getParentObjectType(),
-                            entry.getValue());
-                }
-            }
-            binder = (Binder)ClassUtils.getValueFromMapForClass(parentObjectType, potentialMatchingBinders);
-            if (binder != null) {
-                // remember the lookup so it doesn't have to be discovered again 
-                registerBinderForPropertyName(parentObjectType, propertyName, binder);
-            }
-        }
-        return binder;
+        ClassHierarchyMap binders = (ClassHierarchyMap)propertyNameBinders.get(propertyName);
+        return binders == null ? null : (Binder)binders.get(parentObjectType);
     }
 
     /**
@@ -132,7 +172,7 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
      * try to find binder for closest superclass of the given control type.
      */
     protected Binder findBinderByPropertyType(Class propertyType) {
-        return (Binder)ClassUtils.getValueFromMapForClass(propertyType, propertyTypeBinders);
+        return (Binder)propertyTypeBinders.get(propertyType);
     }
 
     /**
@@ -140,11 +180,21 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
      * try to find binder for closest superclass of the given control type.
      */
     protected Binder findBinderByControlType(Class controlType) {
-        return (Binder)ClassUtils.getValueFromMapForClass(controlType, controlTypeBinders);
+        return (Binder)controlTypeBinders.get(controlType);
     }
 
     protected void registerBinderForPropertyName(Class parentObjectType, String propertyName, Binder binder) {
-        propertyNameBinders.put(new PropertyNameKey(parentObjectType, propertyName), binder);
+        Assert.notNull(parentObjectType, "parentObjectType must not be null.");
+        Assert.notNull(propertyName, "propertyName must not be null.");
+        synchronized (propertyNameBinders) {
+            ClassHierarchyMap binders = (ClassHierarchyMap)propertyNameBinders.get(propertyName);
+            if (binders == null) {
+                binders = new ClassHierarchyMap();
+                propertyNameBinders.put(propertyName, binders);
+            }
+            binders.put(parentObjectType, binder);
+        }
+        clearSelectedBinders();
     }
     
     /**
@@ -237,6 +287,7 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
 
     protected void registerBinderForPropertyType(Class propertyType, Binder binder) {
         propertyTypeBinders.put(propertyType, binder);
+        clearSelectedBinders();
     }
 
     /**
@@ -258,6 +309,7 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
 
     protected void registerBinderForControlType(Class controlType, Binder binder) {
         controlTypeBinders.put(controlType, binder);
+        clearSelectedBinders();
     }
 
     /**
@@ -285,40 +337,43 @@ public abstract class AbstractBinderSelectionStrategy implements BinderSelection
         return LabeledEnum.class.isAssignableFrom(getPropertyType(formModel, formPropertyPath));
     }
 
-    private static class PropertyNameKey {
+    /**
+     * Identifies a binder selection. The control type is <code>null</code> when
+     * no control type was asked for, the parent object type is <code>null</code>
+     * when no binders are registered for the property name.
+     */
+    private static class SelectionKey {
+        private final Class controlType;
+
         private final Class parentObjectType;
 
         private final String propertyName;
 
-        public PropertyNameKey(Class parentObjectType, String propertyName) {
-            Assert.notNull(parentObjectType, "parentObjectType must not be null.");
-            Assert.notNull(propertyName, "propertyName must not be null.");
+        private final Class propertyType;
+
+        public SelectionKey(Class controlType, Class parentObjectType, String propertyName, Class propertyType) {
+            this.controlType = controlType;
             this.parentObjectType = parentObjectType;
             this.propertyName = propertyName;
-        }
-
-        public String getPropertyName() {
-            return propertyName;
-        }
-
-        public Class getParentObjectType() {
-            return parentObjectType;
+            this.propertyType = propertyType;
         }
 
         public boolean equals(Object o) {
             if (this == o) {
                 return true;
             }
-            if (!(o instanceof PropertyNameKey)) {
+            if (!(o instanceof SelectionKey)) {
                 return false;
             }
-            final PropertyNameKey propertyNameKey = (PropertyNameKey)o;
-            return propertyName.equals(propertyNameKey.propertyName)
-                    && parentObjectType.equals(propertyNameKey.parentObjectType);
+            final SelectionKey selectionKey = (SelectionKey)o;
+            return controlType == selectionKey.controlType && parentObjectType == selectionKey.parentObjectType
+                    && propertyType == selectionKey.propertyType && propertyName.equals(selectionKey.propertyName);
         }
 
         public int hashCode() {
-            return (propertyName.hashCode() * 29) + parentObjectType.hashCode();
+            int hashCode = (propertyName.hashCode() * 29) + ObjectUtils.nullSafeHashCode(controlType);
+            hashCode = (hashCode * 29) + ObjectUtils.nullSafeHashCode(parentObjectType);
+            return (hashCode * 29) + ObjectUtils.nullSafeHashCode(propertyType);
         }
     }
 
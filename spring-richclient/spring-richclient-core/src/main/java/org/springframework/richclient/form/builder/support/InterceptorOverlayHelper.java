@@ -22,7 +22,7 @@ import javax.swing.JComponent;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
 
-import org.springframework.richclient.util.OverlayHelper;
+import org.springframework.richclient.util.OverlayLayer;
 
 /**
  * Helper class to attach overlay components to form components. This is needed as some
@@ -53,7 +53,7 @@ public class InterceptorOverlayHelper {
 
     private static void doAttachOverlay( JComponent overlay, JComponent component, int center, int xOffset, int yOffset ) {
         JComponent componentToOverlay = hasParentScrollPane( component ) ? getParentScrollPane( component ) : component;
-        OverlayHelper.attachOverlay( overlay, componentToOverlay, center, xOffset, yOffset );
+        OverlayLayer.attachOverlay( overlay, componentToOverlay, center, xOffset, yOffset );
     }
 
     private static JScrollPane getParentScrollPane( JComponent component ) {
@@ -31,7 +31,7 @@ import org.springframework.richclient.core.Guarded;
 import org.springframework.richclient.form.builder.FormComponentInterceptor;
 import org.springframework.richclient.form.builder.FormComponentInterceptorFactory;
 import org.springframework.richclient.form.HasValidationComponent;
-import org.springframework.richclient.util.OverlayHelper;
+import org.springframework.richclient.util.OverlayLayer;
 import org.springframework.richclient.util.RcpSupport;
 import org.springframework.richclient.dialog.DefaultMessageAreaModel;
 import org.springframework.richclient.dialog.Messagable;
@@ -77,7 +77,7 @@ public class OverlayValidationInterceptorFactory implements FormComponentInterce
             else
                 componentToOverlay = hasParentScrollPane(component) ? getParentScrollPane(component) : component;
             int yOffset = componentToOverlay.getPreferredSize().height;
-            OverlayHelper.attachOverlay(overlay, componentToOverlay, SwingConstants.NORTH_WEST, 0, Math.min(yOffset,
+            OverlayLayer.attachOverlay(overlay, componentToOverlay, SwingConstants.NORTH_WEST, 0, Math.min(yOffset,
                     new JTextField().getPreferredSize().height));
         }
 
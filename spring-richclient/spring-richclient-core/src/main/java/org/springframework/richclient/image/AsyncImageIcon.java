@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.image;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+
+/**
+ * An icon that shows a placeholder image while its real image is being loaded
+ * in the background. The components the placeholder was painted on are
+ * repainted when the real image arrives.
+ * <p>
+ * Like the rest of Swing, this icon should be used on the event dispatch
+ * thread. Its state is guarded by the icon itself, so the image may also be
+ * set by another thread.
+ *
+ * @see DefaultIconSource#setImageLoadingExecutor(java.util.concurrent.Executor)
+ */
+public class AsyncImageIcon extends ImageIcon {
+
+    private transient Map paintedComponents = new WeakHashMap();
+
+    private volatile boolean loaded;
+
+    /**
+     * Creates an icon that shows the given placeholder until
+     * {@link #imageLoaded(Image)} is called.
+     *
+     * @param placeholder the image shown while loading
+     */
+    public AsyncImageIcon(Image placeholder) {
+        super(placeholder);
+        loaded = false;
+    }
+
+    /**
+     * Returns <code>true</code> once the real image has been set.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the placeholder by the real image and repaints the components
+     * the placeholder was painted on. Does nothing if the image has already
+     * been set with {@link #setImage(Image)}.
+     *
+     * @param image the loaded image
+     */
+    public void imageLoaded(Image image) {
+        Component[] components;
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            setImage(image);
+            if (paintedComponents == null) {
+                return;
+            }
+            components = (Component[]) paintedComponents.keySet().toArray(new Component[0]);
+            paintedComponents.clear();
+        }
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] instanceof JComponent) {
+                ((JComponent) components[i]).revalidate();
+            }
+            components[i].repaint();
+        }
+    }
+
+    public synchronized void setImage(Image image) {
+        super.setImage(image);
+        loaded = true;
+    }
+
+    public synchronized void paintIcon(Component c, Graphics g, int x, int y) {
+        if (!loaded && c != null) {
+            if (paintedComponents == null) {
+                paintedComponents = new WeakHashMap();
+            }
+            paintedComponents.put(c, null);
+        }
+        super.paintIcon(c, g, x, y);
+    }
+}
@@ -16,9 +16,17 @@
 package org.springframework.richclient.image;
 
 import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -27,9 +35,12 @@ import org.springframework.util.CachingMapDecorator;
 
 /**
  * The default implementation of ImageIconRegistry. This implementation caches
- * all icons using soft references (TODO it just lazy loads them, but it doesn't use SoftReference).
- * More specifically, cached icons will remain
- * in memory unless there is a shortage of resources in the system.
+ * all icons using weak references: a cached icon remains in memory as long as
+ * it is in use. The images of the icons are cached by the image source.
+ * <p>
+ * Icons are loaded on the calling thread, unless an executor is set with
+ * {@link #setImageLoadingExecutor(Executor)}. Then the images are loaded by
+ * the executor, and until they arrive the icons show a placeholder.
  * 
  * @author Keith Donald
  */
@@ -71,6 +82,45 @@ public class DefaultIconSource implements IconSource {
         }
     }
 
+    /**
+     * Sets the executor that loads the images of the icons. The icons returned
+     * by {@link #getIcon(String)} then show a placeholder until their image
+     * has been loaded, see {@link AsyncImageIcon}. The default is
+     * <code>null</code>: images are loaded by the thread asking for the icon.
+     * 
+     * @param executor
+     *            the executor, or <code>null</code> to load images on the
+     *            calling thread.
+     */
+    public void setImageLoadingExecutor(Executor executor) {
+        cache.setImageLoadingExecutor(executor);
+    }
+
+    /**
+     * Sets the image shown by icons of which the image is being loaded. The
+     * default is a transparent image of 16 by 16 pixels.
+     * 
+     * @param placeholderImage
+     *            the image shown while loading
+     */
+    public void setPlaceholderImage(Image placeholderImage) {
+        cache.setPlaceholderImage(placeholderImage);
+    }
+
+    /**
+     * Returns the number of requested icons that were cached.
+     */
+    public long getHitCount() {
+        return cache.getRequestCount() - cache.getMissCount();
+    }
+
+    /**
+     * Returns the number of requested icons that had to be created.
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
     public void clear() {
         cache.clear();
     }
@@ -90,16 +140,106 @@ public class DefaultIconSource implements IconSource {
      * @author Keith Donald
      */
     protected static class IconCache extends CachingMapDecorator {
+        private static final Image DEFAULT_PLACEHOLDER_IMAGE = new BufferedImage(16, 16,
+                BufferedImage.TYPE_INT_ARGB);
+
         private ImageSource images;
 
+        private volatile Executor imageLoadingExecutor;
+
+        private volatile Image placeholderImage = DEFAULT_PLACEHOLDER_IMAGE;
+
+        private final AtomicLong requestCount = new AtomicLong();
+
+        private final AtomicLong missCount = new AtomicLong();
+
         public IconCache(ImageSource images) {
             super(true);
             this.images = images;
         }
 
+        public Object get(Object key) {
+            requestCount.incrementAndGet();
+            return super.get(key);
+        }
+
         public Object create(Object key) {
-            Image image = images.getImage((String)key);
-            return new ImageIcon(image);
+            missCount.incrementAndGet();
+            Executor executor = imageLoadingExecutor;
+            if (executor == null) {
+                Image image = images.getImage((String)key);
+                return new ImageIcon(image);
+            }
+            return createAsyncIcon((String)key, executor);
+        }
+
+        private ImageIcon createAsyncIcon(final String key, Executor executor) {
+            // unknown keys fail here, before anything is loaded
+            if (images instanceof DefaultImageSource) {
+                DefaultImageSource defaultImages = (DefaultImageSource)images;
+                Image image = defaultImages.getCachedImage(key);
+                if (image != null) {
+                    return new ImageIcon(image);
+                }
+                if (!defaultImages.containsKey(key)) {
+                    throw new NoSuchImageResourceException(key);
+                }
+            }
+            else {
+                images.getImageResource(key);
+            }
+            final AsyncImageIcon icon = new AsyncImageIcon(placeholderImage);
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        final Image image = images.getImage(key);
+                        SwingUtilities.invokeLater(new Runnable() {
+                            public void run() {
+                                icon.imageLoaded(image);
+                            }
+                        });
+                    }
+                    catch (RuntimeException e) {
+                        logger.warn("Unable to load the image of icon with key '" + key + "'", e);
+                    }
+                }
+            });
+            return icon;
+        }
+
+        public void setImageLoadingExecutor(Executor imageLoadingExecutor) {
+            this.imageLoadingExecutor = imageLoadingExecutor;
+        }
+
+        public void setPlaceholderImage(Image placeholderImage) {
+            this.placeholderImage = placeholderImage != null ? placeholderImage : DEFAULT_PLACEHOLDER_IMAGE;
+        }
+
+        /**
+         * Returns the icons that are still cached, by key, without counting
+         * them as requested.
+         */
+        public Map cachedIcons() {
+            Map icons = new HashMap();
+            for (Iterator i = entrySet().iterator(); i.hasNext();) {
+                Map.Entry entry = (Map.Entry)i.next();
+                Object icon = entry.getValue();
+                if (icon instanceof Reference) {
+                    icon = ((Reference)icon).get();
+                }
+                if (icon instanceof ImageIcon) {
+                    icons.put(entry.getKey(), icon);
+                }
+            }
+            return icons;
+        }
+
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        public long getMissCount() {
+            return missCount.get();
         }
 
         public ImageSource images() {
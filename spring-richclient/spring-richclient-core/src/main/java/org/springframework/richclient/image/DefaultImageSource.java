@@ -19,6 +19,11 @@ import java.awt.Image;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -26,16 +31,16 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.style.StylerUtils;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.util.Assert;
-import org.springframework.util.CachingMapDecorator;
 
 /**
  * A collection of image resources, each indexed by a common key alias.
  * <p>
  * For example, <code>action.edit.copy = /images/edit/copy.gif</code>
  * <p>
- * This class by default performs caching of all loaded image resources using
- * soft references (TODO it just lazy loads them, but it doesn't use
- * SoftReference).
+ * This class caches the loaded images in an {@link ImageCache}: the most
+ * recently used images are kept within a memory budget, the others by soft
+ * references. An image that is asked for by several threads at once is only
+ * loaded once.
  *
  * <p>
  * An image {@link Handler} is available that handles the 'image' protocol.
@@ -51,6 +56,9 @@ public class DefaultImageSource implements ImageSource {
 
 	private ImageCache imageCache;
 
+	/** The images being loaded, by {@link AwtImageResource}. */
+	private final ConcurrentMap loadingImages = new ConcurrentHashMap();
+
 	private AwtImageResource brokenImageIndicatorResource;
 
 	private Image brokenImageIndicator;
@@ -96,15 +104,89 @@ public class DefaultImageSource implements ImageSource {
 	public Image getImage(String key) {
 		Assert.notNull(key);
 		AwtImageResource resource = getImageResource(key);
+		Image image = imageCache.get(resource);
+		if (image == null) {
+			try {
+				image = loadImage(resource);
+			}
+			catch (IOException e) {
+				if (brokenImageIndicator != null) {
+					return returnBrokenImageIndicator(resource);
+				}
+				throw new NoSuchImageResourceException("No image found at resource '" + resource + '"', e);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Loads the image of the resource and caches it. A thread that asks for an
+	 * image that another thread is loading waits for that image.
+	 */
+	private Image loadImage(final AwtImageResource resource) throws IOException {
+		FutureTask loading = new FutureTask(new Callable() {
+			public Object call() throws IOException {
+				// another thread may have loaded it since the cache was asked
+				Image image = imageCache.peek(resource);
+				if (image == null) {
+					image = resource.getImage();
+					imageCache.put(resource, image);
+				}
+				return image;
+			}
+		});
+		FutureTask loader = (FutureTask) loadingImages.putIfAbsent(resource, loading);
+		if (loader == null) {
+			loader = loading;
+			try {
+				loading.run();
+			}
+			finally {
+				loadingImages.remove(resource, loading);
+			}
+		}
 		try {
-			return (Image) imageCache.get(resource);
+			return (Image) loader.get();
 		}
-		catch (RuntimeException e) {
-			if (brokenImageIndicator != null) {
-				return returnBrokenImageIndicator(resource);
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchImageResourceException(resource, e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
 			}
-			throw e;
+			throw (Error) cause;
+		}
+	}
+
+	/**
+	 * Returns the image with the specified key if it is cached, without
+	 * loading it.
+	 *
+	 * @param key the image key.
+	 * @return the image, or <code>null</code> if it isn't cached or there is
+	 * no image with this key.
+	 */
+	public Image getCachedImage(String key) {
+		Assert.notNull(key);
+		Resource resource = (Resource) imageResources.get(key);
+		if (resource == null) {
+			return null;
 		}
+		return imageCache.peek(new AwtImageResource(resource));
+	}
+
+	/**
+	 * Returns the cache of the loaded images, e.g. to change its budget or to
+	 * look at its statistics.
+	 */
+	public ImageCache getImageCache() {
+		return imageCache;
 	}
 
 	public AwtImageResource getImageResource(String key) {
@@ -165,19 +247,4 @@ public class DefaultImageSource implements ImageSource {
 	public String toString() {
 		return new ToStringCreator(this).append("imageResources", imageResources).toString();
 	}
-
-	private static class ImageCache extends CachingMapDecorator {
-		public ImageCache() {
-			super(true);
-		}
-
-		public Object create(Object resource) {
-			try {
-				return ((AwtImageResource) resource).getImage();
-			}
-			catch (IOException e) {
-				throw new NoSuchImageResourceException("No image found at resource '" + resource + '"', e);
-			}
-		}
-	}
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.image;
+
+import java.awt.Image;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.Assert;
+
+/**
+ * A cache of loaded images with a memory budget.
+ * <p>
+ * The images are kept in least recently used order. When the estimated size of
+ * the images exceeds the budget, the least recently used images are only kept
+ * by soft references: they stay available until the garbage collector needs
+ * the memory, and return to the cache when they are asked for again.
+ * <p>
+ * The size of an image is estimated at four bytes per pixel.
+ *
+ * @see DefaultImageSource#getImageCache()
+ */
+public class ImageCache {
+
+	/** The default memory budget: 16 MB. */
+	public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+	private final LinkedHashMap images = new LinkedHashMap(16, 0.75f, true);
+
+	private final Map softImages = new HashMap();
+
+	private final ReferenceQueue clearedImages = new ReferenceQueue();
+
+	private long maxBytes;
+
+	private long bytes;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/**
+	 * Creates a cache with the {@link #DEFAULT_MAX_BYTES default} budget.
+	 */
+	public ImageCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * @param maxBytes the estimated number of bytes the cached images may use
+	 * before they are only kept by soft references.
+	 */
+	public ImageCache(long maxBytes) {
+		setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * Sets the estimated number of bytes the cached images may use before they
+	 * are only kept by soft references.
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		Assert.isTrue(maxBytes >= 0, "maxBytes must not be negative");
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Returns the image cached for the given key, or <code>null</code> if
+	 * there is none.
+	 */
+	public synchronized Image get(Object key) {
+		Image image = find(key);
+		if (image != null) {
+			hitCount++;
+		}
+		else {
+			missCount++;
+		}
+		return image;
+	}
+
+	/**
+	 * Returns the image cached for the given key, or <code>null</code> if
+	 * there is none, without counting a hit or a miss.
+	 */
+	public synchronized Image peek(Object key) {
+		return find(key);
+	}
+
+	/**
+	 * Caches an image.
+	 */
+	public synchronized void put(Object key, Image image) {
+		Assert.notNull(key, "key must not be null");
+		Assert.notNull(image, "image must not be null");
+		purgeClearedImages();
+		remove(key);
+		images.put(key, image);
+		bytes += estimateBytes(image);
+		evict();
+	}
+
+	/**
+	 * Removes the image cached for the given key.
+	 */
+	public synchronized void remove(Object key) {
+		Image image = (Image) images.remove(key);
+		if (image != null) {
+			bytes -= estimateBytes(image);
+		}
+		softImages.remove(key);
+	}
+
+	/**
+	 * Removes all images. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		images.clear();
+		softImages.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Returns the number of images that are kept within the budget.
+	 */
+	public synchronized int size() {
+		return images.size();
+	}
+
+	/**
+	 * Returns the estimated number of bytes used by the images that are kept
+	 * within the budget.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Returns the number of times an image was moved out of the budget to a
+	 * soft reference.
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	private Image find(Object key) {
+		purgeClearedImages();
+		Image image = (Image) images.get(key);
+		if (image == null) {
+			Reference reference = (Reference) softImages.remove(key);
+			if (reference != null) {
+				image = (Image) reference.get();
+				if (image != null) {
+					images.put(key, image);
+					bytes += estimateBytes(image);
+					evict();
+				}
+			}
+		}
+		return image;
+	}
+
+	private void evict() {
+		Iterator entries = images.entrySet().iterator();
+		// the most recently used image is always kept
+		while (bytes > maxBytes && images.size() > 1 && entries.hasNext()) {
+			Map.Entry entry = (Map.Entry) entries.next();
+			Image image = (Image) entry.getValue();
+			entries.remove();
+			bytes -= estimateBytes(image);
+			softImages.put(entry.getKey(), new KeyedSoftReference(entry.getKey(), image, clearedImages));
+			evictionCount++;
+		}
+	}
+
+	private void purgeClearedImages() {
+		KeyedSoftReference reference;
+		while ((reference = (KeyedSoftReference) clearedImages.poll()) != null) {
+			if (softImages.get(reference.key) == reference) {
+				softImages.remove(reference.key);
+			}
+		}
+	}
+
+	private static long estimateBytes(Image image) {
+		int width = image.getWidth(null);
+		int height = image.getHeight(null);
+		if (width < 0 || height < 0) {
+			return 0;
+		}
+		return 4L * width * height;
+	}
+
+	public synchronized String toString() {
+		return new ToStringCreator(this).append("size", images.size()).append("bytes", bytes).append("maxBytes",
+				maxBytes).append("hitCount", hitCount).append("missCount", missCount).append("evictionCount",
+				evictionCount).toString();
+	}
+
+	/**
+	 * A soft reference that knows its key, so it can be removed once it has
+	 * been cleared.
+	 */
+	private static final class KeyedSoftReference extends SoftReference {
+		private final Object key;
+
+		private KeyedSoftReference(Object key, Image image, ReferenceQueue queue) {
+			super(image, queue);
+			this.key = key;
+		}
+	}
+}
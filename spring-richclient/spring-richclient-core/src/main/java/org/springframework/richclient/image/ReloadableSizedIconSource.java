@@ -16,7 +16,12 @@
 package org.springframework.richclient.image;
 
 import java.awt.Image;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import javax.swing.ImageIcon;
 
@@ -48,11 +53,19 @@ import org.springframework.util.Assert;
  *  
  * </pre>
  * 
+ * <p>
+ * The images loaded for each size are kept by soft references, so switching
+ * back to a size doesn't load its images again while memory allows.
+ * 
  * @author Keith Donald
  */
 public class ReloadableSizedIconSource extends DefaultIconSource implements SizedIconSource {
     private IconSize iconSize;
 
+    private final Map sizedImages = new HashMap();
+
+    private final ReferenceQueue clearedImages = new ReferenceQueue();
+
     /**
      * Create a sized icon registry with icons of a specified size and icon
      * resources to be loaded from the specified image source.
@@ -68,25 +81,41 @@ public class ReloadableSizedIconSource extends DefaultIconSource implements Size
         this.iconSize = iconSize;
     }
 
-    public void reload(IconSize size) {
+    public synchronized void reload(IconSize size) {
         Assert.notNull(size);
         this.iconSize = size;
-        Iterator keys = cache().keySet().iterator();
-        if (!keys.hasNext()) {
+        purgeClearedImages();
+        // reloading doesn't count as asking for the icons
+        Map icons = cache().cachedIcons();
+        if (icons.isEmpty()) {
             logger.warn("No icons currently in the registry--nothing to reload.");
             return;
         }
-        while (keys.hasNext()) {
-            reloadIconImage((String)keys.next());
+        for (Iterator i = icons.entrySet().iterator(); i.hasNext();) {
+            Map.Entry entry = (Map.Entry)i.next();
+            reloadIconImage((String)entry.getKey(), (ImageIcon)entry.getValue());
         }
     }
 
     // reloads the specified image resource key and update the cached icon
-    private void reloadIconImage(String key) {
-        ImageIcon icon = (ImageIcon)cache().get(key);
-        if (icon != null) {
-            Image image = cache().images().getImage(appendIconSizeSuffix(key));
-            icon.setImage(image);
+    private void reloadIconImage(String key, ImageIcon icon) {
+        String sizedKey = appendIconSizeSuffix(key);
+        Reference sizedImage = (Reference)sizedImages.get(sizedKey);
+        Image image = sizedImage != null ? (Image)sizedImage.get() : null;
+        if (image == null) {
+            image = cache().images().getImage(sizedKey);
+            sizedImages.put(sizedKey, new SizedImageReference(sizedKey, image, clearedImages));
+        }
+        icon.setImage(image);
+    }
+
+    // removes the entries of the images the garbage collector has cleared
+    private void purgeClearedImages() {
+        SizedImageReference reference;
+        while ((reference = (SizedImageReference)clearedImages.poll()) != null) {
+            if (sizedImages.get(reference.key) == reference) {
+                sizedImages.remove(reference.key);
+            }
         }
     }
 
@@ -102,4 +131,17 @@ public class ReloadableSizedIconSource extends DefaultIconSource implements Size
         return appendIconSizeSuffix(key);
     }
 
+    /**
+     * A soft reference that knows its key, so it can be removed once it has
+     * been cleared.
+     */
+    private static final class SizedImageReference extends SoftReference {
+        private final String key;
+
+        private SizedImageReference(String key, Image image, ReferenceQueue queue) {
+            super(image, queue);
+            this.key = key;
+        }
+    }
+
 }
\ No newline at end of file
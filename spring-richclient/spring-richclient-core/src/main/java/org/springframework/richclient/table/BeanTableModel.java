@@ -15,6 +15,7 @@
  */
 package org.springframework.richclient.table;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 import org.springframework.beans.BeanWrapper;
@@ -22,10 +23,20 @@ import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.context.MessageSource;
 import org.springframework.context.NoSuchMessageException;
 import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.richclient.widget.table.Accessor;
+import org.springframework.richclient.widget.table.AccessorFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
+ * Table model showing properties of beans. Cell values are read through the
+ * shared {@link Accessor}s of the {@link AccessorFactory}, property paths that
+ * these can't read (e.g. indexed properties) are read through a
+ * {@link BeanWrapper}. Unlike the bean wrapper, an accessor returns
+ * <code>null</code> for a nested property when a property along its path is
+ * <code>null</code>.
+ * 
  * @author Keith Donald
  */
 public abstract class BeanTableModel extends BaseTableModel {
@@ -35,6 +46,12 @@ public abstract class BeanTableModel extends BaseTableModel {
 
     private String[] columnPropertyNames;
 
+    /** Per column, the accessor used for the last row or <code>null</code>. */
+    private Accessor[] columnAccessors;
+
+    /** Per column, the type of the row for which the accessor was looked up. */
+    private Class[] columnAccessorTypes;
+
     private MessageSourceAccessor messages;
 
     public BeanTableModel(Class beanClass) {
@@ -73,6 +90,8 @@ public abstract class BeanTableModel extends BaseTableModel {
 
     protected void createColumnInfo() {
         this.columnPropertyNames = createColumnPropertyNames();
+        this.columnAccessors = new Accessor[columnPropertyNames.length];
+        this.columnAccessorTypes = new Class[columnPropertyNames.length];
         super.createColumnInfo();
     }
 
@@ -103,8 +122,38 @@ public abstract class BeanTableModel extends BaseTableModel {
     }
 
     protected Object getValueAtInternal(Object row, int columnIndex) {
-        beanWrapper.setWrappedInstance(row);
-        return beanWrapper.getPropertyValue(columnPropertyNames[columnIndex]);
+        Accessor accessor = getColumnAccessor(row, columnIndex);
+        if (accessor == null) {
+            beanWrapper.setWrappedInstance(row);
+            return beanWrapper.getPropertyValue(columnPropertyNames[columnIndex]);
+        }
+        try {
+            return accessor.getValue(row);
+        }
+        catch (IllegalAccessException e) {
+            ReflectionUtils.handleReflectionException(e);
+        }
+        catch (InvocationTargetException e) {
+            ReflectionUtils.handleInvocationTargetException(e);
+        }
+        throw new IllegalStateException("Should never get here");
+    }
+
+    /**
+     * Returns the accessor for the given column and the type of the given row,
+     * or <code>null</code> if the bean wrapper must be used. The lookup is
+     * only repeated when the type of the row changes.
+     */
+    private Accessor getColumnAccessor(Object row, int columnIndex) {
+        if (row == null || columnAccessors == null) {
+            return null;
+        }
+        Class rowType = row.getClass();
+        if (columnAccessorTypes[columnIndex] != rowType) {
+            columnAccessors[columnIndex] = AccessorFactory.findAccessor(rowType, columnPropertyNames[columnIndex]);
+            columnAccessorTypes[columnIndex] = rowType;
+        }
+        return columnAccessors[columnIndex];
     }
 
     protected boolean isCellEditableInternal(Object row, int columnIndex) {
@@ -43,18 +43,39 @@ import org.springframework.util.comparator.NullSafeComparator;
  * the table with the rows in a different order. The sorting algorthm used is
  * stable which means that it does not move around rows when its comparison
  * function returns 0 to denote that they are equivalent.
+ * <p>
+ * The inverse mapping, from model rows to sorted rows, is maintained as well,
+ * so converting in either direction doesn't require a search. The values of
+ * the sorted columns are read from the model once per sort, not on every
+ * comparison. Inserted rows are put in their sorted position and deleted rows
+ * are dropped from the mapping without sorting the whole model again.
  */
 public class ShuttleSortableTableModel extends AbstractTableModelFilter implements SortableTableModel {
 	private static final Comparator OBJECT_COMPARATOR = new NullSafeComparator(ToStringComparator.INSTANCE, true);
 
 	private static final Comparator COMPARABLE_COMPARATOR = NullSafeComparator.NULLS_LOW;
 
+	/**
+	 * Inserting more rows than this at once appends them and sorts the model
+	 * instead of searching the position of each row.
+	 */
+	private static final int INCREMENTAL_INSERT_THRESHOLD = 64;
+
 	private Comparator[] columnComparators;
 
 	private List columnsToSort = new ArrayList(4);
 
 	private int[] indexes;
 
+	/** The inverse of <code>indexes</code>: the sorted row for each model row. */
+	private int[] rowIndexes;
+
+	/**
+	 * While sorting, the values of the sorted columns for every model row, per
+	 * level of <code>columnsToSort</code>.
+	 */
+	private Object[][] sortKeys;
+
 	private int compares;
 
 	private boolean autoSortEnabled = true;
@@ -80,6 +101,16 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		for (int row = 0; row < rowCount; row++) {
 			indexes[row] = row;
 		}
+		updateRowIndexes();
+	}
+
+	private void updateRowIndexes() {
+		if (rowIndexes == null || rowIndexes.length != indexes.length) {
+			rowIndexes = new int[indexes.length];
+		}
+		for (int row = 0; row < indexes.length; row++) {
+			rowIndexes[indexes[row]] = row;
+		}
 	}
 
 	public void resetComparators() {
@@ -197,12 +228,9 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		return converted;
 	}
 
-	/* this linear search is a bit slow -- we'll need to optimize later */
 	public int convertModelToRowIndex(int index) {
-		for (int i = 0; i < indexes.length; i++) {
-			if (index == indexes[i]) {
-				return i;
-			}
+		if (index >= 0 && index < rowIndexes.length) {
+			return rowIndexes[index];
 		}
 		return 0;
 	}
@@ -219,7 +247,27 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		if (columnsToSort.size() > 0) {
 			checkModel();
 			compares = 0;
-			doShuttleSort((int[]) indexes.clone(), indexes, 0, indexes.length);
+			extractSortKeys();
+			try {
+				doShuttleSort((int[]) indexes.clone(), indexes, 0, indexes.length);
+			}
+			finally {
+				sortKeys = null;
+			}
+			updateRowIndexes();
+		}
+	}
+
+	private void extractSortKeys() {
+		int rowCount = indexes.length;
+		sortKeys = new Object[columnsToSort.size()][];
+		for (int level = 0; level < sortKeys.length; level++) {
+			int column = ((ColumnToSort) columnsToSort.get(level)).getColumnIndex();
+			Object[] keys = new Object[rowCount];
+			for (int row = 0; row < rowCount; row++) {
+				keys[row] = filteredModel.getValueAt(row, column);
+			}
+			sortKeys[level] = keys;
 		}
 	}
 
@@ -283,7 +331,7 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		compares++;
 		for (int level = 0; level < columnsToSort.size(); level++) {
 			ColumnToSort column = (ColumnToSort) columnsToSort.get(level);
-			int result = compareRowsByColumn(row1, row2, column.getColumnIndex());
+			int result = compareRowsByColumn(row1, row2, level, column.getColumnIndex());
 			if (result != 0) {
 				return column.getSortOrder() == SortOrder.ASCENDING ? result : -result;
 			}
@@ -291,9 +339,17 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		return 0;
 	}
 
-	private int compareRowsByColumn(int row1, int row2, int column) {
-		Object o1 = filteredModel.getValueAt(row1, column);
-		Object o2 = filteredModel.getValueAt(row2, column);
+	private int compareRowsByColumn(int row1, int row2, int level, int column) {
+		Object o1;
+		Object o2;
+		if (sortKeys != null) {
+			o1 = sortKeys[level][row1];
+			o2 = sortKeys[level][row2];
+		}
+		else {
+			o1 = filteredModel.getValueAt(row1, column);
+			o2 = filteredModel.getValueAt(row2, column);
+		}
 
 		Comparator comparator = columnComparators[column];
 		if (comparator != null) {
@@ -304,38 +360,37 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 	}
 
 	public void tableChanged(final TableModelEvent e) {
-		if (e.getType() == TableModelEvent.INSERT) {
+		if (e.getType() == TableModelEvent.INSERT && isConsistentChange(e, 1)) {
 			if (autoSortEnabled) {
-				reallocateIndexesOnInsert(e.getFirstRow(), e.getLastRow());
-				sort();
-				final int[] insertedRows = new int[e.getLastRow() - e.getFirstRow() + 1];
-				int row = e.getFirstRow();
-				for (int i = 0; i < insertedRows.length; i++) {
-					insertedRows[i] = convertModelToRowIndex(row++);
-				}
+				int[] insertedRows = insertRows(e.getFirstRow(), e.getLastRow(), columnsToSort.size() > 0);
+				// ascending, so every row is inserted before the rows that follow it
 				for (int i = 0; i < insertedRows.length; i++) {
 					fireTableRowsInserted(insertedRows[i], insertedRows[i]);
 				}
 			}
 			else {
-				reallocateIndexesOnInsert(e.getFirstRow(), e.getLastRow());
+				insertRows(e.getFirstRow(), e.getLastRow(), false);
 				super.tableChanged(e);
 			}
 		}
-		else if (e.getType() == TableModelEvent.DELETE) {
-			final int[] deletedRows = new int[e.getLastRow() - e.getFirstRow() + 1];
-			int row = e.getFirstRow();
-			for (int i = 0; i < deletedRows.length; i++) {
-				deletedRows[i] = convertModelToRowIndex(row);
-				row++;
-			}
-			allocateIndexes();
-			for (int i = 0; i < deletedRows.length; i++) {
+		else if (e.getType() == TableModelEvent.DELETE && isConsistentChange(e, -1)) {
+			int[] deletedRows = deleteRows(e.getFirstRow(), e.getLastRow());
+			// descending, so the remaining indexes stay valid
+			for (int i = deletedRows.length - 1; i >= 0; i--) {
 				fireTableRowsDeleted(deletedRows[i], deletedRows[i]);
 			}
-			sort();
 		}
 		else if (e.getType() == TableModelEvent.UPDATE) {
+			if (columnsToSort.isEmpty() || e.getFirstRow() == TableModelEvent.HEADER_ROW
+					|| indexes.length != filteredModel.getRowCount()) {
+				allocateIndexes();
+			}
+			// a stable sort of the current order, only the changed rows move
+			sort();
+			fireTableDataChanged();
+		}
+		else if (e.getType() == TableModelEvent.INSERT || e.getType() == TableModelEvent.DELETE) {
+			logger.warn("Table change doesn't match the sorted rows, sorting all rows again");
 			allocateIndexes();
 			sort();
 			fireTableDataChanged();
@@ -348,16 +403,108 @@ public class ShuttleSortableTableModel extends AbstractTableModelFilter implemen
 		}
 	}
 
-	private void reallocateIndexesOnInsert(int firstRow, int lastRow) {
+	/**
+	 * Checks that an insert (<code>direction</code> 1) or delete (-1) event
+	 * describes the difference between the mapping and the model. If not, the
+	 * mapping is rebuilt instead of updated.
+	 */
+	private boolean isConsistentChange(TableModelEvent e, int direction) {
+		int firstRow = e.getFirstRow();
+		int lastRow = e.getLastRow();
+		if (firstRow < 0 || lastRow < firstRow) {
+			return false;
+		}
+		int count = lastRow - firstRow + 1;
 		int rowCount = filteredModel.getRowCount();
-		int[] newIndexes = new int[rowCount];
-		for (int row = 0; row < indexes.length; row++) {
-			newIndexes[row] = indexes[row];
+		if (indexes.length + direction * count != rowCount) {
+			return false;
+		}
+		return lastRow < Math.max(rowCount, indexes.length);
+	}
+
+	/**
+	 * Adds the inserted model rows to the mapping.
+	 * @param sorted <code>true</code> to put the rows in their sorted position,
+	 * <code>false</code> to keep them at the position of their model row.
+	 * @return the sorted indexes of the inserted rows, in ascending order.
+	 */
+	private int[] insertRows(int firstRow, int lastRow, boolean sorted) {
+		int count = lastRow - firstRow + 1;
+		int[] newIndexes = new int[indexes.length + count];
+		int size = indexes.length;
+		for (int row = 0; row < size; row++) {
+			int modelRow = indexes[row];
+			newIndexes[row] = modelRow >= firstRow ? modelRow + count : modelRow;
+		}
+		indexes = newIndexes;
+		if (sorted && count > INCREMENTAL_INSERT_THRESHOLD) {
+			for (int row = firstRow; row <= lastRow; row++) {
+				indexes[size++] = row;
+			}
+			sort();
+		}
+		else {
+			for (int row = firstRow; row <= lastRow; row++) {
+				int position = sorted ? findInsertPosition(row, size) : row;
+				System.arraycopy(indexes, position, indexes, position + 1, size - position);
+				indexes[position] = row;
+				size++;
+			}
+			updateRowIndexes();
+		}
+		int[] insertedRows = new int[count];
+		for (int i = 0; i < count; i++) {
+			insertedRows[i] = rowIndexes[firstRow + i];
 		}
-		for (int row = firstRow; row <= lastRow; row++) {
-			newIndexes[row] = row;
+		Arrays.sort(insertedRows);
+		return insertedRows;
+	}
+
+	/**
+	 * Binary search for the sorted position of a model row among the first
+	 * <code>size</code> sorted rows. Equal rows stay in front of it.
+	 */
+	private int findInsertPosition(int modelRow, int size) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compare(indexes[middle], modelRow) <= 0) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Removes the deleted model rows from the mapping, the order of the
+	 * remaining rows doesn't change.
+	 * @return the sorted indexes the deleted rows had, in ascending order.
+	 */
+	private int[] deleteRows(int firstRow, int lastRow) {
+		int count = lastRow - firstRow + 1;
+		int[] deletedRows = new int[count];
+		for (int i = 0; i < count; i++) {
+			deletedRows[i] = rowIndexes[firstRow + i];
+		}
+		Arrays.sort(deletedRows);
+		int[] newIndexes = new int[indexes.length - count];
+		int size = 0;
+		for (int row = 0; row < indexes.length; row++) {
+			int modelRow = indexes[row];
+			if (modelRow < firstRow) {
+				newIndexes[size++] = modelRow;
+			}
+			else if (modelRow > lastRow) {
+				newIndexes[size++] = modelRow - count;
+			}
 		}
 		indexes = newIndexes;
+		updateRowIndexes();
+		return deletedRows;
 	}
 
-}
\ No newline at end of file
+}
@@ -16,28 +16,201 @@
 package org.springframework.richclient.table;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.swing.SwingUtilities;
+
+/**
+ * Queue of rows waiting to be published to a table by a {@link TableUpdater}.
+ * <p>
+ * Rows that have a key (see {@link #getRowKey(Object)}) are coalesced: a row
+ * that is put while an earlier row with the same key is still waiting replaces
+ * that row, keeping its position in the queue.
+ * <p>
+ * The queue can be bounded. When it's full, {@link #put(Object)} either blocks
+ * the producer until the updater has taken rows, or drops the oldest row if
+ * {@link #setDropOldestWhenFull(boolean) dropOldestWhenFull} is set. The
+ * updater takes the rows on the event dispatching thread, so a producer on
+ * that thread can't wait for room.
+ */
 public class TableDataProvider {
-    private List currentTableData = new ArrayList();
+    /** Key to {@link PendingRow}, unkeyed rows get a key of their own. */
+    private final Map pendingData = new LinkedHashMap();
+
+    private int capacity = Integer.MAX_VALUE;
+
+    private boolean dropOldestWhenFull;
 
-    private List lastTableData = new ArrayList();
+    private long droppedCount;
+
+    private long coalescedCount;
 
     public TableDataProvider() {
     }
 
+    public TableDataProvider(int capacity, boolean dropOldestWhenFull) {
+        setCapacity(capacity);
+        setDropOldestWhenFull(dropOldestWhenFull);
+    }
+
+    /**
+     * Set the maximum number of rows waiting to be published, unbounded by
+     * default.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        notifyAll();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * If <code>true</code>, putting a row in a full queue drops the oldest
+     * row instead of blocking the producer.
+     */
+    public synchronized void setDropOldestWhenFull(boolean dropOldestWhenFull) {
+        this.dropOldestWhenFull = dropOldestWhenFull;
+        notifyAll();
+    }
+
+    public synchronized boolean isDropOldestWhenFull() {
+        return dropOldestWhenFull;
+    }
+
+    /**
+     * Add a row to be published. If the queue is full and rows aren't dropped,
+     * this waits until there's room again. If the waiting thread is
+     * interrupted, the row is discarded and the interrupt status is restored.
+     * <p>
+     * Waiting on the event dispatching thread would keep the updater from
+     * taking rows forever, so there a full queue that doesn't drop rows
+     * throws an exception instead.
+     *
+     * @throws IllegalStateException if called on the event dispatching thread
+     * while the queue is full and rows aren't dropped
+     */
     public synchronized void put(Object datum) {
-        currentTableData.add(datum);
+        Object key = getRowKey(datum);
+        if (key != null && pendingData.containsKey(key)) {
+            // the row keeps the place, and the waiting time, of the row it replaces
+            ((PendingRow) pendingData.get(key)).datum = datum;
+            coalescedCount++;
+            return;
+        }
+        while (pendingData.size() >= capacity) {
+            if (dropOldestWhenFull) {
+                Iterator oldest = pendingData.values().iterator();
+                oldest.next();
+                oldest.remove();
+                droppedCount++;
+            }
+            else if (SwingUtilities.isEventDispatchThread()) {
+                throw new IllegalStateException("The queue is full, rows can't be put on the event dispatching thread");
+            }
+            else {
+                try {
+                    wait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        pendingData.put(key != null ? key : new Object(), new PendingRow(datum, System.currentTimeMillis()));
+        notifyAll();
     }
 
     /**
-     * Returns the current set of changes to be published. This changes the List
-     * that changes are added to. It is assumed consumers will have cleared out
-     * the List when done with it.
+     * Returns the key used to coalesce the given row with rows that are still
+     * waiting to be published. The default returns <code>null</code>, which
+     * means rows are never coalesced.
      */
-    public synchronized List takeData() {
-        List list = currentTableData;
-        currentTableData = lastTableData;
-        return list;
+    protected Object getRowKey(Object datum) {
+        return null;
+    }
+
+    /**
+     * Returns all rows waiting to be published and empties the queue.
+     */
+    public List takeData() {
+        return takeData(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most <code>maxRows</code> of the oldest rows waiting to be
+     * published and removes them from the queue.
+     */
+    public synchronized List takeData(int maxRows) {
+        List data = new ArrayList(Math.min(maxRows, pendingData.size()));
+        for (Iterator i = pendingData.values().iterator(); i.hasNext() && data.size() < maxRows;) {
+            data.add(((PendingRow) i.next()).datum);
+            i.remove();
+        }
+        notifyAll();
+        return data;
+    }
+
+    /**
+     * Wait until there is at least one row to publish.
+     */
+    public synchronized void waitForData() throws InterruptedException {
+        while (pendingData.isEmpty()) {
+            wait();
+        }
+    }
+
+    /**
+     * @return the number of rows waiting to be published.
+     */
+    public synchronized int getPendingCount() {
+        return pendingData.size();
+    }
+
+    /**
+     * @return the time the oldest waiting row was put, <code>0</code> if
+     * there are none.
+     */
+    public synchronized long getPendingSince() {
+        if (pendingData.isEmpty()) {
+            return 0;
+        }
+        return ((PendingRow) pendingData.values().iterator().next()).putTime;
+    }
+
+    /**
+     * @return the number of rows dropped because the queue was full.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return the number of rows that replaced a waiting row with the same key.
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * A row waiting to be published, with the time it was put.
+     */
+    private static class PendingRow {
+        private Object datum;
+
+        private final long putTime;
+
+        PendingRow(Object datum, long putTime) {
+            this.datum = datum;
+            this.putTime = putTime;
+        }
     }
-}
\ No newline at end of file
+}
@@ -15,35 +15,57 @@
  */
 package org.springframework.richclient.table;
 
-import java.awt.EventQueue;
-import java.awt.Toolkit;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 import javax.swing.RepaintManager;
 import javax.swing.SwingUtilities;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 /**
- * Thread responsible for publishing changes to the Model. Sleeps for a defined
- * amount of time, waits for no activity in the UI and then users invokeAndWait
- * to publish changes.
+ * Thread responsible for publishing changes to the Model. Waits until the
+ * {@link TableDataProvider} has data and publishes it on the event dispatching
+ * thread.
+ * <p>
+ * Publishing is limited to one batch per publish interval, so a fast producer
+ * can't flood the event dispatching thread. The number of rows in a batch
+ * adapts to the time publishing takes: it shrinks when a batch takes more than
+ * half of the interval, and grows while the producer is ahead and batches
+ * are cheap. Rows that don't fit in a batch stay in the provider, which
+ * applies its own backpressure or drops rows when it's full.
  */
 public class TableUpdater extends Thread {
-    private int sleepTime = 3000;
+    public static final long DEFAULT_PUBLISH_INTERVAL = 100;
+
+    private static final int MIN_BATCH_SIZE = 16;
+
+    private static final int MAX_BATCH_SIZE = 64 * 1024;
+
+    protected final Log logger = LogFactory.getLog(getClass());
 
-    private int eqSleepTime = 1000;
+    private volatile long publishInterval = DEFAULT_PUBLISH_INTERVAL;
+
+    private volatile int batchSize = 256;
 
     private boolean updatesEnabled = true;
 
     private Runnable publishRunnable;
 
-    private Runnable emptyRunnable;
-
     private TableDataProvider tableDataProvider;
 
     private MutableTableModel tableModel;
 
-    private boolean done;
+    private volatile boolean done;
+
+    private long lastPublishTime;
+
+    private volatile long lastPublishDuration;
+
+    private volatile long lastPublishLatency;
+
+    private volatile long publishedRowCount;
 
     public TableUpdater(TableDataProvider provider, MutableTableModel tableModel) {
         super();
@@ -58,13 +80,6 @@ public class TableUpdater extends Thread {
                 publishChangesOnEventDispatchingThread();
             }
         };
-
-        // Empty runnable, used to wait until the event dispatching thread
-        // has finished processing any pending events.
-        this.emptyRunnable = new Runnable() {
-            public void run() {
-            }
-        };
     }
 
     public void interrupt() {
@@ -75,9 +90,9 @@ public class TableUpdater extends Thread {
     public void run() {
         while (!isInterrupted() && !done) {
             try {
-                sleep(sleepTime);
+                tableDataProvider.waitForData();
                 waitForUpdatesEnabled();
-                waitForIdleEventQueue();
+                waitForNextPublish();
                 publishChanges();
             }
             catch (InterruptedException ie) {
@@ -85,75 +100,123 @@ public class TableUpdater extends Thread {
         }
     }
 
-    private void waitForUpdatesEnabled() {
+    private void waitForUpdatesEnabled() throws InterruptedException {
         synchronized (this) {
             while (!this.updatesEnabled) {
-                try {
-                    wait();
-                }
-                catch (InterruptedException ie) {
-                }
+                wait();
             }
         }
     }
 
-    private void waitForIdleEventQueue() {
-        EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
-        while (queue.peekEvent() != null) {
-            try {
-                sleep(eqSleepTime);
-            }
-            catch (InterruptedException ie) {
-            }
+    private void waitForNextPublish() throws InterruptedException {
+        long delay = lastPublishTime + publishInterval - System.currentTimeMillis();
+        if (delay > 0) {
+            sleep(delay);
         }
     }
 
     /**
-     * Publishes changes on the event dispatching thread when the system isn't
-     * busy. This blocks the caller until the changes have been published.
+     * Publishes changes on the event dispatching thread. This blocks the
+     * caller until the changes have been published, so only one batch is in
+     * flight at a time.
      */
-    private void publishChanges() {
-        // And wait until there are no pending events.
-        /*
-         * try { tableModel.lock(); } catch (InterruptedException e) {
-         * System.err.println("Table updater interrupted on table lock attempt.
-         * Nothing updated."); return; }
-         */
-
+    private void publishChanges() throws InterruptedException {
+        lastPublishTime = System.currentTimeMillis();
         try {
             // publish the changes on the event dispatching thread
             SwingUtilities.invokeAndWait(publishRunnable);
         }
-        catch (InterruptedException ie) {
-        }
         catch (InvocationTargetException ite) {
+            logger.error("Could not publish table changes", ite.getCause());
         }
-
-        try {
-            // Wait until the system has completed processing of any
-            // events we triggered as part of publishing changes.
-            SwingUtilities.invokeAndWait(emptyRunnable);
-        }
-        catch (InterruptedException ie) {
-        }
-        catch (InvocationTargetException ite) {
-        }
-
-        /*
-         * tableModel.unlock();
-         */
     }
 
     /**
      * Does the actual publishing of changes.
      */
     private void publishChangesOnEventDispatchingThread() {
-        List newRows = tableDataProvider.takeData();
+        long start = System.currentTimeMillis();
+        long pendingSince = tableDataProvider.getPendingSince();
+        int maxRows = batchSize;
+        List newRows = tableDataProvider.takeData(maxRows);
         if (newRows.size() > 0) {
-            tableModel.addRows(newRows);
+            publish(newRows);
             RepaintManager.currentManager(null).paintDirtyRegions();
-            newRows.clear();
         }
+        long end = System.currentTimeMillis();
+        lastPublishDuration = end - start;
+        if (pendingSince > 0) {
+            lastPublishLatency = end - pendingSince;
+        }
+        publishedRowCount += newRows.size();
+        adaptBatchSize(newRows.size() == maxRows);
+    }
+
+    /**
+     * Add the rows to the table model. Subclasses may override this to merge
+     * rows into rows that were published earlier.
+     */
+    protected void publish(List rows) {
+        tableModel.addRows(rows);
+    }
+
+    private void adaptBatchSize(boolean batchFull) {
+        long budget = publishInterval / 2;
+        if (lastPublishDuration > budget) {
+            batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+        }
+        else if (batchFull && lastPublishDuration < budget / 2) {
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize * 2);
+        }
+    }
+
+    /**
+     * Set the minimum time between the start of two publishes, in
+     * milliseconds.
+     */
+    public void setPublishInterval(long publishInterval) {
+        this.publishInterval = publishInterval;
+    }
+
+    public long getPublishInterval() {
+        return publishInterval;
+    }
+
+    /**
+     * @return the maximum number of rows in the next batch.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the number of rows waiting to be published.
+     */
+    public int getQueueDepth() {
+        return tableDataProvider.getPendingCount();
+    }
+
+    /**
+     * @return the time in milliseconds the last batch took to publish on the
+     * event dispatching thread.
+     */
+    public long getLastPublishDuration() {
+        return lastPublishDuration;
+    }
+
+    /**
+     * @return the time in milliseconds between putting the oldest row of the
+     * last batch and having published it.
+     */
+    public long getLastPublishLatency() {
+        return lastPublishLatency;
+    }
+
+    /**
+     * @return the total number of published rows.
+     */
+    public long getPublishedRowCount() {
+        return publishedRowCount;
     }
 
     /**
@@ -172,4 +235,4 @@ public class TableUpdater extends Thread {
     public boolean getUpdatesEnabled() {
         return updatesEnabled;
     }
-}
\ No newline at end of file
+}
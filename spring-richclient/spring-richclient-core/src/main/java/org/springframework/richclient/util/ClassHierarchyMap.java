@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Registry of values by class, where a value registered for a class also
+ * applies to its subclasses and implementations. The closest match is found
+ * the same way as by {@link ClassUtils#getValueFromMapForClass(Class, Map)}:
+ * interfaces first, then the superclasses.
+ * <p>
+ * Unlike that method, this registry keeps the registered values apart from
+ * the lookup results, so a lookup never hides a value that is registered
+ * later. Lookup results are cached, including classes for which nothing was
+ * found, until the next registration.
+ * <p>
+ * This class is thread safe. Lookups don't lock; registrations are expected to
+ * be rare and copy the registered values.
+ */
+public class ClassHierarchyMap {
+
+	/** Marks a class for which no value was found. */
+	private static final Object NOT_FOUND = new Object();
+
+	private volatile State state = new State(Collections.EMPTY_MAP);
+
+	/**
+	 * Register a value for the given class, replacing the value that was
+	 * registered for that class.
+	 *
+	 * @return the value that was registered for that class or
+	 * <code>null</code>.
+	 */
+	public synchronized Object put(Class type, Object value) {
+		Assert.required(type, "type");
+		Assert.required(value, "value");
+		Map registrations = new HashMap(state.registrations);
+		Object previous = registrations.put(type, value);
+		state = new State(registrations);
+		return previous;
+	}
+
+	/**
+	 * Remove the value registered for the given class.
+	 *
+	 * @return the value that was registered for that class or
+	 * <code>null</code>.
+	 */
+	public synchronized Object remove(Class type) {
+		if (!state.registrations.containsKey(type)) {
+			return null;
+		}
+		Map registrations = new HashMap(state.registrations);
+		Object previous = registrations.remove(type);
+		state = new State(registrations);
+		return previous;
+	}
+
+	/**
+	 * Remove all registered values.
+	 */
+	public synchronized void clear() {
+		state = new State(Collections.EMPTY_MAP);
+	}
+
+	/**
+	 * Returns the value registered for the given class, or else the value of
+	 * its closest supertype.
+	 *
+	 * @return <code>null</code> if neither the class nor any of its
+	 * supertypes has a value.
+	 */
+	public Object get(Class type) {
+		if (type == null) {
+			return null;
+		}
+		State current = state;
+		Object value = current.resolved.get(type);
+		if (value == null) {
+			value = current.registrations.get(type);
+			if (value == null) {
+				value = ClassUtils.findValueInMapForSuperTypes(type, current.registrations);
+			}
+			// stored in the cache of the registrations it was resolved with
+			current.resolved.put(type, value == null ? NOT_FOUND : value);
+		}
+		return value == NOT_FOUND ? null : value;
+	}
+
+	/**
+	 * @return the registered values by class, unmodifiable.
+	 */
+	public Map getRegistrations() {
+		return state.registrations;
+	}
+
+	public String toString() {
+		return new ToStringCreator(this).append("registrations", state.registrations).toString();
+	}
+
+	/**
+	 * The registered values together with the lookups resolved against them.
+	 */
+	private static final class State {
+		private final Map registrations;
+
+		private final Map resolved = new ConcurrentHashMap();
+
+		private State(Map registrations) {
+			this.registrations = Collections.unmodifiableMap(registrations);
+		}
+	}
+}
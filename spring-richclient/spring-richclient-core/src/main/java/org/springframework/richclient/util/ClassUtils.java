@@ -264,19 +264,8 @@ public class ClassUtils {
 	public static Object getValueFromMapForClass(final Class typeClass, final Map classMap) {
 		Object val = classMap.get(typeClass);
 		if (val == null) {
-			// search through the interfaces first
-			val = getValueFromMapForInterfaces(typeClass, classMap);
-
+			val = findValueInMapForSuperTypes(typeClass, classMap);
 			if (val == null) {
-				// now go up through the inheritance hierarchy
-				val = getValueFromMapForSuperClass(typeClass, classMap);
-			}
-
-			if (val == null) {
-				// not found anywhere
-				if (logger.isDebugEnabled()) {
-					logger.debug("Could not find a definition for " + typeClass + " in " + classMap.keySet());
-				}
 				return null;
 			}
 
@@ -287,6 +276,30 @@ public class ClassUtils {
 		return val;
 	}
 
+	/**
+	 * Same search as {@link #getValueFromMapForClass(Class, Map)} for a class
+	 * that isn't a key of the map itself, but without changing the map.
+	 *
+	 * @see ClassHierarchyMap
+	 */
+	static Object findValueInMapForSuperTypes(final Class typeClass, final Map classMap) {
+		// search through the interfaces first
+		Object val = getValueFromMapForInterfaces(typeClass, classMap);
+
+		if (val == null) {
+			// now go up through the inheritance hierarchy
+			val = getValueFromMapForSuperClass(typeClass, classMap);
+		}
+
+		if (val == null) {
+			// not found anywhere
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not find a definition for " + typeClass + " in " + classMap.keySet());
+			}
+		}
+		return val;
+	}
+
 	private static Object getValueFromMapForInterfaces(final Class typeClass, final Map classMap) {
 		final Class[] interfaces = typeClass.getInterfaces();
 
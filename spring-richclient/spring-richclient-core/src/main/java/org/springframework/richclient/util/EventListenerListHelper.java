@@ -55,6 +55,21 @@ import org.springframework.util.CachingMapDecorator;
  * 	fooListeners.fire(&quot;fooYYY&quot;);
  * }
  * </pre>
+ * <p>
+ * Events that are fired often can be dispatched without reflection through an
+ * {@link EventDispatcher}, which is best kept in a constant:
+ *
+ * <pre>
+ * private static final EventDispatcher FOO_XXX = new EventDispatcher() {
+ * 	public void dispatch(Object listener, Object event) {
+ * 		((FooListener) listener).fooXXX((Event) event);
+ * 	}
+ * };
+ *
+ * protected void fireFooXXX() {
+ * 	fooListeners.dispatch(FOO_XXX, new Event());
+ * }
+ * </pre>
  *
  * @author Oliver Hutchison
  * @author Keith Donald
@@ -269,6 +284,28 @@ public class EventListenerListHelper implements Serializable {
 		}
 	}
 
+	/**
+	 * Passes the given event to the dispatcher once for each of the listeners
+	 * registered with this list. Listeners added or removed while the event is
+	 * being dispatched don't affect this event.
+	 *
+	 * @param dispatcher the dispatcher that invokes the event method.
+	 * @param event the event to pass to the dispatcher, may be null.
+	 *
+	 * @throws EventBroadcastException if a listener throws an exception.
+	 */
+	public void dispatch(EventDispatcher dispatcher, Object event) {
+		Object[] listenersCopy = listeners;
+		for (int i = 0; i < listenersCopy.length; i++) {
+			try {
+				dispatcher.dispatch(listenersCopy[i], event);
+			}
+			catch (RuntimeException e) {
+				throw new EventBroadcastException("Exception thrown by listener", e);
+			}
+		}
+	}
+
 	/**
 	 * Adds <code>listener</code> to the list of registered listeners. If
 	 * listener is already registered this method will do nothing.
@@ -408,6 +445,23 @@ public class EventListenerListHelper implements Serializable {
 		}
 	}
 
+	/**
+	 * Invokes the event method on a listener without reflection.
+	 *
+	 * @see EventListenerListHelper#dispatch(EventDispatcher, Object)
+	 */
+	public static interface EventDispatcher {
+
+		/**
+		 * Invoke the event method.
+		 *
+		 * @param listener the listener, an instance of the listener class of
+		 * the list.
+		 * @param event the event that was passed to the dispatch method.
+		 */
+		void dispatch(Object listener, Object event);
+	}
+
     /**
      * Indicates that an error has occurred attempting to broadcast an event to listeners.
      */
@@ -44,6 +44,9 @@ import javax.swing.JRootPane;
 /**
  * A helper class that attaches one component (the overlay) on top of another
  * component.
+ * <p>
+ * Every overlay attached by this class follows its target with listeners of
+ * its own. Use {@link OverlayLayer} to attach many overlays in one window.
  *
  * @author oliverh
  */
@@ -215,6 +218,32 @@ public class OverlayHelper implements SwingConstants
     }
 
     void positionOverlay(JLayeredPane layeredPane)
+    {
+        Point clipOffset = new Point();
+        Rectangle newBound = getOverlayBounds(overlayTarget, overlay.getPreferredSize(), center, xOffset, yOffset,
+                clipOffset);
+        Point pt = SwingUtilities.convertPoint(overlayTarget, newBound.x, newBound.y, layeredPane);
+        newBound.x = pt.x;
+        newBound.y = pt.y;
+        setOverlayBounds(newBound, clipOffset.x, clipOffset.y);
+    }
+
+    /**
+     * Returns the bounds of an overlay, in the coordinates of its target. The
+     * bounds are clipped to the part of the target that is visible.
+     *
+     * @param overlayTarget the component the overlay is attached to
+     * @param size          the size of the overlay
+     * @param center        position relative to <code>overlayTarget</code> that
+     *                      the overlay should be centered on
+     * @param xOffset       x offset from center
+     * @param yOffset       y offset from center
+     * @param clipOffset    receives how much of the overlay was clipped at its
+     *                      left and top
+     * @return the visible bounds of the overlay, empty if it's not visible
+     */
+    static Rectangle getOverlayBounds(JComponent overlayTarget, Dimension size, int center, int xOffset,
+                                      int yOffset, Point clipOffset)
     {
         int centerX = xOffset;
         int centerY = yOffset;
@@ -259,23 +288,22 @@ public class OverlayHelper implements SwingConstants
             default:
                 throw new IllegalArgumentException("Unknown value for center [" + center + "]");
         }
-        Dimension size = overlay.getPreferredSize();
         Rectangle newBound = new Rectangle(centerX - (size.width / 2), centerY - (size.height / 2), size.width,
                 size.height);
-        Rectangle visibleRect = findLargestVisibleRectFor(newBound);
+        Rectangle visibleRect = findLargestVisibleRectFor(overlayTarget, newBound);
 
-        int offsetx = 0;
-        int offsety = 0;
+        clipOffset.x = 0;
+        clipOffset.y = 0;
 
         if (visibleRect != null)
         {
             if (newBound.y < visibleRect.y)
             {
-                offsety += visibleRect.y - newBound.y;
+                clipOffset.y += visibleRect.y - newBound.y;
             }
             if (newBound.x < visibleRect.x)
             {
-                offsetx += visibleRect.x - newBound.x;
+                clipOffset.x += visibleRect.x - newBound.x;
             }
             newBound = newBound.intersection(visibleRect);
         }
@@ -283,20 +311,18 @@ public class OverlayHelper implements SwingConstants
         {
             newBound.width = newBound.height = 0;
         }
-        Point pt = SwingUtilities.convertPoint(overlayTarget, newBound.x, newBound.y, layeredPane);
-        newBound.x = pt.x;
-        newBound.y = pt.y;
-        setOverlayBounds(newBound, offsetx, offsety);
+        return newBound;
     }
 
     /**
      * Searches up the component hierarchy to find the largest possible visible
      * rect that can enclose the entire rectangle.
      *
+     * @param overlayTarget the component the rectangle is relative to
      * @param overlayRect rectangle whose largest enclosing visible rect to find
      * @return largest enclosing visible rect for the specified rectangle
      */
-    private Rectangle findLargestVisibleRectFor(final Rectangle overlayRect)
+    private static Rectangle findLargestVisibleRectFor(JComponent overlayTarget, final Rectangle overlayRect)
     {
         Rectangle visibleRect = null;
         int curxoffset = 0;
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.util;
+
+import org.springframework.richclient.components.MayHaveMessagableTab;
+import org.springframework.richclient.components.MessagableTabbedPane;
+import org.springframework.util.Assert;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JLayeredPane;
+import javax.swing.JPanel;
+import javax.swing.JRootPane;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * A single layer on top of a window that holds all overlays attached to the
+ * components in that window.
+ * <p>
+ * Unlike {@link OverlayHelper}, which follows every target with its own
+ * listeners, the layer positions all of its overlays in one pass, at most once
+ * per turn of the event queue: after an overlay was added, removed or changed,
+ * and after a component in the window was moved or resized, e.g. because a
+ * scroll pane was scrolled. Moves and resizes are noticed by a single listener
+ * on the component events of the toolkit, registered while the layer is
+ * displayable, instead of listeners on the ancestors of every target. Painting
+ * the layer doesn't position the overlays. Only the overlays of targets that
+ * are showing are positioned; the others are hidden.
+ * <p>
+ * The layer lets mouse events through, except where an overlay is. The
+ * overlays are kept in a grid by their bounds, so finding the overlay under
+ * the mouse doesn't depend on the number of overlays.
+ * <p>
+ * Like the rest of Swing, this class must only be used on the event dispatch
+ * thread.
+ */
+public class OverlayLayer extends JComponent implements SwingConstants
+{
+    private static final String LAYER_PROPERTY = OverlayLayer.class.getName();
+
+    private static final int CELL_SIZE = 64;
+
+    private final List overlays = new ArrayList();
+
+    /** Grid cell key to the List of overlays that intersect that cell */
+    private final Map cells = new HashMap();
+
+    private boolean updateScheduled;
+
+    private boolean isUpdating;
+
+    private final Runnable overlayUpdater = new Runnable()
+    {
+        public void run()
+        {
+            updateScheduled = false;
+            updateOverlays();
+        }
+    };
+
+    private final AWTEventListener componentListener = new AWTEventListener()
+    {
+        public void eventDispatched(AWTEvent event)
+        {
+            if (event.getID() != ComponentEvent.COMPONENT_MOVED && event.getID() != ComponentEvent.COMPONENT_RESIZED)
+            {
+                return;
+            }
+            Component component = ((ComponentEvent) event).getComponent();
+            // the overlays themselves move when they are positioned
+            if (!overlays.isEmpty() && !SwingUtilities.isDescendingFrom(component, OverlayLayer.this)
+                    && SwingUtilities.isDescendingFrom(component, getParent()))
+            {
+                scheduleUpdate();
+            }
+        }
+    };
+
+    /**
+     * Attaches an overlay to the specified component. The overlay is shown in
+     * the overlay layer of the window the component is in, and moves to the
+     * layer of another window when the component does.
+     *
+     * @param overlay       the overlay component
+     * @param overlayTarget the component over which <code>overlay</code> will be
+     *                      attached
+     * @param center        position relative to <code>overlayTarget</code> that overlay
+     *                      should be centered. May be one of the
+     *                      <code>SwingConstants</code> compass positions or
+     *                      <code>SwingConstants.CENTER</code>.
+     * @param xOffset       x offset from center
+     * @param yOffset       y offset from center
+     * @see OverlayHelper#attachOverlay(JComponent, JComponent, int, int, int)
+     */
+    public static void attachOverlay(JComponent overlay, JComponent overlayTarget, int center, int xOffset, int yOffset)
+    {
+        Assert.notNull(overlay, "overlay must not be null");
+        Assert.notNull(overlayTarget, "overlayTarget must not be null");
+        new AttachedOverlay(overlay, overlayTarget, center, xOffset, yOffset).targetHierarchyChanged();
+    }
+
+    /**
+     * Returns the overlay layer of the given root pane, adding one to its
+     * layered pane if it doesn't have one yet.
+     */
+    public static OverlayLayer getOverlayLayer(JRootPane rootPane)
+    {
+        OverlayLayer layer = (OverlayLayer) rootPane.getClientProperty(LAYER_PROPERTY);
+        if (layer == null)
+        {
+            layer = new OverlayLayer(rootPane.getLayeredPane());
+            rootPane.putClientProperty(LAYER_PROPERTY, layer);
+        }
+        return layer;
+    }
+
+    private OverlayLayer(final JLayeredPane layeredPane)
+    {
+        setLayout(null);
+        setOpaque(false);
+        setBounds(0, 0, layeredPane.getWidth(), layeredPane.getHeight());
+        layeredPane.add(this, JLayeredPane.PALETTE_LAYER);
+        layeredPane.addComponentListener(new ComponentAdapter()
+        {
+            public void componentResized(ComponentEvent e)
+            {
+                setBounds(0, 0, layeredPane.getWidth(), layeredPane.getHeight());
+                scheduleUpdate();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of overlays in this layer.
+     */
+    public int getOverlayCount()
+    {
+        return overlays.size();
+    }
+
+    /**
+     * Returns the overlay at the given location, in the coordinates of this
+     * layer, or <code>null</code> if there is none.
+     */
+    public JComponent getOverlayAt(int x, int y)
+    {
+        List cell = (List) cells.get(cellKey(x / CELL_SIZE, y / CELL_SIZE));
+        if (cell == null || x < 0 || y < 0)
+        {
+            return null;
+        }
+        for (int i = cell.size() - 1; i >= 0; i--)
+        {
+            AttachedOverlay attached = (AttachedOverlay) cell.get(i);
+            if (attached.bounds.contains(x, y) && attached.overlay.isVisible())
+            {
+                return attached.overlay;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(int x, int y)
+    {
+        return getOverlayAt(x, y) != null;
+    }
+
+    /**
+     * Positions the overlays at the end of the event queue, unless that has
+     * already been scheduled.
+     */
+    public void scheduleUpdate()
+    {
+        if (!updateScheduled)
+        {
+            updateScheduled = true;
+            SwingUtilities.invokeLater(overlayUpdater);
+        }
+    }
+
+    /**
+     * Positions the overlays of all targets that are showing, and hides the
+     * others.
+     */
+    public void updateOverlays()
+    {
+        if (isUpdating)
+        {
+            return;
+        }
+        isUpdating = true;
+        try
+        {
+            for (int i = 0; i < overlays.size(); i++)
+            {
+                ((AttachedOverlay) overlays.get(i)).position();
+            }
+        }
+        finally
+        {
+            isUpdating = false;
+        }
+    }
+
+    public void addNotify()
+    {
+        super.addNotify();
+        Toolkit.getDefaultToolkit().addAWTEventListener(componentListener, AWTEvent.COMPONENT_EVENT_MASK);
+        scheduleUpdate();
+    }
+
+    public void removeNotify()
+    {
+        Toolkit.getDefaultToolkit().removeAWTEventListener(componentListener);
+        super.removeNotify();
+    }
+
+    void addOverlay(AttachedOverlay attached)
+    {
+        overlays.add(attached);
+        add(attached.overlayClipper);
+        scheduleUpdate();
+    }
+
+    void removeOverlay(AttachedOverlay attached)
+    {
+        overlays.remove(attached);
+        removeFromCells(attached);
+        attached.bounds.setBounds(0, 0, 0, 0);
+        remove(attached.overlayClipper);
+        repaint(attached.overlayClipper.getBounds());
+    }
+
+    void boundsChanged(AttachedOverlay attached, Rectangle newBounds)
+    {
+        removeFromCells(attached);
+        attached.bounds.setBounds(newBounds);
+        if (newBounds.isEmpty())
+        {
+            return;
+        }
+        int right = (newBounds.x + newBounds.width - 1) / CELL_SIZE;
+        int bottom = (newBounds.y + newBounds.height - 1) / CELL_SIZE;
+        for (int cellX = Math.max(0, newBounds.x / CELL_SIZE); cellX <= right; cellX++)
+        {
+            for (int cellY = Math.max(0, newBounds.y / CELL_SIZE); cellY <= bottom; cellY++)
+            {
+                Long key = cellKey(cellX, cellY);
+                List cell = (List) cells.get(key);
+                if (cell == null)
+                {
+                    cell = new ArrayList(2);
+                    cells.put(key, cell);
+                }
+                cell.add(attached);
+            }
+        }
+    }
+
+    private void removeFromCells(AttachedOverlay attached)
+    {
+        Rectangle oldBounds = attached.bounds;
+        if (oldBounds.isEmpty())
+        {
+            return;
+        }
+        int right = (oldBounds.x + oldBounds.width - 1) / CELL_SIZE;
+        int bottom = (oldBounds.y + oldBounds.height - 1) / CELL_SIZE;
+        for (int cellX = Math.max(0, oldBounds.x / CELL_SIZE); cellX <= right; cellX++)
+        {
+            for (int cellY = Math.max(0, oldBounds.y / CELL_SIZE); cellY <= bottom; cellY++)
+            {
+                Long key = cellKey(cellX, cellY);
+                List cell = (List) cells.get(key);
+                if (cell != null)
+                {
+                    cell.remove(attached);
+                    if (cell.isEmpty())
+                    {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Long cellKey(int cellX, int cellY)
+    {
+        return new Long(((long) cellX << 32) | (cellY & 0xffffffffL));
+    }
+
+    /**
+     * An overlay attached to a target. It only listens to changes of the
+     * overlay itself and to the target being moved to another window; the
+     * layer takes care of the rest.
+     */
+    static final class AttachedOverlay implements HierarchyListener, ComponentListener, PropertyChangeListener
+    {
+        final JComponent overlay;
+
+        final JComponent overlayClipper;
+
+        final JComponent overlayTarget;
+
+        private final int center;
+
+        private final int xOffset;
+
+        private final int yOffset;
+
+        /** The bounds of the clipper in the layer, kept for the grid */
+        final Rectangle bounds = new Rectangle();
+
+        private OverlayLayer layer;
+
+        AttachedOverlay(JComponent overlay, JComponent overlayTarget, int center, int xOffset, int yOffset)
+        {
+            this.overlay = overlay;
+            this.overlayTarget = overlayTarget;
+            this.center = center;
+            this.xOffset = xOffset;
+            this.yOffset = yOffset;
+            this.overlayClipper = new JPanel();
+            this.overlayClipper.setLayout(null);
+            this.overlayClipper.setOpaque(false);
+            this.overlayClipper.add(overlay);
+            overlayTarget.addHierarchyListener(this);
+            overlay.addComponentListener(this);
+            overlay.addPropertyChangeListener(this);
+        }
+
+        void targetHierarchyChanged()
+        {
+            JRootPane rootPane = findRootPane();
+            OverlayLayer newLayer = rootPane != null ? getOverlayLayer(rootPane) : null;
+            if (newLayer != layer)
+            {
+                if (layer != null)
+                {
+                    layer.removeOverlay(this);
+                }
+                layer = newLayer;
+                if (layer != null)
+                {
+                    if (overlay.getParent() != overlayClipper)
+                    {
+                        if (overlay.getParent() != null)
+                        {
+                            overlay.getParent().remove(overlay);
+                        }
+                        overlayClipper.add(overlay);
+                    }
+                    layer.addOverlay(this);
+                }
+            }
+            else if (layer != null)
+            {
+                layer.scheduleUpdate();
+            }
+        }
+
+        private JRootPane findRootPane()
+        {
+            Component overlayChild = overlayTarget;
+            Container parent = overlayTarget.getParent();
+            while (parent != null && !(parent instanceof JRootPane))
+            {
+                if (parent instanceof MessagableTabbedPane && overlay instanceof MayHaveMessagableTab)
+                {
+                    MessagableTabbedPane tabbedPane = (MessagableTabbedPane) parent;
+                    ((MayHaveMessagableTab) overlay).setMessagableTab(tabbedPane, tabbedPane
+                            .indexOfComponent(overlayChild));
+                }
+                overlayChild = parent;
+                parent = parent.getParent();
+            }
+            return (JRootPane) parent;
+        }
+
+        void position()
+        {
+            Rectangle newBounds;
+            Point clipOffset = new Point();
+            if (overlayTarget.isShowing() && overlay.isVisible())
+            {
+                newBounds = OverlayHelper.getOverlayBounds(overlayTarget, overlay.getPreferredSize(), center,
+                        xOffset, yOffset, clipOffset);
+                Point pt = SwingUtilities.convertPoint(overlayTarget, newBounds.x, newBounds.y, layer);
+                newBounds.x = pt.x;
+                newBounds.y = pt.y;
+            }
+            else
+            {
+                newBounds = new Rectangle(0, 0, 0, 0);
+            }
+
+            Rectangle overlayBounds = new Rectangle(-clipOffset.x, -clipOffset.y, overlay.getPreferredSize().width,
+                    overlay.getPreferredSize().height);
+            if (!overlayBounds.equals(overlay.getBounds()))
+            {
+                overlay.setBounds(overlayBounds);
+            }
+            if (!newBounds.equals(overlayClipper.getBounds()))
+            {
+                overlayClipper.setBounds(newBounds);
+            }
+            if (!newBounds.equals(bounds))
+            {
+                layer.boundsChanged(this, newBounds);
+            }
+        }
+
+        private void overlayChanged()
+        {
+            if (layer != null)
+            {
+                layer.scheduleUpdate();
+            }
+        }
+
+        public void hierarchyChanged(HierarchyEvent e)
+        {
+            if ((e.getChangeFlags() & (HierarchyEvent.PARENT_CHANGED | HierarchyEvent.DISPLAYABILITY_CHANGED)) != 0)
+            {
+                targetHierarchyChanged();
+            }
+            else if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+            {
+                overlayChanged();
+            }
+        }
+
+        public void componentHidden(ComponentEvent e)
+        {
+            overlayChanged();
+        }
+
+        public void componentMoved(ComponentEvent e)
+        {
+            // ignore
+        }
+
+        public void componentResized(ComponentEvent e)
+        {
+            // ignore
+        }
+
+        public void componentShown(ComponentEvent e)
+        {
+            overlayChanged();
+        }
+
+        public void propertyChange(PropertyChangeEvent e)
+        {
+            if ("ancestor".equals(e.getPropertyName()) || "layeredContainerLayer".equals(e.getPropertyName()))
+            {
+                return;
+            }
+            overlayChanged();
+        }
+    }
+}
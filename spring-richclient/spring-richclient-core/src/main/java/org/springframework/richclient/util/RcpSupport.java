@@ -14,6 +14,7 @@ import org.springframework.context.support.MessageSourceAccessor;
 import org.springframework.richclient.application.Application;
 import org.springframework.richclient.application.ApplicationServicesLocator;
 import org.springframework.richclient.application.ApplicationWindow;
+import org.springframework.richclient.application.ServiceHandle;
 import org.springframework.richclient.application.config.ApplicationObjectConfigurer;
 import org.springframework.richclient.application.support.DefaultApplicationServices;
 import org.springframework.richclient.command.AbstractCommand;
@@ -56,11 +57,12 @@ public class RcpSupport
     public static final int NO_OPTION = 1;
     public static final int CANCEL_OPTION = 2;
 
-    private static MessageSourceAccessor messageSourceAccessor;
-    private static CommandConfigurer commandConfigurer;
+    private static final ServiceHandle messageSourceAccessor = new ServiceHandle(MessageSourceAccessor.class);
+    private static final ServiceHandle commandConfigurer = new ServiceHandle(CommandConfigurer.class);
     private static ApplicationContext applicationContext;
-    private static ApplicationObjectConfigurer applicationObjectConfigurer;
-    private static IconSource iconSource;
+    private static final ServiceHandle applicationObjectConfigurer = new ServiceHandle(
+            ApplicationObjectConfigurer.class);
+    private static final ServiceHandle iconSource = new ServiceHandle(IconSource.class);
 
     private static Map<Integer, Object[]> optionsMap;
 
@@ -95,30 +97,23 @@ public class RcpSupport
     public static String getMessage(String id, String name, String type)
     {
         String[] messageKeys = getMessageKeys(id, name, type);
-        if (messageSourceAccessor == null)
-            messageSourceAccessor = (MessageSourceAccessor) ApplicationServicesLocator.services().getService(
-                    MessageSourceAccessor.class);
-
-        return messageSourceAccessor.getMessage(new DefaultMessageSourceResolvable(messageKeys, null,
+        return getMessageSourceAccessor().getMessage(new DefaultMessageSourceResolvable(messageKeys, null,
                 messageKeys[messageKeys.length - 1]));
     }
 
     public static String getMessage(MessageSourceResolvable msr)
     {
-        if (messageSourceAccessor == null)
-            messageSourceAccessor = (MessageSourceAccessor) ApplicationServicesLocator.services().getService(
-                    MessageSourceAccessor.class);
-
-        return messageSourceAccessor.getMessage(msr);
+        return getMessageSourceAccessor().getMessage(msr);
     }
 
     public static String getMessage(String id)
     {
-        if (messageSourceAccessor == null)
-            messageSourceAccessor = (MessageSourceAccessor) ApplicationServicesLocator.services().getService(
-                    MessageSourceAccessor.class);
+        return getMessageSourceAccessor().getMessage(id, "");
+    }
 
-        return messageSourceAccessor.getMessage(id, "");
+    private static MessageSourceAccessor getMessageSourceAccessor()
+    {
+        return (MessageSourceAccessor) messageSourceAccessor.get();
     }
 
     public static String getMessage(String id, String name, String type, Object[] params)
@@ -131,25 +126,17 @@ public class RcpSupport
 
     public static void configure(AbstractCommand command)
     {
-        if (commandConfigurer == null)
-            commandConfigurer = (CommandConfigurer) ApplicationServicesLocator.services().getService(
-                    CommandConfigurer.class);
-        commandConfigurer.configure(command);
+        ((CommandConfigurer) commandConfigurer.get()).configure(command);
     }
 
     public static void configure(Object object, String id)
     {
-        if (applicationObjectConfigurer == null)
-            applicationObjectConfigurer = (ApplicationObjectConfigurer) ApplicationServicesLocator.services()
-                    .getService(ApplicationObjectConfigurer.class);
-        applicationObjectConfigurer.configure(object, id);
+        ((ApplicationObjectConfigurer) applicationObjectConfigurer.get()).configure(object, id);
     }
 
     public static Icon getIcon(String key)
     {
-        if (iconSource == null)
-            iconSource = (IconSource) ApplicationServicesLocator.services().getService(IconSource.class);
-        return iconSource.getIcon(key);
+        return ((IconSource) iconSource.get()).getIcon(key);
     }
 
     public static <T> T getBean(String id)
@@ -381,8 +368,7 @@ public class RcpSupport
                 System.out.println(msg);
             }
         };
-        ((CommandConfigurer) ApplicationServicesLocator.services().getService(CommandConfigurer.class))
-                .configure(newCommand);
+        ((CommandConfigurer) commandConfigurer.get()).configure(newCommand);
         return newCommand;
     }
 
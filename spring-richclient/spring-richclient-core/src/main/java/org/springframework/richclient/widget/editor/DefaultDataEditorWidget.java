@@ -21,11 +21,16 @@ import org.springframework.richclient.widget.editor.provider.DataProvider;
 import org.springframework.richclient.widget.editor.provider.DataProviderEvent;
 import org.springframework.richclient.widget.editor.provider.DataProviderListener;
 import org.springframework.richclient.widget.editor.provider.MaximumRowsExceededException;
+import org.springframework.richclient.widget.editor.provider.PagedDataProvider;
+import org.springframework.richclient.widget.editor.provider.VirtualDataProvider;
 import org.springframework.richclient.widget.table.TableDescription;
 import org.springframework.richclient.widget.table.TableWidget;
 import org.springframework.richclient.widget.table.glazedlists.GlazedListTableWidget;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.*;
@@ -85,6 +90,23 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
 
     private ListRetrievingWorker listWorker;
 
+    /**
+     * Criteria of the last executed filter, used to fetch more rows of a partially fetched list.
+     */
+    private Object lastFilterCriteria;
+
+    /**
+     * Number of rows fetched so far by a {@link PagedDataProvider}.
+     */
+    private int fetchedRowCount;
+
+    /**
+     * <code>true</code> if the last list was only partially fetched.
+     */
+    private boolean moreRowsAvailable;
+
+    private ChangeListener fetchMoreListener;
+
     private final MaximumRowsExceededMessage maximumRowsExceededMessage = new MaximumRowsExceededMessage();
 
     protected static class MaximumRowsExceededMessage extends DefaultValidationMessage
@@ -113,6 +135,10 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
     /**
      * {@link SwingWorker} which retrieves list from back-end and fills table with result.
      * <p/>
+     * When the {@link DataProvider} is a {@link PagedDataProvider}, the list is fetched page by page and
+     * each page is added to the table as soon as it arrives. A running worker is cancelled when a new
+     * filter is executed.
+     * <p/>
      * Remember to set criteria and launch this class in a synchronised block.
      */
     private class ListRetrievingWorker extends SwingWorker<List<Object>, String>
@@ -128,10 +154,80 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
          */
         protected Map<String, Object> parameters;
 
+        /**
+         * Index of the first row to fetch, non-zero when fetching more rows of a partially fetched list.
+         */
+        protected int firstRow;
+
+        /**
+         * <code>true</code> if the fetching stopped because {@link PagedDataProvider#getMaxRows()} was
+         * reached.
+         */
+        private volatile boolean moreRowsAvailable;
+
         @Override
         protected List<Object> doInBackground() throws Exception
         {
-            return getDataProvider().getList(filterCriteria);
+            if (!(getDataProvider() instanceof PagedDataProvider))
+            {
+                return getDataProvider().getList(filterCriteria);
+            }
+
+            PagedDataProvider pagedDataProvider = (PagedDataProvider) getDataProvider();
+            int pageSize = Math.max(1, pagedDataProvider.getPageSize());
+            int maxRows = pagedDataProvider.getMaxRows();
+            List<Object> rows = new ArrayList<Object>();
+            while (!isCancelled())
+            {
+                int rowsToFetch = pageSize;
+                if (maxRows > 0)
+                {
+                    rowsToFetch = Math.min(pageSize, maxRows - rows.size());
+                    if (rowsToFetch <= 0)
+                    {
+                        moreRowsAvailable = true;
+                        break;
+                    }
+                }
+                List page = pagedDataProvider.getList(filterCriteria, firstRow + rows.size(), rowsToFetch);
+                if ((page == null) || page.isEmpty())
+                {
+                    break;
+                }
+                publishRows(new ArrayList<Object>(page), rows.isEmpty() && (firstRow == 0));
+                rows.addAll(page);
+                if (page.size() < rowsToFetch)
+                {
+                    break;
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Add a fetched page to the table. This is done with {@link SwingUtilities#invokeLater(Runnable)}
+         * instead of {@link #publish(Object[])} to make sure all pages are shown before {@link #done()} is
+         * called.
+         */
+        private void publishRows(final List<Object> page, final boolean replace)
+        {
+            SwingUtilities.invokeLater(new Runnable()
+            {
+                public void run()
+                {
+                    if (!isCancelled() && (listWorker == ListRetrievingWorker.this))
+                    {
+                        if (replace)
+                        {
+                            setRows(page);
+                        }
+                        else
+                        {
+                            tableWidget.addRows(page);
+                        }
+                    }
+                }
+            });
         }
 
         /**
@@ -140,9 +236,21 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
         @Override
         protected void done()
         {
+            if (isCancelled())
+            {
+                // superseded by another worker, which now owns the table and the progress monitor
+                return;
+            }
             try
             {
-                listWorkerDone(get(), parameters);
+                if (getDataProvider() instanceof PagedDataProvider)
+                {
+                    pagedListWorkerDone(get(), parameters, firstRow, moreRowsAvailable);
+                }
+                else
+                {
+                    listWorkerDone(get(), parameters);
+                }
             }
             catch (InterruptedException e)
             {
@@ -169,10 +277,13 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
             }
             finally
             {
-                Application.instance().getActiveWindow().getStatusBar().getProgressMonitor().done();
-                //                getFilterForm().getCommitCommand().setEnabled(true);
-                //                getRefreshCommand().setEnabled(true);
-                listWorker = null;
+                if (listWorker == this)
+                {
+                    Application.instance().getActiveWindow().getStatusBar().getProgressMonitor().done();
+                    //                getFilterForm().getCommitCommand().setEnabled(true);
+                    //                getRefreshCommand().setEnabled(true);
+                    listWorker = null;
+                }
             }
         }
     }
@@ -210,6 +321,120 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
         }
     }
 
+    /**
+     * This method is called on the gui-thread when a worker using a {@link PagedDataProvider} ends. The
+     * fetched rows are already added to the table. If more rows are available, a notice is shown and the
+     * next rows are fetched when the user scrolls to the end of the table.
+     *
+     * @param rows              fetched by the listWorker.
+     * @param parameters        a map of parameters specific to this listWorker instance.
+     * @param firstRow          index of the first row fetched by the listWorker.
+     * @param moreRowsAvailable <code>true</code> if the fetching stopped before the end of the list.
+     */
+    protected void pagedListWorkerDone(List<Object> rows, Map<String, Object> parameters, int firstRow,
+                                       boolean moreRowsAvailable)
+    {
+        fetchedRowCount = firstRow + rows.size();
+        this.moreRowsAvailable = moreRowsAvailable;
+        validationResultsModel.removeMessage(maximumRowsExceededMessage);
+        if (moreRowsAvailable)
+        {
+            maximumRowsExceededMessage.setMessage(getMessage("MaximumRowsExceededException.partialNotice", new Object[] {fetchedRowCount}));
+            validationResultsModel.addMessage(maximumRowsExceededMessage);
+            installFetchMoreListener();
+        }
+
+        if (firstRow > 0)
+        {
+            return;
+        }
+        if (rows.size() == 0)
+        {
+            setRows(Collections.EMPTY_LIST);
+            return;
+        }
+
+        Object defaultSelectedObject = null;
+        if (parameters.containsKey(PARAMETER_DEFAULT_SELECTED_OBJECT))
+        {
+            defaultSelectedObject = parameters.get(PARAMETER_DEFAULT_SELECTED_OBJECT);
+        }
+
+        if (defaultSelectedObject == null)
+        {
+            tableWidget.selectRowObject(0, null);
+        }
+        else
+        {
+            tableWidget.selectRowObject(defaultSelectedObject, null);
+        }
+    }
+
+    /**
+     * Installs a listener on the viewport of the table which fetches the next rows of a partially fetched
+     * list when the user scrolls to the end of the table.
+     */
+    private void installFetchMoreListener()
+    {
+        if (fetchMoreListener != null)
+        {
+            return;
+        }
+        final JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, tableWidget
+                .getTable());
+        if (viewport == null)
+        {
+            return;
+        }
+        fetchMoreListener = new ChangeListener()
+        {
+            public void stateChanged(ChangeEvent e)
+            {
+                Rectangle viewRect = viewport.getViewRect();
+                JTable table = tableWidget.getTable();
+                if (moreRowsAvailable && (listWorker == null)
+                        && (viewRect.y + viewRect.height >= table.getHeight() - table.getRowHeight()))
+                {
+                    fetchMoreRows();
+                }
+            }
+        };
+        viewport.addChangeListener(fetchMoreListener);
+    }
+
+    /**
+     * Fetch the next rows of a partially fetched list and add them to the table.
+     *
+     * @see PagedDataProvider#getMaxRows()
+     */
+    public synchronized void fetchMoreRows()
+    {
+        if (!moreRowsAvailable || (listWorker != null))
+        {
+            return;
+        }
+        moreRowsAvailable = false;
+        listWorker = createListWorker(lastFilterCriteria, Collections.EMPTY_MAP);
+        listWorker.firstRow = fetchedRowCount;
+        log.debug("Fetch more rows with criteria: " + lastFilterCriteria + " starting at row: " + fetchedRowCount);
+        listWorker.execute();
+    }
+
+    private ListRetrievingWorker createListWorker(Object filterCriteria, Map<String, Object> parameters)
+    {
+        StatusBar statusBar = Application.instance().getActiveWindow().getStatusBar();
+        statusBar.getProgressMonitor().taskStarted(
+                RcpSupport.getMessage("statusBar", "loadTable", RcpSupport.LABEL),
+                StatusBarProgressMonitor.UNKNOWN);
+        //            getFilterForm().getCommitCommand().setEnabled(false);
+        //            getRefreshCommand().setEnabled(false);
+
+        ListRetrievingWorker worker = new ListRetrievingWorker();
+        worker.filterCriteria = filterCriteria;
+        worker.parameters = parameters;
+        return worker;
+    }
+
     /**
      * Default constructor. Add id, {@link DataProvider}, {@link org.springframework.richclient.form.Form}s and listView later.
      *
@@ -362,7 +587,8 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
 
     /**
      * Create a {@link GlazedListTableWidget} based on the given {@link TableDescription} to be used as
-     * listView.
+     * listView. When the {@link DataProvider} is a {@link VirtualDataProvider}, the table is created in
+     * virtual mode.
      *
      * @param tableDescription description of columns used to create the table.
      */
@@ -370,7 +596,9 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
     {
         if (tableDescription != null)
         {
-            TableWidget tableWidget = new GlazedListTableWidget(null, tableDescription);
+            TableWidget tableWidget = dataProvider instanceof VirtualDataProvider
+                    ? new GlazedListTableWidget(tableDescription, (VirtualDataProvider) dataProvider)
+                    : new GlazedListTableWidget(null, tableDescription);
             setTableWidget(tableWidget);
         }
     }
@@ -458,11 +686,12 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
      * Executes filter and fills table in specific manner:
      * <p/>
      * <ul>
+     * <li>cancel a worker that is still running for previous criteria</li>
      * <li>set baseCriteria if needed</li>
      * <li>set searchCriteria on filterForm</li>
      * <li>set searchCriteria on worker</li>
      * <li>pass parameter map to worker</li>
-     * <li>launch worker to retrieve list from back-end and fill table</li>
+     * <li>launch worker to retrieve list from back-end and fill table, or pass the criteria to a virtual table</li>
      * <li>when done, set list and execute additional code taking the parameters into account</li>
      * </ul>
      *
@@ -472,36 +701,50 @@ public class DefaultDataEditorWidget extends AbstractDataEditorWidget
     @Override
     public synchronized void executeFilter(Map<String, Object> parameters)
     {
-        if (listWorker == null)
+        if (listWorker != null)
         {
-            if (dataProvider.supportsBaseCriteria())
-            {
-                dataProvider.setBaseCriteria(getBaseCriteria());
-            }
+            // the criteria changed, the running retrieval is no longer needed
+            log.debug("Cancelling running worker with criteria: " + listWorker.filterCriteria);
+            listWorker.cancel(true);
+            listWorker = null;
+            Application.instance().getActiveWindow().getStatusBar().getProgressMonitor().done();
+        }
+        moreRowsAvailable = false;
 
-            StatusBar statusBar = Application.instance().getActiveWindow().getStatusBar();
-            statusBar.getProgressMonitor().taskStarted(
-                    RcpSupport.getMessage("statusBar", "loadTable", RcpSupport.LABEL),
-                    StatusBarProgressMonitor.UNKNOWN);
-            //            getFilterForm().getCommitCommand().setEnabled(false);
-            //            getRefreshCommand().setEnabled(false);
+        if (dataProvider.supportsBaseCriteria())
+        {
+            dataProvider.setBaseCriteria(getBaseCriteria());
+        }
 
-            listWorker = new ListRetrievingWorker();
-            if (dataProvider.supportsFiltering())
+        Object filterCriteria = null;
+        if (dataProvider.supportsFiltering())
+        {
+            if (parameters.containsKey(PARAMETER_FILTER))
             {
-                if (parameters.containsKey(PARAMETER_FILTER))
-                {
-                    setFilterModel(parameters.get(PARAMETER_FILTER));
-                }
-
-                listWorker.filterCriteria = getFilterForm().getFilterCriteria();
+                setFilterModel(parameters.get(PARAMETER_FILTER));
             }
 
-            listWorker.parameters = parameters;
-            log.debug("Execute Filter with criteria: " + listWorker.filterCriteria + " and parameters: "
-                    + parameters);
-            listWorker.execute();
+            filterCriteria = getFilterForm().getFilterCriteria();
         }
+        lastFilterCriteria = filterCriteria;
+
+        if (isVirtualTable())
+        {
+            // the table fetches the visible rows itself
+            log.debug("Execute Filter on virtual table with criteria: " + filterCriteria);
+            ((GlazedListTableWidget) tableWidget).setCriteria(filterCriteria);
+            return;
+        }
+
+        listWorker = createListWorker(filterCriteria, parameters);
+        log.debug("Execute Filter with criteria: " + listWorker.filterCriteria + " and parameters: "
+                + parameters);
+        listWorker.execute();
+    }
+
+    private boolean isVirtualTable()
+    {
+        return (tableWidget instanceof GlazedListTableWidget) && ((GlazedListTableWidget) tableWidget).isVirtual();
     }
 
     /**
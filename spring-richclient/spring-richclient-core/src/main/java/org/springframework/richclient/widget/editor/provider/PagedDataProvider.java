@@ -0,0 +1,45 @@
+package org.springframework.richclient.widget.editor.provider;
+
+import java.util.List;
+
+/**
+ * <p>
+ * A {@link DataProvider} that is able to deliver its list in consecutive pages. A
+ * {@link org.springframework.richclient.widget.editor.DefaultDataEditorWidget} will fetch the pages one
+ * after the other and add each page to the table as soon as it arrives, instead of waiting for the
+ * complete list.
+ * </p>
+ *
+ * <p>
+ * Fetching stops when a page contains less rows than requested or when {@link #getMaxRows()} rows have
+ * been fetched. In the latter case the table shows the rows fetched so far and the next rows are fetched
+ * when the user scrolls to the end of the table.
+ * </p>
+ */
+public interface PagedDataProvider extends DataProvider
+{
+
+    /**
+     * @return the number of rows to fetch in one call to {@link #getList(Object, int, int)}.
+     */
+    public int getPageSize();
+
+    /**
+     * @return the number of rows that may be fetched before further fetching is postponed until the user
+     *         asks for more rows. A value <code>&lt;= 0</code> means all rows are fetched.
+     */
+    public int getMaxRows();
+
+    /**
+     * Fetch a part of the list that matches the given criteria.
+     *
+     * @param criteria
+     *            the filter criteria, same as in {@link #getList(Object)}.
+     * @param firstRow
+     *            index of the first row to return.
+     * @param maxRows
+     *            maximum number of rows to return.
+     * @return a list with at most <code>maxRows</code> rows, a smaller list signals the end of the data.
+     */
+    public List getList(Object criteria, int firstRow, int maxRows);
+}
@@ -0,0 +1,40 @@
+package org.springframework.richclient.widget.editor.provider;
+
+import java.util.List;
+
+/**
+ * <p>
+ * A {@link DataProvider} that serves its list by index ranges. A table backed by such a provider only
+ * fetches the rows that are visible (plus a small margin) instead of holding the complete list in memory.
+ * </p>
+ *
+ * <p>
+ * Sorting and text filtering are done by the provider, the {@link VirtualListQuery} describes which
+ * properties to sort and filter on.
+ * </p>
+ *
+ * @see org.springframework.richclient.widget.table.glazedlists.VirtualEventList
+ */
+public interface VirtualDataProvider extends DataProvider
+{
+
+    /**
+     * @param query
+     *            the criteria, sort order and text filter to apply.
+     * @return the total number of rows that match the query.
+     */
+    public int getRowCount(VirtualListQuery query);
+
+    /**
+     * Fetch a range of the rows that match the query.
+     *
+     * @param query
+     *            the criteria, sort order and text filter to apply.
+     * @param firstRow
+     *            index of the first row to return.
+     * @param maxRows
+     *            maximum number of rows to return.
+     * @return a list with at most <code>maxRows</code> rows.
+     */
+    public List getRows(VirtualListQuery query, int firstRow, int maxRows);
+}
@@ -0,0 +1,133 @@
+package org.springframework.richclient.widget.editor.provider;
+
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Immutable description of the rows requested from a {@link VirtualDataProvider}: the filter criteria
+ * together with the sort order and the text filter chosen in the table.
+ */
+public final class VirtualListQuery
+{
+
+    private static final String[] NO_PROPERTIES = new String[0];
+
+    private static final boolean[] NO_ORDER = new boolean[0];
+
+    private final Object criteria;
+
+    private final String[] sortProperties;
+
+    private final boolean[] sortAscending;
+
+    private final String textFilter;
+
+    private final String[] textFilterProperties;
+
+    /**
+     * Query without sort order and text filter.
+     */
+    public VirtualListQuery(Object criteria)
+    {
+        this(criteria, null, null, null, null);
+    }
+
+    /**
+     * @param criteria
+     *            filter criteria, same as in {@link DataProvider#getList(Object)}.
+     * @param sortProperties
+     *            properties to sort on, most significant first.
+     * @param sortAscending
+     *            sort direction for each of the sortProperties.
+     * @param textFilter
+     *            text typed in the quick filter of the table, <code>null</code> if none.
+     * @param textFilterProperties
+     *            properties that should be matched against the text filter.
+     */
+    public VirtualListQuery(Object criteria, String[] sortProperties, boolean[] sortAscending, String textFilter,
+                            String[] textFilterProperties)
+    {
+        this.criteria = criteria;
+        this.sortProperties = sortProperties == null ? NO_PROPERTIES : sortProperties;
+        this.sortAscending = sortAscending == null ? NO_ORDER : sortAscending;
+        if (this.sortProperties.length != this.sortAscending.length)
+        {
+            throw new IllegalArgumentException("Each sort property needs a sort direction");
+        }
+        this.textFilter = textFilter;
+        this.textFilterProperties = textFilterProperties == null ? NO_PROPERTIES : textFilterProperties;
+    }
+
+    public Object getCriteria()
+    {
+        return criteria;
+    }
+
+    public String[] getSortProperties()
+    {
+        return sortProperties;
+    }
+
+    public boolean[] getSortAscending()
+    {
+        return sortAscending;
+    }
+
+    public String getTextFilter()
+    {
+        return textFilter;
+    }
+
+    public String[] getTextFilterProperties()
+    {
+        return textFilterProperties;
+    }
+
+    public boolean hasTextFilter()
+    {
+        return (textFilter != null) && (textFilter.length() > 0);
+    }
+
+    public VirtualListQuery withCriteria(Object newCriteria)
+    {
+        return new VirtualListQuery(newCriteria, sortProperties, sortAscending, textFilter, textFilterProperties);
+    }
+
+    public VirtualListQuery withSortOrder(String[] newSortProperties, boolean[] newSortAscending)
+    {
+        return new VirtualListQuery(criteria, newSortProperties, newSortAscending, textFilter, textFilterProperties);
+    }
+
+    public VirtualListQuery withTextFilter(String newTextFilter, String[] newTextFilterProperties)
+    {
+        return new VirtualListQuery(criteria, sortProperties, sortAscending, newTextFilter, newTextFilterProperties);
+    }
+
+    public boolean equals(Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (!(o instanceof VirtualListQuery))
+        {
+            return false;
+        }
+        VirtualListQuery other = (VirtualListQuery) o;
+        return ObjectUtils.nullSafeEquals(criteria, other.criteria)
+                && ObjectUtils.nullSafeEquals(sortProperties, other.sortProperties)
+                && ObjectUtils.nullSafeEquals(sortAscending, other.sortAscending)
+                && ObjectUtils.nullSafeEquals(textFilter, other.textFilter)
+                && ObjectUtils.nullSafeEquals(textFilterProperties, other.textFilterProperties);
+    }
+
+    public int hashCode()
+    {
+        return ObjectUtils.nullSafeHashCode(criteria) * 31 + ObjectUtils.nullSafeHashCode(textFilter);
+    }
+
+    public String toString()
+    {
+        return "VirtualListQuery[criteria=" + criteria + ", sort=" + ObjectUtils.nullSafeToString(sortProperties)
+                + ", textFilter=" + textFilter + "]";
+    }
+}
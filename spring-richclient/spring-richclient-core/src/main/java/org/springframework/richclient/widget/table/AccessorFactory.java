@@ -0,0 +1,188 @@
+package org.springframework.richclient.widget.table;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * Hands out shared {@link Accessor}s and {@link Writer}s. Accessors are created once for each type and
+ * property path and then reused by every table that shows that property, so the getter and setter lookup
+ * is done only once and all columns invoke the same {@link java.lang.reflect.Method} instances.
+ * </p>
+ *
+ * <p>
+ * Nested paths are separated by dots and are null-safe: if any property along the path is
+ * <code>null</code>, the accessor returns <code>null</code>. Indexed or mapped paths aren't supported.
+ * </p>
+ *
+ * <p>
+ * The types are held weakly. The accessors of types loaded by another class loader than this class, e.g.
+ * by a plugin, are held weakly as well, so the cache doesn't keep those classes and their class loaders
+ * alive, like Spring's <code>CachedIntrospectionResults</code>.
+ * </p>
+ *
+ * @see ClassUtils#getAccessorForProperty(Class, String)
+ * @see ClassUtils#getWriterForProperty(Class, String)
+ */
+public final class AccessorFactory
+{
+
+    /** Marks a property path that can't be read with an {@link Accessor}. */
+    private static final Object NOT_READABLE = new Object();
+
+    /**
+     * The accessors of each type, or a weak reference to them if the type may be unloaded before this class:
+     * the accessors refer to their type, which would keep the weak key from being cleared.
+     */
+    private static final Map<Class<?>, Object> accessors = new WeakHashMap<Class<?>, Object>();
+
+    private static final Map<Class<?>, Object> writers = new WeakHashMap<Class<?>, Object>();
+
+    /**
+     * No instantiation possible.
+     */
+    private AccessorFactory()
+    {
+    }
+
+    /**
+     * Returns the shared {@link Accessor} for the given property.
+     *
+     * @param clazz
+     *            the type containing the property.
+     * @param propertyPath
+     *            the name of the property, may be nested using the dot character.
+     * @return an Accessor for the property.
+     * @throws NoSuchMethodError
+     *             if there's no getter for the property.
+     */
+    public static Accessor getAccessor(Class<?> clazz, String propertyPath)
+    {
+        ConcurrentMap<String, Object> cache = getCache(accessors, clazz);
+        Object accessor = cache.get(propertyPath);
+        if (accessor == NOT_READABLE)
+        {
+            // reports the error, or returns a nested accessor that resolves its path at runtime
+            return ClassUtils.getAccessorForProperty(clazz, propertyPath);
+        }
+        if (accessor == null)
+        {
+            accessor = putIfAbsent(cache, propertyPath, ClassUtils.getAccessorForProperty(clazz, propertyPath));
+        }
+        return (Accessor) accessor;
+    }
+
+    /**
+     * Returns the shared {@link Accessor} for the given property or <code>null</code> if the property can't be
+     * read through an accessor. Unlike {@link #getAccessor(Class, String)}, the complete path is resolved
+     * immediately, and an unreadable path is remembered, so this is cheap to call repeatedly.
+     *
+     * @param clazz
+     *            the type containing the property.
+     * @param propertyPath
+     *            the name of the property, may be nested using the dot character.
+     * @return an Accessor for the property or <code>null</code>.
+     */
+    public static Accessor findAccessor(Class<?> clazz, String propertyPath)
+    {
+        ConcurrentMap<String, Object> cache = getCache(accessors, clazz);
+        Object accessor = cache.get(propertyPath);
+        if (accessor == null)
+        {
+            try
+            {
+                Accessor newAccessor = ClassUtils.getAccessorForProperty(clazz, propertyPath);
+                // resolves the nested accessors
+                newAccessor.getPropertyType();
+                accessor = newAccessor;
+            }
+            catch (NoSuchMethodError e)
+            {
+                accessor = NOT_READABLE;
+            }
+            catch (IllegalArgumentException e)
+            {
+                accessor = NOT_READABLE;
+            }
+            accessor = putIfAbsent(cache, propertyPath, accessor);
+        }
+        return accessor == NOT_READABLE ? null : (Accessor) accessor;
+    }
+
+    /**
+     * Returns the shared {@link Writer} for the given property.
+     *
+     * @param clazz
+     *            the type containing the property.
+     * @param propertyPath
+     *            the name of the property, may be nested using the dot character.
+     * @return a Writer for the property.
+     * @throws NoSuchMethodError
+     *             if there's no getter for the property.
+     */
+    public static Writer getWriter(Class<?> clazz, String propertyPath)
+    {
+        ConcurrentMap<String, Writer> cache = getCache(writers, clazz);
+        Writer writer = cache.get(propertyPath);
+        if (writer == null)
+        {
+            writer = putIfAbsent(cache, propertyPath, ClassUtils.getWriterForProperty(clazz, propertyPath));
+        }
+        return writer;
+    }
+
+    /**
+     * Drops all cached accessors, e.g. when classes are reloaded.
+     */
+    public static void clear()
+    {
+        synchronized (accessors)
+        {
+            accessors.clear();
+        }
+        synchronized (writers)
+        {
+            writers.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ConcurrentMap<String, T> getCache(Map<Class<?>, Object> caches, Class<?> clazz)
+    {
+        synchronized (caches)
+        {
+            Object value = caches.get(clazz);
+            if (value instanceof Reference)
+            {
+                value = ((Reference) value).get();
+            }
+            ConcurrentMap<String, T> cache = (ConcurrentMap<String, T>) value;
+            if (cache == null)
+            {
+                cache = new ConcurrentHashMap<String, T>();
+                if (org.springframework.util.ClassUtils.isCacheSafe(clazz, AccessorFactory.class.getClassLoader()))
+                {
+                    caches.put(clazz, cache);
+                }
+                else
+                {
+                    caches.put(clazz, new WeakReference<ConcurrentMap<String, T>>(cache));
+                }
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Store the value unless another thread was first, returns the value that ends up in the map.
+     */
+    private static <K, V> V putIfAbsent(ConcurrentMap<K, V> map, K key, V value)
+    {
+        V previous = map.putIfAbsent(key, value);
+        return previous == null ? value : previous;
+    }
+}
@@ -34,13 +34,13 @@ public class ClassUtils
         String propertyNameCapitalized = capitalize(propertyName);
         try
         {
-            return clazz.getMethod("get" + propertyNameCapitalized);
+            return makeAccessible(clazz.getMethod("get" + propertyNameCapitalized));
         }
         catch (Exception e)
         {
             try
             {
-                return clazz.getMethod("is" + propertyNameCapitalized);
+                return makeAccessible(clazz.getMethod("is" + propertyNameCapitalized));
             }
             catch (Exception e1)
             {
@@ -86,7 +86,7 @@ public class ClassUtils
         String propertyNameCapitalized = capitalize(propertyName);
         try
         {
-            return clazz.getMethod("set" + propertyNameCapitalized, new Class[]{propertyType});
+            return makeAccessible(clazz.getMethod("set" + propertyNameCapitalized, new Class[]{propertyType}));
         }
         catch (Exception e)
         {
@@ -94,6 +94,27 @@ public class ClassUtils
         }
     }
 
+    /**
+     * Suppress the access checks on the given method, a method that is invoked for every cell of a table
+     * shouldn't have to repeat them on every call. If a security manager forbids this, the checks remain.
+     *
+     * @param method
+     *            the method to invoke.
+     * @return the same method.
+     */
+    private static Method makeAccessible(Method method)
+    {
+        try
+        {
+            method.setAccessible(true);
+        }
+        catch (SecurityException e)
+        {
+            // keep the access checks
+        }
+        return method;
+    }
+
     /**
      * Small helper method to capitalize the first character of the given string.
      * 
@@ -12,8 +12,11 @@ import java.lang.reflect.Method;
 public class NestedAccessor implements Accessor
 {
 
-    /** Lazily created accessor to access the nested property on the top level property object. */
-    private Accessor wrappedAccessor;
+    /**
+     * Accessor for the nested property on the return type of the getter, <code>null</code> if only the
+     * runtime type of the top level property object has the nested property.
+     */
+    final private Accessor wrappedAccessor;
 
     /**
      * The nested property. Will be used to create an accessor together with the return type of the top level
@@ -56,6 +59,21 @@ public class NestedAccessor implements Accessor
     {
         this.nestedProperty = nestedProperty;
         this.getter = getter;
+        Accessor accessor;
+        try
+        {
+            accessor = AccessorFactory.getAccessor(getter.getReturnType(), nestedProperty);
+        }
+        catch (NoSuchMethodError nsme)
+        {
+            // may be found on the runtime type of the values
+            accessor = null;
+        }
+        catch (IllegalArgumentException iae)
+        {
+            accessor = null;
+        }
+        this.wrappedAccessor = accessor;
     }
 
     /**
@@ -76,21 +94,19 @@ public class NestedAccessor implements Accessor
 
     /**
      * <p>
-     * Get the wrapped accessor, instantiate it lazily if needed.
+     * Get the wrapped accessor.
      * </p>
      * 
      * <p>
      * Normally the return type of the getter method delivers the correct type on which the nested property
      * can be found. There is however a specific case in which this isn't true. It may be that a specific type
-     * is only known at runtime and that you need to access a property of that specific type. The specific
-     * type can be found at runtime when the wrapped accessor is constructed. But it does imply that all other
-     * access will result in the same type.
+     * is only known at runtime and that you need to access a property of that specific type. The accessor of
+     * the runtime type is then looked up for each value, so values of different types can be accessed.
      * </p>
      * 
      * <p>
      * A specific type implementation is found in PeriodicValueAdapter->BTWPercentage, here a property of
-     * BTWPercentage can be accessed through the adapter, but all other adapters should contain a
-     * BTWPercentage.
+     * BTWPercentage can be accessed through the adapter.
      * </p>
      * 
      * @param propertyType
@@ -99,21 +115,16 @@ public class NestedAccessor implements Accessor
      */
     private Accessor getWrappedAccessor(Class<?> propertyType)
     {
-        if (wrappedAccessor == null)
+        if (wrappedAccessor != null)
         {
-            try
-            {
-                wrappedAccessor = ClassUtils.getAccessorForProperty(getter.getReturnType(), nestedProperty);
-            }
-            catch (NoSuchMethodError nsme)
-            {
-                if (propertyType == null)
-                    throw nsme;
-                wrappedAccessor = ClassUtils.getAccessorForProperty(propertyType, nestedProperty);
-            }
+            return wrappedAccessor;
         }
-
-        return wrappedAccessor;
+        if (propertyType == null)
+        {
+            // reports the missing property
+            return AccessorFactory.getAccessor(getter.getReturnType(), nestedProperty);
+        }
+        return AccessorFactory.getAccessor(propertyType, nestedProperty);
     }
 
     /**
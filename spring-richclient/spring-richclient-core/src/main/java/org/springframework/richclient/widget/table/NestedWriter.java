@@ -47,7 +47,7 @@ public class NestedWriter implements Writer
     public NestedWriter(Method getter, String nestedPropertyName)
     {
         this.getter = getter;
-        this.nestedWriter = ClassUtils.getWriterForProperty(getter.getReturnType(), nestedPropertyName);
+        this.nestedWriter = AccessorFactory.getWriter(getter.getReturnType(), nestedPropertyName);
     }
 
     /**
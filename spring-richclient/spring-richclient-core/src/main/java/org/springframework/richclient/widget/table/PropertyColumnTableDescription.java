@@ -164,7 +164,7 @@ public class PropertyColumnTableDescription implements TableDescription
     public PropertyColumn addPropertyColumn(String propertyName, Class<?> propertyType)
     {
         String[] headerKeys = RcpSupport.getMessageKeys(this.id, propertyName, RcpSupport.HEADER);
-        Accessor accessor = ClassUtils.getAccessorForProperty(entityClass, propertyName);
+        Accessor accessor = AccessorFactory.getAccessor(entityClass, propertyName);
         if (propertyType == null)
             propertyType = accessor.getPropertyType();
         PropertyColumn propertyColumn = new PropertyColumn(propertyName, accessor, propertyType);
@@ -180,7 +180,7 @@ public class PropertyColumnTableDescription implements TableDescription
         this.columns = new ArrayList<PropertyColumn>(propertyColumns);
         for (PropertyColumn propertyColumn : columns)
         {
-            Accessor accessorForProperty = ClassUtils.getAccessorForProperty(entityClass, propertyColumn.getPropertyName());
+            Accessor accessorForProperty = AccessorFactory.getAccessor(entityClass, propertyColumn.getPropertyName());
             propertyColumn.setAccessor(accessorForProperty);
             if(propertyColumn.getComparator() == null)
                 propertyColumn.setComparator(getDefaultComparator());
@@ -469,7 +469,7 @@ public class PropertyColumnTableDescription implements TableDescription
             throw new IllegalArgumentException("Already a selectColumn specified, cannot set " + propertyName
                     + " as selectColumn");
         this.hasSelectColumn = true;
-        Accessor propertyAccessor = ClassUtils.getWriterForProperty(entityClass, propertyName);
+        Accessor propertyAccessor = AccessorFactory.getWriter(entityClass, propertyName);
         JCheckBox cellEditorComponent = new JCheckBox();
         cellEditorComponent.setHorizontalAlignment(SwingConstants.CENTER);
         columns.add(0, new PropertyColumn(Boolean.class, propertyAccessor, propertyName, headerKeys,
@@ -484,7 +484,7 @@ public class PropertyColumnTableDescription implements TableDescription
             throw new IllegalArgumentException("Already a selectColumn specified, cannot set " + propertyName
                     + " as selectColumn");
         this.hasSelectColumn = true;
-        Accessor propertyAccessor = ClassUtils.getWriterForProperty(entityClass, propertyName);
+        Accessor propertyAccessor = AccessorFactory.getWriter(entityClass, propertyName);
         JCheckBox cellEditorComponent = new JCheckBox();
         cellEditorComponent.setHorizontalAlignment(SwingConstants.CENTER);
         columns.add(0, new PropertyColumn(Boolean.class, propertyAccessor, propertyName, headerKeys,
@@ -595,6 +595,18 @@ public class PropertyColumnTableDescription implements TableDescription
         }
     }
 
+    /**
+     * Returns the name of the property shown in a column.
+     *
+     * @param propertyIndex
+     *            column index.
+     * @return the property name, possibly a nested 'propertyA.propertyB' path.
+     */
+    public String getPropertyName(int propertyIndex)
+    {
+        return getPropertyColumn(propertyIndex).getPropertyName();
+    }
+
     public String getHeader(int propertyIndex)
     {
         return getPropertyColumn(propertyIndex).getHeader();
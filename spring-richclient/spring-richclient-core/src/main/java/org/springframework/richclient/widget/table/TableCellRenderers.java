@@ -4,6 +4,7 @@ import org.apache.commons.beanutils.NestedNullException;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.jdesktop.swingx.renderer.DefaultTableRenderer;
 import org.jdesktop.swingx.renderer.FormatStringValue;
+import org.springframework.binding.format.support.ThreadLocalFormat;
 import org.springframework.richclient.util.RcpSupport;
 
 import javax.swing.*;
@@ -21,6 +22,11 @@ import java.util.Locale;
 
 /**
  * Voorziet een paar eenvoudige renderers voor gebruiksgemak.
+ *
+ * <p>
+ * The formats that are shared by renderers are {@link ThreadLocalFormat}s, so values can also be formatted
+ * outside the event dispatch thread.
+ * </p>
  */
 public class TableCellRenderers
 {
@@ -34,8 +40,8 @@ public class TableCellRenderers
     public static final TableCellRenderer BOTTOM_ALIGNED_RENDERER = new AlignedRenderer(SwingConstants.LEFT,
             SwingConstants.BOTTOM);
     public static final TableCellRenderer PERCENTAGE_RENDERER = new PercentageRenderer();
-    public static final TableCellRenderer MONEY_RENDERER = new BigDecimalRenderer(NumberFormat
-            .getCurrencyInstance(Locale.getDefault()));
+    public static final TableCellRenderer MONEY_RENDERER = new BigDecimalRenderer(new ThreadLocalFormat(
+            NumberFormat.getCurrencyInstance(Locale.getDefault())));
     public static final TableCellRenderer LEFT_ALIGNED_HEADER_RENDERER = new AlignedTableHeaderRenderer(
             SwingConstants.LEFT);
     public static final TableCellRenderer CENTER_ALIGNED_HEADER_RENDERER = new AlignedTableHeaderRenderer(
@@ -49,10 +55,12 @@ public class TableCellRenderers
     public static class FlatNumberRenderer extends DefaultTableRenderer
     {
 
-        private static NumberFormat format = NumberFormat.getIntegerInstance();
+        private static final Format format;
         static
         {
-            format.setGroupingUsed(false);
+            NumberFormat numberFormat = NumberFormat.getIntegerInstance();
+            numberFormat.setGroupingUsed(false);
+            format = new ThreadLocalFormat(numberFormat);
         }
 
         public FlatNumberRenderer()
@@ -77,17 +85,13 @@ public class TableCellRenderers
             setVerticalAlignment(verticalAlignment);
         }
 
-        DateFormat formatter;
+        private static final Format formatter = new ThreadLocalFormat(DateFormat.getDateInstance());
 
         @Override
         public void setValue(Object value)
         {
             if (value != null && value instanceof Date)
             {
-                if (formatter == null)
-                {
-                    formatter = DateFormat.getDateInstance();
-                }
                 setText(formatter.format(value));
             }
             else
@@ -102,8 +106,9 @@ public class TableCellRenderers
     {
 
         private static final DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.getDefault());
-        private static final Format nonFractionalFormat = new DecimalFormat("###     %", symbols);
-        private static final Format fractionalFormat = new DecimalFormat("##0.00%", symbols);
+        private static final Format nonFractionalFormat = new ThreadLocalFormat(new DecimalFormat("###     %",
+                symbols));
+        private static final Format fractionalFormat = new ThreadLocalFormat(new DecimalFormat("##0.00%", symbols));
         private static final BigDecimal multiplyFactor = new BigDecimal("100");
 
         public PercentageRenderer()
@@ -22,11 +22,14 @@ import org.springframework.richclient.command.config.CommandConfigurer;
 import org.springframework.richclient.util.RcpSupport;
 import org.springframework.richclient.util.ValueMonitor;
 import org.springframework.richclient.widget.AbstractWidget;
+import org.springframework.richclient.widget.editor.provider.VirtualDataProvider;
+import org.springframework.richclient.widget.table.PropertyColumnTableDescription;
 import org.springframework.richclient.widget.table.TableCellRenderers;
 import org.springframework.richclient.widget.table.TableDescription;
 import org.springframework.richclient.widget.table.TableWidget;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.event.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -37,6 +40,8 @@ import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.*;
@@ -60,6 +65,32 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
 
     private SortedList<Object> sortedList;
 
+    /**
+     * The rows in virtual mode, <code>null</code> if all rows are held in memory.
+     */
+    private final VirtualEventList virtualList;
+
+    /**
+     * Delay in milliseconds after the last keystroke before the text filter is sent to the provider in
+     * virtual mode.
+     */
+    private static final int TEXT_FILTER_DELAY = 300;
+
+    /**
+     * Delay in milliseconds after the last keystroke before the text filter is applied to the rows held in
+     * memory.
+     */
+    private static final int LOCAL_TEXT_FILTER_DELAY = 100;
+
+    /**
+     * Search keys of the rows held in memory, <code>null</code> in virtual mode or without filter properties.
+     */
+    private TextFilterIndex textFilterIndex;
+
+    private String virtualSortProperty;
+
+    private boolean virtualSortAscending;
+
     private JTextField textFilterField;
 
     private AbstractCommand[] navigationCommands;
@@ -128,6 +159,28 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
     {
         this(tableDesc.getDataType(), rows, GlazedListsSupport.makeTableFormat(tableDesc), GlazedListsSupport
                 .makeFilterProperties(tableDesc), comparator, tableDesc.hasSelectColumn());
+        configureColumns(tableDesc);
+    }
+
+    /**
+     * Creates a table in virtual mode: rows are fetched from the given {@link VirtualDataProvider} when they
+     * become visible instead of being held in memory. Sorting and the text filter are passed on to the
+     * provider using the property names of the columns.
+     *
+     * @see VirtualEventList
+     * @see #setCriteria(Object)
+     */
+    public GlazedListTableWidget(TableDescription tableDesc, VirtualDataProvider dataProvider)
+    {
+        this(tableDesc.getDataType(), null, GlazedListsSupport.makeTableFormat(tableDesc), GlazedListsSupport
+                .makeFilterProperties(tableDesc), null, tableDesc.hasSelectColumn(), new VirtualEventList(
+                dataProvider));
+        configureColumns(tableDesc);
+        installVirtualSorting(tableDesc);
+    }
+
+    private void configureColumns(TableDescription tableDesc)
+    {
         // Als de tablewidget met ons eigen TableDescription class is gemaakt
         // kunnen we additionele dingen als width/resizable/renderer en editor
         // zetten
@@ -185,6 +238,39 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
         }
     }
 
+    /**
+     * In virtual mode a click on a column header asks the provider to sort on the property of that
+     * column, a second click reverses the order.
+     */
+    private void installVirtualSorting(final TableDescription tableDesc)
+    {
+        if (!(tableDesc instanceof PropertyColumnTableDescription))
+        {
+            return;
+        }
+        theTable.getTableHeader().addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int viewColumn = theTable.columnAtPoint(e.getPoint());
+                if (viewColumn == -1)
+                {
+                    return;
+                }
+                int column = theTable.convertColumnIndexToModel(viewColumn);
+                if (tableDesc.isSelectColumn(column))
+                {
+                    return;
+                }
+                String property = ((PropertyColumnTableDescription) tableDesc).getPropertyName(column);
+                virtualSortAscending = !property.equals(virtualSortProperty) || !virtualSortAscending;
+                virtualSortProperty = property;
+                virtualList.setSortOrder(new String[]{property}, new boolean[]{virtualSortAscending});
+            }
+        });
+    }
+
     private TableCellRenderer wrapInSortArrowHeaderRenderer(TableCellRenderer renderer)
     {
         if (tableComparatorChooser != null)
@@ -205,14 +291,31 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
 
     public GlazedListTableWidget(Class dataType, List<? extends Object> rows, TableFormat format,
                                  String[] filterProperties, Comparator comparator, boolean addHighlightSelectColumn)
+    {
+        this(dataType, rows, format, filterProperties, comparator, addHighlightSelectColumn, null);
+    }
+
+    private GlazedListTableWidget(Class dataType, List<? extends Object> rows, TableFormat format,
+                                  final String[] filterProperties, Comparator comparator,
+                                  boolean addHighlightSelectColumn, final VirtualEventList virtualList)
     {
         theTable.setColumnControlVisible(true);
         theTable.getSelectionMapper().setEnabled(false);
         commandConfigurer = (CommandConfigurer) Application.services().getService(CommandConfigurer.class);
-        dataList = rows == null ? new BasicEventList<Object>() : GlazedLists.eventList(rows);
+        this.virtualList = virtualList;
+        if (virtualList != null)
+        {
+            // sorting and filtering is done by the provider, no need to hold all rows
+            dataList = virtualList;
+            this.shownList = virtualList;
+        }
+        else
+        {
+            dataList = rows == null ? new BasicEventList<Object>() : GlazedLists.eventList(rows);
 
-        sortedList = new SortedList<Object>(dataList, comparator);
-        this.shownList = sortedList;
+            sortedList = new SortedList<Object>(dataList, comparator);
+            this.shownList = sortedList;
+        }
 
         if (filterProperties != null)
         {
@@ -225,9 +328,47 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
                     textFilterField.selectAll();
                 }
             });
-            shownList = new FilterList<Object>(shownList,
-                    new TextComponentMatcherEditor(textFilterField, GlazedLists.textFilterator(dataType,
-                            filterProperties)));
+            final Timer textFilterTimer;
+            if (virtualList != null)
+            {
+                textFilterTimer = new Timer(TEXT_FILTER_DELAY, new ActionListener()
+                {
+                    public void actionPerformed(ActionEvent e)
+                    {
+                        virtualList.setTextFilter(textFilterField.getText(), filterProperties);
+                    }
+                });
+            }
+            else
+            {
+                textFilterIndex = new TextFilterIndex(shownList, dataType, filterProperties);
+                shownList = textFilterIndex.getFilteredList();
+                textFilterTimer = new Timer(LOCAL_TEXT_FILTER_DELAY, new ActionListener()
+                {
+                    public void actionPerformed(ActionEvent e)
+                    {
+                        textFilterIndex.setFilterText(textFilterField.getText());
+                    }
+                });
+            }
+            textFilterTimer.setRepeats(false);
+            textFilterField.getDocument().addDocumentListener(new DocumentListener()
+            {
+                public void insertUpdate(DocumentEvent e)
+                {
+                    textFilterTimer.restart();
+                }
+
+                public void removeUpdate(DocumentEvent e)
+                {
+                    textFilterTimer.restart();
+                }
+
+                public void changedUpdate(DocumentEvent e)
+                {
+                    textFilterTimer.restart();
+                }
+            });
         }
 
         selectionModel = new EventSelectionModel<Object>(shownList);
@@ -273,8 +414,12 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
                     }
                 }
             });
-        }       
-        
+        }
+        else
+        {
+            theTable.setSortable(false);
+        }
+
         theTable.setPreferredScrollableViewportSize(new Dimension(50, 50));
         tableScroller = new JScrollPane(theTable);
         theTable.setHorizontalScrollEnabled(true);
@@ -504,8 +649,49 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
                 selectInverse});
     }
 
+    /**
+     * @return <code>true</code> if the rows are fetched from a {@link VirtualDataProvider}.
+     */
+    public boolean isVirtual()
+    {
+        return virtualList != null;
+    }
+
+    /**
+     * Fetch the rows matching the given criteria from the {@link VirtualDataProvider}. Only available in
+     * virtual mode.
+     *
+     * @see #isVirtual()
+     */
+    public void setCriteria(Object criteria)
+    {
+        if (!isVirtual())
+        {
+            throw new IllegalStateException("Criteria can only be set on a table in virtual mode");
+        }
+        dirtyRows.clear();
+        theTable.clearSelection();
+        virtualList.setCriteria(criteria);
+        scrollToSelectedRow();
+    }
+
+    /**
+     * In virtual mode the rows come from the provider, only an empty collection can be set to clear the
+     * table.
+     */
     public final void setRows(Collection newRows)
     {
+        if (isVirtual())
+        {
+            if (!newRows.isEmpty())
+            {
+                throw new UnsupportedOperationException("Rows can't be set on a table in virtual mode");
+            }
+            dirtyRows.clear();
+            theTable.clearSelection();
+            virtualList.clear();
+            return;
+        }
         this.dataList.getReadWriteLock().writeLock().lock();
         try
         {
@@ -522,18 +708,54 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
         }
     }
 
+    /**
+     * In virtual mode only the rows that are loaded are returned.
+     */
     public final List getRows()
     {
+        if (isVirtual())
+        {
+            return getLoadedRows();
+        }
         return new ArrayList<Object>(this.dataList);
     }
 
+    /**
+     * In virtual mode only the rows that are loaded are returned.
+     */
     public final List getVisibleRows()
     {
+        if (isVirtual())
+        {
+            return getLoadedRows();
+        }
         return new ArrayList<Object>(this.shownList);
     }
 
+    private List getLoadedRows()
+    {
+        List<Object> rows = new ArrayList<Object>();
+        for (int i = 0; i < virtualList.size(); ++i)
+        {
+            if (virtualList.isLoaded(i))
+            {
+                rows.add(virtualList.get(i));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * In virtual mode the position of the new row is determined by the provider, so the rows are fetched
+     * again.
+     */
     public void addRowObject(Object newObject)
     {
+        if (isVirtual())
+        {
+            virtualList.refresh();
+            return;
+        }
         this.dataList.getReadWriteLock().writeLock().lock();
         try
         {
@@ -547,6 +769,11 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
 
     public void addRows(Collection rows)
     {
+        if (isVirtual())
+        {
+            virtualList.refresh();
+            return;
+        }
         this.dataList.getReadWriteLock().writeLock().lock();
         try
         {
@@ -560,6 +787,12 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
 
     public void removeRowObject(Object objectToRemove)
     {
+        if (isVirtual())
+        {
+            dirtyRows.remove(objectToRemove);
+            virtualList.refresh();
+            return;
+        }
         this.dataList.getReadWriteLock().writeLock().lock();
         try
         {
@@ -737,6 +970,12 @@ public final class GlazedListTableWidget extends AbstractWidget implements Table
         {
             public void run()
             {
+                if (isVirtual())
+                {
+                    dirtyRows.clear();
+                    virtualList.refresh();
+                    return;
+                }
                 dataList.getReadWriteLock().writeLock().lock();
                 try
                 {
@@ -68,6 +68,9 @@ public class GlazedListsSupport
 
             public Object getColumnValue(Object obj, int i)
             {
+                // rows of a virtual list are null until they are loaded
+                if (obj == null)
+                    return null;
                 return desc.getValue(obj, i);
             }
 
@@ -0,0 +1,210 @@
+package org.springframework.richclient.widget.table.glazedlists;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.FunctionList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.TextFilterator;
+import ca.odell.glazedlists.matchers.TextMatcherEditor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Filters a list of rows on text typed by the user, like a
+ * {@link ca.odell.glazedlists.swing.TextComponentMatcherEditor} does, but without reading the filter
+ * properties of every row on every change of the filter text.
+ * </p>
+ *
+ * <p>
+ * The filter properties of a row are read once, when the row is inserted or updated, and are kept as a
+ * single search key: the property values in lower case, with the diacritics of latin characters removed.
+ * The filter text is normalized the same way, so "e" matches "&Eacute;". Narrowing the filter text only
+ * tests the rows that matched before.
+ * </p>
+ *
+ * <p>
+ * Rows that are changed without an update event on the source list keep their old search key.
+ * </p>
+ */
+public class TextFilterIndex
+{
+    /** Separates the values of the filter properties, so a word can't match across two values. */
+    private static final char SEPARATOR = '\u0000';
+
+    /** The first character of {@link #LATIN_BASE_CHARACTERS}. */
+    private static final char LATIN_FIRST = '\u00C0';
+
+    /**
+     * The base characters of '&#92;u00C0' to '&#92;u017F' (Latin-1 Supplement and Latin Extended-A), a '*'
+     * marks a character that is kept as it is.
+     */
+    private static final String LATIN_BASE_CHARACTERS =
+            "AAAAAA*CEEEEIIII*NOOOOO*OUUUUY**" +
+            "aaaaaa*ceeeeiiii*nooooo*ouuuuy*y" +
+            "AaAaAaCcCcCcCcDdDdEeEeEeEeEeGgGg" +
+            "GgGgHhHhIiIiIiIiIi**JjKk*LlLlLlL" +
+            "lLlNnNnNn***OoOoOo**RrRrRrSsSsSs" +
+            "SsTtTt**UuUuUuUuUuUuWwYyYZzZzZz*";
+
+    private final FunctionList<Object, SearchRow> searchRows;
+
+    private final FilterList<SearchRow> filteredSearchRows;
+
+    private final FunctionList<SearchRow, Object> filteredRows;
+
+    private final TextMatcherEditor<SearchRow> matcherEditor;
+
+    private String filterText = "";
+
+    /**
+     * @param source
+     *            the rows to filter.
+     * @param dataType
+     *            type of the rows.
+     * @param filterProperties
+     *            the properties of the rows that are searched.
+     */
+    public TextFilterIndex(EventList<Object> source, Class dataType, String[] filterProperties)
+    {
+        this(source, GlazedLists.textFilterator(dataType, filterProperties));
+    }
+
+    /**
+     * @param source
+     *            the rows to filter.
+     * @param filterator
+     *            provides the searchable values of a row.
+     */
+    public TextFilterIndex(EventList<Object> source, TextFilterator<Object> filterator)
+    {
+        ToSearchRow toSearchRow = new ToSearchRow(filterator);
+        ToRow toRow = new ToRow();
+        searchRows = new FunctionList<Object, SearchRow>(source, toSearchRow, toRow);
+        matcherEditor = new TextMatcherEditor<SearchRow>(new SearchKeyFilterator());
+        filteredSearchRows = new FilterList<SearchRow>(searchRows, matcherEditor);
+        filteredRows = new FunctionList<SearchRow, Object>(filteredSearchRows, toRow, toSearchRow);
+    }
+
+    /**
+     * @return the rows that match the filter text.
+     */
+    public EventList<Object> getFilteredList()
+    {
+        return filteredRows;
+    }
+
+    public String getFilterText()
+    {
+        return filterText;
+    }
+
+    /**
+     * Set the filter text. Every word in the text has to be found in the filter properties of a row.
+     */
+    public void setFilterText(String filterText)
+    {
+        this.filterText = filterText == null ? "" : filterText;
+        List<String> words = new ArrayList<String>();
+        for (String word : normalize(this.filterText).split("\\s+"))
+        {
+            if (word.length() > 0)
+            {
+                words.add(word);
+            }
+        }
+        matcherEditor.setFilterText(words.toArray(new String[words.size()]));
+    }
+
+    public void dispose()
+    {
+        filteredRows.dispose();
+        filteredSearchRows.dispose();
+        searchRows.dispose();
+    }
+
+    /**
+     * Convert the text to lower case and remove the diacritics of latin characters.
+     */
+    public static String normalize(String text)
+    {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++)
+        {
+            chars[i] = Character.toLowerCase(stripDiacritic(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static char stripDiacritic(char c)
+    {
+        int index = c - LATIN_FIRST;
+        if (index >= 0 && index < LATIN_BASE_CHARACTERS.length())
+        {
+            char base = LATIN_BASE_CHARACTERS.charAt(index);
+            if (base != '*')
+            {
+                return base;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * A row together with its search key.
+     */
+    private static final class SearchRow
+    {
+        private final Object row;
+
+        private final String searchKey;
+
+        private SearchRow(Object row, String searchKey)
+        {
+            this.row = row;
+            this.searchKey = searchKey;
+        }
+    }
+
+    private static final class ToSearchRow implements FunctionList.Function<Object, SearchRow>
+    {
+        private final TextFilterator<Object> filterator;
+
+        private ToSearchRow(TextFilterator<Object> filterator)
+        {
+            this.filterator = filterator;
+        }
+
+        public SearchRow evaluate(Object row)
+        {
+            List<String> values = new ArrayList<String>();
+            filterator.getFilterStrings(values, row);
+            StringBuilder searchKey = new StringBuilder();
+            for (Object value : values)
+            {
+                if (value != null)
+                {
+                    searchKey.append(SEPARATOR).append(value);
+                }
+            }
+            return new SearchRow(row, normalize(searchKey.toString()));
+        }
+    }
+
+    private static final class ToRow implements FunctionList.Function<SearchRow, Object>
+    {
+        public Object evaluate(SearchRow searchRow)
+        {
+            return searchRow.row;
+        }
+    }
+
+    private static final class SearchKeyFilterator implements TextFilterator<SearchRow>
+    {
+        public void getFilterStrings(List<String> baseList, SearchRow searchRow)
+        {
+            baseList.add(searchRow.searchKey);
+        }
+    }
+}
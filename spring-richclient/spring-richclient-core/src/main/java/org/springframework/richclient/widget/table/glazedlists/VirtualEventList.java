@@ -0,0 +1,377 @@
+package org.springframework.richclient.widget.table.glazedlists;
+
+import ca.odell.glazedlists.AbstractEventList;
+import ca.odell.glazedlists.util.concurrent.LockFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jdesktop.swingworker.SwingWorker;
+import org.springframework.richclient.widget.editor.provider.VirtualDataProvider;
+import org.springframework.richclient.widget.editor.provider.VirtualListQuery;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>
+ * An {@link ca.odell.glazedlists.EventList} that doesn't hold its rows but fetches them page by page from a
+ * {@link VirtualDataProvider} when they are requested. Only the pages that are shown, plus a prefetch
+ * margin around them, are loaded. Loaded pages are kept in a least recently used cache of a fixed size.
+ * </p>
+ *
+ * <p>
+ * A row that isn't loaded yet is returned as <code>null</code>; an update event is fired for the page once
+ * it arrives. Sorting and text filtering are delegated to the provider through the
+ * {@link VirtualListQuery}, a change of query clears the cache and fetches the new row count.
+ * </p>
+ *
+ * <p>
+ * This list is meant to be used on the event dispatching thread only, the provider is called on a
+ * background thread.
+ * </p>
+ */
+public class VirtualEventList extends AbstractEventList<Object>
+{
+    private static final Log log = LogFactory.getLog(VirtualEventList.class);
+
+    /** Default number of rows in one page. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /** Default number of pages kept in the cache. */
+    public static final int DEFAULT_MAX_CACHED_PAGES = 20;
+
+    private final VirtualDataProvider dataProvider;
+
+    private final int pageSize;
+
+    private final int prefetchPages;
+
+    private final Map<Integer, List> pages;
+
+    private final Set<Integer> pendingPages = new HashSet<Integer>();
+
+    private VirtualListQuery query = new VirtualListQuery(null);
+
+    private int size;
+
+    /**
+     * Incremented on every change of query, results of older queries are discarded.
+     */
+    private int generation;
+
+    /**
+     * <code>true</code> if no query has been executed since the last {@link #clear()}.
+     */
+    private boolean cleared = true;
+
+    public VirtualEventList(VirtualDataProvider dataProvider)
+    {
+        this(dataProvider, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES, 1);
+    }
+
+    /**
+     * @param dataProvider
+     *            provider of the rows.
+     * @param pageSize
+     *            number of rows fetched in one call.
+     * @param maxCachedPages
+     *            number of pages kept in memory.
+     * @param prefetchPages
+     *            number of pages before and after a requested page that are fetched as well.
+     */
+    public VirtualEventList(VirtualDataProvider dataProvider, int pageSize, final int maxCachedPages,
+                            int prefetchPages)
+    {
+        super(null);
+        Assert.notNull(dataProvider, "dataProvider");
+        Assert.isTrue(pageSize > 0, "pageSize must be positive");
+        Assert.isTrue(maxCachedPages > 2 * prefetchPages, "maxCachedPages must exceed the prefetched pages");
+        this.dataProvider = dataProvider;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.readWriteLock = LockFactory.DEFAULT.createReadWriteLock();
+        this.pages = new LinkedHashMap<Integer, List>(maxCachedPages, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry<Integer, List> eldest)
+            {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    public VirtualListQuery getQuery()
+    {
+        return query;
+    }
+
+    /**
+     * Execute a new query: the cache is cleared and the row count is fetched.
+     */
+    public void setQuery(VirtualListQuery query)
+    {
+        Assert.notNull(query, "query");
+        this.query = query;
+        this.cleared = false;
+        refresh();
+    }
+
+    public void setCriteria(Object criteria)
+    {
+        setQuery(query.withCriteria(criteria));
+    }
+
+    public void setSortOrder(String[] sortProperties, boolean[] sortAscending)
+    {
+        setQuery(query.withSortOrder(sortProperties, sortAscending));
+    }
+
+    public void setTextFilter(String textFilter, String[] textFilterProperties)
+    {
+        setQuery(query.withTextFilter(textFilter, textFilterProperties));
+    }
+
+    /**
+     * Drop all cached pages and fetch the row count of the current query again.
+     */
+    public void refresh()
+    {
+        final int refreshGeneration = ++generation;
+        pages.clear();
+        pendingPages.clear();
+        if (cleared)
+        {
+            return;
+        }
+
+        final VirtualListQuery countQuery = query;
+        new SwingWorker<Integer, Object>()
+        {
+            protected Integer doInBackground() throws Exception
+            {
+                return dataProvider.getRowCount(countQuery);
+            }
+
+            protected void done()
+            {
+                if (refreshGeneration != generation)
+                {
+                    return;
+                }
+                try
+                {
+                    setSize(get());
+                }
+                catch (InterruptedException e)
+                {
+                    // retrieval cancelled
+                }
+                catch (ExecutionException e)
+                {
+                    log.error("Could not count the rows for " + countQuery, e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Removes all rows without querying the provider.
+     */
+    public void clear()
+    {
+        cleared = true;
+        refresh();
+        setSize(0);
+    }
+
+    private void setSize(int newSize)
+    {
+        readWriteLock.writeLock().lock();
+        try
+        {
+            updates.beginEvent();
+            // one block per change, the list may hold far more rows than are ever loaded
+            if (size > 0)
+            {
+                updates.addDelete(0, size - 1);
+            }
+            size = newSize;
+            if (size > 0)
+            {
+                updates.addInsert(0, size - 1);
+            }
+            updates.commitEvent();
+        }
+        finally
+        {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the row at the given index or <code>null</code> if its page isn't loaded yet. Requesting an
+     * unloaded row starts fetching its page and the pages around it.
+     */
+    public Object get(int index)
+    {
+        if ((index < 0) || (index >= size))
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageIndex = index / pageSize;
+        List page = pages.get(pageIndex);
+        if (page == null)
+        {
+            int lastPage = (size - 1) / pageSize;
+            for (int i = Math.max(0, pageIndex - prefetchPages); i <= Math.min(lastPage, pageIndex + prefetchPages); ++i)
+            {
+                loadPage(i);
+            }
+            return null;
+        }
+        int offset = index - pageIndex * pageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Replaces a loaded row, rows that aren't loaded can't be replaced.
+     */
+    public Object set(int index, Object value)
+    {
+        int pageIndex = index / pageSize;
+        List page = pages.get(pageIndex);
+        if (page == null)
+        {
+            throw new IllegalStateException("Row " + index + " is not loaded");
+        }
+        readWriteLock.writeLock().lock();
+        try
+        {
+            Object previous = page.set(index - pageIndex * pageSize, value);
+            updates.beginEvent();
+            updates.elementUpdated(index, previous, value);
+            updates.commitEvent();
+            return previous;
+        }
+        finally
+        {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Only the loaded rows are searched, an object that isn't loaded is reported as not found.
+     */
+    public int indexOf(Object object)
+    {
+        for (Map.Entry<Integer, List> entry : pages.entrySet())
+        {
+            int offset = entry.getValue().indexOf(object);
+            if (offset != -1)
+            {
+                return entry.getKey() * pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return <code>true</code> if the row at the given index is in the cache.
+     */
+    public boolean isLoaded(int index)
+    {
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * @return the row at the given index if it is in the cache, <code>null</code> otherwise.
+     */
+    private Object getLoaded(int index)
+    {
+        List page = pages.get(index / pageSize);
+        int offset = index % pageSize;
+        return (page != null) && (offset < page.size()) ? page.get(offset) : null;
+    }
+
+    private void loadPage(final int pageIndex)
+    {
+        if (pages.containsKey(pageIndex) || !pendingPages.add(pageIndex))
+        {
+            return;
+        }
+
+        final int loadGeneration = generation;
+        final VirtualListQuery pageQuery = query;
+        new SwingWorker<List, Object>()
+        {
+            protected List doInBackground() throws Exception
+            {
+                return dataProvider.getRows(pageQuery, pageIndex * pageSize, pageSize);
+            }
+
+            protected void done()
+            {
+                if (loadGeneration != generation)
+                {
+                    return;
+                }
+                pendingPages.remove(pageIndex);
+                try
+                {
+                    pageLoaded(pageIndex, get());
+                }
+                catch (InterruptedException e)
+                {
+                    // retrieval cancelled
+                }
+                catch (ExecutionException e)
+                {
+                    log.error("Could not load rows " + pageIndex * pageSize + " to " + (pageIndex + 1) * pageSize
+                            + " for " + pageQuery, e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void pageLoaded(int pageIndex, List page)
+    {
+        int first = pageIndex * pageSize;
+        if ((page == null) || (first >= size))
+        {
+            return;
+        }
+        pages.put(pageIndex, new ArrayList(page));
+        int last = Math.min(size, first + pageSize) - 1;
+        readWriteLock.writeLock().lock();
+        try
+        {
+            updates.beginEvent();
+            for (int i = first; i <= last; ++i)
+            {
+                // the row was shown as null until now
+                updates.elementUpdated(i, null, getLoaded(i));
+            }
+            updates.commitEvent();
+        }
+        finally
+        {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    public void dispose()
+    {
+        generation++;
+        pages.clear();
+        pendingPages.clear();
+    }
+}
@@ -15,21 +15,33 @@
  */
 package org.springframework.rules.reporting;
 
+import org.springframework.binding.PropertyAccessStrategy;
+import org.springframework.binding.support.BeanPropertyAccessStrategy;
 import org.springframework.rules.constraint.Constraint;
 import org.springframework.rules.closure.support.Block;
 import org.springframework.rules.Rules;
 import org.springframework.rules.constraint.property.CompoundPropertyConstraint;
 import org.springframework.rules.constraint.property.PropertyConstraint;
 import org.springframework.rules.constraint.property.PropertyValueConstraint;
+import org.springframework.rules.support.ConstraintCompiler;
 import org.springframework.util.Assert;
 
 /**
+ * Collects the results of validating a bean against property constraints.
+ * Each constraint is first tested in its compiled form; the detailed results
+ * are only collected for a constraint that fails.
+ *
  * @author Keith Donald
+ * @see ConstraintCompiler
  */
 public class BeanValidationResultsCollector extends ValidationResultsCollector {
 
+    private final ConstraintCompiler constraintCompiler = new ConstraintCompiler();
+
     private Object bean;
 
+    private PropertyAccessStrategy beanAccessStrategy;
+
     public BeanValidationResultsCollector(Object bean) {
         super();
         setBean(bean);
@@ -38,6 +50,8 @@ public class BeanValidationResultsCollector extends ValidationResultsCollector {
     public void setBean(Object bean) {
         Assert.notNull(bean, "bean is required");
         this.bean = bean;
+        this.beanAccessStrategy = (bean instanceof PropertyAccessStrategy) ? (PropertyAccessStrategy)bean
+                : new BeanPropertyAccessStrategy(bean);
     }
 
     protected BeanValidationResultsBuilder getBeanResultsBuilder() {
@@ -68,6 +82,12 @@ public class BeanValidationResultsCollector extends ValidationResultsCollector {
     }
 
     private PropertyResults collectPropertyResultsInternal(PropertyConstraint rootExpression) {
+        if (!isCollectAllErrors() && constraintCompiler.compile(rootExpression).test(bean, beanAccessStrategy)) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Compiled constraint [" + rootExpression + "] passed");
+            }
+            return null;
+        }
         getBeanResultsBuilder().setCurrentBeanPropertyExpression(rootExpression);
         setArgument(getBeanResultsBuilder().getCurrentPropertyValue());
         boolean result = ((Boolean)visitorSupport.invokeVisit(this, rootExpression)).booleanValue();
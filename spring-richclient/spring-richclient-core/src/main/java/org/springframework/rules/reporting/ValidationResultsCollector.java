@@ -70,6 +70,10 @@ public class ValidationResultsCollector {
         this.collectAllErrors = collectAllErrors;
     }
 
+    protected boolean isCollectAllErrors() {
+        return collectAllErrors;
+    }
+
     protected ValidationResultsBuilder getResultsBuilder() {
         return resultsBuilder;
     }
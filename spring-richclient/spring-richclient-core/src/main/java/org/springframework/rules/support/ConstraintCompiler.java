@@ -0,0 +1,253 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.rules.support;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.binding.PropertyAccessStrategy;
+import org.springframework.binding.support.BeanPropertyAccessStrategy;
+import org.springframework.rules.closure.Closure;
+import org.springframework.rules.constraint.And;
+import org.springframework.rules.constraint.ClosureResultConstraint;
+import org.springframework.rules.constraint.CompoundConstraint;
+import org.springframework.rules.constraint.Constraint;
+import org.springframework.rules.constraint.Not;
+import org.springframework.rules.constraint.Or;
+import org.springframework.rules.constraint.property.CompoundPropertyConstraint;
+import org.springframework.rules.constraint.property.PropertyConstraint;
+import org.springframework.rules.constraint.property.PropertyValueConstraint;
+import org.springframework.util.Assert;
+import org.springframework.util.CachingMapDecorator;
+
+/**
+ * Compiles the constraint tree of a {@link PropertyConstraint} into a tree of
+ * plain evaluators. The type dispatch that the
+ * {@link org.springframework.rules.reporting.BeanValidationResultsCollector}
+ * does reflectively for every node on every validation is resolved once, when
+ * the constraint is compiled.
+ *
+ * <p>
+ * A compiled constraint yields the same outcome as the collector does when it
+ * doesn't collect all errors, but it doesn't record which constraints were
+ * violated. Use it to find out cheaply whether the detailed results need to be
+ * collected at all.
+ * </p>
+ *
+ * <p>
+ * Compiled constraints are cached per instance of the compiler. The constraint
+ * trees are therefore expected not to change once they are used for
+ * validation.
+ * </p>
+ */
+public class ConstraintCompiler {
+
+	private final CachingMapDecorator compiledConstraints = new CachingMapDecorator() {
+
+		protected Object create(Object propertyConstraint) {
+			PropertyConstraint rootConstraint = (PropertyConstraint) propertyConstraint;
+			return new CompiledConstraint(rootConstraint.getPropertyName(), compile(rootConstraint, false));
+		}
+	};
+
+	/**
+	 * Returns the compiled form of the given property constraint.
+	 */
+	public CompiledConstraint compile(PropertyConstraint propertyConstraint) {
+		Assert.notNull(propertyConstraint, "propertyConstraint is required");
+		return (CompiledConstraint) compiledConstraints.get(propertyConstraint);
+	}
+
+	/**
+	 * Compile a node. The checks follow the order in which the collector picks
+	 * its visit methods.
+	 *
+	 * @param negated <code>true</code> if the node is the direct operand of a
+	 * {@link Not}, which the collector applies to leaf constraints only.
+	 */
+	private Evaluator compile(Constraint constraint, boolean negated) {
+		if (constraint instanceof PropertyValueConstraint) {
+			return compile(((PropertyValueConstraint) constraint).getConstraint(), negated);
+		}
+		if (constraint instanceof CompoundPropertyConstraint) {
+			return compile(((CompoundPropertyConstraint) constraint).getPredicate(), negated);
+		}
+		if (constraint instanceof And) {
+			return new AndEvaluator(compileMembers((And) constraint));
+		}
+		if (constraint instanceof Or) {
+			return new OrEvaluator(compileMembers((Or) constraint));
+		}
+		if (constraint instanceof Not) {
+			return compile(((Not) constraint).getConstraint(), true);
+		}
+		if (constraint instanceof ClosureResultConstraint) {
+			ClosureResultConstraint closureResultConstraint = (ClosureResultConstraint) constraint;
+			return new ClosureResultEvaluator(closureResultConstraint.getFunction(), compile(closureResultConstraint
+					.getPredicate(), negated));
+		}
+		if (constraint instanceof PropertyConstraint) {
+			return new BeanEvaluator(constraint, negated);
+		}
+		return new ArgumentEvaluator(constraint, negated);
+	}
+
+	private Evaluator[] compileMembers(CompoundConstraint compoundConstraint) {
+		List members = new ArrayList();
+		for (Iterator i = compoundConstraint.iterator(); i.hasNext();) {
+			members.add(compile((Constraint) i.next(), false));
+		}
+		return (Evaluator[]) members.toArray(new Evaluator[members.size()]);
+	}
+
+	/**
+	 * A compiled {@link PropertyConstraint}.
+	 */
+	public static final class CompiledConstraint implements Constraint {
+
+		private final String propertyName;
+
+		private final Evaluator evaluator;
+
+		private CompiledConstraint(String propertyName, Evaluator evaluator) {
+			this.propertyName = propertyName;
+			this.evaluator = evaluator;
+		}
+
+		public boolean test(Object bean) {
+			PropertyAccessStrategy accessStrategy = (bean instanceof PropertyAccessStrategy) ? (PropertyAccessStrategy) bean
+					: new BeanPropertyAccessStrategy(bean);
+			return test(bean, accessStrategy);
+		}
+
+		/**
+		 * Test the bean, using an access strategy that is already available
+		 * for it.
+		 */
+		public boolean test(Object bean, PropertyAccessStrategy accessStrategy) {
+			return evaluator.evaluate(new Evaluation(bean, accessStrategy.getPropertyValue(propertyName)));
+		}
+	}
+
+	/**
+	 * State of one evaluation. Like in the collector, a closure result replaces
+	 * the argument for the constraints that follow.
+	 */
+	private static final class Evaluation {
+
+		private final Object bean;
+
+		private Object argument;
+
+		private Evaluation(Object bean, Object argument) {
+			this.bean = bean;
+			this.argument = argument;
+		}
+	}
+
+	private static abstract class Evaluator {
+
+		abstract boolean evaluate(Evaluation evaluation);
+	}
+
+	private static final class AndEvaluator extends Evaluator {
+
+		private final Evaluator[] members;
+
+		private AndEvaluator(Evaluator[] members) {
+			this.members = members;
+		}
+
+		boolean evaluate(Evaluation evaluation) {
+			for (int i = 0; i < members.length; i++) {
+				if (!members[i].evaluate(evaluation)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static final class OrEvaluator extends Evaluator {
+
+		private final Evaluator[] members;
+
+		private OrEvaluator(Evaluator[] members) {
+			this.members = members;
+		}
+
+		boolean evaluate(Evaluation evaluation) {
+			for (int i = 0; i < members.length; i++) {
+				if (members[i].evaluate(evaluation)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class ClosureResultEvaluator extends Evaluator {
+
+		private final Closure closure;
+
+		private final Evaluator predicate;
+
+		private ClosureResultEvaluator(Closure closure, Evaluator predicate) {
+			this.closure = closure;
+			this.predicate = predicate;
+		}
+
+		boolean evaluate(Evaluation evaluation) {
+			evaluation.argument = closure.call(evaluation.argument);
+			return predicate.evaluate(evaluation);
+		}
+	}
+
+	/** Leaf that tests the bean itself. */
+	private static final class BeanEvaluator extends Evaluator {
+
+		private final Constraint constraint;
+
+		private final boolean negated;
+
+		private BeanEvaluator(Constraint constraint, boolean negated) {
+			this.constraint = constraint;
+			this.negated = negated;
+		}
+
+		boolean evaluate(Evaluation evaluation) {
+			return constraint.test(evaluation.bean) != negated;
+		}
+	}
+
+	/** Leaf that tests the current argument, the property value by default. */
+	private static final class ArgumentEvaluator extends Evaluator {
+
+		private final Constraint constraint;
+
+		private final boolean negated;
+
+		private ArgumentEvaluator(Constraint constraint, boolean negated) {
+			this.constraint = constraint;
+			this.negated = negated;
+		}
+
+		boolean evaluate(Evaluation evaluation) {
+			return constraint.test(evaluation.argument) != negated;
+		}
+	}
+}
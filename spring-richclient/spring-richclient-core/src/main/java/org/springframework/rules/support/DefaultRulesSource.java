@@ -15,7 +15,8 @@
  */
 package org.springframework.rules.support;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +24,7 @@ import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.core.style.ToStringCreator;
-import org.springframework.richclient.util.ClassUtils;
+import org.springframework.richclient.util.ClassHierarchyMap;
 import org.springframework.rules.Rules;
 import org.springframework.rules.RulesSource;
 import org.springframework.rules.constraint.ConstraintsAccessor;
@@ -44,7 +45,17 @@ public class DefaultRulesSource extends ConstraintsAccessor implements RulesSour
 
     private Map ruleContexts = new CachingMapDecorator() {
         protected Object create(Object key) {
-            return new HashMap();
+            return new ClassHierarchyMap();
+        }
+    };
+
+    /**
+     * Per Rules instance, a map from property name to the constraints that
+     * depend on that property. Filled lazily, cleared when rules are added.
+     */
+    private final Map dependentConstraints = new CachingMapDecorator() {
+        protected Object create(Object rules) {
+            return new DependencyIndex((Rules) rules);
         }
     };
 
@@ -64,12 +75,13 @@ public class DefaultRulesSource extends ConstraintsAccessor implements RulesSour
     public void addRules(String contextId, Rules rules) {
         Assert.notNull(contextId);
         Assert.notNull(rules);
-        Map context = getRuleContext(contextId);
+        ClassHierarchyMap context = getRuleContext(contextId);
         context.put(rules.getDomainObjectType(), rules);
+        dependentConstraints.clear();
     }
 
-    private Map getRuleContext(String contextId) {
-        return (Map) ruleContexts.get(contextId);
+    private ClassHierarchyMap getRuleContext(String contextId) {
+        return (ClassHierarchyMap) ruleContexts.get(contextId);
     }
 
     /**
@@ -85,6 +97,7 @@ public class DefaultRulesSource extends ConstraintsAccessor implements RulesSour
             logger.debug("Configuring rules in source...");
         }
         getRuleContext(DEFAULT_CONTEXT_ID).clear();
+        dependentConstraints.clear();
         for (Iterator i = rules.iterator(); i.hasNext();) {
             addRules((Rules) i.next());
         }
@@ -99,7 +112,7 @@ public class DefaultRulesSource extends ConstraintsAccessor implements RulesSour
         if (!StringUtils.hasText(contextId)) {
             contextId = DEFAULT_CONTEXT_ID;
         }
-        return (Rules) ClassUtils.getValueFromMapForClass(beanType, getRuleContext(contextId));
+        return (Rules) getRuleContext(contextId).get(beanType);
     }
 
     public PropertyConstraint getPropertyConstraint(Class bean, String propertyName) {
@@ -118,8 +131,53 @@ public class DefaultRulesSource extends ConstraintsAccessor implements RulesSour
         return null;
     }
 
+    /**
+     * Returns the constraints of the rules for the given bean type that depend on
+     * the given property, in the order of the rules. The result is computed once
+     * per property and reused until rules are added to this source, so rules
+     * shouldn't be changed after they've been added.
+     * 
+     * @return an unmodifiable list of {@link PropertyConstraint}s, empty if there
+     *         are no rules for the bean type.
+     * @see PropertyConstraint#isDependentOn(String)
+     */
+    public List getPropertyConstraintsDependentOn(Class beanType, String propertyName, String contextId) {
+        Rules rules = getRules(beanType, contextId);
+        if (rules == null) {
+            return Collections.EMPTY_LIST;
+        }
+        return ((DependencyIndex) dependentConstraints.get(rules)).getDependentConstraints(propertyName);
+    }
+
     public String toString() {
         return new ToStringCreator(this).append("rules", ruleContexts).toString();
     }
 
+    /**
+     * Reverse index from property name to the constraints of one
+     * <code>Rules</code> that depend on it.
+     */
+    private static class DependencyIndex extends CachingMapDecorator {
+        private final Rules rules;
+
+        public DependencyIndex(Rules rules) {
+            this.rules = rules;
+        }
+
+        public List getDependentConstraints(String propertyName) {
+            return (List) get(propertyName);
+        }
+
+        protected Object create(Object propertyName) {
+            List constraints = new ArrayList();
+            for (Iterator i = rules.iterator(); i.hasNext();) {
+                PropertyConstraint constraint = (PropertyConstraint) i.next();
+                if (constraint.isDependentOn((String) propertyName)) {
+                    constraints.add(constraint);
+                }
+            }
+            return Collections.unmodifiableList(constraints);
+        }
+    }
+
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ import org.springframework.binding.support.TestBean;
 import org.springframework.binding.support.TestPropertyChangeListener;
 import org.springframework.binding.validation.ValidationMessage;
 import org.springframework.binding.validation.ValidationResults;
+import org.springframework.binding.validation.ThreadSafeValidator;
 import org.springframework.binding.validation.ValidationResultsModel;
 import org.springframework.binding.validation.Validator;
 import org.springframework.binding.validation.support.DefaultValidationMessage;
@@ -35,7 +36,13 @@ import org.springframework.binding.value.ValueModel;
 import org.springframework.binding.value.support.ValueHolder;
 import org.springframework.richclient.core.Severity;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
 
 /**
  * Tests for @link DefaultFormModel
@@ -251,6 +258,57 @@ public class DefaultFormModelTests extends AbstractFormModelTests {
         assertEquals(2, pcl.eventCount());
     }
 
+    public void testSetFormObjectValidatesOnce() {
+        DefaultFormModel fm = (DefaultFormModel) getFormModel(new TestBean());
+        TestValidator v = new TestValidator();
+        fm.setValidator(v);
+        fm.getValueModel("simpleProperty");
+        fm.getValueModel("numberProperty");
+        fm.getValueModel("booleanProperty");
+        int count = v.count;
+
+        TestBean newFormObject = new TestBean();
+        newFormObject.setSimpleProperty("new");
+        newFormObject.setNumberProperty(new Integer(1));
+        newFormObject.setBooleanProperty(true);
+        fm.setFormObject(newFormObject);
+        assertEquals("the whole form object is validated once", count + 1, v.count);
+        assertFalse(fm.isBatchUpdating());
+    }
+
+    public void testBatchUpdatePostponesValidation() {
+        DefaultFormModel fm = (DefaultFormModel) getFormModel(new TestBean());
+        TestValidator v = new TestValidator();
+        fm.setValidator(v);
+        ValueModel vm = fm.getValueModel("simpleProperty");
+        TestPropertyChangeListener pcl = new TestPropertyChangeListener(FormModel.DIRTY_PROPERTY);
+        fm.addPropertyChangeListener(FormModel.DIRTY_PROPERTY, pcl);
+        int count = v.count;
+
+        fm.beginBatchUpdate();
+        fm.beginBatchUpdate();
+        vm.setValue("1");
+        vm.setValue("2");
+        fm.endBatchUpdate();
+        assertTrue(fm.isBatchUpdating());
+        assertEquals(count, v.count);
+        assertEquals(0, pcl.eventCount());
+        assertTrue(fm.isDirty());
+
+        fm.endBatchUpdate();
+        assertFalse(fm.isBatchUpdating());
+        assertEquals(count + 1, v.count);
+        assertEquals(1, pcl.eventCount());
+
+        try {
+            fm.endBatchUpdate();
+            fail("Should have thrown an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
     public void testReadOnlyRevert() {
         FormModel fm = getFormModel(new TestBean());
         fm.getValueModel("readOnly");
@@ -266,6 +324,220 @@ public class DefaultFormModelTests extends AbstractFormModelTests {
         assertEquals(testBean, model.getFormObject());
     }
 
+    public void testBackgroundValidation() throws Exception {
+        DefaultFormModel fm = (DefaultFormModel) getFormModel(new TestBean());
+        ValidationResultsModel r = fm.getValidationResults();
+        TestValidator v = new ThreadSafeTestValidator();
+        fm.setValidator(v);
+        final ValueModel vm = fm.getValueModel("simpleProperty");
+        TestExecutor executor = new TestExecutor();
+        fm.setValidationDelay(0);
+        fm.setValidationExecutor(executor);
+        int count = v.count;
+
+        v.results = getValidationResults("message1");
+        // on the event dispatch thread, so the timer can't fire in between
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                vm.setValue("1");
+                vm.setValue("2");
+            }
+        });
+        assertTrue(fm.isValidationPending());
+        assertFalse("not committable while validation is pending", fm.isCommittable());
+        assertEquals(count, v.count);
+
+        Runnable validation = executor.waitForTask();
+        validation.run();
+        assertEquals("changes should be coalesced", count + 1, v.count);
+        flushEventQueue();
+        assertFalse(fm.isValidationPending());
+        assertEquals(0, executor.tasks.size());
+        assertEquals(1, r.getMessageCount());
+        assertContainsMessage("message1", r.getMessages());
+
+        v.results = getValidationResults("message2");
+        vm.setValue("3");
+        Runnable staleValidation = executor.waitForTask();
+        vm.setValue("4");
+        staleValidation.run();
+        flushEventQueue();
+        assertTrue("results of a superseded validation are discarded", fm.isValidationPending());
+        assertContainsMessage("message1", r.getMessages());
+
+        v.results = getValidationResults("message3");
+        executor.waitForTask().run();
+        flushEventQueue();
+        assertFalse(fm.isValidationPending());
+        assertEquals(1, r.getMessageCount());
+        assertContainsMessage("message3", r.getMessages());
+
+        final DefaultFormModel formModel = fm;
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                // the timer can't start a background validation in between
+                vm.setValue("5");
+                assertTrue(formModel.isValidationPending());
+                formModel.validate();
+                assertFalse("validate() validates immediately", formModel.isValidationPending());
+            }
+        });
+    }
+
+    public void testBackgroundValidationUsesSnapshot() throws Exception {
+        TestBean formObject = new TestBean();
+        final DefaultFormModel fm = (DefaultFormModel) getFormModel(formObject);
+        final ThreadSafeTestValidator v = new ThreadSafeTestValidator();
+        fm.setValidator(v);
+        final ValueModel vm = fm.getValueModel("simpleProperty");
+        TestExecutor executor = new TestExecutor();
+        fm.setValidationDelay(0);
+        fm.setValidationExecutor(executor);
+
+        vm.setValue("before");
+        v.block = true;
+        Thread validation = new Thread(executor.waitForTask());
+        validation.start();
+        v.waitUntilValidating();
+
+        // edit the form while the validation is running
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                vm.setValue("after");
+            }
+        });
+        v.release();
+        validation.join(2000);
+        flushEventQueue();
+
+        TestBean validated = (TestBean) v.validated.get(v.validated.size() - 1);
+        assertNotSame("the live form object must not be validated", formObject, validated);
+        assertEquals("before", validated.getSimpleProperty());
+        assertEquals("after", formObject.getSimpleProperty());
+        assertTrue("the edit must be validated as well", fm.isValidationPending());
+
+        executor.waitForTask().run();
+        flushEventQueue();
+        validated = (TestBean) v.validated.get(v.validated.size() - 1);
+        assertEquals("after", validated.getSimpleProperty());
+        assertFalse(fm.isValidationPending());
+    }
+
+    public void testValidatorThatIsNotThreadSafeValidatesImmediately() throws Exception {
+        DefaultFormModel fm = (DefaultFormModel) getFormModel(new TestBean());
+        TestValidator v = new TestValidator();
+        fm.setValidator(v);
+        TestExecutor executor = new TestExecutor();
+        fm.setValidationExecutor(executor);
+        ValueModel vm = fm.getValueModel("simpleProperty");
+        int count = v.count;
+
+        vm.setValue("1");
+        assertEquals(count + 1, v.count);
+        assertFalse(fm.isValidationPending());
+        assertEquals(0, executor.tasks.size());
+    }
+
+    public void testValidateDoesNotWaitForBackgroundValidation() throws Exception {
+        TestBean formObject = new TestBean();
+        final DefaultFormModel fm = (DefaultFormModel) getFormModel(formObject);
+        final ThreadSafeTestValidator v = new ThreadSafeTestValidator();
+        fm.setValidator(v);
+        ValueModel vm = fm.getValueModel("simpleProperty");
+        TestExecutor executor = new TestExecutor();
+        fm.setValidationDelay(0);
+        fm.setValidationExecutor(executor);
+
+        vm.setValue("value");
+        v.block = true;
+        Thread validation = new Thread(executor.waitForTask());
+        validation.start();
+        v.waitUntilValidating();
+
+        final boolean[] returned = new boolean[1];
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                fm.validate();
+                synchronized (returned) {
+                    returned[0] = true;
+                    returned.notifyAll();
+                }
+            }
+        });
+        synchronized (returned) {
+            if (!returned[0]) {
+                returned.wait(2000);
+            }
+            assertTrue("validate() waited for the background validation", returned[0]);
+        }
+        assertTrue(fm.isValidationPending());
+        int count = v.validated.size();
+
+        v.release();
+        validation.join(2000);
+        flushEventQueue();
+        assertFalse(fm.isValidationPending());
+        assertEquals("validated again when the background validation returned", count + 1, v.validated.size());
+        assertSame(formObject, v.validated.get(count));
+    }
+
+    public void testMutableValuesAreValidatedOnEventDispatchThread() throws Exception {
+        DefaultFormModel fm = (DefaultFormModel) getFormModel(new TestBean());
+        ThreadSafeTestValidator v = new ThreadSafeTestValidator();
+        fm.setValidator(v);
+        ValueModel dateModel = fm.getValueModel("dateProperty");
+        ValueModel listModel = fm.getValueModel("listProperty");
+        TestExecutor executor = new TestExecutor();
+        fm.setValidationExecutor(executor);
+
+        Date date = new Date();
+        dateModel.setValue(date);
+        executor.waitForTask().run();
+        flushEventQueue();
+        TestBean validated = (TestBean) v.validated.get(v.validated.size() - 1);
+        assertNotSame("dates are copied", date, validated.getDateProperty());
+        assertEquals(date, validated.getDateProperty());
+
+        int count = v.validated.size();
+        listModel.setValue(new ArrayList());
+        for (int i = 0; i < 100 && fm.isValidationPending(); i++) {
+            Thread.sleep(20);
+            flushEventQueue();
+        }
+        assertFalse(fm.isValidationPending());
+        assertEquals(0, executor.tasks.size());
+        assertEquals(count + 1, v.validated.size());
+        assertSame("a list is validated on the form object", fm.getFormObject(), v.validated.get(count));
+    }
+
+    private void flushEventQueue() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+            }
+        });
+    }
+
+    private static class TestExecutor implements Executor {
+        public final List tasks = new ArrayList();
+
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        public Runnable waitForTask() throws Exception {
+            for (int i = 0; i < 100; i++) {
+                synchronized (this) {
+                    if (!tasks.isEmpty()) {
+                        return (Runnable) tasks.remove(0);
+                    }
+                }
+                Thread.sleep(20);
+            }
+            fail("No validation was started");
+            return null;
+        }
+    }
+
     private DefaultValidationResults getValidationResults(String message) {
         DefaultValidationResults res = new DefaultValidationResults();
         res.addMessage("simpleProperty", Severity.ERROR, message);
@@ -289,6 +561,50 @@ public class DefaultFormModelTests extends AbstractFormModelTests {
         }
     }
 
+    public static class ThreadSafeTestValidator extends TestValidator implements ThreadSafeValidator {
+
+        public final List validated = new ArrayList();
+
+        public boolean block;
+
+        private boolean validating;
+
+        private boolean released;
+
+        public ValidationResults validate(Object object) {
+            validated.add(object);
+            if (block) {
+                synchronized (this) {
+                    validating = true;
+                    notifyAll();
+                    while (!released) {
+                        try {
+                            wait();
+                        }
+                        catch (InterruptedException e) {
+                            break;
+                        }
+                    }
+                    block = false;
+                }
+            }
+            return super.validate(object);
+        }
+
+        public synchronized void waitUntilValidating() throws InterruptedException {
+            long end = System.currentTimeMillis() + 2000;
+            while (!validating && System.currentTimeMillis() < end) {
+                wait(100);
+            }
+            assertTrue("validation didn't start", validating);
+        }
+
+        public synchronized void release() {
+            released = true;
+            notifyAll();
+        }
+    }
+
     public class ErrorBean {
         public RuntimeException errorToThrow = new UnsupportedOperationException();
 
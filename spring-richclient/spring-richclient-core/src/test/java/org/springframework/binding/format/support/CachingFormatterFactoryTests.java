@@ -0,0 +1,77 @@
+package org.springframework.binding.format.support;
+
+import java.util.Date;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+
+import org.springframework.binding.format.Formatter;
+import org.springframework.binding.format.Style;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.i18n.SimpleLocaleContext;
+
+/**
+ * Test case for {@link CachingFormatterFactory}
+ */
+public class CachingFormatterFactoryTests extends TestCase {
+
+	private final CachingFormatterFactory factory = new CachingFormatterFactory(new StrictNumberFormatterFactory());
+
+	public void testFormatterIsReused() {
+		assertSame(factory.getDateTimeFormatter(), factory.getDateTimeFormatter());
+		assertSame(factory.getNumberFormatter(Integer.class), factory.getNumberFormatter(Integer.class));
+		assertNotSame(factory.getNumberFormatter(Integer.class), factory.getNumberFormatter(Long.class));
+		assertNotSame(factory.getDateFormatter(Style.SHORT), factory.getDateFormatter(Style.LONG));
+		assertNotSame(factory.getDateFormatter(), factory.getTimeFormatter());
+
+		Formatter formatter = factory.getDateTimeFormatter();
+		factory.clear();
+		assertNotSame(formatter, factory.getDateTimeFormatter());
+	}
+
+	public void testLocaleChange() {
+		SimpleFormatterFactory formatterFactory = new SimpleFormatterFactory();
+		formatterFactory.setLocaleContext(new SimpleLocaleContext(Locale.US));
+		CachingFormatterFactory factory = new CachingFormatterFactory(formatterFactory);
+		assertEquals("1,234.5", factory.getNumberFormatter(Double.class).formatValue(new Double(1234.5)));
+
+		formatterFactory.setLocaleContext(new SimpleLocaleContext(Locale.GERMANY));
+		assertEquals("1.234,5", factory.getNumberFormatter(Double.class).formatValue(new Double(1234.5)));
+	}
+
+	public void testLocaleContextHolderChange() {
+		SimpleFormatterFactory formatterFactory = new SimpleFormatterFactory();
+		formatterFactory.setLocaleContext(new LocaleContext() {
+			public Locale getLocale() {
+				return LocaleContextHolder.getLocale();
+			}
+		});
+		CachingFormatterFactory factory = new CachingFormatterFactory(formatterFactory);
+		try {
+			LocaleContextHolder.setLocale(Locale.US);
+			assertEquals("1,234.5", factory.getNumberFormatter(Double.class).formatValue(new Double(1234.5)));
+
+			LocaleContextHolder.setLocale(Locale.GERMANY);
+			assertEquals("1.234,5", factory.getNumberFormatter(Double.class).formatValue(new Double(1234.5)));
+		}
+		finally {
+			LocaleContextHolder.resetLocaleContext();
+		}
+	}
+
+	public void testFormatterPerThread() throws Exception {
+		final Formatter[] formatters = new Formatter[1];
+		Thread thread = new Thread() {
+			public void run() {
+				formatters[0] = factory.getDateTimeFormatter();
+			}
+		};
+		thread.start();
+		thread.join();
+		assertNotNull(formatters[0]);
+		assertNotSame(formatters[0], factory.getDateTimeFormatter());
+		Date date = new Date(0);
+		assertEquals(formatters[0].formatValue(date), factory.getDateTimeFormatter().formatValue(date));
+	}
+}
@@ -215,6 +215,104 @@ public class DefaultValidationResultsModelTests extends TestCase {
     	assertEquals("Child removed, revalidate InfoMessages.", Boolean.FALSE, infoListener.lastEvent().getNewValue());
     }
 
+    public void testAddRemoveAndReplaceMessage() {
+        DefaultValidationMessage error = new DefaultValidationMessage("field1", Severity.ERROR, "error");
+        DefaultValidationMessage warning = new DefaultValidationMessage("field2", Severity.WARNING, "warning");
+        vrm.addMessage(error);
+        assertEquals(1, listener.eventCount());
+        assertEquals(1, field1Listener.eventCount());
+        assertEquals(1, errorsListener.eventCount());
+        assertEquals(1, vrm.getMessageCount(Severity.ERROR));
+
+        vrm.addMessage(error);
+        assertEquals("Adding a present message changes nothing", 1, listener.eventCount());
+
+        vrm.replaceMessage(error, warning);
+        assertEquals(2, listener.eventCount());
+        assertEquals(2, field1Listener.eventCount());
+        assertEquals(2, errorsListener.eventCount());
+        assertEquals(1, warnListener.eventCount());
+        assertEquals(0, vrm.getMessageCount("field1"));
+        assertEquals(1, vrm.getMessageCount("field2"));
+
+        vrm.removeMessage(error);
+        assertEquals("Removing an absent message changes nothing", 2, listener.eventCount());
+        vrm.removeMessage(warning);
+        assertEquals(3, listener.eventCount());
+        assertEquals(0, vrm.getMessageCount());
+        assertEquals(2, warnListener.eventCount());
+    }
+
+    /**
+     * All changes between beginUpdate and endUpdate should be reported with a
+     * single event per listener.
+     */
+    public void testBatchedUpdatesFireOnce() {
+        vrm.beginUpdate();
+        for (int i = 0; i < 200; i++) {
+            vrm.addMessage(new DefaultValidationMessage("field1", Severity.ERROR, "error" + i));
+            vrm.addMessage(new DefaultValidationMessage("field" + i, Severity.WARNING, "warning" + i));
+        }
+        vrm.removeMessage(new DefaultValidationMessage("field1", Severity.ERROR, "error0"));
+        assertTrue(vrm.isUpdating());
+        assertEquals(0, listener.eventCount());
+        assertEquals(0, field1Listener.eventCount());
+        assertEquals(0, errorsListener.eventCount());
+        assertEquals(399, vrm.getMessageCount());
+        vrm.endUpdate();
+
+        assertFalse(vrm.isUpdating());
+        assertEquals(1, listener.eventCount());
+        assertEquals(1, field1Listener.eventCount());
+        assertEquals(0, nullListener.eventCount());
+        assertEquals(1, errorsListener.eventCount());
+        assertEquals(1, warnListener.eventCount());
+        assertEquals(0, infoListener.eventCount());
+        assertEquals(200, vrm.getMessageCount("field1"));
+        assertEquals(199, vrm.getMessageCount(Severity.ERROR));
+    }
+
+    public void testNestedBatchesFireAtOutermostEnd() {
+        vrm.beginUpdate();
+        vrm.beginUpdate();
+        vrm.addMessage(new DefaultValidationMessage("field1", Severity.INFO, "info"));
+        vrm.endUpdate();
+        assertEquals(0, listener.eventCount());
+        vrm.updateValidationResults(getResults("field1", Severity.ERROR));
+        vrm.endUpdate();
+        assertEquals(1, listener.eventCount());
+        assertEquals(1, field1Listener.eventCount());
+        assertEquals(1, errorsListener.eventCount());
+        assertEquals("Info came and went within the batch", 0, infoListener.eventCount());
+
+        vrm.beginUpdate();
+        vrm.endUpdate();
+        assertEquals("Empty batch fires nothing", 1, listener.eventCount());
+
+        try {
+            vrm.endUpdate();
+            fail("endUpdate without beginUpdate should fail");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testChildEventsAreBatched() {
+        DefaultValidationResultsModel childModel = new DefaultValidationResultsModel();
+        vrm.add(childModel);
+        vrm.beginUpdate();
+        childModel.addMessage(new DefaultValidationMessage("childProperty1", Severity.ERROR, "childErrorMessage1"));
+        childModel.addMessage(new DefaultValidationMessage("childProperty1", Severity.WARNING, "childWarningMessage1"));
+        assertEquals(0, listener.eventCount());
+        assertEquals(0, errorsListener.eventCount());
+        vrm.endUpdate();
+        assertEquals(1, listener.eventCount());
+        assertEquals(1, errorsListener.eventCount());
+        assertEquals(1, warnListener.eventCount());
+        assertTrue(vrm.getHasErrors());
+    }
+
     private ValidationResults getResults(String field, Severity severity) {
         DefaultValidationResults vr = new DefaultValidationResults();
         vr.addMessage(field, severity, "");
@@ -27,6 +27,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
 import org.springframework.beans.BeanUtils;
 import org.springframework.binding.support.TestPropertyChangeListener;
 import org.springframework.binding.value.CommitTrigger;
@@ -326,6 +329,64 @@ public class BufferedCollectionValueModelTests extends SpringRichTestCase {
         assertHasSameStructure(llm, backingCollection);
     }
 
+    public void testCommitWithoutChangesKeepsBackingCollection() {
+        Collection backingCollection = getCollection(ArrayList.class, 800);
+        BufferedCollectionValueModel vm = getBufferedCollectionValueModel(backingCollection);
+        ListListModel llm = (ListListModel)vm.getValue();
+        llm.set(0, llm.get(0));
+        vm.commit();
+        assertSame(backingCollection, vm.getWrappedValueModel().getValue());
+
+        llm.remove(0);
+        vm.commit();
+        assertNotSame(backingCollection, vm.getWrappedValueModel().getValue());
+        assertHasSameStructure(llm, (Collection)vm.getWrappedValueModel().getValue());
+    }
+
+    public void testCommitWithEqualElementCopiesBackingCollection() {
+        List backingList = (List)getCollection(ArrayList.class, 850);
+        BufferedCollectionValueModel vm = getBufferedCollectionValueModel(backingList);
+        ListListModel llm = (ListListModel)vm.getValue();
+        Integer equalElement = new Integer(((Integer)llm.get(0)).intValue());
+        llm.set(0, equalElement);
+        vm.commit();
+
+        List committed = (List)vm.getWrappedValueModel().getValue();
+        assertNotSame(backingList, committed);
+        assertSame(equalElement, committed.get(0));
+        assertNotSame(equalElement, backingList.get(0));
+    }
+
+    public void testBackingObjectChangeOnlyUpdatesDifferences() {
+        List backingList = (List)getCollection(ArrayList.class, 900);
+        BufferedCollectionValueModel vm = getBufferedCollectionValueModel(backingList);
+        ListListModel llm = (ListListModel)vm.getValue();
+        final List events = new ArrayList();
+        llm.addListDataListener(new ListDataListener() {
+            public void contentsChanged(ListDataEvent e) {
+                events.add(e);
+            }
+
+            public void intervalAdded(ListDataEvent e) {
+                events.add(e);
+            }
+
+            public void intervalRemoved(ListDataEvent e) {
+                events.add(e);
+            }
+        });
+
+        List newList = new ArrayList(backingList);
+        newList.remove(1);
+        vm.getWrappedValueModel().setValue(newList);
+        assertHasSameStructure(llm, newList);
+        assertEquals(1, events.size());
+        ListDataEvent event = (ListDataEvent)events.get(0);
+        assertEquals(ListDataEvent.INTERVAL_REMOVED, event.getType());
+        assertEquals(1, event.getIndex0());
+        assertEquals(1, event.getIndex1());
+    }
+
     private void assertHasSameStructure(ListListModel c1, Object[] c2) {
         assertEquals("collections must be the same size", c1.size(), c2.length);
         for (int i = 0; i < c2.length; i++) {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.binding.value.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ListDiff}.
+ */
+public class ListDiffTests extends TestCase {
+
+	public void testSameLists() {
+		List list = Arrays.asList(new Object[] { "a", "b", "c" });
+		assertTrue(ListDiff.diff(list, new ArrayList(list), null).isEmpty());
+	}
+
+	public void testFewestEdits() {
+		List edits = ListDiff.diff(Arrays.asList(new Object[] { "a", "b", "c", "d", "e" }), Arrays
+				.asList(new Object[] { "a", "x", "y", "c", "d" }), null);
+		assertEquals(3, edits.size());
+		assertEdit((ListDiff.Edit) edits.get(0), ListDiff.Edit.REMOVE, 4, new Object[] { "e" });
+		assertEdit((ListDiff.Edit) edits.get(1), ListDiff.Edit.INSERT, 2, new Object[] { "x", "y" });
+		assertEdit((ListDiff.Edit) edits.get(2), ListDiff.Edit.REMOVE, 1, new Object[] { "b" });
+	}
+
+	public void testEqualElementsAreChanged() {
+		String b = "b";
+		String otherB = new String("b");
+		List edits = ListDiff.diff(Arrays.asList(new Object[] { "a", b }), Arrays.asList(new Object[] { "a", otherB }),
+				null);
+		assertEquals(1, edits.size());
+		ListDiff.Edit edit = (ListDiff.Edit) edits.get(0);
+		assertEdit(edit, ListDiff.Edit.CHANGE, 1, new Object[] { "b" });
+		assertSame(otherB, edit.getItems().get(0));
+	}
+
+	public void testApplyRandomEdits() {
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			List oldList = randomList(random);
+			List newList = randomList(random);
+			List target = new ArrayList(oldList);
+			ListDiff.apply(target, newList, null);
+			assertEquals(newList, target);
+		}
+	}
+
+	public void testMaxEditDistance() {
+		List oldList = Arrays.asList(new Object[] { "a", "b", "c", "d" });
+		List newList = Arrays.asList(new Object[] { "a", "x", "y", "d" });
+		List edits = ListDiff.diff(oldList, newList, null, 1);
+		assertEquals(2, edits.size());
+		assertEdit((ListDiff.Edit) edits.get(0), ListDiff.Edit.REMOVE, 1, new Object[] { "b", "c" });
+		assertEdit((ListDiff.Edit) edits.get(1), ListDiff.Edit.INSERT, 1, new Object[] { "x", "y" });
+
+		List target = new ArrayList(oldList);
+		ListDiff.apply(target, newList, null);
+		assertEquals(newList, target);
+	}
+
+	private List randomList(Random random) {
+		List list = new ArrayList();
+		int size = random.nextInt(20);
+		for (int i = 0; i < size; i++) {
+			list.add(String.valueOf((char) ('a' + random.nextInt(5))));
+		}
+		return list;
+	}
+
+	private void assertEdit(ListDiff.Edit edit, int type, int index, Object[] items) {
+		assertEquals(type, edit.getType());
+		assertEquals(index, edit.getIndex());
+		assertEquals(Arrays.asList(items), edit.getItems());
+	}
+}
@@ -108,6 +108,38 @@ public class ListListModelTests extends TestCase {
 		EasyMock.verify(mockListener);
 	}
 
+	public void testReplaceWith() {
+		ListListModel model = new ListListModel(Arrays.asList(new Object[] { "1", "2", "3", "4", "5" }));
+		model.addListDataListener(mockListener);
+
+		mockListener.intervalAdded(eq(new ListDataEvent(model, ListDataEvent.INTERVAL_ADDED, 4, 4)));
+		mockListener.intervalRemoved(eq(new ListDataEvent(model, ListDataEvent.INTERVAL_REMOVED, 1, 1)));
+		EasyMock.replay(mockListener);
+
+		assertTrue(model.replaceWith(Arrays.asList(new Object[] { "1", "3", "4", "x", "5" })));
+		assertFalse(model.replaceWith(Arrays.asList(new Object[] { "1", "3", "4", "x", "5" })));
+
+		assertEquals(Arrays.asList(new Object[] { "1", "3", "4", "x", "5" }), model);
+
+		EasyMock.verify(mockListener);
+	}
+
+	public void testSort() {
+		ListListModel model = new ListListModel(Arrays.asList(new Object[] { "1", "3", "2", "4" }));
+		model.addListDataListener(mockListener);
+
+		mockListener.contentsChanged(eq(new ListDataEvent(model, ListDataEvent.CONTENTS_CHANGED, 1, 2)));
+		EasyMock.replay(mockListener);
+
+		model.setComparator(String.CASE_INSENSITIVE_ORDER);
+		model.sort();
+		model.sort();
+
+		assertEquals(Arrays.asList(new Object[] { "1", "2", "3", "4" }), model);
+
+		EasyMock.verify(mockListener);
+	}
+
 	public static ListDataEvent eq(ListDataEvent expected) {
 		EasyMock.reportMatcher(new ListDataEventArgumentMatcher(expected));
 
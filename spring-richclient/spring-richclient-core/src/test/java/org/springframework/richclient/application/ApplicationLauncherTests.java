@@ -0,0 +1,192 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.application;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.easymock.EasyMock;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.richclient.application.support.IconPreloadingTask;
+import org.springframework.richclient.application.support.MessageSourceWarmUpTask;
+import org.springframework.richclient.image.IconSource;
+
+/**
+ * Tests for the {@link StartupTask}s run by {@link ApplicationLauncher}.
+ */
+public class ApplicationLauncherTests extends TestCase {
+
+    private static final long TIMEOUT = 5000;
+
+    private StaticApplicationContext context;
+
+    private TestApplication application;
+
+    protected void setUp() throws Exception {
+        Application.load(null);
+        application = new TestApplication();
+        context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton(ApplicationLauncher.APPLICATION_BEAN_ID, application);
+    }
+
+    protected void tearDown() throws Exception {
+        Application.load(null);
+    }
+
+    public void testStartupTasksRunInParallel() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        final boolean[] metOther = new boolean[2];
+        for (int i = 0; i < 2; i++) {
+            final int task = i;
+            addTask("task" + i, new StartupTask() {
+                public void run() {
+                    bothRunning.countDown();
+                    try {
+                        metOther[task] = bothRunning.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        new ApplicationLauncher(context);
+
+        assertTrue("the tasks must run at the same time", metOther[0] && metOther[1]);
+        assertTrue(application.started);
+    }
+
+    public void testFailingTaskDoesNotStopTheOthers() throws Exception {
+        final boolean[] ran = new boolean[1];
+        addTask("failing", new StartupTask() {
+            public void run() {
+                throw new IllegalStateException("startup task failed");
+            }
+        });
+        addTask("working", new StartupTask() {
+            public void run() {
+                ran[0] = true;
+            }
+        });
+
+        ApplicationLauncher launcher = new ApplicationLauncher(context);
+
+        assertTrue(ran[0]);
+        assertTrue("the application starts anyway", application.started);
+        Map durations = launcher.getStageDurations();
+        assertTrue(durations.containsKey(ApplicationLauncher.STAGE_STARTUP_TASKS + ".working"));
+        assertFalse("a failed task has no duration", durations
+                .containsKey(ApplicationLauncher.STAGE_STARTUP_TASKS + ".failing"));
+    }
+
+    public void testStageDurationsAreRecorded() throws Exception {
+        addTask("slow", new StartupTask() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        ApplicationLauncher launcher = new ApplicationLauncher(context);
+
+        Map durations = launcher.getStageDurations();
+        Long taskDuration = (Long) durations.get(ApplicationLauncher.STAGE_STARTUP_TASKS + ".slow");
+        Long tasksDuration = (Long) durations.get(ApplicationLauncher.STAGE_STARTUP_TASKS);
+        assertNotNull(taskDuration);
+        assertNotNull(tasksDuration);
+        // allow for the granularity of the system clock
+        assertTrue("task took " + taskDuration + " ms", taskDuration.longValue() >= 90);
+        assertTrue("all tasks took " + tasksDuration + " ms", tasksDuration.longValue() >= taskDuration.longValue());
+        assertTrue(durations.containsKey(ApplicationLauncher.STAGE_APPLICATION_START));
+    }
+
+    public void testInterruptCancelsRemainingTasks() throws Exception {
+        final CountDownLatch taskStarted = new CountDownLatch(1);
+        final CountDownLatch taskInterrupted = new CountDownLatch(1);
+        addTask("blocking", new StartupTask() {
+            public void run() {
+                taskStarted.countDown();
+                try {
+                    Thread.sleep(60000);
+                }
+                catch (InterruptedException e) {
+                    taskInterrupted.countDown();
+                }
+            }
+        });
+
+        Thread launcherThread = new Thread() {
+            public void run() {
+                new ApplicationLauncher(context);
+            }
+        };
+        launcherThread.start();
+        assertTrue(taskStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        launcherThread.interrupt();
+
+        assertTrue("the running task must be cancelled", taskInterrupted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        launcherThread.join(TIMEOUT);
+        assertFalse("the launcher must stop waiting", launcherThread.isAlive());
+    }
+
+    public void testPreloadingTasks() throws Exception {
+        IconSource iconSource = (IconSource) EasyMock.createMock(IconSource.class);
+        EasyMock.expect(iconSource.getIcon("first")).andReturn(null);
+        EasyMock.expect(iconSource.getIcon("second")).andReturn(null);
+        EasyMock.replay(iconSource);
+        addTask("icons", new IconPreloadingTask(iconSource, new String[] { "first", "second" }));
+
+        final StringBuffer resolved = new StringBuffer();
+        StaticMessageSource messageSource = new StaticMessageSource() {
+            protected String resolveCodeWithoutArguments(String code, Locale locale) {
+                synchronized (resolved) {
+                    resolved.append(code).append(',');
+                }
+                return super.resolveCodeWithoutArguments(code, locale);
+            }
+        };
+        MessageSourceWarmUpTask warmUpTask = new MessageSourceWarmUpTask(messageSource);
+        warmUpTask.setCodes(new String[] { "title" });
+        addTask("messages", warmUpTask);
+
+        new ApplicationLauncher(context);
+
+        EasyMock.verify(iconSource);
+        assertTrue("messages resolved: " + resolved, resolved.toString().indexOf("title,") != -1);
+    }
+
+    private void addTask(String name, StartupTask task) {
+        context.getBeanFactory().registerSingleton(name, task);
+    }
+
+    private static class TestApplication extends Application {
+        private volatile boolean started;
+
+        public void start() {
+            started = true;
+        }
+    }
+}
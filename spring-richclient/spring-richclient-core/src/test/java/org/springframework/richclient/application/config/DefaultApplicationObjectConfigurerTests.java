@@ -97,7 +97,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String messageCode = objectName + ".title";
 		String message = "bogusTitle";
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(message);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(message);
 
 		TitleConfigurable configurable = (TitleConfigurable) EasyMock.createMock(TitleConfigurable.class);
 		configurable.setTitle(message);
@@ -119,7 +119,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String objectName = "bogusTitleable";
 		String messageCode = objectName + ".title";
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(null);
 
 		TitleConfigurable configurable = (TitleConfigurable) EasyMock.createMock(TitleConfigurable.class);
 
@@ -148,8 +148,8 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String description = "bogusDescription";
 		String caption = "bogusCaption";
 
-		EasyMock.expect(messageSource.getMessage(descriptionCode, null, Locale.getDefault())).andReturn(description);
-		EasyMock.expect(messageSource.getMessage(captionCode, null, Locale.getDefault())).andReturn(caption);
+		EasyMock.expect(messageSource.getMessage(descriptionCode, null, null, Locale.getDefault())).andReturn(description);
+		EasyMock.expect(messageSource.getMessage(captionCode, null, null, Locale.getDefault())).andReturn(caption);
 
 		DescriptionConfigurable configurable = (DescriptionConfigurable) EasyMock
 				.createMock(DescriptionConfigurable.class);
@@ -174,8 +174,8 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String descriptionCode = objectName + ".description";
 		String captionCode = objectName + ".caption";
 
-		EasyMock.expect(messageSource.getMessage(descriptionCode, null, Locale.getDefault())).andReturn(null);
-		EasyMock.expect(messageSource.getMessage(captionCode, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(descriptionCode, null, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(captionCode, null, null, Locale.getDefault())).andReturn(null);
 
 		DescriptionConfigurable configurable = (DescriptionConfigurable) EasyMock
 				.createMock(DescriptionConfigurable.class);
@@ -204,7 +204,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String message = "bogusLabelInfo";
 		LabelInfo expectedLabelInfo = LabelInfo.valueOf(message);
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(message);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(message);
 
 		LabelConfigurable configurable = (LabelConfigurable) EasyMock.createMock(LabelConfigurable.class);
 		configurable.setLabelInfo(expectedLabelInfo);
@@ -227,7 +227,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String objectName = "bogusLabelable";
 		String messageCode = objectName + ".label";
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(null);
 
 		LabelConfigurable configurable = (LabelConfigurable) EasyMock.createMock(LabelConfigurable.class);
 
@@ -255,7 +255,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String message = "bogusLabelInfo";
 		CommandButtonLabelInfo expectedLabelInfo = CommandButtonLabelInfo.valueOf(message);
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(message);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(message);
 
 		CommandLabelConfigurable configurable = (CommandLabelConfigurable) EasyMock
 				.createMock(CommandLabelConfigurable.class);
@@ -279,7 +279,7 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 		String objectName = "bogusLabelable";
 		String messageCode = objectName + ".label";
 
-		EasyMock.expect(messageSource.getMessage(messageCode, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(null);
 
 		CommandLabelConfigurable configurable = (CommandLabelConfigurable) EasyMock
 				.createMock(CommandLabelConfigurable.class);
@@ -598,4 +598,99 @@ public class DefaultApplicationObjectConfigurerTests extends TestCase {
 
 	}
 
+	/**
+	 * Confirms that a message code that could not be found is only looked up
+	 * once for a locale, and looked up again when the locale changes.
+	 */
+	public void testMissingMessageIsRemembered() {
+		MessageSource messageSource = (MessageSource) EasyMock.createMock(MessageSource.class);
+
+		final Locale[] locale = new Locale[] { Locale.ENGLISH };
+		DefaultApplicationObjectConfigurer configurer = new DefaultApplicationObjectConfigurer(messageSource) {
+			protected Locale getLocale() {
+				return locale[0];
+			}
+		};
+		configurer.setCacheMissingKeys(true);
+
+		String objectName = "bogusTitleable";
+		String messageCode = objectName + ".title";
+
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.ENGLISH)).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.GERMAN)).andReturn("Titel");
+
+		TitleConfigurable configurable = (TitleConfigurable) EasyMock.createMock(TitleConfigurable.class);
+		configurable.setTitle("Titel");
+
+		EasyMock.replay(messageSource);
+		EasyMock.replay(configurable);
+
+		configurer.configure(configurable, objectName);
+		configurer.configure(configurable, objectName);
+
+		locale[0] = Locale.GERMAN;
+		configurer.configure(configurable, objectName);
+
+		EasyMock.verify(messageSource);
+		EasyMock.verify(configurable);
+	}
+
+	/**
+	 * Confirms that a message code that could not be found is looked up again
+	 * after the missing keys have been cleared.
+	 */
+	public void testClearMissingKeys() {
+		MessageSource messageSource = (MessageSource) EasyMock.createMock(MessageSource.class);
+
+		DefaultApplicationObjectConfigurer configurer = new DefaultApplicationObjectConfigurer(messageSource);
+		configurer.setCacheMissingKeys(true);
+
+		String objectName = "bogusTitleable";
+		String messageCode = objectName + ".title";
+
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(null)
+				.times(2);
+
+		TitleConfigurable configurable = (TitleConfigurable) EasyMock.createMock(TitleConfigurable.class);
+
+		EasyMock.replay(messageSource);
+		EasyMock.replay(configurable);
+
+		configurer.configure(configurable, objectName);
+		configurer.configure(configurable, objectName);
+		configurer.clearMissingKeys();
+		configurer.configure(configurable, objectName);
+
+		EasyMock.verify(messageSource);
+		EasyMock.verify(configurable);
+	}
+
+	/**
+	 * Confirms that by default a message code that could not be found is
+	 * looked up again, so messages added to the source are found.
+	 */
+	public void testMissingMessageIsNotRememberedByDefault() {
+		MessageSource messageSource = (MessageSource) EasyMock.createMock(MessageSource.class);
+
+		DefaultApplicationObjectConfigurer configurer = new DefaultApplicationObjectConfigurer(messageSource);
+
+		String objectName = "bogusTitleable";
+		String messageCode = objectName + ".title";
+
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn(null);
+		EasyMock.expect(messageSource.getMessage(messageCode, null, null, Locale.getDefault())).andReturn("Title");
+
+		TitleConfigurable configurable = (TitleConfigurable) EasyMock.createMock(TitleConfigurable.class);
+		configurable.setTitle("Title");
+
+		EasyMock.replay(messageSource);
+		EasyMock.replay(configurable);
+
+		configurer.configure(configurable, objectName);
+		configurer.configure(configurable, objectName);
+
+		EasyMock.verify(messageSource);
+		EasyMock.verify(configurable);
+	}
+
 }
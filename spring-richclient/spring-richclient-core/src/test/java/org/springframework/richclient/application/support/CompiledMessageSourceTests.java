@@ -0,0 +1,250 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.application.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.springframework.context.NoSuchMessageException;
+
+/**
+ * Tests for {@link CompiledMessageBundle} and {@link CompiledMessageSource}.
+ */
+public class CompiledMessageSourceTests extends TestCase {
+
+	private File directory;
+
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("messages", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+
+	protected void tearDown() throws Exception {
+		File[] files = directory.listFiles();
+		for (int i = 0; i < files.length; i++) {
+			File[] cached = files[i].listFiles();
+			for (int j = 0; cached != null && j < cached.length; j++) {
+				cached[j].delete();
+			}
+			files[i].delete();
+		}
+		directory.delete();
+	}
+
+	public void testBundle() throws IOException {
+		Properties messages = new Properties();
+		for (int i = 0; i < 100; i++) {
+			messages.setProperty("key" + i, "value \u00e9 " + i);
+		}
+		messages.setProperty("", "empty key");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompiledMessageBundle.compile(messages, out);
+		CompiledMessageBundle bundle = CompiledMessageBundle.read(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(101, bundle.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals("value \u00e9 " + i, bundle.getMessage("key" + i));
+		}
+		assertEquals("empty key", bundle.getMessage(""));
+		assertNull(bundle.getMessage("key100"));
+		// "Aa" and "BB" have the same hash code
+		assertNull(CompiledMessageBundle.compile(singleMessage("Aa", "a")).getMessage("BB"));
+	}
+
+	public void testNotABundle() {
+		try {
+			CompiledMessageBundle.read(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+			fail("Should have thrown an IOException");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testCorruptBundle() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompiledMessageBundle.compile(singleMessage("greeting", "Hello"), out);
+		byte[] bytes = out.toByteArray();
+
+		byte[] truncated = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		assertCorrupt(truncated);
+
+		// the value length is the last int before the value, it is only read by a lookup
+		byte[] valueLength = (byte[]) bytes.clone();
+		valueLength[bytes.length - "Hello".length() - 4] = 0x7f;
+		CompiledMessageBundle bundle = CompiledMessageBundle.read(new ByteArrayInputStream(valueLength));
+		assertNull(bundle.getMessage("unknown"));
+		try {
+			bundle.getMessage("greeting");
+			fail("Should have thrown an IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testVersion1Bundle() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CompiledMessageBundle.compile(singleMessage("greeting", "Hello"), out);
+		ByteBuffer bundle = ByteBuffer.wrap(out.toByteArray());
+
+		// version 1 has no length in its header, so its entries start 4 bytes earlier
+		ByteBuffer version1 = ByteBuffer.allocate(bundle.limit() - 4);
+		version1.putInt(bundle.getInt(0)).putInt(1).putInt(bundle.getInt(8)).putInt(bundle.getInt(12));
+		for (int slot = 0; slot < bundle.getInt(12); slot++) {
+			int offset = bundle.getInt(20 + 4 * slot);
+			version1.putInt(offset == 0 ? 0 : offset - 4);
+		}
+		bundle.position(20 + 4 * bundle.getInt(12));
+		version1.put(bundle);
+
+		CompiledMessageBundle read = CompiledMessageBundle.read(new ByteArrayInputStream(version1.array()));
+		assertEquals("Hello", read.getMessage("greeting"));
+	}
+
+	private void assertCorrupt(byte[] bytes) {
+		try {
+			CompiledMessageBundle.read(new ByteArrayInputStream(bytes));
+			fail("Should have thrown an IOException");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testMessageSource() throws IOException {
+		writeProperties("messages", singleMessage("greeting", "Hello {0}"));
+		writeProperties("messages_nl", singleMessage("greeting", "Hallo {0}"));
+
+		CompiledMessageSource messageSource = new CompiledMessageSource();
+		messageSource.setBasename("file:" + directory.getPath() + "/messages");
+		messageSource.setFallbackToSystemLocale(false);
+
+		assertEquals("Hallo Jan", messageSource.getMessage("greeting", new Object[] { "Jan" }, new Locale("nl",
+				"BE")));
+		assertEquals("Hello Jan", messageSource.getMessage("greeting", new Object[] { "Jan" }, Locale.ENGLISH));
+		assertEquals("default", messageSource.getMessage("unknown", null, "default", Locale.ENGLISH));
+		try {
+			messageSource.getMessage("unknown", null, Locale.ENGLISH);
+			fail("Should have thrown a NoSuchMessageException");
+		}
+		catch (NoSuchMessageException e) {
+			// expected
+		}
+	}
+
+	public void testCacheDirectory() throws IOException {
+		writeProperties("messages", singleMessage("greeting", "Hello"));
+		File cacheDirectory = new File(directory, "cache");
+
+		CompiledMessageSource messageSource = new CompiledMessageSource();
+		messageSource.setBasename("file:" + directory.getPath() + "/messages");
+		messageSource.setCacheDirectory(cacheDirectory);
+
+		assertEquals("Hello", messageSource.getMessage("greeting", null, Locale.ENGLISH));
+		assertEquals("temporary file not renamed", 1, cacheDirectory.listFiles().length);
+	}
+
+	public void testCorruptCachedBundleIsCompiledAgain() throws IOException {
+		writeProperties("messages", singleMessage("greeting", "Hello"));
+		File cacheDirectory = new File(directory, "cache");
+
+		CompiledMessageSource messageSource = new CompiledMessageSource();
+		messageSource.setBasename("file:" + directory.getPath() + "/messages");
+		messageSource.setCacheDirectory(cacheDirectory);
+		assertEquals("Hello", messageSource.getMessage("greeting", null, Locale.ENGLISH));
+
+		// truncate the cached bundle
+		File cached = cacheDirectory.listFiles()[0];
+		RandomAccessFile file = new RandomAccessFile(cached, "rw");
+		try {
+			file.setLength(file.length() - 1);
+		}
+		finally {
+			file.close();
+		}
+
+		messageSource = new CompiledMessageSource();
+		messageSource.setBasename("file:" + directory.getPath() + "/messages");
+		messageSource.setCacheDirectory(cacheDirectory);
+		assertEquals("Hello", messageSource.getMessage("greeting", null, Locale.ENGLISH));
+		assertEquals(1, cacheDirectory.listFiles().length);
+	}
+
+	public void testChangedFileWithSameModificationTimeIsCompiledAgain() throws IOException {
+		writeProperties("messages", singleMessage("greeting", "Hello"));
+		File properties = new File(directory, "messages.properties");
+		long lastModified = properties.lastModified();
+		File cacheDirectory = new File(directory, "cache");
+
+		CompiledMessageSource messageSource = new CompiledMessageSource();
+		messageSource.setBasename("file:" + directory.getPath() + "/messages");
+		messageSource.setCacheDirectory(cacheDirectory);
+		assertEquals("Hello", messageSource.getMessage("greeting", null, Locale.ENGLISH));
+
+		writeProperties("messages", singleMessage("greeting", "Good morning"));
+		properties.setLastModified(lastModified);
+		messageSource.clearCache();
+		assertEquals("Good morning", messageSource.getMessage("greeting", null, Locale.ENGLISH));
+		assertEquals("the stale bundle must be deleted", 1, cacheDirectory.listFiles().length);
+	}
+
+	public void testBasenamesDontShareCachedBundles() throws IOException {
+		writeProperties("a.b", singleMessage("greeting", "Hello"));
+		writeProperties("a_b", singleMessage("greeting", "Hallo"));
+		writeProperties("A_b", singleMessage("greeting", "Bonjour"));
+		File cacheDirectory = new File(directory, "cache");
+
+		String[] basenames = { "a.b", "a_b", "A_b" };
+		String[] greetings = { "Hello", "Hallo", "Bonjour" };
+		for (int i = 0; i < basenames.length; i++) {
+			CompiledMessageSource messageSource = new CompiledMessageSource();
+			messageSource.setBasename("file:" + directory.getPath() + "/" + basenames[i]);
+			messageSource.setCacheDirectory(cacheDirectory);
+			assertEquals(greetings[i], messageSource.getMessage("greeting", null, Locale.ENGLISH));
+		}
+		assertEquals(3, cacheDirectory.listFiles().length);
+	}
+
+	private Properties singleMessage(String code, String message) {
+		Properties properties = new Properties();
+		properties.setProperty(code, message);
+		return properties;
+	}
+
+	private void writeProperties(String name, Properties properties) throws IOException {
+		OutputStream out = new FileOutputStream(new File(directory, name + ".properties"));
+		try {
+			properties.store(out, null);
+		}
+		finally {
+			out.close();
+		}
+	}
+}
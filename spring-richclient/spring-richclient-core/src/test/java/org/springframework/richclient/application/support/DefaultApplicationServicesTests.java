@@ -6,6 +6,7 @@ import org.springframework.binding.value.ValueChangeDetector;
 import org.springframework.binding.value.support.DefaultValueChangeDetector;
 import org.springframework.context.MessageSource;
 import org.springframework.context.support.StaticMessageSource;
+import org.springframework.richclient.application.ServiceHandle;
 import org.springframework.richclient.application.ServiceNotFoundException;
 import org.springframework.richclient.image.IconSource;
 import org.springframework.richclient.test.SpringRichTestCase;
@@ -59,4 +60,20 @@ public class DefaultApplicationServicesTests extends SpringRichTestCase {
         Object iconSource = getApplicationServices().getService(IconSource.class);
         assertTrue("Returned service must implement service type", iconSource instanceof IconSource);
     }
+
+    public void testServiceHandleFollowsRegistrations() {
+        ValueChangeDetector vcd = new DefaultValueChangeDetector();
+        getApplicationServices().setValueChangeDetector(vcd);
+        ServiceHandle handle = new ServiceHandle(ValueChangeDetector.class);
+        assertSame(vcd, handle.get());
+
+        ValueChangeDetector otherVcd = new DefaultValueChangeDetector();
+        getApplicationServices().setValueChangeDetector(otherVcd);
+        assertSame("Expected the newly registered service", otherVcd, handle.get());
+
+        getApplicationServices().setValueChangeDetector(null);
+        Object defaultVcd = handle.get();
+        assertTrue(defaultVcd instanceof ValueChangeDetector);
+        assertNotSame(otherVcd, defaultVcd);
+    }
 }
@@ -15,7 +15,12 @@
  */
 package org.springframework.richclient.application.support;
 
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JTabbedPane;
+
 import org.springframework.richclient.application.ApplicationPage;
+import org.springframework.richclient.factory.LazyControl;
 
 /**
  * Testcase for {@link TabbedApplicationPage}
@@ -29,4 +34,29 @@ public class TabbedApplicationPageTests extends AbstractApplicationPageTestCase
         return new TabbedApplicationPage();
     }
 
+    public void testLazyControlCreation() {
+        AbstractView view = new AbstractView() {
+            protected JComponent createControl() {
+                return new JLabel("lazy");
+            }
+        };
+        SimpleViewDescriptorRegistry viewDescriptorRegistry = new SimpleViewDescriptorRegistry();
+        viewDescriptorRegistry.addViewDescriptor(new SimpleViewDescriptor("lazyView", view));
+
+        TabbedApplicationPage page = new TabbedApplicationPage();
+        page.setLazyControlCreation(true);
+        page.setViewDescriptorRegistry(viewDescriptorRegistry);
+        page.setPageComponentPaneFactory(new SimplePageComponentPaneFactory());
+        page.setDescriptor(new EmptyPageDescriptor());
+        JTabbedPane tabbedPane = (JTabbedPane) page.getControl();
+
+        assertSame(view, page.showView("lazyView"));
+        LazyControl control = (LazyControl) tabbedPane.getComponentAt(0);
+        assertFalse(view.isControlCreated());
+
+        control.createControl();
+        assertTrue(view.isControlCreated());
+        assertSame(view.getControl(), control.getComponent(0));
+    }
+
 }
\ No newline at end of file
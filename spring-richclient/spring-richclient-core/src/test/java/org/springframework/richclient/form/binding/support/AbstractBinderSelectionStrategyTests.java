@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.form.binding.support;
+
+import javax.swing.JComponent;
+import javax.swing.JTextField;
+
+import org.easymock.EasyMock;
+import org.springframework.binding.form.FieldMetadata;
+import org.springframework.binding.form.FormModel;
+import org.springframework.binding.form.support.DefaultFormModel;
+import org.springframework.binding.support.TestBean;
+import org.springframework.richclient.form.binding.Binder;
+import org.springframework.richclient.test.SpringRichTestCase;
+
+/**
+ * Testcase for AbstractBinderSelectionStrategy
+ */
+public class AbstractBinderSelectionStrategyTests extends SpringRichTestCase {
+
+    private final Binder propertyNameBinder = (Binder) EasyMock.createMock(Binder.class);
+
+    private final Binder propertyTypeBinder = (Binder) EasyMock.createMock(Binder.class);
+
+    private final Binder controlTypeBinder = (Binder) EasyMock.createMock(Binder.class);
+
+    private AbstractBinderSelectionStrategy strategy;
+
+    private FormModel formModel;
+
+    protected void doSetUp() throws Exception {
+        strategy = new AbstractBinderSelectionStrategy(JTextField.class) {
+            protected void registerDefaultBinders() {
+            }
+        };
+        strategy.registerBinderForPropertyName(Object.class, "simpleProperty", propertyNameBinder);
+        strategy.registerBinderForPropertyType(Number.class, propertyTypeBinder);
+        strategy.registerBinderForControlType(JComponent.class, controlTypeBinder);
+        formModel = new DefaultFormModel(new TestBean());
+    }
+
+    public void testSelectBinder() {
+        assertSame(propertyNameBinder, strategy.selectBinder(formModel, "simpleProperty"));
+        assertSame(propertyTypeBinder, strategy.selectBinder(formModel, "numberProperty"));
+        assertSame(controlTypeBinder, strategy.selectBinder(formModel, "dateProperty"));
+        assertSame(controlTypeBinder, strategy.selectBinder(JTextField.class, formModel, "simpleProperty"));
+    }
+
+    public void testRegistrationReplacesSelectedBinder() {
+        assertSame(propertyNameBinder, strategy.selectBinder(formModel, "simpleProperty"));
+        assertSame(propertyTypeBinder, strategy.selectBinder(formModel, "numberProperty"));
+        assertSame(controlTypeBinder, strategy.selectBinder(JTextField.class, formModel, "simpleProperty"));
+
+        Binder binder = (Binder) EasyMock.createMock(Binder.class);
+        strategy.registerBinderForPropertyName(TestBean.class, "simpleProperty", binder);
+        assertSame(binder, strategy.selectBinder(formModel, "simpleProperty"));
+
+        strategy.registerBinderForPropertyType(Integer.class, binder);
+        assertSame(propertyTypeBinder, strategy.selectBinder(formModel, "numberProperty"));
+        strategy.registerBinderForPropertyType(Number.class, binder);
+        assertSame(binder, strategy.selectBinder(formModel, "numberProperty"));
+
+        strategy.registerBinderForControlType(JTextField.class, binder);
+        assertSame(binder, strategy.selectBinder(JTextField.class, formModel, "simpleProperty"));
+        assertSame(controlTypeBinder, strategy.selectBinder(JComponent.class, formModel, "simpleProperty"));
+    }
+
+    public void testSelectBinderWithoutFormObject() {
+        FieldMetadata metadata = (FieldMetadata) EasyMock.createMock(FieldMetadata.class);
+        EasyMock.expect(metadata.getPropertyType()).andStubReturn(Integer.class);
+        FormModel formModel = (FormModel) EasyMock.createMock(FormModel.class);
+        EasyMock.expect(formModel.getFormObject()).andStubReturn(null);
+        EasyMock.expect(formModel.getFieldMetadata("numberProperty")).andStubReturn(metadata);
+        EasyMock.expect(formModel.getFieldMetadata("simpleProperty")).andStubReturn(metadata);
+        EasyMock.replay(metadata);
+        EasyMock.replay(formModel);
+
+        assertSame(propertyTypeBinder, strategy.selectBinder(formModel, "numberProperty"));
+        assertSame(controlTypeBinder, strategy.selectBinder(JTextField.class, formModel, "numberProperty"));
+        assertSame("no property name binder without form object", propertyTypeBinder, strategy.selectBinder(
+                formModel, "simpleProperty"));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.image;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Tests for {@link DefaultIconSource} and {@link ReloadableSizedIconSource}.
+ */
+public class DefaultIconSourceTests extends TestCase {
+    private static final String IMAGE = "org/springframework/richclient/image/test.gif";
+
+    private DefaultImageSource imageSource;
+
+    private TaskCollector executor;
+
+    protected void setUp() throws Exception {
+        Map resources = new HashMap();
+        resources.put("test.image", new ClassPathResource(IMAGE));
+        resources.put("test.image.large", new ClassPathResource(IMAGE));
+        imageSource = new DefaultImageSource(false, resources);
+        executor = new TaskCollector();
+    }
+
+    public void testAsyncIconShowsPlaceholderUntilLoaded() throws Exception {
+        final DefaultIconSource iconSource = new DefaultIconSource(imageSource);
+        iconSource.setImageLoadingExecutor(executor);
+        final Image placeholder = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        iconSource.setPlaceholderImage(placeholder);
+        final AsyncImageIcon[] icon = new AsyncImageIcon[1];
+        final RepaintCountingLabel label = new RepaintCountingLabel();
+
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                icon[0] = (AsyncImageIcon) iconSource.getIcon("test.image");
+                assertFalse(icon[0].isLoaded());
+                assertSame(placeholder, icon[0].getImage());
+
+                Graphics g = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB).getGraphics();
+                icon[0].paintIcon(label, g, 0, 0);
+                g.dispose();
+                label.repaints = 0;
+            }
+        });
+        assertEquals(1, executor.tasks.size());
+        assertSame("the same icon is returned while loading", icon[0], iconSource.getIcon("test.image"));
+
+        // the image is loaded by the executor and handed to the icon on the event dispatch thread
+        ((Runnable) executor.tasks.remove(0)).run();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                assertTrue(icon[0].isLoaded());
+                assertSame(imageSource.getImage("test.image"), icon[0].getImage());
+                assertTrue("the label the placeholder was painted on is repainted", label.repaints > 0);
+            }
+        });
+    }
+
+    public void testCachedImageIsNotLoadedAgain() {
+        DefaultIconSource iconSource = new DefaultIconSource(imageSource);
+        iconSource.setImageLoadingExecutor(executor);
+        Image image = imageSource.getImage("test.image");
+
+        Icon icon = iconSource.getIcon("test.image");
+        assertFalse(icon instanceof AsyncImageIcon);
+        assertSame(image, ((ImageIcon) icon).getImage());
+        assertEquals(0, executor.tasks.size());
+    }
+
+    public void testUnknownKeyIsNotLoaded() {
+        DefaultIconSource iconSource = new DefaultIconSource(imageSource);
+        iconSource.setImageLoadingExecutor(executor);
+
+        assertNull(iconSource.getIcon("unknown"));
+        assertEquals(0, executor.tasks.size());
+    }
+
+    public void testImageLoadedOnlyOnce() throws Exception {
+        final AsyncImageIcon icon = new AsyncImageIcon(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        final Image image = imageSource.getImage("test.image");
+        Thread loader = new Thread() {
+            public void run() {
+                icon.imageLoaded(image);
+            }
+        };
+        loader.start();
+        loader.join(5000);
+        assertTrue(icon.isLoaded());
+        assertSame(image, icon.getImage());
+
+        icon.imageLoaded(new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB));
+        assertSame("a loaded image is kept", image, icon.getImage());
+    }
+
+    public void testReloadDoesNotCountAsRequest() {
+        ReloadableSizedIconSource iconSource = new ReloadableSizedIconSource(IconSize.SMALL, imageSource);
+        ImageIcon icon = (ImageIcon) iconSource.getIcon("test.image");
+        assertEquals(0, iconSource.getHitCount());
+        assertEquals(1, iconSource.getMissCount());
+
+        iconSource.reload(IconSize.LARGE);
+        assertSame(imageSource.getImage("test.image.large"), icon.getImage());
+        assertEquals(0, iconSource.getHitCount());
+        assertEquals(1, iconSource.getMissCount());
+
+        assertSame(icon, iconSource.getIcon("test.image"));
+        assertEquals(1, iconSource.getHitCount());
+    }
+
+    private static class TaskCollector implements Executor {
+        private final List tasks = new ArrayList();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+    }
+
+    private static class RepaintCountingLabel extends JLabel {
+        private int repaints;
+
+        public void repaint(long tm, int x, int y, int width, int height) {
+            repaints++;
+        }
+    }
+}
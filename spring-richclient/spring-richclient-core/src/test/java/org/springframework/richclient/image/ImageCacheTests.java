@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.image;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the budget and statistics of {@link ImageCache}.
+ */
+public class ImageCacheTests extends TestCase {
+
+    private static Image createImage() {
+        // 10 x 10 pixels are estimated at 400 bytes
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    public void testHitsAndMisses() {
+        ImageCache cache = new ImageCache();
+        Image image = createImage();
+        assertNull(cache.get("a"));
+        cache.put("a", image);
+        assertSame(image, cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(400, cache.getBytes());
+    }
+
+    public void testLeastRecentlyUsedImageLeavesBudget() {
+        ImageCache cache = new ImageCache(800);
+        Image a = createImage();
+        Image b = createImage();
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.get("a");
+        cache.put("c", createImage());
+
+        assertEquals(2, cache.size());
+        assertEquals(800, cache.getBytes());
+        assertEquals(1, cache.getEvictionCount());
+
+        // b is still softly reachable and returns to the budget
+        assertSame(b, cache.get("b"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    public void testRemoveAndClear() {
+        ImageCache cache = new ImageCache(400);
+        cache.put("a", createImage());
+        cache.put("b", createImage());
+        cache.remove("a");
+        assertNull(cache.peek("a"));
+        cache.clear();
+        assertNull(cache.peek("b"));
+        assertEquals(0, cache.getBytes());
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -17,11 +17,15 @@ package org.springframework.richclient.image;
 
 import java.awt.Image;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
 
 import junit.framework.TestCase;
 
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
 /**
@@ -68,7 +72,67 @@ public class ImageSourceTests extends TestCase {
         }
     }
 
+    public void testConcurrentRequestsLoadImageOnce() throws Exception {
+        final SlowResource resource = new SlowResource("org/springframework/richclient/image/test.gif");
+        final ImageSource source = new DefaultImageSource(false, Collections.singletonMap("slow", resource));
+        final CountDownLatch start = new CountDownLatch(1);
+        final Image[] images = new Image[2];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        images[index] = source.getImage("slow");
+                    }
+                    catch (InterruptedException e) {
+                        // the image stays null
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join(5000);
+        }
+
+        assertNotNull(images[0]);
+        assertSame("both threads must get the same image", images[0], images[1]);
+        // each request checks that the resource exists, only one of them reads the image
+        assertEquals(3, resource.getOpenCount());
+    }
+
     protected void setUp() throws Exception {
         context = new ClassPathXmlApplicationContext("org/springframework/richclient/image/application-context.xml");
     }
-}
\ No newline at end of file
+
+    /**
+     * A resource that takes its time to open.
+     */
+    private static class SlowResource extends ClassPathResource {
+        private int openCount;
+
+        SlowResource(String path) {
+            super(path);
+        }
+
+        public InputStream getInputStream() throws IOException {
+            synchronized (this) {
+                openCount++;
+            }
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getInputStream();
+        }
+
+        synchronized int getOpenCount() {
+            return openCount;
+        }
+    }
+}
@@ -53,6 +53,31 @@ public class BeanTableModelTests extends AbstractBaseTableModelTests {
 		beanTableModel.setRowNumbers(false);
 	}
 
+	public void testGetValueAtInternal() {
+		BeanTableModel beanTableModel = new BeanTableModel(TestBean.class, new StaticMessageSource()) {
+
+			protected String[] createColumnPropertyNames() {
+				return new String[] { "simpleProperty", "nestedProperty.simpleProperty", "arrayProperty[0]" };
+			}
+
+			protected Class[] createColumnClasses() {
+				return new Class[] { String.class, String.class, Object.class };
+			}
+		};
+		TestBean row = new TestBean();
+		row.setSimpleProperty("value");
+		row.setArrayProperty(new Object[] { "element" });
+
+		assertEquals("value", beanTableModel.getValueAtInternal(row, 0));
+		assertNull("nested path must be null-safe", beanTableModel.getValueAtInternal(row, 1));
+		assertEquals("element", beanTableModel.getValueAtInternal(row, 2));
+
+		TestBean nested = new TestBean();
+		nested.setSimpleProperty("nested");
+		row.setNestedProperty(nested);
+		assertEquals("nested", beanTableModel.getValueAtInternal(row, 1));
+	}
+
 	protected BaseTableModel getBaseTableModel() {
 		return new BeanTableModel(TestBean.class, new StaticMessageSource()) {
 
@@ -83,4 +83,44 @@ public class ShuttleSortableTableModelTests extends TestCase {
         assertEquals("Peter", shuttleSortableTableModel.getValueAt(1, 0));
         assertEquals("Jan", shuttleSortableTableModel.getValueAt(2, 0));
     }
+
+    public void testInsertAndDeleteKeepRowsSorted() {
+        DefaultTableModel tableModel = new DefaultTableModel(new Object[][] { { "d" }, { "b" }, { "f" } },
+                new Object[] { "name" });
+        ShuttleSortableTableModel shuttleSortableTableModel = new ShuttleSortableTableModel(tableModel);
+        shuttleSortableTableModel.sortByColumns(new ColumnToSort[] { new ColumnToSort(0, 0) });
+        assertSorted(shuttleSortableTableModel, new String[] { "b", "d", "f" });
+
+        tableModel.insertRow(1, new Object[] { "c" });
+        tableModel.addRow(new Object[] { "a" });
+        assertSorted(shuttleSortableTableModel, new String[] { "a", "b", "c", "d", "f" });
+
+        tableModel.removeRow(0);
+        assertSorted(shuttleSortableTableModel, new String[] { "a", "b", "c", "f" });
+    }
+
+    public void testSortByColumnsKeepsSelection() {
+        DefaultTableModel tableModel = new DefaultTableModel(new Object[][] { { "c" }, { "a" }, { "b" } },
+                new Object[] { "name" });
+        ShuttleSortableTableModel shuttleSortableTableModel = new ShuttleSortableTableModel(tableModel);
+
+        int[] selectedRows = shuttleSortableTableModel.sortByColumns(
+                new ColumnToSort[] { new ColumnToSort(0, 0) }, new int[] { 0, 2 });
+        assertEquals(2, selectedRows[0]);
+        assertEquals(1, selectedRows[1]);
+
+        selectedRows = shuttleSortableTableModel.sortByColumns(new ColumnToSort[] { new ColumnToSort(0, 0,
+                SortOrder.DESCENDING) }, selectedRows);
+        assertEquals(0, selectedRows[0]);
+        assertEquals(1, selectedRows[1]);
+    }
+
+    private void assertSorted(ShuttleSortableTableModel model, String[] expected) {
+        assertEquals(expected.length, model.getRowCount());
+        for (int row = 0; row < expected.length; row++) {
+            assertEquals(expected[row], model.getValueAt(row, 0));
+            int modelRow = model.convertSortedIndexToDataIndex(row);
+            assertEquals(row, model.convertModelToRowIndex(modelRow));
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.table;
+
+import java.util.Arrays;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+/**
+ * Testcase for TableDataProvider
+ */
+public class TableDataProviderTests extends TestCase {
+
+    public void testTakeDataInBatches() {
+        TableDataProvider provider = new TableDataProvider();
+        provider.put("a");
+        provider.put("b");
+        provider.put("c");
+        assertEquals(3, provider.getPendingCount());
+        assertTrue(provider.getPendingSince() > 0);
+
+        assertEquals(Arrays.asList(new Object[] { "a", "b" }), provider.takeData(2));
+        assertEquals(Arrays.asList(new Object[] { "c" }), provider.takeData());
+        assertEquals(0, provider.getPendingCount());
+        assertEquals(0, provider.getPendingSince());
+    }
+
+    public void testPendingSinceAfterPartialTake() throws Exception {
+        TableDataProvider provider = new TableDataProvider();
+        provider.put("a");
+        Thread.sleep(20);
+        long beforeB = System.currentTimeMillis();
+        provider.put("b");
+        long afterB = System.currentTimeMillis();
+        Thread.sleep(20);
+        provider.put("c");
+
+        provider.takeData(1);
+        long pendingSince = provider.getPendingSince();
+        assertTrue("the oldest remaining row was put at " + pendingSince, pendingSince >= beforeB
+                && pendingSince <= afterB);
+
+        Thread.sleep(20);
+        provider.takeData(0);
+        assertEquals("taking rows doesn't reset the waiting time", pendingSince, provider.getPendingSince());
+    }
+
+    public void testRowsWithSameKeyAreCoalesced() {
+        TableDataProvider provider = new TableDataProvider() {
+            protected Object getRowKey(Object datum) {
+                return ((String) datum).substring(0, 1);
+            }
+        };
+        provider.put("a1");
+        provider.put("b1");
+        provider.put("a2");
+        assertEquals(1, provider.getCoalescedCount());
+        assertEquals(Arrays.asList(new Object[] { "a2", "b1" }), provider.takeData());
+
+        provider.put("a3");
+        assertEquals(Arrays.asList(new Object[] { "a3" }), provider.takeData());
+    }
+
+    public void testDropOldestWhenFull() {
+        TableDataProvider provider = new TableDataProvider(2, true);
+        provider.put("a");
+        provider.put("b");
+        provider.put("c");
+        assertEquals(1, provider.getDroppedCount());
+        assertEquals(Arrays.asList(new Object[] { "b", "c" }), provider.takeData());
+    }
+
+    public void testPutBlocksWhenFull() throws Exception {
+        final TableDataProvider provider = new TableDataProvider(1, false);
+        provider.put("a");
+        Thread producer = new Thread() {
+            public void run() {
+                provider.put("b");
+            }
+        };
+        producer.start();
+        producer.join(100);
+        assertTrue("producer must wait for room in the queue", producer.isAlive());
+
+        assertEquals(Arrays.asList(new Object[] { "a" }), provider.takeData());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertEquals(Arrays.asList(new Object[] { "b" }), provider.takeData());
+    }
+
+    public void testPutDoesNotBlockEventDispatchThread() throws Exception {
+        final TableDataProvider provider = new TableDataProvider(1, false);
+        provider.put("a");
+        final Throwable[] thrown = new Throwable[1];
+        Thread producer = new Thread() {
+            public void run() {
+                try {
+                    SwingUtilities.invokeAndWait(new Runnable() {
+                        public void run() {
+                            try {
+                                provider.put("b");
+                            }
+                            catch (IllegalStateException e) {
+                                thrown[0] = e;
+                            }
+                        }
+                    });
+                }
+                catch (Exception e) {
+                    thrown[0] = e;
+                }
+            }
+        };
+        producer.start();
+        producer.join(5000);
+        try {
+            assertFalse("the event dispatching thread must not wait for room", producer.isAlive());
+            assertTrue(thrown[0] instanceof IllegalStateException);
+            assertEquals(1, provider.getPendingCount());
+        }
+        finally {
+            // release the event dispatching thread if it does wait
+            provider.takeData();
+        }
+    }
+}
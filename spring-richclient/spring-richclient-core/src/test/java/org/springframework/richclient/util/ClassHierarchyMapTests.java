@@ -0,0 +1,53 @@
+package org.springframework.richclient.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for {@link ClassHierarchyMap}
+ */
+public class ClassHierarchyMapTests extends TestCase {
+
+	public void testGetFindsClosestSuperType() {
+		ClassHierarchyMap map = new ClassHierarchyMap();
+		map.put(Object.class, "object");
+		map.put(Collection.class, "collection");
+		map.put(AbstractList.class, "abstractList");
+
+		assertEquals("abstractList", map.get(AbstractList.class));
+		assertEquals("collection", map.get(ArrayList.class));
+		assertEquals("object", map.get(String.class));
+		assertNull(map.get(null));
+	}
+
+	public void testLookupDoesNotHideLaterRegistration() {
+		ClassHierarchyMap map = new ClassHierarchyMap();
+		map.put(Collection.class, "collection");
+		assertEquals("collection", map.get(ArrayList.class));
+
+		map.put(List.class, "list");
+		assertEquals("list", map.get(ArrayList.class));
+		assertFalse(map.getRegistrations().containsKey(ArrayList.class));
+	}
+
+	public void testMissIsInvalidatedByRegistration() {
+		ClassHierarchyMap map = new ClassHierarchyMap();
+		assertNull(map.get(String.class));
+		assertNull(map.get(String.class));
+
+		map.put(Serializable.class, "serializable");
+		assertEquals("serializable", map.get(String.class));
+
+		assertEquals("serializable", map.remove(Serializable.class));
+		assertNull(map.get(String.class));
+
+		map.put(String.class, "string");
+		map.clear();
+		assertNull(map.get(String.class));
+	}
+}
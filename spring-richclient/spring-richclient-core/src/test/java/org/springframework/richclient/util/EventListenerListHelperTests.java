@@ -344,6 +344,63 @@ public class EventListenerListHelperTests extends TestCase {
 
 	}
 
+	/**
+	 * Test method for
+	 * {@link EventListenerListHelper#dispatch(EventListenerListHelper.EventDispatcher, Object)}.
+	 * Confirms that listeners added during the dispatch don't receive the
+	 * event and that exceptions are wrapped.
+	 */
+	public void testDispatch() {
+
+		final EventListenerListHelper listHelper = new EventListenerListHelper(DummyEventListener.class);
+		final String arg1 = "arg1";
+
+		final DummyEventListener listener2 = (DummyEventListener) EasyMock.createMock(DummyEventListener.class);
+		listener2.onEvent2(null);
+		EasyMock.replay(listener2);
+
+		// adds listener2 when it receives the first event
+		DummyEventListener listener1 = new DummyEventListener() {
+			public void onEvent1() {
+			}
+
+			public void onEvent2(Object arg) {
+				listHelper.add(listener2);
+			}
+
+			public void onEvent3(Object arg1, Object arg2) {
+			}
+
+			public void onEvent4(Object[] args) {
+			}
+		};
+
+		EventListenerListHelper.EventDispatcher onEvent2 = new EventListenerListHelper.EventDispatcher() {
+			public void dispatch(Object listener, Object event) {
+				((DummyEventListener) listener).onEvent2(event);
+			}
+		};
+
+		listHelper.add(listener1);
+		listHelper.dispatch(onEvent2, arg1);
+		listHelper.dispatch(onEvent2, null);
+
+		EasyMock.verify(listener2);
+
+		try {
+			listHelper.dispatch(new EventListenerListHelper.EventDispatcher() {
+				public void dispatch(Object listener, Object event) {
+					throw new IllegalStateException();
+				}
+			}, arg1);
+			Assert.fail("Should have thrown an EventBroadcastException");
+		}
+		catch (EventListenerListHelper.EventBroadcastException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+	}
+
 	/**
 	 * Test method for {@link EventListenerListHelper#add(java.lang.Object)}.
 	 */
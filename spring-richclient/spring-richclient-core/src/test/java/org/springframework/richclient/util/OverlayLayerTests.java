@@ -0,0 +1,221 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.util;
+
+import java.awt.Dimension;
+import java.lang.ref.WeakReference;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JLayeredPane;
+import javax.swing.JPanel;
+import javax.swing.JRootPane;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link OverlayLayer}.
+ */
+public class OverlayLayerTests extends TestCase {
+
+    private JRootPane rootPane;
+
+    protected void setUp() throws Exception {
+        runOnEdt(new Runnable() {
+            public void run() {
+                rootPane = new JRootPane();
+                rootPane.getContentPane().setLayout(null);
+                rootPane.setSize(400, 300);
+                rootPane.doLayout();
+            }
+        });
+    }
+
+    public void testOneLayerForAllOverlays() throws Exception {
+        final int[] layerCount = new int[1];
+        runOnEdt(new Runnable() {
+            public void run() {
+                layerCount[0] = rootPane.getLayeredPane().getComponentCountInLayer(
+                        JLayeredPane.PALETTE_LAYER.intValue());
+                for (int i = 0; i < 10; i++) {
+                    JComponent target = createTarget(10, 10 + i * 30);
+                    rootPane.getContentPane().add(target);
+                    OverlayLayer.attachOverlay(createOverlay(), target, SwingConstants.NORTH_WEST, 0, 0);
+                }
+            }
+        });
+        waitForUpdate();
+
+        runOnEdt(new Runnable() {
+            public void run() {
+                OverlayLayer layer = OverlayLayer.getOverlayLayer(rootPane);
+                assertEquals(10, layer.getOverlayCount());
+                assertEquals(layerCount[0] + 1, rootPane.getLayeredPane().getComponentCountInLayer(
+                        JLayeredPane.PALETTE_LAYER.intValue()));
+            }
+        });
+    }
+
+    public void testOverlayIsPositionedAndFound() throws Exception {
+        final JComponent[] components = new JComponent[2];
+        runOnEdt(new Runnable() {
+            public void run() {
+                components[0] = createTarget(100, 50);
+                rootPane.getContentPane().add(components[0]);
+                components[1] = createOverlay();
+                OverlayLayer.attachOverlay(components[1], components[0], SwingConstants.NORTH_WEST, 4, 4);
+            }
+        });
+        waitForUpdate();
+
+        final int[] location = new int[2];
+        runOnEdt(new Runnable() {
+            public void run() {
+                OverlayLayer layer = OverlayLayer.getOverlayLayer(rootPane);
+                int x = components[0].getX() + rootPane.getContentPane().getX();
+                int y = components[0].getY() + rootPane.getContentPane().getY();
+                assertSame(components[1], layer.getOverlayAt(x, y));
+                assertSame(components[1], layer.getOverlayAt(x + 7, y + 7));
+                assertNull(layer.getOverlayAt(x + 20, y + 20));
+                assertTrue(layer.contains(x, y));
+                assertFalse(layer.contains(x + 20, y + 20));
+
+                components[1].setVisible(false);
+                location[0] = x;
+                location[1] = y;
+            }
+        });
+        waitForUpdate();
+
+        runOnEdt(new Runnable() {
+            public void run() {
+                assertNull(OverlayLayer.getOverlayLayer(rootPane).getOverlayAt(location[0], location[1]));
+            }
+        });
+    }
+
+    public void testOverlayFollowsMovedTarget() throws Exception {
+        // the layer only listens to moves while it is displayable
+        final JPanel[] window = new JPanel[1];
+        final JComponent[] components = new JComponent[2];
+        final int[] location = new int[2];
+        runOnEdt(new Runnable() {
+            public void run() {
+                window[0] = new JPanel(null);
+                window[0].setSize(rootPane.getSize());
+                window[0].add(rootPane);
+                window[0].addNotify();
+                components[0] = createTarget(100, 50);
+                rootPane.getContentPane().add(components[0]);
+                components[1] = createOverlay();
+                OverlayLayer.attachOverlay(components[1], components[0], SwingConstants.NORTH_WEST, 4, 4);
+                location[0] = rootPane.getContentPane().getX();
+                location[1] = rootPane.getContentPane().getY();
+            }
+        });
+        try {
+            waitForUpdate();
+            runOnEdt(new Runnable() {
+                public void run() {
+                    OverlayLayer layer = OverlayLayer.getOverlayLayer(rootPane);
+                    assertSame(components[1], layer.getOverlayAt(location[0] + 100, location[1] + 50));
+                    components[0].setLocation(200, 150);
+                }
+            });
+            // the component event is dispatched, then the scheduled update runs
+            waitForUpdate();
+            waitForUpdate();
+            runOnEdt(new Runnable() {
+                public void run() {
+                    OverlayLayer layer = OverlayLayer.getOverlayLayer(rootPane);
+                    assertNull(layer.getOverlayAt(location[0] + 100, location[1] + 50));
+                    assertSame(components[1], layer.getOverlayAt(location[0] + 200, location[1] + 150));
+                }
+            });
+        }
+        finally {
+            runOnEdt(new Runnable() {
+                public void run() {
+                    window[0].removeNotify();
+                }
+            });
+        }
+    }
+
+    public void testRemovedTargetIsForgotten() throws Exception {
+        final JComponent[] target = new JComponent[1];
+        runOnEdt(new Runnable() {
+            public void run() {
+                target[0] = createTarget(100, 50);
+                rootPane.getContentPane().add(target[0]);
+                OverlayLayer.attachOverlay(createOverlay(), target[0], SwingConstants.NORTH_WEST, 0, 0);
+            }
+        });
+        waitForUpdate();
+        runOnEdt(new Runnable() {
+            public void run() {
+                assertEquals(1, OverlayLayer.getOverlayLayer(rootPane).getOverlayCount());
+                rootPane.getContentPane().remove(target[0]);
+            }
+        });
+        waitForUpdate();
+        runOnEdt(new Runnable() {
+            public void run() {
+                OverlayLayer layer = OverlayLayer.getOverlayLayer(rootPane);
+                assertEquals(0, layer.getOverlayCount());
+                assertEquals(0, layer.getComponentCount());
+            }
+        });
+
+        WeakReference targetRef = new WeakReference(target[0]);
+        target[0] = null;
+        for (int i = 0; i < 50 && targetRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("The layer still holds on to the removed target", targetRef.get());
+    }
+
+    private JComponent createTarget(int x, int y) {
+        JPanel target = new JPanel() {
+            public boolean isShowing() {
+                return true;
+            }
+        };
+        target.setBounds(x, y, 100, 20);
+        return target;
+    }
+
+    private JComponent createOverlay() {
+        JLabel overlay = new JLabel();
+        overlay.setPreferredSize(new Dimension(8, 8));
+        return overlay;
+    }
+
+    private void waitForUpdate() throws Exception {
+        runOnEdt(new Runnable() {
+            public void run() {
+                // the updates that were scheduled have run
+            }
+        });
+    }
+
+    private void runOnEdt(Runnable runnable) throws Exception {
+        SwingUtilities.invokeAndWait(runnable);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.widget.table;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link AccessorFactory}.
+ */
+public class AccessorFactoryTests extends TestCase
+{
+    public void testAccessorsAreShared()
+    {
+        assertSame(AccessorFactory.getAccessor(Holder.class, "value"), AccessorFactory.getAccessor(Holder.class,
+                "value"));
+        assertSame(AccessorFactory.getWriter(Holder.class, "value"), AccessorFactory.getWriter(Holder.class,
+                "value"));
+        assertNull(AccessorFactory.findAccessor(Holder.class, "missing"));
+    }
+
+    public void testNestedAccessorUsesRuntimeTypeOfEachValue() throws Exception
+    {
+        Accessor accessor = AccessorFactory.getAccessor(Holder.class, "value.name");
+
+        assertEquals("first", accessor.getValue(new Holder(new First())));
+        assertEquals("second", accessor.getValue(new Holder(new Second())));
+        assertNull(accessor.getValue(new Holder(null)));
+    }
+
+    public void testClassesOfOtherClassLoadersAreNotPinned() throws Exception
+    {
+        URL location = Named.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader classLoader = new URLClassLoader(new URL[] {location}, null);
+        Class<?> namedClass = classLoader.loadClass(Named.class.getName());
+        assertNotSame(Named.class, namedClass);
+        assertNotNull(AccessorFactory.getAccessor(namedClass, "name"));
+
+        WeakReference<Class<?>> classRef = new WeakReference<Class<?>>(namedClass);
+        classLoader = null;
+        namedClass = null;
+        for (int i = 0; i < 50 && classRef.get() != null; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("The cache still holds on to the class", classRef.get());
+    }
+
+    public static class Holder
+    {
+        private Object value;
+
+        public Holder()
+        {
+        }
+
+        public Holder(Object value)
+        {
+            this.value = value;
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public void setValue(Object value)
+        {
+            this.value = value;
+        }
+    }
+
+    public static class First
+    {
+        public String getName()
+        {
+            return "first";
+        }
+    }
+
+    public static class Second
+    {
+        public String getName()
+        {
+            return "second";
+        }
+    }
+
+    public static class Named
+    {
+        public String getName()
+        {
+            return "named";
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.widget.table.glazedlists;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ca.odell.glazedlists.BasicEventList;
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.TextFilterator;
+
+/**
+ * Tests for {@link TextFilterIndex}.
+ */
+public class TextFilterIndexTests extends TestCase
+{
+    private EventList<Object> source;
+
+    private CountingFilterator filterator;
+
+    private TextFilterIndex index;
+
+    protected void setUp() throws Exception
+    {
+        source = new BasicEventList<Object>();
+        source.add(new Person("\u00C9mile", "Z\u00FCrich"));
+        source.add(new Person("Fran\u00E7oise", "Paris"));
+        source.add(new Person("Erik", "Oslo"));
+        filterator = new CountingFilterator();
+        index = new TextFilterIndex(source, filterator);
+    }
+
+    protected void tearDown() throws Exception
+    {
+        index.dispose();
+    }
+
+    public void testNormalize()
+    {
+        assertEquals("emile zurich", TextFilterIndex.normalize("\u00C9mile Z\u00FCrich"));
+        assertEquals("francoise", TextFilterIndex.normalize("FRAN\u00C7OISE"));
+        assertEquals("ny", TextFilterIndex.normalize("\u0147\u00FF"));
+        assertEquals("characters without a base character are kept", "\u00E6\u00DF",
+                TextFilterIndex.normalize("\u00C6\u00DF"));
+    }
+
+    public void testDiacriticsAndCaseAreIgnored()
+    {
+        index.setFilterText("emile");
+        assertNames(new String[] {"\u00C9mile"});
+
+        index.setFilterText("FRAN\u00C7");
+        assertNames(new String[] {"Fran\u00E7oise"});
+
+        index.setFilterText("zur");
+        assertNames(new String[] {"\u00C9mile"});
+    }
+
+    public void testEveryWordMustMatch()
+    {
+        index.setFilterText("e  o");
+        assertNames(new String[] {"Fran\u00E7oise", "Erik"});
+
+        index.setFilterText("erik paris");
+        assertNames(new String[0]);
+
+        index.setFilterText("  ");
+        assertNames(new String[] {"\u00C9mile", "Fran\u00E7oise", "Erik"});
+    }
+
+    public void testWordsDontMatchAcrossProperties()
+    {
+        // "kos" would only be found in "Erik" followed by "Oslo"
+        index.setFilterText("kos");
+        assertNames(new String[0]);
+    }
+
+    public void testFilterPropertiesAreReadOnce()
+    {
+        assertEquals(3, filterator.count);
+
+        index.setFilterText("e");
+        index.setFilterText("er");
+        index.setFilterText("");
+        index.setFilterText("paris");
+        assertEquals("changing the filter text must use the search keys", 3, filterator.count);
+
+        source.add(new Person("Ana", "Lisboa"));
+        assertEquals(4, filterator.count);
+    }
+
+    public void testUpdatedRowIsIndexedAgain()
+    {
+        index.setFilterText("oslo");
+        assertNames(new String[] {"Erik"});
+
+        Person erik = (Person) source.get(2);
+        erik.city = "Bergen";
+        assertNames("without an update event the old search key is kept", new String[] {"Erik"});
+
+        source.set(2, erik);
+        assertNames(new String[0]);
+        index.setFilterText("bergen");
+        assertNames(new String[] {"Erik"});
+    }
+
+    private void assertNames(String[] names)
+    {
+        assertNames(null, names);
+    }
+
+    private void assertNames(String message, String[] names)
+    {
+        List<Object> filtered = index.getFilteredList();
+        String[] actual = new String[filtered.size()];
+        for (int i = 0; i < actual.length; i++)
+        {
+            actual[i] = ((Person) filtered.get(i)).name;
+        }
+        assertEquals(message, Arrays.asList(names), Arrays.asList(actual));
+    }
+
+    private static class Person
+    {
+        private String name;
+
+        private String city;
+
+        Person(String name, String city)
+        {
+            this.name = name;
+            this.city = city;
+        }
+    }
+
+    private static class CountingFilterator implements TextFilterator<Object>
+    {
+        private int count;
+
+        public void getFilterStrings(List<String> baseList, Object element)
+        {
+            count++;
+            Person person = (Person) element;
+            baseList.add(person.name);
+            baseList.add(person.city);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.widget.table.glazedlists;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import org.springframework.richclient.test.SpringRichTestCase;
+import org.springframework.richclient.test.TestBean;
+import org.springframework.richclient.widget.editor.provider.AbstractDataProvider;
+import org.springframework.richclient.widget.editor.provider.VirtualDataProvider;
+import org.springframework.richclient.widget.editor.provider.VirtualListQuery;
+import org.springframework.richclient.widget.table.PropertyColumnTableDescription;
+
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+/**
+ * Tests for {@link VirtualEventList}.
+ */
+public class VirtualEventListTests extends SpringRichTestCase
+{
+    private static final long TIMEOUT = 5000;
+
+    private TestDataProvider dataProvider;
+
+    protected void doSetUp() throws Exception
+    {
+        dataProvider = new TestDataProvider(250);
+    }
+
+    public void testPagesAreLoadedWhenRequested() throws Exception
+    {
+        final VirtualEventList list = new VirtualEventList(dataProvider, 10, 5, 1);
+        final List<Integer> updates = new ArrayList<Integer>();
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                list.addListEventListener(new ListEventListener<Object>()
+                {
+                    public void listChanged(ListEvent<Object> event)
+                    {
+                        while (event.next())
+                        {
+                            if (event.getType() == ListEvent.UPDATE)
+                            {
+                                updates.add(event.getIndex());
+                            }
+                        }
+                    }
+                });
+                list.setQuery(new VirtualListQuery(null));
+            }
+        });
+        waitFor(new Condition()
+        {
+            public boolean isMet()
+            {
+                return list.size() == 250;
+            }
+        });
+
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                assertNull("row isn't loaded yet", list.get(55));
+            }
+        });
+        waitFor(new Condition()
+        {
+            public boolean isMet()
+            {
+                return list.isLoaded(40) && list.isLoaded(55) && list.isLoaded(60);
+            }
+        });
+
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                assertEquals("row 55", list.get(55));
+                assertFalse("only the page and its neighbours are loaded", list.isLoaded(30));
+                assertFalse(list.isLoaded(70));
+            }
+        });
+        assertEquals(30, updates.size());
+        assertEquals(3, dataProvider.getRowRequests());
+    }
+
+    public void testLeastRecentlyUsedPagesAreEvicted() throws Exception
+    {
+        final VirtualEventList list = new VirtualEventList(dataProvider, 10, 3, 0);
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                list.setQuery(new VirtualListQuery(null));
+            }
+        });
+        waitFor(new Condition()
+        {
+            public boolean isMet()
+            {
+                return list.size() == 250;
+            }
+        });
+
+        for (int i = 0; i < 4; i++)
+        {
+            final int index = i * 10;
+            runOnEdt(new Runnable()
+            {
+                public void run()
+                {
+                    list.get(index);
+                }
+            });
+            waitFor(new Condition()
+            {
+                public boolean isMet()
+                {
+                    return list.isLoaded(index);
+                }
+            });
+        }
+
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                assertFalse("eldest page not evicted", list.isLoaded(0));
+                assertTrue(list.isLoaded(10));
+                assertTrue(list.isLoaded(20));
+                assertTrue(list.isLoaded(30));
+            }
+        });
+    }
+
+    public void testRowCountChangeIsFiredInBlocks() throws Exception
+    {
+        final VirtualEventList list = new VirtualEventList(dataProvider, 10, 5, 1);
+        final List<Integer> blocks = new ArrayList<Integer>();
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                list.setQuery(new VirtualListQuery(null));
+            }
+        });
+        waitFor(new Condition()
+        {
+            public boolean isMet()
+            {
+                return list.size() == 250;
+            }
+        });
+
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                list.addListEventListener(new ListEventListener<Object>()
+                {
+                    public void listChanged(ListEvent<Object> event)
+                    {
+                        int count = 0;
+                        while (event.nextBlock())
+                        {
+                            count++;
+                        }
+                        blocks.add(count);
+                    }
+                });
+                list.clear();
+            }
+        });
+        assertEquals(0, list.size());
+        assertEquals(1, blocks.size());
+        assertEquals("all rows are deleted in one block", 1, blocks.get(0).intValue());
+    }
+
+    public void testFailingRowCountIsLogged() throws Exception
+    {
+        final VirtualEventList list = new VirtualEventList(dataProvider, 10, 5, 1);
+        final Throwable[] uncaught = new Throwable[1];
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler()
+        {
+            public void uncaughtException(Thread t, Throwable e)
+            {
+                uncaught[0] = e;
+            }
+        });
+        try
+        {
+            dataProvider.setFailing(true);
+            runOnEdt(new Runnable()
+            {
+                public void run()
+                {
+                    list.setQuery(new VirtualListQuery(null));
+                }
+            });
+            waitFor(new Condition()
+            {
+                public boolean isMet()
+                {
+                    return dataProvider.getCountRequests() == 1;
+                }
+            });
+            // let the worker report its result on the event dispatching thread
+            Thread.sleep(100);
+            runOnEdt(new Runnable()
+            {
+                public void run()
+                {
+                }
+            });
+            assertNull("the failure must not be thrown on the event dispatching thread", uncaught[0]);
+            assertEquals(0, list.size());
+
+            dataProvider.setFailing(false);
+            runOnEdt(new Runnable()
+            {
+                public void run()
+                {
+                    list.refresh();
+                }
+            });
+            waitFor(new Condition()
+            {
+                public boolean isMet()
+                {
+                    return list.size() == 250;
+                }
+            });
+        }
+        finally
+        {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    public void testSetRowsInVirtualMode() throws Exception
+    {
+        runOnEdt(new Runnable()
+        {
+            public void run()
+            {
+                PropertyColumnTableDescription tableDesc = new PropertyColumnTableDescription(TestBean.class);
+                tableDesc.addPropertyColumn("simpleProperty", 100);
+                GlazedListTableWidget widget = new GlazedListTableWidget(tableDesc, dataProvider);
+
+                try
+                {
+                    widget.setRows(Collections.singletonList(new TestBean()));
+                    fail("rows can't be set in virtual mode");
+                }
+                catch (UnsupportedOperationException e)
+                {
+                    // expected
+                }
+                // clearing the table is allowed
+                widget.setRows(Collections.EMPTY_LIST);
+            }
+        });
+    }
+
+    private interface Condition
+    {
+        boolean isMet();
+    }
+
+    private void waitFor(final Condition condition) throws Exception
+    {
+        final boolean[] met = new boolean[1];
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (!met[0] && System.currentTimeMillis() < end)
+        {
+            Thread.sleep(10);
+            runOnEdt(new Runnable()
+            {
+                public void run()
+                {
+                    met[0] = condition.isMet();
+                }
+            });
+        }
+        assertTrue("condition not met in time", met[0]);
+    }
+
+    private void runOnEdt(Runnable runnable) throws Exception
+    {
+        SwingUtilities.invokeAndWait(runnable);
+    }
+
+    private static class TestDataProvider extends AbstractDataProvider implements VirtualDataProvider
+    {
+        private final int rowCount;
+
+        private int rowRequests;
+
+        private int countRequests;
+
+        private boolean failing;
+
+        TestDataProvider(int rowCount)
+        {
+            this.rowCount = rowCount;
+        }
+
+        public synchronized void setFailing(boolean failing)
+        {
+            this.failing = failing;
+        }
+
+        public synchronized int getCountRequests()
+        {
+            return countRequests;
+        }
+
+        public synchronized int getRowRequests()
+        {
+            return rowRequests;
+        }
+
+        public synchronized int getRowCount(VirtualListQuery query)
+        {
+            countRequests++;
+            if (failing)
+            {
+                throw new IllegalStateException("count failed");
+            }
+            return rowCount;
+        }
+
+        public List getRows(VirtualListQuery query, int firstRow, int maxRows)
+        {
+            synchronized (this)
+            {
+                rowRequests++;
+            }
+            List rows = new ArrayList();
+            for (int i = firstRow; i < Math.min(rowCount, firstRow + maxRows); i++)
+            {
+                rows.add("row " + i);
+            }
+            return rows;
+        }
+
+        public List getList(Object criteria)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean supportsFiltering()
+        {
+            return false;
+        }
+
+        public boolean supportsUpdate()
+        {
+            return false;
+        }
+
+        public boolean supportsCreate()
+        {
+            return false;
+        }
+
+        public boolean supportsClone()
+        {
+            return false;
+        }
+
+        public boolean supportsDelete()
+        {
+            return false;
+        }
+    }
+}
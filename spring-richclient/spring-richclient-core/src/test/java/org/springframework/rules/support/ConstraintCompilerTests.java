@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.rules.support;
+
+import org.springframework.rules.Person;
+import org.springframework.rules.closure.Closure;
+import org.springframework.rules.closure.support.AbstractClosure;
+import org.springframework.rules.constraint.Constraint;
+import org.springframework.rules.constraint.property.CompoundPropertyConstraint;
+import org.springframework.rules.constraint.property.PropertyConstraint;
+import org.springframework.rules.factory.Constraints;
+import org.springframework.rules.reporting.BeanValidationResultsCollector;
+import org.springframework.richclient.test.SpringRichTestCase;
+
+/**
+ * Testcase for ConstraintCompiler
+ */
+public class ConstraintCompilerTests extends SpringRichTestCase {
+
+	private static final Constraints constraints = Constraints.instance();
+
+	private final ConstraintCompiler compiler = new ConstraintCompiler();
+
+	public void testCompiledConstraintIsCached() {
+		PropertyConstraint rule = constraints.required("firstName");
+		assertSame(compiler.compile(rule), compiler.compile(rule));
+	}
+
+	public void testValueConstraints() {
+		PropertyConstraint rule = constraints.all("firstName", new Constraint[] { constraints.required(),
+				constraints.minLength(2) });
+		assertSameOutcome(rule, person(null, null));
+		assertSameOutcome(rule, person("J", null));
+		assertSameOutcome(rule, person("John", null));
+		assertFalse(compiler.compile(rule).test(person("J", null)));
+		assertTrue(compiler.compile(rule).test(person("John", null)));
+	}
+
+	public void testCompoundPropertyConstraint() {
+		PropertyConstraint rule = new CompoundPropertyConstraint(constraints.or(constraints.all("firstName",
+				new Constraint[] { constraints.required(), constraints.minLength(2) }), constraints.not(constraints
+				.eqProperty("firstName", "lastName"))));
+		assertSameOutcome(rule, person(null, null));
+		assertSameOutcome(rule, person("J", "J"));
+		assertSameOutcome(rule, person("J", "Doe"));
+		assertSameOutcome(rule, person("John", "John"));
+	}
+
+	public void testNegatedValueConstraints() {
+		PropertyConstraint rule = constraints.value("firstName", constraints.not(constraints.eq("John")));
+		assertSameOutcome(rule, person("John", null));
+		assertSameOutcome(rule, person("Jane", null));
+		assertTrue(compiler.compile(rule).test(person("Jane", null)));
+
+		rule = constraints.value("firstName", constraints.or(constraints.not(constraints.required()), constraints
+				.maxLength(3)));
+		assertSameOutcome(rule, person(null, null));
+		assertSameOutcome(rule, person("Jo", null));
+		assertSameOutcome(rule, person("John", null));
+	}
+
+	public void testClosureResult() {
+		Closure length = new AbstractClosure() {
+			public Object call(Object argument) {
+				return new Integer(argument == null ? 0 : ((String) argument).length());
+			}
+		};
+		PropertyConstraint rule = constraints.value("firstName", constraints.testResultOf(length, constraints
+				.gt(3)));
+		assertFalse(compiler.compile(rule).test(person("Jo", null)));
+		assertTrue(compiler.compile(rule).test(person("John", null)));
+		assertNull(new BeanValidationResultsCollector(person("John", null)).collectPropertyResults(rule));
+		assertNotNull(new BeanValidationResultsCollector(person("Jo", null)).collectPropertyResults(rule));
+	}
+
+	/**
+	 * The collector evaluates the tree reflectively when it collects all
+	 * errors, the compiled constraint should come to the same conclusion.
+	 */
+	private void assertSameOutcome(PropertyConstraint rule, Person person) {
+		BeanValidationResultsCollector collector = new BeanValidationResultsCollector(person);
+		collector.setCollectAllErrors(true);
+		boolean expected = collector.collectPropertyResults(rule) == null;
+		assertEquals(rule.toString(), expected, compiler.compile(rule).test(person));
+	}
+
+	private Person person(String firstName, String lastName) {
+		Person person = new Person();
+		person.setFirstName(firstName);
+		person.setLastName(lastName);
+		return person;
+	}
+}
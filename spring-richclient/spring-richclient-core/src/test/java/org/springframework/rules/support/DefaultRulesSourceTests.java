@@ -15,9 +15,14 @@
  */
 package org.springframework.rules.support;
 
+import java.util.List;
+
 import junit.framework.TestCase;
 
+import org.springframework.rules.Person;
 import org.springframework.rules.Rules;
+import org.springframework.rules.constraint.property.PropertyConstraint;
+import org.springframework.rules.factory.Constraints;
 
 /**
  * @author Mathias Broekelmann
@@ -44,6 +49,36 @@ public class DefaultRulesSourceTests extends TestCase {
         assertEquals(interfaceRules, source.getRules(TestInterfaceImpl.class));
     }
 
+    public void testPropertyConstraintsDependentOn() {
+        Constraints constraints = Constraints.instance();
+        Rules rules = new Rules(Person.class);
+        rules.add(constraints.required("firstName"));
+        rules.add(constraints.not(constraints.eqProperty("lastName", "firstName")));
+        source.addRules(rules);
+        PropertyConstraint firstNameRules = rules.getPropertyConstraint("firstName");
+        PropertyConstraint lastNameRules = rules.getPropertyConstraint("lastName");
+
+        List dependent = source.getPropertyConstraintsDependentOn(Person.class, "firstName", null);
+        assertEquals(2, dependent.size());
+        assertSame(firstNameRules, dependent.get(0));
+        assertSame(lastNameRules, dependent.get(1));
+        assertSame("index should be reused", dependent, source.getPropertyConstraintsDependentOn(Person.class,
+                "firstName", null));
+
+        dependent = source.getPropertyConstraintsDependentOn(Person.class, "lastName", null);
+        assertEquals(1, dependent.size());
+        assertSame(lastNameRules, dependent.get(0));
+        assertTrue(source.getPropertyConstraintsDependentOn(Person.class, "city", null).isEmpty());
+        assertTrue(source.getPropertyConstraintsDependentOn(TestInterfaceImpl.class, "firstName", null).isEmpty());
+
+        Rules otherRules = new Rules(Person.class);
+        otherRules.add(constraints.required("city"));
+        source.addRules(otherRules);
+        assertTrue("index should be invalidated", source.getPropertyConstraintsDependentOn(Person.class,
+                "firstName", null).isEmpty());
+        assertEquals(1, source.getPropertyConstraintsDependentOn(Person.class, "city", null).size());
+    }
+
     private static interface TestInterface {
     }
 
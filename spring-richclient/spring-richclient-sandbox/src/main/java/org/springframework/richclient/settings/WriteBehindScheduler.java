@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.springframework.util.Assert;
+
+/**
+ * Runs the task that writes saved settings in a background thread, once the
+ * delay after the first save has passed. Settings saved while the task is
+ * waiting are written by the same run.
+ * <p>
+ * The owner flushes its waiting settings itself when it is closed; nothing is
+ * written when the virtual machine exits, so the owner must be closed before,
+ * e.g. by destroying the settings factory that created it.
+ */
+public class WriteBehindScheduler {
+	private final String name;
+
+	private final long delay;
+
+	private final Runnable task;
+
+	private Timer timer;
+
+	private TimerTask scheduledTask;
+
+	private boolean stopped;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param name
+	 *            the name of the background thread
+	 * @param delay
+	 *            the time to wait before running the task, in milliseconds
+	 * @param task
+	 *            writes the waiting settings
+	 */
+	public WriteBehindScheduler(String name, long delay, Runnable task) {
+		Assert.notNull(task, "Task cannot be null");
+		this.name = name;
+		this.delay = delay;
+		this.task = task;
+	}
+
+	/**
+	 * Runs the task when the delay has passed, unless it is already waiting.
+	 *
+	 * @throws IllegalStateException
+	 *             if the scheduler has been stopped
+	 */
+	public synchronized void schedule() {
+		if (stopped) {
+			throw new IllegalStateException("The scheduler has been stopped");
+		}
+		if (scheduledTask == null) {
+			if (timer == null) {
+				timer = new Timer(name, true);
+			}
+			scheduledTask = new TimerTask() {
+				public void run() {
+					task.run();
+				}
+			};
+			timer.schedule(scheduledTask, delay);
+		}
+	}
+
+	/**
+	 * Cancels the waiting task, because the settings are written now.
+	 */
+	public synchronized void cancel() {
+		if (scheduledTask != null) {
+			scheduledTask.cancel();
+			scheduledTask = null;
+		}
+	}
+
+	/**
+	 * Cancels the waiting task and stops the background thread. The task can't
+	 * be scheduled anymore.
+	 */
+	public synchronized void stop() {
+		stopped = true;
+		cancel();
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+		}
+	}
+
+	/**
+	 * Returns whether the scheduler has been stopped.
+	 *
+	 * @return <code>true</code> if stopped
+	 */
+	public synchronized boolean isStopped() {
+		return stopped;
+	}
+}
@@ -1,12 +1,12 @@
 /*
  * Copyright 2002-2006 the original author or authors.
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License. You may obtain a copy of
  * the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
@@ -16,6 +16,13 @@
 package org.springframework.richclient.settings.jdbc;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,15 +32,41 @@ import java.util.Set;
 
 import javax.sql.DataSource;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.richclient.settings.AbstractSettings;
 import org.springframework.richclient.settings.Settings;
 
 /**
- * 
+ * Settings stored in the <code>SETTINGS</code> and <code>SETTINGS_VALUES</code> tables.
+ * <p>
+ * {@link #load()} reads the values of these settings and of all their child settings with
+ * one query per level of the tree below these settings. {@link #save()} writes the changed
+ * values with one batch per kind of change. New settings get their id from the generated
+ * keys of the insert, or, if the driver doesn't support generated keys, from the
+ * {@link #setIdentityQuery(String) identity query}.
+ * <p>
+ * With a {@link JdbcSettingsWriter} the changes are written behind: <code>save()</code>
+ * only queues the settings, and the writer saves them later on a background thread.
+ *
  * @author Peter De Bruycker
  */
 public class JdbcSettings extends AbstractSettings {
+    /** The most settings ids in the IN list of a load query */
+    private static final int MAX_LOAD_IDS = 100;
+
+    private static final String LOAD_QUERY = "SELECT S.ID, S.KEY, S.PARENT, V.KEY, V.VALUE FROM SETTINGS S "
+            + "LEFT OUTER JOIN SETTINGS_VALUES V ON V.SETTINGS_ID = S.ID WHERE ";
+
+    /** The parameter orders of the batch statements */
+    private static final int ID_KEY = 0;
+    private static final int VALUE_ID_KEY = 1;
+    private static final int ID_KEY_VALUE = 2;
+
     private DataSource dataSource;
 
     private Integer id;
@@ -46,6 +79,18 @@ public class JdbcSettings extends AbstractSettings {
 
     private String[] childKeys;
 
+    /** Child settings read by load(), by key */
+    private Map loadedChildren = new HashMap();
+
+    private String identityQuery;
+
+    private JdbcSettingsWriter writer;
+
+    private boolean removed;
+
+    /** Guards the state of all settings in the tree, which the writer saves on its own thread */
+    private final Object lock;
+
     public JdbcSettings( DataSource ds, String user, Integer id, String key ) {
         this( null, ds, user, id, key );
     }
@@ -59,140 +104,418 @@ public class JdbcSettings extends AbstractSettings {
 
         // TODO assert user not empty
         this.user = user;
+
+        if( parent != null ) {
+            lock = parent.lock;
+            identityQuery = parent.identityQuery;
+            writer = parent.writer;
+        } else {
+            lock = new Object();
+        }
+    }
+
+    /**
+     * Sets the query that returns the id of the last inserted settings, like
+     * <code>CALL IDENTITY()</code> for HSQLDB. It is only used if the driver doesn't
+     * support generated keys. If it isn't set, the highest id is used. Child settings
+     * created afterwards use the same query.
+     */
+    public void setIdentityQuery( String identityQuery ) {
+        this.identityQuery = identityQuery;
+    }
+
+    public String getIdentityQuery() {
+        return identityQuery;
+    }
+
+    /**
+     * Sets the writer that saves these settings in the background. If it is
+     * <code>null</code>, the default, {@link #save()} writes the changes immediately.
+     * Child settings created afterwards use the same writer.
+     */
+    public void setWriter( JdbcSettingsWriter writer ) {
+        this.writer = writer;
+    }
+
+    public JdbcSettingsWriter getWriter() {
+        return writer;
     }
 
     protected boolean internalContains( String key ) {
-        return values.containsKey( key );
+        synchronized( lock ) {
+            return values.containsKey( key );
+        }
     }
 
     protected String[] internalGetChildSettings() {
-        if( childKeys == null ) {
-            loadChildKeys();
+        synchronized( lock ) {
+            if( childKeys == null ) {
+                loadChildKeys();
+            }
+            return childKeys;
         }
-        return childKeys;
     }
 
     protected Settings internalCreateChild( String key ) {
-        return new JdbcSettings( this, dataSource, user, null, key );
+        synchronized( lock ) {
+            JdbcSettings child = (JdbcSettings) loadedChildren.remove( key );
+            if( child != null ) {
+                return child;
+            }
+            return new JdbcSettings( this, dataSource, user, null, key );
+        }
     }
 
     protected void internalSet( String key, String value ) {
-        boolean isNew = !values.containsKey( key ) || add.contains( key );
+        synchronized( lock ) {
+            boolean isNew = !values.containsKey( key ) || add.contains( key );
 
-        values.put( key, value );
+            values.put( key, value );
 
-        if( isNew ) {
-            add.add( key );
-        } else {
-            update.add( key );
+            if( isNew ) {
+                add.add( key );
+            } else {
+                update.add( key );
+            }
+            remove.remove( key );
+            removed = false;
         }
-        remove.remove( key );
     }
 
     protected String internalGet( String key ) {
-        return (String) values.get( key );
+        synchronized( lock ) {
+            return (String) values.get( key );
+        }
     }
 
     protected void internalRemove( String key ) {
-        values.remove( key );
+        synchronized( lock ) {
+            values.remove( key );
 
-        if( !add.contains( key ) ) {
-            remove.add( key );
-        }
+            if( !add.contains( key ) ) {
+                remove.add( key );
+            }
 
-        update.remove( key );
-        add.remove( key );
+            update.remove( key );
+            add.remove( key );
+        }
     }
 
     public String[] getKeys() {
-        return (String[]) values.keySet().toArray( new String[0] );
+        synchronized( lock ) {
+            return (String[]) values.keySet().toArray( new String[0] );
+        }
     }
 
     public Integer getId() {
-        return id;
+        synchronized( lock ) {
+            return id;
+        }
     }
 
+    /**
+     * Saves these settings and their parents. With a {@link #setWriter(JdbcSettingsWriter)
+     * writer} they are queued to be saved later.
+     */
     public void save() throws IOException {
+        if( writer != null ) {
+            for( JdbcSettings settings = this; settings != null; settings = (JdbcSettings) settings.getParent() ) {
+                writer.schedule( settings );
+            }
+            return;
+        }
+
         if( getParent() != null ) {
             getParent().save();
         }
+        saveNow();
+    }
 
-        JdbcTemplate template = new JdbcTemplate( dataSource );
+    /**
+     * Writes the changes of these settings to the database now, inserting their parents
+     * first if they are new.
+     */
+    void saveNow() throws IOException {
+        synchronized( lock ) {
+            if( removed ) {
+                return;
+            }
+            boolean isNew = id == null;
+            try {
+                JdbcTemplate template = new JdbcTemplate( dataSource );
+                if( isNew ) {
+                    insert( template );
+                } else {
+                    batchUpdate( template, "DELETE FROM SETTINGS_VALUES WHERE SETTINGS_ID=? AND KEY=?", remove, ID_KEY );
+                    batchUpdate( template, "UPDATE SETTINGS_VALUES SET VALUE=? WHERE SETTINGS_ID=? AND KEY=?",
+                            update, VALUE_ID_KEY );
+                }
+
+                // a new node has no values in the database yet
+                Set toInsert = add;
+                if( isNew ) {
+                    toInsert = new HashSet( values.keySet() );
+                }
+                batchUpdate( template, "INSERT INTO SETTINGS_VALUES (SETTINGS_ID, KEY, VALUE) VALUES (?, ?, ?)",
+                        toInsert, ID_KEY_VALUE );
+            } catch( DataAccessException e ) {
+                if( isNew && id != null ) {
+                    // the node is in the database now, but its values still have to be inserted
+                    add.addAll( values.keySet() );
+                }
+                IOException ioe = new IOException( "Unable to save settings " + getName() + ": " + e.getMessage() );
+                ioe.initCause( e );
+                throw ioe;
+            }
 
-        // if this is a new node, insert it
-        if( id == null ) {
-            JdbcSettings parent = (JdbcSettings) getParent();
-            template.update( "INSERT INTO SETTINGS (KEY, PARENT, USER) VALUES (?, ?, ?)", new Object[] { getName(),
-                    parent == null ? null : parent.getId(), user } );
-            id = Integer.valueOf( template.queryForInt( "SELECT MAX(ID) FROM SETTINGS" ) );
-        } else {
-            for( Iterator iter = remove.iterator(); iter.hasNext(); ) {
-                String key = (String) iter.next();
-                template.update( "REMOVE FROM SETTINGS_VALUES WHERE SETTINGS_ID=? AND KEY=?", new Object[] { id, key } );
+            remove.clear();
+            update.clear();
+            add.clear();
+        }
+    }
+
+    private void insert( JdbcTemplate template ) {
+        JdbcSettings parent = (JdbcSettings) getParent();
+        if( parent != null && parent.id == null ) {
+            parent.insert( template );
+        }
+        final Integer parentId = parent == null ? null : parent.id;
+        id = (Integer) template.execute( new ConnectionCallback() {
+            public Object doInConnection( Connection con ) throws SQLException, DataAccessException {
+                return insert( con, parentId );
+            }
+        } );
+        // the values of the parent are inserted when the parent itself is saved
+        if( parent != null && parent.childKeys != null ) {
+            parent.addChildKey( getName() );
+        }
+    }
+
+    private Integer insert( Connection con, Integer parentId ) throws SQLException {
+        String sql = "INSERT INTO SETTINGS (KEY, PARENT, USER) VALUES (?, ?, ?)";
+        boolean generatedKeys = con.getMetaData().supportsGetGeneratedKeys();
+        PreparedStatement ps = generatedKeys ? con.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS ) : con
+                .prepareStatement( sql );
+        ResultSet rs = null;
+        Statement identityStatement = null;
+        try {
+            ps.setString( 1, getName() );
+            if( parentId == null ) {
+                ps.setNull( 2, Types.INTEGER );
+            } else {
+                ps.setInt( 2, parentId.intValue() );
             }
-            for( Iterator iter = update.iterator(); iter.hasNext(); ) {
-                String key = (String) iter.next();
-                template.update( "UPDATE SETTINGS_VALUES SET VALUE=? WHERE SETTINGS_ID=? AND KEY=?", new Object[] {
-                        values.get( key ), id, key } );
+            ps.setString( 3, user );
+            ps.executeUpdate();
+
+            if( generatedKeys ) {
+                rs = ps.getGeneratedKeys();
+            } else {
+                identityStatement = con.createStatement();
+                rs = identityStatement.executeQuery( identityQuery != null ? identityQuery
+                        : "SELECT MAX(ID) FROM SETTINGS" );
             }
+            if( !rs.next() ) {
+                throw new SQLException( "No id returned for new settings " + getName() );
+            }
+            return new Integer( rs.getInt( 1 ) );
+        } finally {
+            JdbcUtils.closeResultSet( rs );
+            JdbcUtils.closeStatement( identityStatement );
+            JdbcUtils.closeStatement( ps );
         }
+    }
 
-        for( Iterator iter = add.iterator(); iter.hasNext(); ) {
-            String key = (String) iter.next();
-            template.update( "INSERT INTO SETTINGS_VALUES (SETTINGS_ID, KEY, VALUE) VALUES (?, ?, ?)", new Object[] {
-                    id, key, values.get( key ) } );
+    private void batchUpdate( JdbcTemplate template, String sql, Set keys, final int parameters ) {
+        if( keys.isEmpty() ) {
+            return;
         }
+        final List keyList = new ArrayList( keys );
+        template.batchUpdate( sql, new BatchPreparedStatementSetter() {
+            public void setValues( PreparedStatement ps, int i ) throws SQLException {
+                String key = (String) keyList.get( i );
+                int index = 1;
+                if( parameters == VALUE_ID_KEY ) {
+                    ps.setString( index++, (String) values.get( key ) );
+                }
+                ps.setInt( index++, id.intValue() );
+                ps.setString( index++, key );
+                if( parameters == ID_KEY_VALUE ) {
+                    ps.setString( index++, (String) values.get( key ) );
+                }
+            }
 
-        remove.clear();
-        update.clear();
-        add.clear();
+            public int getBatchSize() {
+                return keyList.size();
+            }
+        } );
     }
 
+    /**
+     * Reads the values of these settings and of all their child settings. Only the rows
+     * of these settings and their descendants are read: one query for these settings,
+     * then one query per level of child settings, for at most {@value #MAX_LOAD_IDS}
+     * parents at a time.
+     */
     public void load() throws IOException {
-        if( id == null ) {
-            return;
+        synchronized( lock ) {
+            if( id == null ) {
+                return;
+            }
+
+            final Map nodes = new HashMap();
+            try {
+                JdbcTemplate template = new JdbcTemplate( dataSource );
+                List level = loadNodes( template, "S.ID = ?", new Object[] { id }, nodes );
+                while( !level.isEmpty() ) {
+                    List nextLevel = new ArrayList();
+                    for( int i = 0; i < level.size(); i += MAX_LOAD_IDS ) {
+                        List parentIds = level.subList( i, Math.min( level.size(), i + MAX_LOAD_IDS ) );
+                        StringBuffer condition = new StringBuffer( "S.PARENT IN (?" );
+                        for( int j = 1; j < parentIds.size(); j++ ) {
+                            condition.append( ", ?" );
+                        }
+                        condition.append( ")" );
+                        nextLevel.addAll( loadNodes( template, condition.toString(), parentIds.toArray(), nodes ) );
+                    }
+                    level = nextLevel;
+                }
+            } catch( DataAccessException e ) {
+                IOException ioe = new IOException( "Unable to load settings " + getName() + ": " + e.getMessage() );
+                ioe.initCause( e );
+                throw ioe;
+            }
+
+            Map childrenByParent = new HashMap();
+            for( Iterator iter = nodes.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry entry = (Map.Entry) iter.next();
+                LoadedNode node = (LoadedNode) entry.getValue();
+                if( node.parentId != null ) {
+                    List children = (List) childrenByParent.get( node.parentId );
+                    if( children == null ) {
+                        children = new ArrayList();
+                        childrenByParent.put( node.parentId, children );
+                    }
+                    children.add( entry.getKey() );
+                }
+            }
+            LoadedNode node = (LoadedNode) nodes.get( id );
+            if( node != null ) {
+                loaded( node, nodes, childrenByParent );
+            }
         }
+    }
 
-        JdbcTemplate template = new JdbcTemplate( dataSource );
-        List entries = template.queryForList( "SELECT KEY, VALUE FROM SETTINGS_VALUES WHERE SETTINGS_ID=?",
-                new Object[] { id } );
-        for( Iterator iter = entries.iterator(); iter.hasNext(); ) {
-            Map entry = (Map) iter.next();
-            values.put(entry.get( "KEY" ), entry.get( "VALUE" ));
+    /**
+     * Reads the settings that match the condition, with their values, into the nodes map.
+     *
+     * @return the ids of the settings that were read
+     */
+    private List loadNodes( JdbcTemplate template, String condition, Object[] args, final Map nodes ) {
+        final List ids = new ArrayList();
+        template.query( LOAD_QUERY + condition, args, new RowCallbackHandler() {
+            public void processRow( ResultSet rs ) throws SQLException {
+                Integer nodeId = new Integer( rs.getInt( 1 ) );
+                LoadedNode node = (LoadedNode) nodes.get( nodeId );
+                if( node == null ) {
+                    int parentId = rs.getInt( 3 );
+                    node = new LoadedNode( rs.getString( 2 ), rs.wasNull() ? null : new Integer( parentId ) );
+                    nodes.put( nodeId, node );
+                    ids.add( nodeId );
+                }
+                String key = rs.getString( 4 );
+                if( key != null ) {
+                    node.values.put( key, rs.getString( 5 ) );
+                }
+            }
+        } );
+        return ids;
+    }
+
+    private void loaded( LoadedNode node, Map nodes, Map childrenByParent ) {
+        values.putAll( node.values );
+
+        List children = (List) childrenByParent.get( id );
+        int childCount = children == null ? 0 : children.size();
+        childKeys = new String[childCount];
+        for( int i = 0; i < childCount; i++ ) {
+            Integer childId = (Integer) children.get( i );
+            LoadedNode childNode = (LoadedNode) nodes.get( childId );
+            childKeys[i] = childNode.key;
+            JdbcSettings child = new JdbcSettings( this, dataSource, user, childId, childNode.key );
+            child.loaded( childNode, nodes, childrenByParent );
+            loadedChildren.put( childNode.key, child );
         }
     }
 
     private void loadChildKeys() {
+        if( id == null ) {
+            childKeys = new String[0];
+            return;
+        }
         JdbcTemplate template = new JdbcTemplate( dataSource );
-        List keys = template.queryForList( "SELECT KEY FROM SETTINGS WHERE PARENT=" + id, String.class );
+        List keys = template.queryForList( "SELECT KEY FROM SETTINGS WHERE PARENT=?", new Object[] { id },
+                String.class );
 
         childKeys = (String[]) keys.toArray( new String[keys.size()] );
     }
 
+    private void addChildKey( String key ) {
+        for( int i = 0; i < childKeys.length; i++ ) {
+            if( childKeys[i].equals( key ) ) {
+                return;
+            }
+        }
+        String[] newChildKeys = new String[childKeys.length + 1];
+        System.arraycopy( childKeys, 0, newChildKeys, 0, childKeys.length );
+        newChildKeys[childKeys.length] = key;
+        childKeys = newChildKeys;
+    }
+
     public String getUser() {
         return user;
     }
 
     public void internalRemoveSettings() {
-        if( id != null ) {
-            // first delete all children
-            for( int i = 0; i < childKeys.length; i++ ) {
-                getSettings(childKeys[i]).removeSettings();
+        synchronized( lock ) {
+            if( id != null ) {
+                // first delete all children
+                String[] keys = getChildSettings();
+                for( int i = 0; i < keys.length; i++ ) {
+                    getSettings( keys[i] ).removeSettings();
+                }
+
+                // now delete all values
+                JdbcTemplate template = new JdbcTemplate( dataSource );
+                template.update( "DELETE FROM SETTINGS_VALUES WHERE SETTINGS_ID=?", new Object[] { id } );
+
+                // now delete our own record
+                template.update( "DELETE FROM SETTINGS WHERE ID=?", new Object[] { id } );
+
+                id = null;
             }
 
-            // now delete all values
-            JdbcTemplate template = new JdbcTemplate( dataSource );
-            template.update( "DELETE FROM SETTINGS_VALUES WHERE SETTINGS_ID=?", new Object[] { id } );
-
-            // now delete our own record
-            template.update( "DELETE FROM SETTINGS WHERE ID=?", new Object[] { id } );
-
-            id = null;
+            values.clear();
+            remove.clear();
+            add.clear();
+            update.clear();
+            loadedChildren.clear();
+            childKeys = null;
+            removed = true;
         }
+    }
 
-        values.clear();
-        remove.clear();
-        add.clear();
-        update.clear();
+    /**
+     * A row of the SETTINGS table with its values, as read by load().
+     */
+    private static class LoadedNode {
+        private final String key;
+        private final Integer parentId;
+        private final Map values = new HashMap();
+
+        private LoadedNode( String key, Integer parentId ) {
+            this.key = key;
+            this.parentId = parentId;
+        }
     }
 }
@@ -20,6 +20,7 @@ import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -29,12 +30,18 @@ import org.springframework.richclient.settings.SettingsFactory;
 import org.springframework.util.Assert;
 
 /**
+ * Creates {@link JdbcSettings}. If a write behind delay is set, the settings are saved
+ * in the background by a shared {@link JdbcSettingsWriter}, which is flushed when the
+ * factory is destroyed.
  * 
  * @author Peter De Bruycker
  */
-public class JdbcSettingsFactory implements SettingsFactory, InitializingBean {
+public class JdbcSettingsFactory implements SettingsFactory, InitializingBean, DisposableBean {
     private DataSource dataSource;
     private UserNameProvider userNameProvider;
+    private String identityQuery;
+    private long writeBehindDelay = -1;
+    private JdbcSettingsWriter writer;
 
     public JdbcSettingsFactory() {
     }
@@ -58,15 +65,55 @@ public class JdbcSettingsFactory implements SettingsFactory, InitializingBean {
 
             JdbcSettings settings = new JdbcSettings( dataSource, userNameProvider.getUser(), (Integer) result
                     .get( "ID" ), key );
+            configure( settings );
             settings.load();
             return settings;
         } catch( IncorrectResultSizeDataAccessException e ) {
-            return new JdbcSettings( dataSource, userNameProvider.getUser(), null, key );
+            JdbcSettings settings = new JdbcSettings( dataSource, userNameProvider.getUser(), null, key );
+            configure( settings );
+            return settings;
         } catch( IOException e ) {
             throw new SettingsException( "Unable to create settings with name " + key, e );
         }
     }
 
+    private void configure( JdbcSettings settings ) {
+        settings.setIdentityQuery( identityQuery );
+        settings.setWriter( getWriter() );
+    }
+
+    private synchronized JdbcSettingsWriter getWriter() {
+        if( writer == null && writeBehindDelay >= 0 ) {
+            writer = new JdbcSettingsWriter( writeBehindDelay );
+        }
+        return writer;
+    }
+
+    /**
+     * Sets the query that returns the id of the last inserted settings, for drivers that
+     * don't support generated keys, like <code>CALL IDENTITY()</code> for HSQLDB.
+     */
+    public void setIdentityQuery( String identityQuery ) {
+        this.identityQuery = identityQuery;
+    }
+
+    public String getIdentityQuery() {
+        return identityQuery;
+    }
+
+    /**
+     * Sets the time in milliseconds that saved settings wait before they are written to
+     * the database, so settings saved together are written together. A negative delay,
+     * the default, writes the settings when they are saved.
+     */
+    public void setWriteBehindDelay( long writeBehindDelay ) {
+        this.writeBehindDelay = writeBehindDelay;
+    }
+
+    public long getWriteBehindDelay() {
+        return writeBehindDelay;
+    }
+
     public void setUserNameProvider( UserNameProvider userNameProvider ) {
         this.userNameProvider = userNameProvider;
     }
@@ -79,4 +126,14 @@ public class JdbcSettingsFactory implements SettingsFactory, InitializingBean {
         Assert.notNull( userNameProvider, "UserNameProvider must be set" );
         Assert.notNull( dataSource, "DataSource must be set" );
     }
+
+    /**
+     * Writes the settings that are still waiting to be saved.
+     */
+    public synchronized void destroy() throws Exception {
+        if( writer != null ) {
+            writer.close();
+            writer = null;
+        }
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings.jdbc;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.richclient.settings.WriteBehindScheduler;
+
+/**
+ * Saves {@link JdbcSettings} in the background. Settings that are saved while
+ * others are waiting are written together when the delay has passed, so saving
+ * many settings, like the mementos of all windows and tables, doesn't wait for the
+ * database. {@link JdbcSettingsFactory} closes its writer when it is destroyed.
+ *
+ * @see JdbcSettings#setWriter(JdbcSettingsWriter)
+ * @see WriteBehindScheduler
+ */
+public class JdbcSettingsWriter {
+    /** The default delay before queued settings are written, in milliseconds */
+    public static final long DEFAULT_DELAY = 2000;
+
+    private static final Log logger = LogFactory.getLog( JdbcSettingsWriter.class );
+
+    /** The settings waiting to be saved, parents before their children */
+    private final Set queue = new LinkedHashSet();
+
+    private final WriteBehindScheduler scheduler;
+
+    public JdbcSettingsWriter() {
+        this( DEFAULT_DELAY );
+    }
+
+    /**
+     * @param delay the time to wait for more settings before writing, in milliseconds
+     */
+    public JdbcSettingsWriter( long delay ) {
+        scheduler = new WriteBehindScheduler( "JdbcSettingsWriter", delay, new Runnable() {
+            public void run() {
+                flushQuietly();
+            }
+        } );
+    }
+
+    /**
+     * Queues settings to be saved. Saving them again before they have been written
+     * has no effect.
+     */
+    public synchronized void schedule( JdbcSettings settings ) {
+        if( scheduler.isStopped() ) {
+            throw new IllegalStateException( "The writer has been closed" );
+        }
+        // the parents are scheduled after their children, but must be inserted first
+        queue.remove( settings );
+        Set children = new LinkedHashSet( queue );
+        queue.clear();
+        queue.add( settings );
+        queue.addAll( children );
+        scheduler.schedule();
+    }
+
+    /**
+     * Returns the number of settings waiting to be saved.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Saves the waiting settings now. Settings that couldn't be saved are queued
+     * again and saved by the next flush.
+     *
+     * @throws IOException if one of the settings couldn't be saved; the others are
+     * saved anyway
+     */
+    public void flush() throws IOException {
+        JdbcSettings[] settings;
+        synchronized( this ) {
+            settings = (JdbcSettings[]) queue.toArray( new JdbcSettings[queue.size()] );
+            queue.clear();
+            scheduler.cancel();
+        }
+        if( logger.isDebugEnabled() && settings.length > 0 ) {
+            logger.debug( "Saving " + settings.length + " settings" );
+        }
+        IOException failure = null;
+        for( int i = 0; i < settings.length; i++ ) {
+            try {
+                settings[i].saveNow();
+            } catch( IOException e ) {
+                failure = e;
+                requeue( settings[i] );
+            }
+        }
+        if( failure != null ) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Keeps settings that couldn't be saved for the next flush. Their changes are
+     * kept by the settings themselves until they are saved.
+     */
+    private synchronized void requeue( JdbcSettings settings ) {
+        queue.add( settings );
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch( IOException e ) {
+            logger.error( "Unable to save settings", e );
+        }
+    }
+
+    /**
+     * Saves the waiting settings and stops the background thread.
+     *
+     * @throws IOException if one of the settings couldn't be saved
+     */
+    public void close() throws IOException {
+        synchronized( this ) {
+            if( scheduler.isStopped() ) {
+                return;
+            }
+            scheduler.stop();
+        }
+        flush();
+    }
+
+    public String toString() {
+        StringBuffer sb = new StringBuffer( "JdbcSettingsWriter[" );
+        synchronized( this ) {
+            for( Iterator iter = queue.iterator(); iter.hasNext(); ) {
+                sb.append( ((JdbcSettings) iter.next()).getName() );
+                if( iter.hasNext() ) {
+                    sb.append( ", " );
+                }
+            }
+        }
+        return sb.append( "]" ).toString();
+    }
+}
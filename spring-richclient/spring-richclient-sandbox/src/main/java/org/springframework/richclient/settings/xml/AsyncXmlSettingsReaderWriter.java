@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings.xml;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.richclient.settings.SettingsException;
+import org.springframework.richclient.settings.WriteBehindScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * <code>XmlSettingsReaderWriter</code> that writes the settings in the
+ * background with another <code>XmlSettingsReaderWriter</code>.
+ * <p>
+ * A copy of the settings is taken when they are saved, and written when the
+ * delay has passed. Settings that are saved again before that are written only
+ * once. The waiting settings are also written when the reader writer is closed.
+ *
+ * @see WriteBehindScheduler
+ */
+public class AsyncXmlSettingsReaderWriter implements XmlSettingsReaderWriter {
+	/** The default delay before saved settings are written, in milliseconds */
+	public static final long DEFAULT_DELAY = 1000;
+
+	private static final Log logger = LogFactory.getLog(AsyncXmlSettingsReaderWriter.class);
+
+	private final XmlSettingsReaderWriter readerWriter;
+
+	/** The copies of the settings waiting to be written, by name */
+	private final Map pending = new LinkedHashMap();
+
+	private final WriteBehindScheduler scheduler;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param readerWriter
+	 *            reads and writes the settings
+	 */
+	public AsyncXmlSettingsReaderWriter(XmlSettingsReaderWriter readerWriter) {
+		this(readerWriter, DEFAULT_DELAY);
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param readerWriter
+	 *            reads and writes the settings
+	 * @param delay
+	 *            the time to wait for more saves before writing, in
+	 *            milliseconds
+	 */
+	public AsyncXmlSettingsReaderWriter(XmlSettingsReaderWriter readerWriter, long delay) {
+		Assert.notNull(readerWriter, "XmlSettingsReaderWriter cannot be null");
+		this.readerWriter = readerWriter;
+		scheduler = new WriteBehindScheduler("AsyncXmlSettingsReaderWriter", delay, new Runnable() {
+			public void run() {
+				flushQuietly();
+			}
+		});
+	}
+
+	/**
+	 * Returns the <code>XmlSettingsReaderWriter</code> that reads and writes
+	 * the settings.
+	 *
+	 * @return the <code>XmlSettingsReaderWriter</code>
+	 */
+	public XmlSettingsReaderWriter getReaderWriter() {
+		return readerWriter;
+	}
+
+	public void write(RootXmlSettings settings) throws SettingsException {
+		// the document isn't thread safe, so the copy is taken now
+		RootXmlSettings snapshot = settings.createSnapshot();
+		synchronized (this) {
+			if (scheduler.isStopped()) {
+				throw new SettingsException("The reader writer has been closed", null);
+			}
+			RootXmlSettings previous = (RootXmlSettings) pending.remove(settings.getName());
+			if (previous != null) {
+				snapshot.addPreviousChanges(previous.getChanges());
+			}
+			pending.put(settings.getName(), snapshot);
+			scheduler.schedule();
+		}
+	}
+
+	/**
+	 * Writes the waiting settings first, so the settings read are up to date.
+	 */
+	public RootXmlSettings read(String key) throws SettingsException {
+		flush();
+		return readerWriter.read(key);
+	}
+
+	/**
+	 * Returns the number of settings waiting to be written.
+	 *
+	 * @return the number of settings
+	 */
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Writes the waiting settings now.
+	 *
+	 * @throws SettingsException
+	 *             if one of the settings couldn't be written; the others are
+	 *             written anyway
+	 */
+	public void flush() throws SettingsException {
+		RootXmlSettings[] snapshots;
+		synchronized (this) {
+			snapshots = (RootXmlSettings[]) pending.values().toArray(new RootXmlSettings[pending.size()]);
+			pending.clear();
+			scheduler.cancel();
+		}
+		SettingsException failure = null;
+		for (int i = 0; i < snapshots.length; i++) {
+			try {
+				readerWriter.write(snapshots[i]);
+			} catch (SettingsException e) {
+				failure = e;
+				requeue(snapshots[i]);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Keeps the changes of settings that couldn't be written for the next
+	 * write.
+	 */
+	private synchronized void requeue(RootXmlSettings snapshot) {
+		RootXmlSettings newer = (RootXmlSettings) pending.get(snapshot.getName());
+		if (newer != null) {
+			newer.addPreviousChanges(snapshot.getChanges());
+		} else {
+			pending.put(snapshot.getName(), snapshot);
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (SettingsException e) {
+			logger.error("Unable to write settings", e);
+		}
+	}
+
+	/**
+	 * Writes the waiting settings and stops the background thread.
+	 *
+	 * @throws SettingsException
+	 *             if one of the settings couldn't be written
+	 */
+	public void close() throws SettingsException {
+		synchronized (this) {
+			if (scheduler.isStopped()) {
+				return;
+			}
+			scheduler.stop();
+		}
+		flush();
+	}
+
+	public String toString() {
+		StringBuffer sb = new StringBuffer("AsyncXmlSettingsReaderWriter[");
+		synchronized (this) {
+			for (Iterator iter = pending.keySet().iterator(); iter.hasNext();) {
+				sb.append(iter.next());
+				if (iter.hasNext()) {
+					sb.append(", ");
+				}
+			}
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -17,9 +17,13 @@ package org.springframework.richclient.settings.xml;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.FactoryConfigurationError;
@@ -39,14 +43,40 @@ import org.xml.sax.SAXException;
 /**
  * <code>XmlSettingsReaderWriter</code> implementation that reads and writes
  * the xml from and to the file system.
+ * <p>
+ * The xml is written to a temporary file first, which then replaces the
+ * settings file, so a crash while writing leaves the previous settings intact.
+ * <p>
+ * If the journal is enabled, saving only appends the changes to a journal next
+ * to the settings file. The journal is replayed when the settings are read, and
+ * once it holds more changes than the compaction threshold, the settings file is
+ * written again and the journal is deleted. Each time the settings file is
+ * written it gets a new generation, and only a journal of the same generation
+ * is replayed, so a journal that wasn't deleted because of a crash doesn't
+ * undo the changes in the newer file.
  * 
  * @author Peter De Bruycker
  * 
  */
 public class FileSystemXmlSettingsReaderWriter implements XmlSettingsReaderWriter {
 
+	/** The default number of changes in a journal before the file is written again */
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 500;
+
 	private String location;
 
+	private boolean journalEnabled;
+
+	private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+	private TransformerFactory transformerFactory;
+
+	/** The number of changes in each journal, by key */
+	private Map journalSizes = new HashMap();
+
+	/** The generation of each settings file read or written, by key */
+	private Map generations = new HashMap();
+
 	/**
 	 * Creates a new instance.
 	 * 
@@ -57,33 +87,109 @@ public class FileSystemXmlSettingsReaderWriter implements XmlSettingsReaderWrite
 		this.location = location;
 	}
 
-	public void write(RootXmlSettings settings) throws SettingsException {
-		try {
-			File file = createFile(settings.getName());
-            file.getParentFile().mkdirs();
+	public synchronized void write(RootXmlSettings settings) throws SettingsException {
+		String key = settings.getName();
+		File file = createFile(key);
+		List changes = settings.getChanges();
+		String generation = (String) generations.get(key);
+		if (journalEnabled && file.exists() && generation != null) {
+			if (changes.isEmpty()) {
+				return;
+			}
+			int journalSize = getJournalSize(key) + changes.size();
+			if (journalSize <= compactionThreshold) {
+				try {
+					XmlSettingsJournal.append(createJournalFile(key), generation, changes);
+					journalSizes.put(key, new Integer(journalSize));
+					return;
+				} catch (IOException e) {
+					// the journal may be incomplete now, the whole document is written instead
+				}
+			}
+		}
+
+		generation = nextGeneration(generation);
+		Document doc = settings.getDocument();
+		doc.getDocumentElement().setAttribute(XmlSettingsJournal.GENERATION_ATTRIBUTE, generation);
+		writeDocument(doc, file);
+		generations.put(key, generation);
+
+		File journalFile = createJournalFile(key);
+		if (journalFile.exists() && !journalFile.delete()) {
+			throw new SettingsException("Unable to delete journal " + journalFile, null);
+		}
+		journalSizes.put(key, new Integer(0));
+	}
 
-			TransformerFactory.newInstance().newTransformer().transform(new DOMSource(settings.getDocument()),
-					new StreamResult(new FileOutputStream(file)));
+	private void writeDocument(Document doc, File file) throws SettingsException {
+		file.getParentFile().mkdirs();
+		File tempFile = new File(file.getPath() + ".tmp");
+		try {
+			OutputStream out = new FileOutputStream(tempFile);
+			try {
+				getTransformerFactory().newTransformer().transform(new DOMSource(doc), new StreamResult(out));
+			} finally {
+				out.close();
+			}
 		} catch (TransformerConfigurationException e) {
 			throw new SettingsException("Unable to write document", e);
 		} catch (TransformerException e) {
 			throw new SettingsException("Unable to write document", e);
 		} catch (TransformerFactoryConfigurationError e) {
 			throw new SettingsException("Unable to write document", e);
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
 			throw new SettingsException("Unable to write document", e);
 		}
+
+		// renaming doesn't replace an existing file on every platform
+		if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+			throw new SettingsException("Unable to replace " + file + " with " + tempFile, null);
+		}
+	}
+
+	private String nextGeneration(String generation) {
+		long next = System.currentTimeMillis();
+		if (generation != null) {
+			try {
+				next = Math.max(next, Long.parseLong(generation) + 1);
+			} catch (NumberFormatException e) {
+				// not written by this class, the time is used
+			}
+		}
+		return Long.toString(next);
+	}
+
+	private TransformerFactory getTransformerFactory() {
+		if (transformerFactory == null) {
+			transformerFactory = TransformerFactory.newInstance();
+		}
+		return transformerFactory;
+	}
+
+	private int getJournalSize(String key) {
+		Integer size = (Integer) journalSizes.get(key);
+		if (size != null) {
+			return size.intValue();
+		}
+		// not read by this instance, make sure it gets compacted
+		return createJournalFile(key).exists() ? compactionThreshold : 0;
 	}
 
 	/*
 	 * TODO: create DTD + validate parsing
 	 */
-	public RootXmlSettings read(String key) throws SettingsException {
+	public synchronized RootXmlSettings read(String key) throws SettingsException {
 		try {
 			File file = createFile(key);
+			File journalFile = createJournalFile(key);
 			Document doc = null;
 			if (file.exists()) {
-				doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new FileInputStream(file));
+				InputStream in = new FileInputStream(file);
+				try {
+					doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+				} finally {
+					in.close();
+				}
 			} else {
 				doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
 				Element element = doc.createElement("settings");
@@ -91,6 +197,14 @@ public class FileSystemXmlSettingsReaderWriter implements XmlSettingsReaderWrite
 				doc.appendChild(element);
 			}
 
+			// a journal left from when it was enabled is replayed as well
+			int journalSize = 0;
+			if (journalFile.exists()) {
+				journalSize = XmlSettingsJournal.replay(journalFile, doc);
+			}
+			journalSizes.put(key, new Integer(journalSize));
+			generations.put(key, doc.getDocumentElement().getAttribute(XmlSettingsJournal.GENERATION_ATTRIBUTE));
+
 			RootXmlSettings settings = new RootXmlSettings(doc, this);
 
 			return settings;
@@ -109,6 +223,10 @@ public class FileSystemXmlSettingsReaderWriter implements XmlSettingsReaderWrite
 		return new File(location, key + ".settings.xml");
 	}
 
+	private File createJournalFile(String key) {
+		return new File(location, key + ".settings.journal");
+	}
+
 	/**
 	 * Returns the current location.
 	 * 
@@ -128,4 +246,47 @@ public class FileSystemXmlSettingsReaderWriter implements XmlSettingsReaderWrite
 		this.location = location;
 	}
 
+	/**
+	 * Returns whether changes are appended to a journal instead of writing the
+	 * whole settings file.
+	 * 
+	 * @return <code>true</code> if the journal is used
+	 */
+	public boolean isJournalEnabled() {
+		return journalEnabled;
+	}
+
+	/**
+	 * Sets whether changes are appended to a journal instead of writing the
+	 * whole settings file. The default is <code>false</code>. An existing
+	 * journal is always replayed, and deleted on the next write.
+	 * 
+	 * @param journalEnabled
+	 *            <code>true</code> to use the journal
+	 */
+	public void setJournalEnabled(boolean journalEnabled) {
+		this.journalEnabled = journalEnabled;
+	}
+
+	/**
+	 * Returns the number of changes a journal can hold before the settings
+	 * file is written again.
+	 * 
+	 * @return the compaction threshold
+	 */
+	public int getCompactionThreshold() {
+		return compactionThreshold;
+	}
+
+	/**
+	 * Sets the number of changes a journal can hold before the settings file
+	 * is written again.
+	 * 
+	 * @param compactionThreshold
+	 *            the compaction threshold
+	 */
+	public void setCompactionThreshold(int compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+
 }
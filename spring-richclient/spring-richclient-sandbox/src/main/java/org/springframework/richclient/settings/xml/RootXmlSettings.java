@@ -16,6 +16,9 @@
 package org.springframework.richclient.settings.xml;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.springframework.richclient.settings.SettingsException;
 import org.springframework.util.Assert;
@@ -23,6 +26,11 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
+ * The root of a tree of <code>XmlSettings</code>, backed by one document.
+ * <p>
+ * The changes made to the settings in the tree since the last save are kept as
+ * {@link Change}s, so a reader writer can store only what has changed.
+ * 
  * @author Peter De Bruycker
  */
 public class RootXmlSettings extends XmlSettings {
@@ -30,6 +38,8 @@ public class RootXmlSettings extends XmlSettings {
 
 	private Document doc;
 
+	private List changes = new ArrayList();
+
 	public RootXmlSettings(Document doc, XmlSettingsReaderWriter readerWriter) {
 		super(getSettingsElement(doc));
 
@@ -47,6 +57,7 @@ public class RootXmlSettings extends XmlSettings {
 	public void save() throws IOException {
 		try {
 			readerWriter.write(this);
+			changes.clear();
 		} catch (SettingsException e) {
 			e.printStackTrace();
 		}
@@ -55,4 +66,86 @@ public class RootXmlSettings extends XmlSettings {
 	public Document getDocument() {
 		return doc;
 	}
+
+	/**
+	 * Returns the changes made since the last save, oldest first.
+	 * 
+	 * @return a list of {@link Change}s
+	 */
+	public List getChanges() {
+		return Collections.unmodifiableList(changes);
+	}
+
+	void changed(Change change) {
+		changes.add(change);
+	}
+
+	/**
+	 * Returns a copy of these settings that doesn't change with them, to be
+	 * written on another thread.
+	 */
+	RootXmlSettings createSnapshot() {
+		RootXmlSettings snapshot = new RootXmlSettings((Document) doc.cloneNode(true), readerWriter);
+		snapshot.changes.addAll(changes);
+		return snapshot;
+	}
+
+	/**
+	 * Adds changes that were made before the changes of these settings.
+	 */
+	void addPreviousChanges(List previousChanges) {
+		changes.addAll(0, previousChanges);
+	}
+
+	/**
+	 * A value that was set or removed, or child settings that were removed.
+	 */
+	public static final class Change {
+		/** A value was set */
+		public static final char SET = 'S';
+
+		/** A value was removed */
+		public static final char REMOVE = 'R';
+
+		/** The settings were removed */
+		public static final char REMOVE_SETTINGS = 'D';
+
+		private final char type;
+
+		private final String[] path;
+
+		private final String key;
+
+		private final String value;
+
+		Change(char type, String[] path, String key, String value) {
+			this.type = type;
+			this.path = path;
+			this.key = key;
+			this.value = value;
+		}
+
+		/**
+		 * Returns {@link #SET}, {@link #REMOVE} or {@link #REMOVE_SETTINGS}.
+		 */
+		public char getType() {
+			return type;
+		}
+
+		/**
+		 * Returns the names of the settings from the root down to the changed
+		 * settings, without the name of the root.
+		 */
+		public String[] getPath() {
+			return (String[]) path.clone();
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public String getValue() {
+			return value;
+		}
+	}
 }
@@ -97,6 +97,7 @@ public class XmlSettings extends AbstractSettings {
         entry.setAttribute("value", value);
 
         values.put(key, value);
+        changed(RootXmlSettings.Change.SET, key, value);
     }
 
     private Element findEntry(String key) {
@@ -172,6 +173,7 @@ public class XmlSettings extends AbstractSettings {
         }
 
         values.remove(key);
+        changed(RootXmlSettings.Change.REMOVE, key, null);
     }
 
     public Element getElement() {
@@ -197,5 +199,23 @@ public class XmlSettings extends AbstractSettings {
 
     public void internalRemoveSettings() {
         element.getParentNode().removeChild(element);
+        changed(RootXmlSettings.Change.REMOVE_SETTINGS, null, null);
+    }
+
+    /**
+     * Tells the root of these settings about a change, so it can be saved
+     * without writing the whole document.
+     */
+    private void changed(char type, String key, String value) {
+        List path = new ArrayList();
+        Settings settings = this;
+        while (settings.getParent() != null) {
+            path.add(0, settings.getName());
+            settings = settings.getParent();
+        }
+        if (settings instanceof RootXmlSettings) {
+            String[] names = (String[]) path.toArray(new String[path.size()]);
+            ((RootXmlSettings) settings).changed(new RootXmlSettings.Change(type, names, key, value));
+        }
     }
 }
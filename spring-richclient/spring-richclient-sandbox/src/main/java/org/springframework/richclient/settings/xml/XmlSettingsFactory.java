@@ -15,31 +15,48 @@
  */
 package org.springframework.richclient.settings.xml;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.richclient.settings.Settings;
 import org.springframework.richclient.settings.SettingsException;
 import org.springframework.richclient.settings.SettingsFactory;
 
 /**
  * <code>SettingsFactory</code> for creating <code>XmlSettings</code>.
+ * <p>
+ * The default <code>XmlSettingsReaderWriter</code> can keep a journal of the
+ * changes instead of writing the whole file on every save, and can write in the
+ * background, see {@link #setJournalEnabled(boolean)} and
+ * {@link #setWriteBehindDelay(long)}.
  * 
  * @author Peter De Bruycker
  */
-public class XmlSettingsFactory implements SettingsFactory {
+public class XmlSettingsFactory implements SettingsFactory, DisposableBean {
 	private String location;
 
 	private XmlSettingsReaderWriter readerWriter;
 
+	private boolean journalEnabled;
+
+	private long writeBehindDelay = -1;
+
 	/**
 	 * Returns the <code>XmlSettingsReaderWriter</code> used for persisting
 	 * the xml to the backing store. If no <code>XmlSettingsReaderWriter</code>
 	 * was set, the default (<code>FileSystemXmlSettingsReaderWriter</code>)
-	 * will be used.
+	 * will be used, wrapped in an <code>AsyncXmlSettingsReaderWriter</code>
+	 * if a write behind delay is set.
 	 * 
 	 * @return the <code>XmlSettingsReaderWriter</code>
 	 */
 	public XmlSettingsReaderWriter getReaderWriter() {
 		if (readerWriter == null) {
-			readerWriter = new FileSystemXmlSettingsReaderWriter(getLocation());
+			FileSystemXmlSettingsReaderWriter fileSystemReaderWriter = new FileSystemXmlSettingsReaderWriter(
+					getLocation());
+			fileSystemReaderWriter.setJournalEnabled(journalEnabled);
+			readerWriter = fileSystemReaderWriter;
+			if (writeBehindDelay >= 0) {
+				readerWriter = new AsyncXmlSettingsReaderWriter(fileSystemReaderWriter, writeBehindDelay);
+			}
 		}
 
 		return readerWriter;
@@ -82,4 +99,59 @@ public class XmlSettingsFactory implements SettingsFactory {
 	public void setLocation(String location) {
 		this.location = location;
 	}
+
+	/**
+	 * Returns whether the default <code>XmlSettingsReaderWriter</code> keeps
+	 * a journal of the changes.
+	 * 
+	 * @return <code>true</code> if the journal is used
+	 */
+	public boolean isJournalEnabled() {
+		return journalEnabled;
+	}
+
+	/**
+	 * Sets whether the default <code>XmlSettingsReaderWriter</code> appends
+	 * the changes to a journal instead of writing the whole file on every save.
+	 * 
+	 * @param journalEnabled
+	 *            <code>true</code> to use the journal
+	 * @see FileSystemXmlSettingsReaderWriter#setJournalEnabled(boolean)
+	 */
+	public void setJournalEnabled(boolean journalEnabled) {
+		this.journalEnabled = journalEnabled;
+	}
+
+	/**
+	 * Returns the time saved settings wait before they are written, in
+	 * milliseconds.
+	 * 
+	 * @return the write behind delay, negative if settings are written when
+	 *         they are saved
+	 */
+	public long getWriteBehindDelay() {
+		return writeBehindDelay;
+	}
+
+	/**
+	 * Sets the time saved settings wait before the default
+	 * <code>XmlSettingsReaderWriter</code> writes them in the background, in
+	 * milliseconds. A negative delay, the default, writes the settings when
+	 * they are saved.
+	 * 
+	 * @param writeBehindDelay
+	 *            the write behind delay
+	 */
+	public void setWriteBehindDelay(long writeBehindDelay) {
+		this.writeBehindDelay = writeBehindDelay;
+	}
+
+	/**
+	 * Writes the settings that are still waiting to be written.
+	 */
+	public void destroy() throws Exception {
+		if (readerWriter instanceof AsyncXmlSettingsReaderWriter) {
+			((AsyncXmlSettingsReaderWriter) readerWriter).close();
+		}
+	}
 }
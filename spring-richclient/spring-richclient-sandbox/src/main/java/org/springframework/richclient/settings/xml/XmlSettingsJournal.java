@@ -0,0 +1,296 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Reads and writes the journal of a settings file: the changes made since the
+ * file was last written, one line per {@link RootXmlSettings.Change}.
+ * <p>
+ * The first line holds the generation of the settings file the journal belongs
+ * to, which the file stores in the {@link #GENERATION_ATTRIBUTE} of its root
+ * element. The file gets a new generation each time it is written, so a
+ * journal that wasn't deleted after the file was written again is not replayed
+ * over the newer values.
+ * <p>
+ * The fields of a line are separated by tabs: the type, the number of names in
+ * the path, the names, and for values the key and the value. Tabs, line breaks
+ * and backslashes are escaped with a backslash. A line is only replayed when it
+ * is complete, so a journal that was cut off while it was appended to is still
+ * read; the incomplete line is cut from the file, so the next changes aren't
+ * appended to it.
+ *
+ * @see FileSystemXmlSettingsReaderWriter#setJournalEnabled(boolean)
+ */
+final class XmlSettingsJournal {
+	/** The attribute of the root element that holds the generation of the file */
+	static final String GENERATION_ATTRIBUTE = "generation";
+
+	private static final String ENCODING = "UTF-8";
+
+	private static final char GENERATION = 'G';
+
+	private XmlSettingsJournal() {
+	}
+
+	/**
+	 * Appends the changes to the journal, and starts a new journal with the
+	 * generation of the settings file.
+	 *
+	 * @param file the journal file
+	 * @param generation the generation of the settings file
+	 * @param changes the {@link RootXmlSettings.Change}s
+	 */
+	static void append(File file, String generation, List changes) throws IOException {
+		StringBuffer sb = new StringBuffer();
+		if (file.length() == 0) {
+			sb.append(GENERATION).append('\t');
+			escape(generation, sb);
+			sb.append('\n');
+		}
+		for (Iterator iter = changes.iterator(); iter.hasNext();) {
+			RootXmlSettings.Change change = (RootXmlSettings.Change) iter.next();
+			String[] path = change.getPath();
+			sb.append(change.getType()).append('\t').append(path.length);
+			for (int i = 0; i < path.length; i++) {
+				sb.append('\t');
+				escape(path[i], sb);
+			}
+			if (change.getType() != RootXmlSettings.Change.REMOVE_SETTINGS) {
+				sb.append('\t');
+				escape(change.getKey(), sb);
+			}
+			if (change.getType() == RootXmlSettings.Change.SET) {
+				sb.append('\t');
+				escape(change.getValue(), sb);
+			}
+			sb.append('\n');
+		}
+
+		OutputStream out = new FileOutputStream(file, true);
+		try {
+			out.write(sb.toString().getBytes(ENCODING));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Replays the changes in the journal on the document, and cuts an
+	 * incomplete last line from the journal. A journal of another generation
+	 * than the document is deleted instead.
+	 *
+	 * @param file the journal file
+	 * @param doc the document read from the settings file
+	 * @return the number of changes replayed
+	 */
+	static int replay(File file, Document doc) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[4096];
+			for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+				bytes.write(buffer, 0, n);
+			}
+		} finally {
+			in.close();
+		}
+		byte[] content = bytes.toByteArray();
+		int length = content.length;
+		while (length > 0 && content[length - 1] != '\n') {
+			length--;
+		}
+		if (length < content.length) {
+			truncate(file, length);
+		}
+		String journal = new String(content, 0, length, ENCODING);
+		if (journal.length() == 0) {
+			return 0;
+		}
+
+		int start = journal.indexOf('\n') + 1;
+		StringBuffer header = new StringBuffer().append(GENERATION).append('\t');
+		escape(doc.getDocumentElement().getAttribute(GENERATION_ATTRIBUTE), header);
+		if (!journal.substring(0, start - 1).equals(header.toString())) {
+			// left behind when the file was written again
+			if (!file.delete()) {
+				throw new IOException("Unable to delete journal " + file);
+			}
+			return 0;
+		}
+
+		int count = 0;
+		for (int end = journal.indexOf('\n', start); end != -1; end = journal.indexOf('\n', start)) {
+			if (replay(journal.substring(start, end), doc)) {
+				count++;
+			}
+			start = end + 1;
+		}
+		return count;
+	}
+
+	private static void truncate(File file, int length) throws IOException {
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.setLength(length);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static boolean replay(String line, Document doc) {
+		String[] fields = line.split("\t", -1);
+		if (fields.length < 2 || fields[0].length() != 1) {
+			return false;
+		}
+		char type = fields[0].charAt(0);
+		int pathLength;
+		try {
+			pathLength = Integer.parseInt(fields[1]);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		int expected = 2 + pathLength;
+		if (type == RootXmlSettings.Change.SET) {
+			expected += 2;
+		} else if (type == RootXmlSettings.Change.REMOVE) {
+			expected += 1;
+		} else if (type != RootXmlSettings.Change.REMOVE_SETTINGS) {
+			return false;
+		}
+		if (pathLength < 0 || fields.length != expected) {
+			return false;
+		}
+
+		Element element = doc.getDocumentElement();
+		for (int i = 0; i < pathLength && element != null; i++) {
+			element = findChild(element, "settings", "name", unescape(fields[2 + i]),
+					type != RootXmlSettings.Change.REMOVE_SETTINGS);
+		}
+		if (element == null) {
+			return true;
+		}
+
+		if (type == RootXmlSettings.Change.REMOVE_SETTINGS) {
+			if (element == doc.getDocumentElement()) {
+				removeChildren(element);
+			} else {
+				element.getParentNode().removeChild(element);
+			}
+		} else {
+			String key = unescape(fields[2 + pathLength]);
+			Element entry = findChild(element, "entry", "key", key, type == RootXmlSettings.Change.SET);
+			if (type == RootXmlSettings.Change.SET) {
+				entry.setAttribute("value", unescape(fields[3 + pathLength]));
+			} else if (entry != null) {
+				element.removeChild(entry);
+			}
+		}
+		return true;
+	}
+
+	private static Element findChild(Element parent, String nodeName, String attribute, String value, boolean create) {
+		NodeList childNodes = parent.getChildNodes();
+		for (int i = 0; i < childNodes.getLength(); i++) {
+			Node node = childNodes.item(i);
+			if (node instanceof Element && node.getNodeName().equals(nodeName)
+					&& ((Element) node).getAttribute(attribute).equals(value)) {
+				return (Element) node;
+			}
+		}
+		if (!create) {
+			return null;
+		}
+		Element child = parent.getOwnerDocument().createElement(nodeName);
+		child.setAttribute(attribute, value);
+		parent.appendChild(child);
+		return child;
+	}
+
+	private static void removeChildren(Element element) {
+		List children = new ArrayList();
+		NodeList childNodes = element.getChildNodes();
+		for (int i = 0; i < childNodes.getLength(); i++) {
+			children.add(childNodes.item(i));
+		}
+		for (Iterator iter = children.iterator(); iter.hasNext();) {
+			element.removeChild((Node) iter.next());
+		}
+	}
+
+	private static void escape(String s, StringBuffer sb) {
+		if (s == null) {
+			return;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			default:
+				sb.append(c);
+			}
+		}
+	}
+
+	private static String unescape(String s) {
+		if (s.indexOf('\\') == -1) {
+			return s;
+		}
+		StringBuffer sb = new StringBuffer(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '\\' && i + 1 < s.length()) {
+				c = s.charAt(++i);
+				if (c == 't') {
+					c = '\t';
+				} else if (c == 'n') {
+					c = '\n';
+				} else if (c == 'r') {
+					c = '\r';
+				}
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}
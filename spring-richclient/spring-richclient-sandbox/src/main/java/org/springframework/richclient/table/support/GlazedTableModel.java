@@ -15,6 +15,7 @@
  */
 package org.springframework.richclient.table.support;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.Comparator;
 import java.util.HashMap;
 
@@ -29,8 +30,11 @@ import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.binding.form.FieldFaceSource;
 import org.springframework.richclient.application.ApplicationServicesLocator;
+import org.springframework.richclient.widget.table.Accessor;
+import org.springframework.richclient.widget.table.AccessorFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * <code>TableModel</code> that accepts a <code>EventList</code>.
@@ -44,6 +48,9 @@ import org.springframework.util.ClassUtils;
  * <p>
  * Column header text is generated from the column property names in the method {@link createColumnNames}. Using the
  * field face source configured, or the default application field face source if none was configured.
+ * <p>
+ * Column values are read through the shared {@link Accessor}s of the {@link AccessorFactory}, property names that
+ * these can't read (e.g. indexed properties) are read through a {@link BeanWrapper}.
  * 
  * @author Peter De Bruycker
  * @author Larry Streepy
@@ -59,6 +66,12 @@ public class GlazedTableModel extends EventTableModel {
 
     private final String columnPropertyNames[];
 
+    /** Per column, the accessor used for the last row or <code>null</code>. */
+    private final Accessor columnAccessors[];
+
+    /** Per column, the type of the row for which the accessor was looked up. */
+    private final Class columnAccessorTypes[];
+
     private final String modelId;
 
     private FieldFaceSource fieldFaceSource;;
@@ -108,6 +121,8 @@ public class GlazedTableModel extends EventTableModel {
         Assert.notEmpty(columnPropertyNames, "ColumnPropertyNames parameter cannot be null.");
         this.modelId = modelId;
         this.columnPropertyNames = columnPropertyNames;
+        this.columnAccessors = new Accessor[columnPropertyNames.length];
+        this.columnAccessorTypes = new Class[columnPropertyNames.length];
         setTableFormat(createTableFormat());
     }
 
@@ -123,8 +138,37 @@ public class GlazedTableModel extends EventTableModel {
     }
 
     protected Object getColumnValue(Object row, int column) {
-        beanWrapper.setWrappedInstance(row);
-        return beanWrapper.getPropertyValue(columnPropertyNames[column]);
+        Accessor accessor = getColumnAccessor(row, column);
+        if (accessor == null) {
+            beanWrapper.setWrappedInstance(row);
+            return beanWrapper.getPropertyValue(columnPropertyNames[column]);
+        }
+        try {
+            return accessor.getValue(row);
+        }
+        catch (IllegalAccessException e) {
+            ReflectionUtils.handleReflectionException(e);
+        }
+        catch (InvocationTargetException e) {
+            ReflectionUtils.handleInvocationTargetException(e);
+        }
+        throw new IllegalStateException("Should never get here");
+    }
+
+    /**
+     * Returns the accessor for the given column and the type of the given row, or <code>null</code> if the bean
+     * wrapper must be used. The lookup is only repeated when the type of the row changes.
+     */
+    private Accessor getColumnAccessor(Object row, int column) {
+        if (row == null) {
+            return null;
+        }
+        Class rowType = row.getClass();
+        if (columnAccessorTypes[column] != rowType) {
+            columnAccessors[column] = AccessorFactory.findAccessor(rowType, columnPropertyNames[column]);
+            columnAccessorTypes[column] = rowType;
+        }
+        return columnAccessors[column];
     }
 
     protected String[] getColumnLabels() {
@@ -15,6 +15,8 @@
  */
 package org.springframework.richclient.settings.jdbc;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -74,7 +76,130 @@ public class JdbcSettingsTests extends SettingsAbstractTests {
     }
 
     public void testLoadHierarchy() throws Exception {
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, USER) VALUES (10, 'test-key', 'test-user')");
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, PARENT, USER) VALUES (11, 'child', 10, 'test-user')");
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, PARENT, USER) VALUES (12, 'grandchild', 11, 'test-user')");
+        jdbcTemplate.execute("INSERT INTO SETTINGS_VALUES (SETTINGS_ID, KEY, VALUE) VALUES (10, 'key0', 'true')");
+        jdbcTemplate.execute("INSERT INTO SETTINGS_VALUES (SETTINGS_ID, KEY, VALUE) VALUES (12, 'key1', '25')");
 
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", Integer.valueOf(10), "test-key");
+        settings.load();
+
+        // the whole tree is read by load(), later changes to the tables aren't seen
+        jdbcTemplate.execute("DELETE FROM SETTINGS_VALUES");
+
+        assertTrue(settings.getBoolean("key0"));
+        assertEquals(1, settings.getChildSettings().length);
+        JdbcSettings child = (JdbcSettings) settings.getSettings("child");
+        assertEquals(Integer.valueOf(11), child.getId());
+        assertEquals(0, child.getKeys().length);
+        JdbcSettings grandchild = (JdbcSettings) child.getSettings("grandchild");
+        assertEquals(Integer.valueOf(12), grandchild.getId());
+        assertEquals(25, grandchild.getInt("key1"));
+    }
+
+    public void testLoadOnlyReadsOwnTree() throws Exception {
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, USER) VALUES (10, 'test-key', 'test-user')");
+        for (int i = 0; i < 150; i++) {
+            jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, PARENT, USER) VALUES (" + (100 + i) + ", 'child" + i
+                    + "', 10, 'test-user')");
+            jdbcTemplate.execute("INSERT INTO SETTINGS_VALUES (SETTINGS_ID, KEY, VALUE) VALUES (" + (100 + i)
+                    + ", 'index', '" + i + "')");
+        }
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, USER) VALUES (20, 'other-key', 'test-user')");
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, PARENT, USER) VALUES (21, 'other-child', 20, 'test-user')");
+
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", Integer.valueOf(10), "test-key");
+        settings.load();
+        jdbcTemplate.execute("DELETE FROM SETTINGS_VALUES");
+
+        assertEquals(150, settings.getChildSettings().length);
+        for (int i = 0; i < 150; i++) {
+            JdbcSettings child = (JdbcSettings) settings.getSettings("child" + i);
+            assertEquals(Integer.valueOf(100 + i), child.getId());
+            assertEquals(i, child.getInt("index"));
+        }
+        assertFalse(Arrays.asList(settings.getChildSettings()).contains("other-child"));
+    }
+
+    public void testSaveChangedValues() throws Exception {
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", null, "test-key");
+        settings.setString("changed", "old");
+        settings.setString("removed", "value");
+        settings.save();
+
+        settings.setString("changed", "new");
+        settings.remove("removed");
+        settings.setString("added", "value");
+        settings.save();
+
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS_VALUES"));
+        assertEquals("new", jdbcTemplate.queryForObject("SELECT VALUE FROM SETTINGS_VALUES WHERE KEY='changed'",
+                String.class));
+        assertEquals("value", jdbcTemplate.queryForObject("SELECT VALUE FROM SETTINGS_VALUES WHERE KEY='added'",
+                String.class));
+    }
+
+    public void testIdentityQuery() throws Exception {
+        jdbcTemplate.execute("INSERT INTO SETTINGS (ID, KEY, USER) VALUES (20, 'other-key', 'other-user')");
+
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", null, "test-key");
+        settings.setIdentityQuery("CALL IDENTITY()");
+        settings.setString("string", "value");
+        JdbcSettings childSettings = (JdbcSettings) settings.getSettings("child");
+        assertEquals("CALL IDENTITY()", childSettings.getIdentityQuery());
+        childSettings.save();
+
+        assertEquals(Integer.valueOf(21), settings.getId());
+        assertEquals(Integer.valueOf(22), childSettings.getId());
+        assertEquals(Integer.valueOf(21), jdbcTemplate.queryForObject("SELECT PARENT FROM SETTINGS WHERE ID=22",
+                Integer.class));
+    }
+
+    public void testWriteBehind() throws Exception {
+        JdbcSettingsWriter writer = new JdbcSettingsWriter(60000);
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", null, "test-key");
+        settings.setWriter(writer);
+        settings.setString("string", "value");
+        JdbcSettings childSettings = (JdbcSettings) settings.getSettings("child");
+        childSettings.setString("string", "value");
+
+        childSettings.save();
+        settings.save();
+        assertEquals(2, writer.getQueueSize());
+        assertEquals(0, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS"));
+
+        writer.close();
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS"));
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS_VALUES"));
+        assertEquals(settings.getId(), jdbcTemplate.queryForObject("SELECT PARENT FROM SETTINGS WHERE ID=?",
+                new Object[] { childSettings.getId() }, Integer.class));
+    }
+
+    public void testFailedWriteIsQueuedAgain() throws Exception {
+        JdbcSettingsWriter writer = new JdbcSettingsWriter(60000);
+        JdbcSettings settings = new JdbcSettings(dataSource, "test-user", null, "test-key");
+        settings.setWriter(writer);
+        settings.setString("string", "value");
+        JdbcSettings childSettings = (JdbcSettings) settings.getSettings("child");
+        childSettings.setString("string", "value");
+        childSettings.save();
+
+        jdbcTemplate.execute("DROP TABLE SETTINGS_VALUES");
+        try {
+            writer.flush();
+            fail("the values can't be inserted");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals("failed settings must be queued again", 2, writer.getQueueSize());
+
+        jdbcTemplate.execute("CREATE TABLE SETTINGS_VALUES (SETTINGS_ID INTEGER NOT NULL, KEY VARCHAR(250) NOT NULL, VALUE VARCHAR(250), PRIMARY KEY(SETTINGS_ID,KEY), CONSTRAINT SYS_FK_48 FOREIGN KEY(SETTINGS_ID) REFERENCES SETTINGS(ID))");
+        writer.close();
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS"));
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT count(*) FROM SETTINGS_VALUES"));
     }
 
     public void testSaveHierarchy() throws Exception {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings.xml;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.TestCase;
+
+import org.springframework.richclient.settings.SettingsException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class AsyncXmlSettingsReaderWriterTests extends TestCase {
+	private TestableXmlSettingsReaderWriter target;
+
+	private AsyncXmlSettingsReaderWriter readerWriter;
+
+	private RootXmlSettings settings;
+
+	protected void setUp() throws Exception {
+		target = new TestableXmlSettingsReaderWriter();
+		readerWriter = new AsyncXmlSettingsReaderWriter(target, 60000);
+
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element element = doc.createElement("settings");
+		element.setAttribute("name", "user");
+		doc.appendChild(element);
+		settings = new RootXmlSettings(doc, readerWriter);
+	}
+
+	protected void tearDown() throws Exception {
+		readerWriter.close();
+	}
+
+	public void testSavesAreCoalesced() throws Exception {
+		settings.setString("key", "value");
+		settings.save();
+		settings.getSettings("child").setInt("width", 25);
+		settings.getSettings("child").save();
+
+		assertNull("written before the delay", target.getLastWritten());
+		assertEquals(1, readerWriter.getPendingCount());
+
+		readerWriter.flush();
+		RootXmlSettings written = target.getLastWritten();
+		assertNotSame(settings, written);
+		assertEquals("value", written.getString("key"));
+		assertEquals(25, written.getSettings("child").getInt("width"));
+		assertEquals("changes of both saves", 2, written.getChanges().size());
+		assertEquals(0, readerWriter.getPendingCount());
+	}
+
+	public void testWrittenCopyIsNotChanged() throws Exception {
+		settings.setString("key", "value");
+		settings.save();
+		settings.setString("key", "changed after save");
+
+		readerWriter.flush();
+		assertEquals("value", target.getLastWritten().getString("key"));
+	}
+
+	public void testReadWritesPendingSettings() throws Exception {
+		settings.save();
+		readerWriter.read("user");
+
+		assertNotNull(target.getLastWritten());
+		assertEquals("user", target.getLastRead());
+	}
+
+	public void testClose() throws Exception {
+		settings.save();
+		readerWriter.close();
+
+		assertNotNull(target.getLastWritten());
+		try {
+			readerWriter.write(settings);
+			fail("closed reader writer must not accept settings");
+		} catch (SettingsException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.springframework.richclient.settings.xml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+import junit.framework.TestCase;
+
+import org.springframework.richclient.settings.Settings;
+
+public class FileSystemXmlSettingsReaderWriterTests extends TestCase {
+	private File location;
+
+	private FileSystemXmlSettingsReaderWriter readerWriter;
+
+	protected void setUp() throws Exception {
+		location = File.createTempFile("settings", "");
+		location.delete();
+		location.mkdirs();
+		readerWriter = new FileSystemXmlSettingsReaderWriter(location.getPath());
+	}
+
+	protected void tearDown() throws Exception {
+		File[] files = location.listFiles();
+		for (int i = 0; i < files.length; i++) {
+			files[i].delete();
+		}
+		location.delete();
+	}
+
+	public void testWriteAndRead() throws Exception {
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.setString("key", "value");
+		settings.getSettings("child").setInt("width", 25);
+		settings.getSettings("child").save();
+
+		assertTrue(new File(location, "user.settings.xml").exists());
+		assertFalse("temporary file not renamed", new File(location, "user.settings.xml.tmp").exists());
+
+		settings.setString("key", "other value");
+		settings.save();
+
+		RootXmlSettings read = readerWriter.read("user");
+		assertEquals("other value", read.getString("key"));
+		assertEquals(25, read.getSettings("child").getInt("width"));
+	}
+
+	public void testJournal() throws Exception {
+		readerWriter.setJournalEnabled(true);
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.setString("key", "value");
+		settings.setString("removed", "value");
+		settings.save();
+		File file = new File(location, "user.settings.xml");
+		File journal = new File(location, "user.settings.journal");
+		assertTrue(file.exists());
+		assertFalse(journal.exists());
+		long length = file.length();
+
+		Settings child = settings.getSettings("child");
+		child.setString("tab\tand\nnewline", "a\\b");
+		child.getSettings("grandchild").setInt("width", 25);
+		settings.remove("removed");
+		settings.getSettings("other").setString("key", "value");
+		settings.getSettings("other").removeSettings();
+		child.save();
+
+		assertTrue(journal.exists());
+		assertEquals("settings file rewritten", length, file.length());
+
+		RootXmlSettings read = readerWriter.read("user");
+		assertEquals("value", read.getString("key"));
+		assertFalse(read.contains("removed"));
+		assertEquals("a\\b", read.getSettings("child").getString("tab\tand\nnewline"));
+		assertEquals(25, read.getSettings("child").getSettings("grandchild").getInt("width"));
+		assertEquals(1, read.getChildSettings().length);
+	}
+
+	public void testJournalIsCompacted() throws Exception {
+		readerWriter.setJournalEnabled(true);
+		readerWriter.setCompactionThreshold(3);
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.save();
+		File journal = new File(location, "user.settings.journal");
+
+		settings.setInt("a", 1);
+		settings.setInt("b", 2);
+		settings.save();
+		assertTrue(journal.exists());
+
+		settings.setInt("c", 3);
+		settings.setInt("d", 4);
+		settings.save();
+		assertFalse("journal not compacted", journal.exists());
+
+		RootXmlSettings read = readerWriter.read("user");
+		assertEquals(1, read.getInt("a"));
+		assertEquals(4, read.getInt("d"));
+	}
+
+	public void testJournalLeftByCrashIsNotReplayed() throws Exception {
+		readerWriter.setJournalEnabled(true);
+		readerWriter.setCompactionThreshold(1);
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.save();
+		settings.setInt("a", 1);
+		settings.save();
+		File journal = new File(location, "user.settings.journal");
+		byte[] oldJournal = readFile(journal);
+
+		settings.setInt("a", 2);
+		settings.save();
+		assertFalse("journal not compacted", journal.exists());
+
+		// a crash between writing the file and deleting the journal
+		FileOutputStream out = new FileOutputStream(journal);
+		out.write(oldJournal);
+		out.close();
+
+		RootXmlSettings read = new FileSystemXmlSettingsReaderWriter(location.getPath()).read("user");
+		assertEquals("old journal replayed", 2, read.getInt("a"));
+		assertFalse("old journal not deleted", journal.exists());
+	}
+
+	public void testJournalIsReplayedAfterItIsDisabled() throws Exception {
+		readerWriter.setJournalEnabled(true);
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.setString("key", "value");
+		settings.save();
+		settings.setString("key", "journaled");
+		settings.save();
+		File journal = new File(location, "user.settings.journal");
+		assertTrue(journal.exists());
+
+		readerWriter = new FileSystemXmlSettingsReaderWriter(location.getPath());
+		RootXmlSettings read = readerWriter.read("user");
+		assertEquals("journaled", read.getString("key"));
+
+		read.setString("other", "value");
+		read.save();
+		assertFalse("journal not deleted", journal.exists());
+		read = readerWriter.read("user");
+		assertEquals("journaled", read.getString("key"));
+		assertEquals("value", read.getString("other"));
+	}
+
+	public void testIncompleteJournalLineIsIgnored() throws Exception {
+		readerWriter.setJournalEnabled(true);
+		RootXmlSettings settings = readerWriter.read("user");
+		settings.setString("key", "value");
+		settings.save();
+		settings.setString("key", "journaled");
+		settings.save();
+
+		FileOutputStream out = new FileOutputStream(new File(location, "user.settings.journal"), true);
+		out.write("S\t0\tkey\tcut off".getBytes("UTF-8"));
+		out.close();
+
+		RootXmlSettings read = readerWriter.read("user");
+		assertEquals("journaled", read.getString("key"));
+
+		read.setString("other", "appended");
+		read.save();
+		read = readerWriter.read("user");
+		assertEquals("journaled", read.getString("key"));
+		assertEquals("change appended after the incomplete line", "appended", read.getString("other"));
+	}
+
+	private byte[] readFile(File file) throws Exception {
+		byte[] content = new byte[(int) file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			in.read(content);
+		} finally {
+			in.close();
+		}
+		return content;
+	}
+}